@@ -0,0 +1,50 @@
+package br.ifsp.film_catalog.config;
+
+import br.ifsp.film_catalog.service.ContentFlagService;
+import br.ifsp.film_catalog.service.FlagEvaluationPipeline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Brings review flag counts back in step with the flag table on startup.
+ * The denormalized {@code flag_count} of every review is recounted from its evaluated flags and the
+ * auto-hide threshold applied again; set {@code app.reviews.flags.resync-on-startup=false} to skip
+ * this on large databases. Flags left unevaluated by the previous instance are then queued again.
+ */
+@Component
+@Order(3)
+public class FlagCountInitializer implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(FlagCountInitializer.class);
+
+    private final ContentFlagService contentFlagService;
+    private final FlagEvaluationPipeline flagEvaluationPipeline;
+
+    @Value("${app.reviews.flags.resync-on-startup:true}")
+    private boolean resyncOnStartup = true;
+
+    @Value("${app.reviews.flags.recover-chunk-size:1000}")
+    private int recoverChunkSize = 1000;
+
+    public FlagCountInitializer(ContentFlagService contentFlagService, FlagEvaluationPipeline flagEvaluationPipeline) {
+        this.contentFlagService = contentFlagService;
+        this.flagEvaluationPipeline = flagEvaluationPipeline;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        if (resyncOnStartup) {
+            log.info("--- RESYNCING REVIEW FLAG COUNTS ---");
+            int updated = contentFlagService.resyncFlagCounts();
+            log.info("--- FLAG COUNTS RESYNCED ({} reviews) ---", updated);
+        }
+        int recovered = flagEvaluationPipeline.recover(recoverChunkSize);
+        if (recovered > 0) {
+            log.info("--- {} UNEVALUATED FLAGS QUEUED AGAIN ---", recovered);
+        }
+    }
+}
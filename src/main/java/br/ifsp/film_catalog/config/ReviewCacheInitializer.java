@@ -0,0 +1,59 @@
+package br.ifsp.film_catalog.config;
+
+import br.ifsp.film_catalog.model.Review;
+import br.ifsp.film_catalog.repository.ReviewRepository;
+import br.ifsp.film_catalog.service.ReviewSearchIndex;
+import br.ifsp.film_catalog.service.ReviewService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Warms the in-memory review structures from the database on startup.
+ * Reviews are read in id order, one chunk per query, so the whole table is never held in memory at once.
+ */
+@Component
+@Order(4)
+public class ReviewCacheInitializer implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewCacheInitializer.class);
+
+    private final ReviewRepository reviewRepository;
+    private final ReviewSearchIndex reviewSearchIndex;
+    private final ReviewService reviewService;
+
+    @Value("${app.reviews.cache.load-chunk-size:1000}")
+    private int chunkSize;
+
+    public ReviewCacheInitializer(ReviewRepository reviewRepository,
+                                  ReviewSearchIndex reviewSearchIndex,
+                                  ReviewService reviewService) {
+        this.reviewRepository = reviewRepository;
+        this.reviewSearchIndex = reviewSearchIndex;
+        this.reviewService = reviewService;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        log.info("--- BUILDING REVIEW SEARCH INDEX ---");
+        long lastId = 0L;
+        List<Review> chunk;
+        do {
+            chunk = reviewRepository.findByHiddenFalseAndIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, chunkSize));
+            for (Review review : chunk) {
+                reviewSearchIndex.index(review.getId(), review.getContent());
+                lastId = review.getId();
+            }
+        } while (chunk.size() == chunkSize);
+        log.info("--- REVIEW SEARCH INDEX READY ({} reviews) ---", reviewSearchIndex.size());
+
+        reviewService.loadRecentReviews();
+        log.info("--- RECENT REVIEWS FEED LOADED ---");
+    }
+}
@@ -48,15 +48,18 @@ public class SecurityConfig {
 
                     // UserController
                     .requestMatchers(HttpMethod.POST, "/api/users/register").permitAll() //
+                    .requestMatchers(HttpMethod.GET, "/api/users/availability").permitAll() // Registration form checks, rate limited per client address
                     .requestMatchers(HttpMethod.GET, "/api/users", "/api/users/", "/api/users/search/by-username").hasRole("ADMIN") // Based on @PreAuthorize("hasRole('ADMIN')") in UserController for getAllUsers and preAuthorize for getUserByUsername with ADMIN role
                     .requestMatchers(HttpMethod.POST, "/api/users", "/api/users/").hasRole("ADMIN") // Based on @PreAuthorize("hasRole('ADMIN')") in UserController for createUserByAdmin
                     .requestMatchers(HttpMethod.PUT, "/api/users/{id}").hasRole("ADMIN") // Based on @PreAuthorize("hasRole('ADMIN')") in UserController for updateUser
                     .requestMatchers(HttpMethod.DELETE, "/api/users/{id}").hasRole("ADMIN") // Based on @PreAuthorize("hasRole('ADMIN')") in UserController for deleteUser
+                    .requestMatchers(HttpMethod.GET, "/api/users/{id}/deletion/{jobId}").hasRole("ADMIN") // Based on @PreAuthorize("hasRole('ADMIN')") in UserController for getUserDeletion
                     .requestMatchers(HttpMethod.GET, "/api/users/{id}").hasAnyRole("ADMIN", "USER") // @PreAuthorize("hasRole('ADMIN') or @securityService.isOwner(authentication, #id)") - simplified to authenticated user for now, specific ownership check is done by @PreAuthorize
                     .requestMatchers(HttpMethod.PATCH, "/api/users/{id}").hasAnyRole("ADMIN", "USER") // @PreAuthorize("hasRole('ADMIN') or @securityService.isOwner(authentication, #id)") - simplified
                     .requestMatchers("/api/users/{userId}/favorites/**").hasAnyRole("ADMIN", "USER") // @PreAuthorize for add/remove/get favorite movies
                     .requestMatchers("/api/users/{userId}/watched/**").hasAnyRole("ADMIN", "USER") // @PreAuthorize for add/remove/get watched movies
                     .requestMatchers("/api/users/{userId}/recommendations").authenticated() // Authenticated users can get recommendations
+                    .requestMatchers(HttpMethod.GET, "/api/users/{userId}/summary").hasAnyRole("ADMIN", "USER") // @PreAuthorize checks ownership
 
 
                     // MovieController - Admin-only operations based on @PreAuthorize("hasRole('ADMIN')")
@@ -95,6 +98,9 @@ public class SecurityConfig {
                     .requestMatchers("/api/moderation/**").hasRole("ADMIN") //
 
 
+                    // SharedWatchlistController - Anyone with a share token, rate limited per client address
+                    .requestMatchers(HttpMethod.GET, "/api/public/watchlists/{shareToken}").permitAll()
+
                     // WatchlistController - Endpoints have specific @PreAuthorize checks.
                     .requestMatchers("/api/users/{userId}/watchlists/**").authenticated() // All watchlist operations require authentication, further checks by @PreAuthorize.
                     .anyRequest().authenticated() // Default for any other unlisted endpoint
@@ -0,0 +1,31 @@
+package br.ifsp.film_catalog.config;
+
+import br.ifsp.film_catalog.service.UserAvailabilityService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Loads the username and email availability filter once the seed users exist.
+ */
+@Component
+@Order(5)
+public class UserAvailabilityInitializer implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(UserAvailabilityInitializer.class);
+
+    private final UserAvailabilityService userAvailabilityService;
+
+    public UserAvailabilityInitializer(UserAvailabilityService userAvailabilityService) {
+        this.userAvailabilityService = userAvailabilityService;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        log.info("--- LOADING USER AVAILABILITY FILTER ---");
+        userAvailabilityService.load();
+        log.info("--- USER AVAILABILITY FILTER READY ---");
+    }
+}
@@ -1,20 +1,29 @@
 package br.ifsp.film_catalog.controller;
 
+import br.ifsp.film_catalog.dto.BulkModerationRequestDTO;
+import br.ifsp.film_catalog.dto.BulkModerationResultDTO;
 import br.ifsp.film_catalog.dto.FlaggedReviewResponseDTO;
 import br.ifsp.film_catalog.dto.ReviewResponseDTO;
+import br.ifsp.film_catalog.dto.page.CursorPagedResponse;
 import br.ifsp.film_catalog.dto.page.PagedResponse;
+import br.ifsp.film_catalog.model.enums.ModerationAction;
 import br.ifsp.film_catalog.service.ContentFlagService;
+import br.ifsp.film_catalog.service.ModerationEventBus;
+import br.ifsp.film_catalog.service.ReviewModerationService;
 import br.ifsp.film_catalog.service.ReviewService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Tag(name = "Moderação", description = "API para funcionalidades de moderação (Admin)")
 @Validated
@@ -25,10 +34,28 @@ public class ModerationController {
 
     private final ReviewService reviewService;
     private final ContentFlagService contentFlagService;
+    private final ReviewModerationService reviewModerationService;
+    private final ModerationEventBus moderationEventBus;
 
-    public ModerationController(ReviewService reviewService, ContentFlagService contentFlagService) {
+    public ModerationController(ReviewService reviewService,
+                                ContentFlagService contentFlagService,
+                                ReviewModerationService reviewModerationService,
+                                ModerationEventBus moderationEventBus) {
         this.reviewService = reviewService;
         this.contentFlagService = contentFlagService;
+        this.reviewModerationService = reviewModerationService;
+        this.moderationEventBus = moderationEventBus;
+    }
+
+    @Operation(summary = "Acompanhar eventos de moderação em tempo real (Admin)",
+               description = "Server-Sent Events com denúncias (FLAGGED), avaliações que atingiram o limite de atenção (THRESHOLD_CROSSED) e ocultações automáticas (AUTO_HIDDEN). Clientes lentos perdem os eventos mais antigos.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Fluxo de eventos aberto"),
+        @ApiResponse(responseCode = "403", description = "Acesso negado")
+    })
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamModerationEvents() {
+        return moderationEventBus.subscribe();
     }
 
     @Operation(summary = "Listar avaliações altamente sinalizadas (Admin)")
@@ -44,6 +71,22 @@ public class ModerationController {
         return ResponseEntity.ok(reviews);
     }
 
+    @Operation(summary = "Percorrer avaliações altamente sinalizadas por cursor (Admin)",
+               description = "Mesma ordem da listagem paginada. Envie o 'nextCursor' da resposta anterior como 'cursor' para obter a próxima página.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Página de avaliações sinalizadas recuperada"),
+        @ApiResponse(responseCode = "400", description = "Cursor ou tamanho de página inválido"),
+        @ApiResponse(responseCode = "403", description = "Acesso negado")
+    })
+    @GetMapping("/reviews/flagged/cursor")
+    public ResponseEntity<CursorPagedResponse<FlaggedReviewResponseDTO>> scrollHeavilyFlaggedReviews(
+            @RequestParam(defaultValue = "10") int minFlags,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPagedResponse<FlaggedReviewResponseDTO> reviews = contentFlagService.getHeavilyFlaggedReviews(minFlags, cursor, size);
+        return ResponseEntity.ok(reviews);
+    }
+
     @Operation(summary = "Ocultar uma avaliação (Admin)")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Status de ocultação da avaliação atualizado"),
@@ -67,4 +110,40 @@ public class ModerationController {
         ReviewResponseDTO review = reviewService.toggleHideReview(reviewId, false);
         return ResponseEntity.ok(review);
     }
+
+    @Operation(summary = "Ocultar avaliações em lote (Admin)",
+               description = "Informe 'reviewIds' ou ao menos um filtro ('userId', 'movieId', 'minFlags').")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Avaliações ocultadas; retorna a contagem de afetadas"),
+            @ApiResponse(responseCode = "400", description = "Nenhum critério ou critérios conflitantes"),
+            @ApiResponse(responseCode = "403", description = "Acesso negado")
+    })
+    @PostMapping("/reviews/bulk/hide")
+    public ResponseEntity<BulkModerationResultDTO> bulkHideReviews(@Valid @RequestBody BulkModerationRequestDTO request) {
+        return ResponseEntity.ok(reviewModerationService.execute(ModerationAction.HIDE, request));
+    }
+
+    @Operation(summary = "Mostrar avaliações ocultas em lote (Admin)",
+               description = "Informe 'reviewIds' ou ao menos um filtro ('userId', 'movieId', 'minFlags').")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Avaliações reexibidas; retorna a contagem de afetadas"),
+            @ApiResponse(responseCode = "400", description = "Nenhum critério ou critérios conflitantes"),
+            @ApiResponse(responseCode = "403", description = "Acesso negado")
+    })
+    @PostMapping("/reviews/bulk/unhide")
+    public ResponseEntity<BulkModerationResultDTO> bulkUnhideReviews(@Valid @RequestBody BulkModerationRequestDTO request) {
+        return ResponseEntity.ok(reviewModerationService.execute(ModerationAction.UNHIDE, request));
+    }
+
+    @Operation(summary = "Excluir avaliações em lote (Admin)",
+               description = "Remove também as denúncias das avaliações. Informe 'reviewIds' ou ao menos um filtro ('userId', 'movieId', 'minFlags').")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Avaliações excluídas; retorna a contagem de afetadas"),
+            @ApiResponse(responseCode = "400", description = "Nenhum critério ou critérios conflitantes"),
+            @ApiResponse(responseCode = "403", description = "Acesso negado")
+    })
+    @PostMapping("/reviews/bulk/delete")
+    public ResponseEntity<BulkModerationResultDTO> bulkDeleteReviews(@Valid @RequestBody BulkModerationRequestDTO request) {
+        return ResponseEntity.ok(reviewModerationService.execute(ModerationAction.DELETE, request));
+    }
 }
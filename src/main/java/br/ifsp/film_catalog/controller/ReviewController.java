@@ -7,9 +7,11 @@ import br.ifsp.film_catalog.dto.ReviewAveragesDTO;
 import br.ifsp.film_catalog.dto.ReviewRequestDTO;
 import br.ifsp.film_catalog.dto.ReviewResponseDTO;
 import br.ifsp.film_catalog.dto.UserResponseDTO;
+import br.ifsp.film_catalog.dto.page.CursorPagedResponse;
 import br.ifsp.film_catalog.dto.page.PagedResponse;
 import br.ifsp.film_catalog.dto.page.PagedResponseWithHiddenReviews;
 import br.ifsp.film_catalog.exception.ErrorResponse;
+import br.ifsp.film_catalog.security.RateLimited;
 import br.ifsp.film_catalog.security.UserAuthenticated;
 import br.ifsp.film_catalog.service.ContentFlagService;
 import br.ifsp.film_catalog.service.ReviewService;
@@ -66,6 +68,34 @@ public class ReviewController {
         return new ResponseEntity<>(createdReview, HttpStatus.CREATED);
     }
 
+    @Operation(summary = "Buscar avaliações (não ocultas) pelo conteúdo",
+               description = "Palavras simples devem aparecer na avaliação, 'termo*' busca por prefixo e \"texto entre aspas\" busca a frase exata. Resultados mais recentes primeiro.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Avaliações encontradas com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Consulta vazia ou sem termos pesquisáveis")
+    })
+    @GetMapping("/reviews/search")
+    public ResponseEntity<PagedResponse<ReviewResponseDTO>> searchReviews(
+            @RequestParam("q") String query,
+            @PageableDefault(size = 10) Pageable pageable) {
+        PagedResponse<ReviewResponseDTO> reviews = reviewService.searchReviews(query, pageable);
+        return ResponseEntity.ok(reviews);
+    }
+
+    @Operation(summary = "Listar as avaliações (não ocultas) mais recentes da plataforma",
+               description = "Paginação por cursor: envie o 'nextCursor' da resposta anterior como 'cursor' para obter a próxima página.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Avaliações recuperadas com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Cursor ou tamanho de página inválido")
+    })
+    @GetMapping("/reviews/recent")
+    public ResponseEntity<CursorPagedResponse<ReviewResponseDTO>> getRecentReviews(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPagedResponse<ReviewResponseDTO> reviews = reviewService.getRecentReviews(cursor, size);
+        return ResponseEntity.ok(reviews);
+    }
+
     @Operation(summary = "Obter uma avaliação específica pelo ID")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Avaliação recuperada com sucesso"),
@@ -90,6 +120,20 @@ public class ReviewController {
         return ResponseEntity.ok(reviews);
     }
 
+    @Operation(summary = "Listar as avaliações (não ocultas) mais úteis de um filme",
+               description = "Ordena pela pontuação de utilidade, que considera curtidas, denúncias e a idade da avaliação.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Avaliações recuperadas com sucesso"),
+            @ApiResponse(responseCode = "404", description = "Filme não encontrado")
+    })
+    @GetMapping("/movies/{movieId}/reviews/helpful")
+    public ResponseEntity<PagedResponse<ReviewResponseDTO>> getMostHelpfulReviewsByMovie(
+            @PathVariable Long movieId,
+            @PageableDefault(size = 10) Pageable pageable) {
+        PagedResponse<ReviewResponseDTO> reviews = reviewService.getMostHelpfulReviewsByMovie(movieId, pageable);
+        return ResponseEntity.ok(reviews);
+    }
+
     @Operation(summary = "Listar todas as avaliações (não ocultas) feitas por um usuário específico")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Avaliações recuperadas com sucesso"),
@@ -151,10 +195,12 @@ public class ReviewController {
     @Operation(summary = "Curtir uma avaliação")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Avaliação curtida com sucesso"),
-            @ApiResponse(responseCode = "404", description = "Avaliação não encontrada")
+            @ApiResponse(responseCode = "404", description = "Avaliação não encontrada"),
+            @ApiResponse(responseCode = "429", description = "Limite de curtidas por minuto excedido")
     })
     @PostMapping("/reviews/{reviewId}/like")
     @PreAuthorize("isAuthenticated()") // Qualquer usuário autenticado pode curtir
+    @RateLimited(key = "review-like", limit = 60)
     public ResponseEntity<ReviewResponseDTO> likeReview(@PathVariable Long reviewId) {
         ReviewResponseDTO review = reviewService.likeReview(reviewId);
         return ResponseEntity.ok(review);
@@ -166,10 +212,12 @@ public class ReviewController {
         @ApiResponse(responseCode = "400", description = "Dados de entrada inválidos (ex: razão em branco)"),
         @ApiResponse(responseCode = "403", description = "Acesso negado"),
         @ApiResponse(responseCode = "404", description = "Avaliação ou usuário reportando não encontrado"),
-        @ApiResponse(responseCode = "409", description = "Usuário já sinalizou esta avaliação ou tentando sinalizar a própria avaliação")
+        @ApiResponse(responseCode = "409", description = "Usuário já sinalizou esta avaliação ou tentando sinalizar a própria avaliação"),
+        @ApiResponse(responseCode = "429", description = "Limite de sinalizações por minuto excedido")
     })
     @PostMapping("/reviews/{reviewId}/flag")
     @PreAuthorize("isAuthenticated()")
+    @RateLimited(key = "review-flag", limit = 20)
     public ResponseEntity<ContentFlagResponseDTO> flagReview(
             @PathVariable Long reviewId,
             @Valid @RequestBody ContentFlagRequestDTO contentFlagRequestDTO,
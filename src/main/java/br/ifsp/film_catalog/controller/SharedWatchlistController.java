@@ -0,0 +1,48 @@
+package br.ifsp.film_catalog.controller;
+
+import br.ifsp.film_catalog.dto.SharedWatchlistDTO;
+import br.ifsp.film_catalog.exception.ErrorResponse;
+import br.ifsp.film_catalog.security.RateLimited;
+import br.ifsp.film_catalog.service.WatchlistService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+@Tag(name = "Watchlists públicas", description = "API para leitura de watchlists compartilhadas")
+@Validated
+@RestController
+@RequestMapping("/api/public/watchlists")
+public class SharedWatchlistController {
+
+    private final WatchlistService watchlistService;
+
+    public SharedWatchlistController(WatchlistService watchlistService) {
+        this.watchlistService = watchlistService;
+    }
+
+    @Operation(summary = "Obter uma watchlist compartilhada pelo token (público)",
+               description = "Filmes na ordem definida pelo dono, com paginação por cursor: envie o 'nextCursor' da resposta anterior como 'cursor'.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Watchlist recuperada com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Cursor ou tamanho de página inválido",
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Token inválido ou watchlist não compartilhada",
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "429", description = "Muitas consultas em pouco tempo",
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GetMapping("/{shareToken}")
+    @RateLimited(key = "shared-watchlist", limit = 120, windowSeconds = 60)
+    public ResponseEntity<SharedWatchlistDTO> getSharedWatchlist(
+            @PathVariable String shareToken,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(watchlistService.getSharedWatchlist(shareToken, cursor, size));
+    }
+}
@@ -1,16 +1,27 @@
 package br.ifsp.film_catalog.controller;
 
+import br.ifsp.film_catalog.dto.BatchMovieIdsRequestDTO;
+import br.ifsp.film_catalog.dto.BatchOperationResultDTO;
 import br.ifsp.film_catalog.dto.MovieResponseDTO;
 import br.ifsp.film_catalog.dto.UserPatchDTO;
+import br.ifsp.film_catalog.dto.UserAvailabilityDTO;
+import br.ifsp.film_catalog.dto.UserDeletionJobDTO;
 import br.ifsp.film_catalog.dto.UserRequestDTO;
 import br.ifsp.film_catalog.dto.UserRequestWithRolesDTO;
 import br.ifsp.film_catalog.dto.UserResponseDTO;
+import br.ifsp.film_catalog.dto.UserSummaryDTO;
+import br.ifsp.film_catalog.dto.WatchHistoryImportJobDTO;
 import br.ifsp.film_catalog.dto.page.PagedResponse;
 import br.ifsp.film_catalog.exception.ErrorResponse;
-import br.ifsp.film_catalog.model.Genre;
 import br.ifsp.film_catalog.model.Movie;
 import br.ifsp.film_catalog.repository.MovieRepository;
+import br.ifsp.film_catalog.security.RateLimited;
+import br.ifsp.film_catalog.service.RecommendationService;
+import br.ifsp.film_catalog.service.UserAvailabilityService;
+import br.ifsp.film_catalog.service.UserDeletionService;
 import br.ifsp.film_catalog.service.UserService;
+import br.ifsp.film_catalog.service.UserStatsService;
+import br.ifsp.film_catalog.service.WatchHistoryImportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -20,15 +31,16 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 
-import java.util.List;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 
 @Tag(name = "Usuários", description = "API para gerenciamento de usuários")
@@ -39,10 +51,25 @@ public class UserController {
 
     private final UserService userService;
     private final MovieRepository movieRepository;
+    private final WatchHistoryImportService watchHistoryImportService;
+    private final RecommendationService recommendationService;
+    private final UserStatsService userStatsService;
+    private final UserDeletionService userDeletionService;
+    private final UserAvailabilityService userAvailabilityService;
 
-    public UserController(UserService userService, MovieRepository movieRepository) {
+    public UserController(UserService userService, MovieRepository movieRepository,
+                          WatchHistoryImportService watchHistoryImportService,
+                          RecommendationService recommendationService,
+                          UserStatsService userStatsService,
+                          UserDeletionService userDeletionService,
+                          UserAvailabilityService userAvailabilityService) {
         this.userService = userService;
         this.movieRepository = movieRepository;
+        this.watchHistoryImportService = watchHistoryImportService;
+        this.recommendationService = recommendationService;
+        this.userStatsService = userStatsService;
+        this.userDeletionService = userDeletionService;
+        this.userAvailabilityService = userAvailabilityService;
     }
 
     @Operation(summary = "Listar todos os usuários", description = "Retorna uma lista paginada de todos os usuários.")
@@ -73,6 +100,20 @@ public class UserController {
         return ResponseEntity.ok(user);
     }
 
+    @Operation(summary = "Resumo do perfil do usuário", description = "Retorna as contagens de filmes assistidos, favoritos, avaliações, curtidas recebidas e watchlists, além do total de minutos assistidos.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Resumo recuperado com sucesso"),
+            @ApiResponse(responseCode = "404", description = "Usuário não encontrado",
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "403", description = "Acesso negado",
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GetMapping("/{id}/summary")
+    @PreAuthorize("hasRole('ADMIN') or @securityService.isOwner(authentication, #id)")
+    public ResponseEntity<UserSummaryDTO> getUserSummary(@PathVariable Long id) {
+        return ResponseEntity.ok(userStatsService.getSummary(id));
+    }
+
     @Operation(summary = "Buscar usuário por nome de usuário (username)", description = "Retorna um único usuário pelo seu nome de usuário (username) exclusivo.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Usuário recuperado com sucesso"),
@@ -90,6 +131,22 @@ public class UserController {
         return ResponseEntity.ok(user);
     }
 
+    @Operation(summary = "Verificar disponibilidade de username e email (público)",
+               description = "Informa se o username e/ou o email ainda podem ser usados no cadastro. Informe ao menos um dos dois.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Disponibilidade verificada com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Nenhum username ou email informado",
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "429", description = "Muitas consultas em pouco tempo",
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GetMapping("/availability")
+    @RateLimited(key = "user-availability", limit = 60, windowSeconds = 60)
+    public ResponseEntity<UserAvailabilityDTO> checkAvailability(@RequestParam(required = false) String username,
+                                                                 @RequestParam(required = false) String email) {
+        return ResponseEntity.ok(userAvailabilityService.check(username, email));
+    }
+
     @Operation(summary = "Registrar um novo usuário (público)", description = "Permite que qualquer visitante se registre. O usuário receberá o papel 'ROLE_USER' por padrão.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Usuário registrado com sucesso"),
@@ -154,19 +211,35 @@ public class UserController {
     }
 
 
-    @Operation(summary = "Excluir um usuário", description = "Exclui um usuário pelo seu ID.")
+    @Operation(summary = "Excluir um usuário",
+               description = "Inicia a exclusão do usuário e de todos os seus dados em segundo plano. Use o ID do job retornado para acompanhar o andamento.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "204", description = "Usuário excluído com sucesso"),
+            @ApiResponse(responseCode = "202", description = "Exclusão iniciada"),
             @ApiResponse(responseCode = "404", description = "Usuário não encontrado",
                          content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "429", description = "Muitas exclusões em andamento",
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
             @ApiResponse(responseCode = "403", description = "Acesso negado",
                          content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
     })
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
-        userService.deleteUser(id);
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<UserDeletionJobDTO> deleteUser(@PathVariable Long id) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(userDeletionService.start(id));
+    }
+
+    @Operation(summary = "Consultar exclusão de usuário", description = "Retorna o andamento da exclusão e quantos registros já foram removidos.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Situação da exclusão recuperada com sucesso"),
+            @ApiResponse(responseCode = "404", description = "Exclusão não encontrada ou expirada",
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "403", description = "Acesso negado",
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GetMapping("/{id}/deletion/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UserDeletionJobDTO> getUserDeletion(@PathVariable Long id, @PathVariable String jobId) {
+        return ResponseEntity.ok(userDeletionService.getJob(id, jobId));
     }
 
     // --- Favorite Movies Endpoints ---
@@ -183,6 +256,20 @@ public class UserController {
         return ResponseEntity.ok().build();
     }
 
+    @Operation(summary = "Adicionar vários filmes aos favoritos do usuário", description = "Adiciona até 500 filmes de uma vez e retorna o resultado de cada filme.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lote processado; veja o status de cada filme"),
+            @ApiResponse(responseCode = "400", description = "Lista vazia ou com mais de 500 filmes"),
+            @ApiResponse(responseCode = "404", description = "Usuário não encontrado"),
+            @ApiResponse(responseCode = "403", description = "Acesso negado")
+    })
+    @PostMapping("/{userId}/favorites/batch")
+    @PreAuthorize("hasRole('ADMIN') or @securityService.isOwner(authentication, #userId)")
+    public ResponseEntity<BatchOperationResultDTO> addFavoriteMovies(@PathVariable Long userId,
+                                                                     @Valid @RequestBody BatchMovieIdsRequestDTO request) {
+        return ResponseEntity.ok(userService.addFavoriteMovies(userId, request.getMovieIds()));
+    }
+
     @Operation(summary = "Remover um filme dos favoritos do usuário", description = "Remove um filme da lista de favoritos de um usuário.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Filme removido dos favoritos com sucesso"),
@@ -225,6 +312,49 @@ public class UserController {
         return ResponseEntity.ok().build();
     }
 
+    @Operation(summary = "Marcar vários filmes como assistidos pelo usuário", description = "Marca até 500 filmes de uma vez e retorna o resultado de cada filme.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lote processado; veja o status de cada filme"),
+            @ApiResponse(responseCode = "400", description = "Lista vazia ou com mais de 500 filmes"),
+            @ApiResponse(responseCode = "404", description = "Usuário não encontrado"),
+            @ApiResponse(responseCode = "403", description = "Acesso negado")
+    })
+    @PostMapping("/{userId}/watched/batch")
+    @PreAuthorize("hasRole('ADMIN') or @securityService.isOwner(authentication, #userId)")
+    public ResponseEntity<BatchOperationResultDTO> markMoviesAsWatched(@PathVariable Long userId,
+                                                                       @Valid @RequestBody BatchMovieIdsRequestDTO request) {
+        return ResponseEntity.ok(userService.addWatchedMovies(userId, request.getMovieIds()));
+    }
+
+    @Operation(summary = "Importar histórico de filmes assistidos (CSV)",
+               description = "Envia um arquivo CSV com título, ano, data em que foi assistido e nota (0 a 5) e inicia a importação em segundo plano. Use o ID do job retornado para acompanhar o progresso.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Importação iniciada"),
+            @ApiResponse(responseCode = "400", description = "Arquivo vazio"),
+            @ApiResponse(responseCode = "404", description = "Usuário não encontrado"),
+            @ApiResponse(responseCode = "429", description = "Muitas importações em andamento"),
+            @ApiResponse(responseCode = "403", description = "Acesso negado")
+    })
+    @PostMapping(value = "/{userId}/watched/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN') or @securityService.isOwner(authentication, #userId)")
+    @RateLimited(key = "watch-history-import", limit = 10, windowSeconds = 3600)
+    public ResponseEntity<WatchHistoryImportJobDTO> importWatchHistory(@PathVariable Long userId,
+                                                                       @RequestParam("file") MultipartFile file) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(watchHistoryImportService.start(userId, file));
+    }
+
+    @Operation(summary = "Consultar importação de histórico", description = "Retorna o progresso da importação e as linhas que não puderam ser importadas.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Situação da importação recuperada com sucesso"),
+            @ApiResponse(responseCode = "404", description = "Importação não encontrada ou expirada"),
+            @ApiResponse(responseCode = "403", description = "Acesso negado")
+    })
+    @GetMapping("/{userId}/watched/import/{jobId}")
+    @PreAuthorize("hasRole('ADMIN') or @securityService.isOwner(authentication, #userId)")
+    public ResponseEntity<WatchHistoryImportJobDTO> getWatchHistoryImport(@PathVariable Long userId, @PathVariable String jobId) {
+        return ResponseEntity.ok(watchHistoryImportService.getJob(userId, jobId));
+    }
+
     @Operation(summary = "Desmarcar um filme como assistido pelo usuário", description = "Remove a marcação de assistido de um filme para um usuário específico.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Filme desmarcado como assistido com sucesso"),
@@ -254,19 +384,18 @@ public class UserController {
     }
 
 
-    @Operation(summary = "Listar filmes recomendados para o usuário", description = "Retorna uma lista paginada dos filmes recomendados.")
+    @Operation(summary = "Listar filmes recomendados para o usuário", description = "Retorna uma lista paginada dos filmes recomendados, ordenados pela semelhança com os filmes assistidos e favoritados. Filmes já assistidos não são recomendados. A ordem é a da recomendação: o parâmetro sort não é aceito.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Lista de filmes recomendados"),
             @ApiResponse(responseCode = "404", description = "Usuário não encontrado"),
-            @ApiResponse(responseCode = "400", description = "Gêneros não encontrados ou inválidos"),
+            @ApiResponse(responseCode = "400", description = "Gêneros não encontrados ou inválidos, ou ordenação informada"),
             @ApiResponse(responseCode = "403", description = "Acesso negado")
     })
     @GetMapping("/{userId}/recommendations")
     public ResponseEntity<PagedResponse<MovieResponseDTO>> getPersonalizedRecommendations(
             @PathVariable Long userId,
-            @PageableDefault(size = 10, sort = "title") Pageable pageable) {
-        List<Genre> topGenres = userService.getTopGenresForUser(userId, 3);
-        PagedResponse<MovieResponseDTO> recommendedMovies = userService.getRecommendedMoviesByGenres(topGenres, pageable);
+            @PageableDefault(size = 10) Pageable pageable) {
+        PagedResponse<MovieResponseDTO> recommendedMovies = recommendationService.getRecommendations(userId, pageable);
         return ResponseEntity.ok(recommendedMovies);
     }
     
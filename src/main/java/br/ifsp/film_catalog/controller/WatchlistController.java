@@ -1,7 +1,15 @@
 package br.ifsp.film_catalog.controller;
 
+import br.ifsp.film_catalog.dto.MovieResponseDTO;
+import br.ifsp.film_catalog.dto.WatchlistBatchRequestDTO;
+import br.ifsp.film_catalog.dto.WatchlistBatchResultDTO;
+import br.ifsp.film_catalog.dto.WatchlistMoveRequestDTO;
 import br.ifsp.film_catalog.dto.WatchlistRequestDTO;
 import br.ifsp.film_catalog.dto.WatchlistResponseDTO;
+import br.ifsp.film_catalog.dto.WatchlistSetOperationRequestDTO;
+import br.ifsp.film_catalog.dto.WatchlistShareDTO;
+import br.ifsp.film_catalog.dto.WatchlistSummaryDTO;
+import br.ifsp.film_catalog.dto.page.CursorPagedResponse;
 import br.ifsp.film_catalog.dto.page.PagedResponse;
 import br.ifsp.film_catalog.service.WatchlistService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -45,18 +53,37 @@ public class WatchlistController {
         return new ResponseEntity<>(createdWatchlist, HttpStatus.CREATED);
     }
 
-    @Operation(summary = "Listar todas as watchlists do usuário especificado")
+    @Operation(summary = "Criar uma watchlist a partir de outras watchlists do usuário",
+               description = "COPY e UNWATCHED (filmes ainda não assistidos) usam uma watchlist; MERGE, INTERSECT e DIFFERENCE usam duas ou mais, "
+                       + "e DIFFERENCE mantém os filmes da primeira que não estão nas demais. O resultado é gravado no banco em uma única operação.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Watchlist criada com o resultado da operação"),
+            @ApiResponse(responseCode = "400", description = "Dados de entrada inválidos ou quantidade de watchlists incompatível com a operação"),
+            @ApiResponse(responseCode = "403", description = "Acesso negado"),
+            @ApiResponse(responseCode = "404", description = "Watchlist de origem não encontrada para o usuário")
+    })
+    @PostMapping("/operations")
+    @PreAuthorize("hasRole('ADMIN') or @securityService.isOwner(authentication, #userId)")
+    public ResponseEntity<WatchlistResponseDTO> createFromSetOperation(
+            @PathVariable Long userId,
+            @Valid @RequestBody WatchlistSetOperationRequestDTO request) {
+        WatchlistResponseDTO createdWatchlist = watchlistService.createFromSetOperation(userId, request);
+        return new ResponseEntity<>(createdWatchlist, HttpStatus.CREATED);
+    }
+
+    @Operation(summary = "Listar as watchlists do usuário especificado com contagem, duração total e capas")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Watchlists recuperadas com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Ordenação inválida"),
             @ApiResponse(responseCode = "403", description = "Acesso negado"),
             @ApiResponse(responseCode = "404", description = "Usuário não encontrado")
     })
     @GetMapping
     @PreAuthorize("hasRole('ADMIN') or @securityService.isOwner(authentication, #userId)")
-    public ResponseEntity<PagedResponse<WatchlistResponseDTO>> getWatchlistsByUser(
+    public ResponseEntity<PagedResponse<WatchlistSummaryDTO>> getWatchlistsByUser(
             @PathVariable Long userId,
             @PageableDefault(size = 10, sort = "name") Pageable pageable) {
-        PagedResponse<WatchlistResponseDTO> watchlists = watchlistService.getWatchlistsByUser(userId, pageable);
+        PagedResponse<WatchlistSummaryDTO> watchlists = watchlistService.getWatchlistsByUser(userId, pageable);
         return ResponseEntity.ok(watchlists);
     }
 
@@ -75,6 +102,23 @@ public class WatchlistController {
         return ResponseEntity.ok(watchlist);
     }
 
+    @Operation(summary = "Listar os filmes de uma watchlist",
+               description = "Retorna os filmes da watchlist de forma paginada. Ordenação permitida por id, title, releaseYear, duration e contentRating.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Filmes da watchlist recuperados com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Ordenação inválida"),
+            @ApiResponse(responseCode = "403", description = "Acesso negado"),
+            @ApiResponse(responseCode = "404", description = "Watchlist ou Usuário não encontrado")
+    })
+    @GetMapping("/{watchlistId}/movies")
+    @PreAuthorize("hasRole('ADMIN') or @securityService.isOwner(authentication, #userId)")
+    public ResponseEntity<PagedResponse<MovieResponseDTO>> getWatchlistMovies(
+            @PathVariable Long userId,
+            @PathVariable Long watchlistId,
+            @PageableDefault(size = 20, sort = "title") Pageable pageable) {
+        return ResponseEntity.ok(watchlistService.getWatchlistMovies(userId, watchlistId, pageable));
+    }
+
     @Operation(summary = "Atualizar uma watchlist do usuário")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Watchlist atualizada com sucesso"),
@@ -138,4 +182,88 @@ public class WatchlistController {
         WatchlistResponseDTO updatedWatchlist = watchlistService.removeMovieFromWatchlist(userId, watchlistId, movieId);
         return ResponseEntity.ok(updatedWatchlist);
     }
+
+    @Operation(summary = "Adicionar e remover vários filmes de uma watchlist",
+               description = "Aplica até 5000 inclusões e 5000 remoções em uma única transação e retorna o resultado de cada filme.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Lote processado; veja o status de cada filme"),
+            @ApiResponse(responseCode = "400", description = "Lote vazio, grande demais ou com o mesmo filme para incluir e remover"),
+            @ApiResponse(responseCode = "403", description = "Acesso negado"),
+            @ApiResponse(responseCode = "404", description = "Watchlist ou Usuário não encontrado")
+    })
+    @PostMapping("/{watchlistId}/movies/batch")
+    @PreAuthorize("hasRole('ADMIN') or @securityService.isOwner(authentication, #userId)")
+    public ResponseEntity<WatchlistBatchResultDTO> applyMovieBatch(
+            @PathVariable Long userId,
+            @PathVariable Long watchlistId,
+            @Valid @RequestBody WatchlistBatchRequestDTO request) {
+        return ResponseEntity.ok(watchlistService.applyBatch(userId, watchlistId, request));
+    }
+
+    @Operation(summary = "Listar os filmes de uma watchlist na ordem definida pelo usuário",
+               description = "Paginação por cursor: envie o 'nextCursor' da resposta anterior como 'cursor' para obter a próxima página.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Filmes recuperados com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Cursor ou tamanho de página inválido"),
+            @ApiResponse(responseCode = "403", description = "Acesso negado"),
+            @ApiResponse(responseCode = "404", description = "Watchlist ou Usuário não encontrado")
+    })
+    @GetMapping("/{watchlistId}/movies/ranked")
+    @PreAuthorize("hasRole('ADMIN') or @securityService.isOwner(authentication, #userId)")
+    public ResponseEntity<CursorPagedResponse<MovieResponseDTO>> getRankedWatchlistMovies(
+            @PathVariable Long userId,
+            @PathVariable Long watchlistId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(watchlistService.getRankedWatchlistMovies(userId, watchlistId, cursor, size));
+    }
+
+    @Operation(summary = "Mover um filme dentro de uma watchlist",
+               description = "Coloca o filme logo após 'afterMovieId', ou no topo da lista quando 'afterMovieId' não é informado.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "204", description = "Filme movido com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Filme movido para depois dele mesmo"),
+            @ApiResponse(responseCode = "403", description = "Acesso negado"),
+            @ApiResponse(responseCode = "404", description = "Watchlist, Usuário ou Filme não encontrado na watchlist")
+    })
+    @PutMapping("/{watchlistId}/movies/{movieId}/position")
+    @PreAuthorize("hasRole('ADMIN') or @securityService.isOwner(authentication, #userId)")
+    public ResponseEntity<Void> moveMovie(
+            @PathVariable Long userId,
+            @PathVariable Long watchlistId,
+            @PathVariable Long movieId,
+            @RequestBody WatchlistMoveRequestDTO request) {
+        watchlistService.moveMovie(userId, watchlistId, movieId, request);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Compartilhar uma watchlist",
+               description = "Gera o token com o qual qualquer pessoa pode ler a watchlist em /api/public/watchlists/{shareToken}. Uma watchlist já compartilhada mantém o token.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Watchlist compartilhada com sucesso"),
+            @ApiResponse(responseCode = "403", description = "Acesso negado"),
+            @ApiResponse(responseCode = "404", description = "Watchlist ou Usuário não encontrado")
+    })
+    @PutMapping("/{watchlistId}/share")
+    @PreAuthorize("hasRole('ADMIN') or @securityService.isOwner(authentication, #userId)")
+    public ResponseEntity<WatchlistShareDTO> shareWatchlist(
+            @PathVariable Long userId,
+            @PathVariable Long watchlistId) {
+        return ResponseEntity.ok(watchlistService.shareWatchlist(userId, watchlistId));
+    }
+
+    @Operation(summary = "Deixar de compartilhar uma watchlist", description = "O token atual deixa de funcionar.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "204", description = "Compartilhamento removido com sucesso"),
+            @ApiResponse(responseCode = "403", description = "Acesso negado"),
+            @ApiResponse(responseCode = "404", description = "Watchlist ou Usuário não encontrado")
+    })
+    @DeleteMapping("/{watchlistId}/share")
+    @PreAuthorize("hasRole('ADMIN') or @securityService.isOwner(authentication, #userId)")
+    public ResponseEntity<Void> unshareWatchlist(
+            @PathVariable Long userId,
+            @PathVariable Long watchlistId) {
+        watchlistService.unshareWatchlist(userId, watchlistId);
+        return ResponseEntity.noContent().build();
+    }
 }
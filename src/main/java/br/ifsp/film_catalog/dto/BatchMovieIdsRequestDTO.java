@@ -0,0 +1,20 @@
+package br.ifsp.film_catalog.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchMovieIdsRequestDTO {
+
+    @NotEmpty(message = "Movie ids cannot be empty.")
+    @Size(max = 500, message = "A batch accepts at most 500 movie ids.")
+    private List<@NotNull(message = "Movie id cannot be null.") Long> movieIds;
+}
@@ -0,0 +1,35 @@
+package br.ifsp.film_catalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchOperationResultDTO {
+    private int requested;
+    private int succeeded;
+    private List<ItemResult> items; // One entry per requested id, in request order
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private Long movieId;
+        private Status status;
+    }
+
+    public enum Status {
+        ADDED,
+        ALREADY_PRESENT,
+        MOVIE_NOT_FOUND,
+        DUPLICATE_IN_REQUEST,
+        REMOVED,
+        NOT_PRESENT
+    }
+}
@@ -0,0 +1,31 @@
+package br.ifsp.film_catalog.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Selects the reviews of a bulk moderation action: either an explicit id list or a filter
+ * combining user, movie and minimum number of flags.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkModerationRequestDTO {
+
+    @Size(max = 10000, message = "A bulk action accepts at most 10000 review ids.")
+    private List<Long> reviewIds;
+
+    private Long userId;
+
+    private Long movieId;
+
+    @Min(value = 1, message = "Minimum flags must be at least 1.")
+    private Integer minFlags;
+}
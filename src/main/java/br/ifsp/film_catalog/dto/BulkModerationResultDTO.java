@@ -0,0 +1,19 @@
+package br.ifsp.film_catalog.dto;
+
+import br.ifsp.film_catalog.model.enums.ModerationAction;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkModerationResultDTO {
+    private ModerationAction action;
+    private long matchedReviews;  // Reviews selected that were not already in the target state
+    private long affectedReviews; // Reviews actually changed by the statements
+    private long removedFlags;    // Flags deleted along with the reviews (DELETE only)
+    private int chunks;
+}
@@ -0,0 +1,23 @@
+package br.ifsp.film_catalog.dto;
+
+import br.ifsp.film_catalog.model.enums.ModerationEventType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ModerationEventDTO {
+    private ModerationEventType type;
+    private Long reviewId;
+    private int flagCount;
+    private boolean hidden;
+    private Long reporterUserId; // Set for FLAGGED events only
+    private String flagReason;   // Set for FLAGGED events only
+    private Instant occurredAt;
+}
@@ -0,0 +1,17 @@
+package br.ifsp.film_catalog.dto;
+
+import br.ifsp.film_catalog.dto.page.CursorPagedResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SharedWatchlistDTO {
+    private String name;
+    private String description;
+    private CursorPagedResponse<MovieResponseDTO> movies; // In rank order
+}
@@ -0,0 +1,17 @@
+package br.ifsp.film_catalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserAvailabilityDTO {
+    private String username;
+    private Boolean usernameAvailable; // Null when no username was asked for
+    private String email;
+    private Boolean emailAvailable; // Null when no email was asked for
+}
@@ -0,0 +1,28 @@
+package br.ifsp.film_catalog.dto;
+
+import br.ifsp.film_catalog.model.enums.JobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserDeletionJobDTO {
+    private String jobId;
+    private Long userId;
+    private JobStatus status;
+    private long removedFlags; // Flags the user raised on other users' reviews
+    private long removedReviews;
+    private long removedWatched;
+    private long removedFavorites;
+    private long removedWatchlists;
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+}
@@ -0,0 +1,20 @@
+package br.ifsp.film_catalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserSummaryDTO {
+    private Long userId;
+    private long watchedCount;
+    private long favoritesCount;
+    private long reviewsCount;
+    private long likesReceived;
+    private long watchlistsCount;
+    private long minutesWatched;
+}
@@ -0,0 +1,49 @@
+package br.ifsp.film_catalog.dto;
+
+import br.ifsp.film_catalog.model.enums.JobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WatchHistoryImportJobDTO {
+    private String jobId;
+    private Long userId;
+    private String fileName;
+    private JobStatus status;
+    private int progressPercent; // Share of the file read so far
+    private long processedRows;
+    private long importedWatched;
+    private long importedReviews;
+    private long alreadyWatched;
+    private long skippedRows; // Unmatched, invalid or repeated rows
+    private List<SkippedRow> skipped; // Only the first rows are listed, see skippedRows for the total
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SkippedRow {
+        private long line;
+        private String title;
+        private String year;
+        private Reason reason;
+    }
+
+    public enum Reason {
+        MOVIE_NOT_FOUND,
+        AMBIGUOUS_TITLE,
+        INVALID_ROW,
+        DUPLICATE_IN_FILE
+    }
+}
@@ -0,0 +1,22 @@
+package br.ifsp.film_catalog.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WatchlistBatchRequestDTO {
+
+    @Size(max = 5000, message = "A batch adds at most 5000 movie ids.")
+    private List<@NotNull(message = "Movie id cannot be null.") Long> add = new ArrayList<>();
+
+    @Size(max = 5000, message = "A batch removes at most 5000 movie ids.")
+    private List<@NotNull(message = "Movie id cannot be null.") Long> remove = new ArrayList<>();
+}
@@ -0,0 +1,16 @@
+package br.ifsp.film_catalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WatchlistBatchResultDTO {
+    private Long watchlistId;
+    private BatchOperationResultDTO added;
+    private BatchOperationResultDTO removed;
+}
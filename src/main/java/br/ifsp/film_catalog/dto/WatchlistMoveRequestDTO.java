@@ -0,0 +1,12 @@
+package br.ifsp.film_catalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WatchlistMoveRequestDTO {
+    private Long afterMovieId; // Null moves the movie to the top of the list
+}
@@ -4,9 +4,6 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.util.Set;
-import java.util.HashSet;
-
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -14,6 +11,6 @@ public class WatchlistResponseDTO {
     private Long id;
     private String name;
     private String description;
-    private Long userId;
-    private Set<MovieResponseDTO> movies = new HashSet<>();
+    private Long userId; // Contents are paged separately, see WatchlistService.getWatchlistMovies
+    private String shareToken; // Null while the list is private
 }
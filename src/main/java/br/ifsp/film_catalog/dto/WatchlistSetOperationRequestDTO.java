@@ -0,0 +1,33 @@
+package br.ifsp.film_catalog.dto;
+
+import br.ifsp.film_catalog.model.enums.WatchlistSetOperation;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WatchlistSetOperationRequestDTO {
+
+    @NotNull(message = "Operation cannot be null.")
+    private WatchlistSetOperation operation;
+
+    // Order matters: DIFFERENCE keeps the first list's movies, and the result follows the lists' ranks in this order
+    @NotEmpty(message = "Source watchlist ids cannot be empty.")
+    @Size(max = 10, message = "An operation accepts at most 10 watchlists.")
+    private List<@NotNull(message = "Watchlist id cannot be null.") Long> sourceWatchlistIds;
+
+    @NotBlank(message = "Watchlist name cannot be blank.")
+    @Size(max = 255, message = "Watchlist name cannot exceed 255 characters.")
+    private String name;
+
+    @Size(max = 1000, message = "Watchlist description cannot exceed 1000 characters.")
+    private String description;
+}
@@ -0,0 +1,13 @@
+package br.ifsp.film_catalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WatchlistShareDTO {
+    private Long watchlistId;
+    private String shareToken; // Read it at /api/public/watchlists/{shareToken}
+}
@@ -0,0 +1,22 @@
+package br.ifsp.film_catalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WatchlistSummaryDTO {
+    private Long id;
+    private String name;
+    private String description;
+    private Long userId;
+    private long movieCount;
+    private long totalRuntime; // Minutes
+    private List<Long> coverMovieIds;
+}
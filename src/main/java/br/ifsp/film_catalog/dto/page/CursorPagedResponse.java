@@ -0,0 +1,15 @@
+package br.ifsp.film_catalog.dto.page;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CursorPagedResponse<T> {
+    private List<T> content;
+    private String nextCursor; // Pass back as 'cursor' to get the next page; null on the last page
+    private int size;
+    private boolean hasNext;
+}
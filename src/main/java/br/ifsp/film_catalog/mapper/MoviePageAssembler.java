@@ -0,0 +1,59 @@
+package br.ifsp.film_catalog.mapper;
+
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import br.ifsp.film_catalog.dto.MovieResponseDTO;
+import br.ifsp.film_catalog.dto.page.PagedResponse;
+import br.ifsp.film_catalog.model.Movie;
+import br.ifsp.film_catalog.repository.MovieRepository;
+
+/**
+ * Turns a database page of movies into a response without one genre query per movie.
+ * <p>
+ * Movie pages are queried without fetching genres (a collection fetch would make Hibernate page in
+ * memory), then the genres of the whole page are loaded with a single IN query before mapping.
+ */
+@Component
+public class MoviePageAssembler {
+
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of("id", "title", "releaseYear", "duration", "contentRating");
+
+    private final MovieRepository movieRepository;
+    private final PagedResponseMapper pagedResponseMapper;
+
+    public MoviePageAssembler(MovieRepository movieRepository, PagedResponseMapper pagedResponseMapper) {
+        this.movieRepository = movieRepository;
+        this.pagedResponseMapper = pagedResponseMapper;
+    }
+
+    /**
+     * Validates that the requested sort only uses movie columns, so it can be applied in SQL.
+     */
+    public Pageable movieSort(Pageable pageable) {
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SORTABLE_PROPERTIES.contains(order.getProperty())) {
+                throw new IllegalArgumentException("Cannot sort movies by '" + order.getProperty()
+                        + "'. Allowed: " + String.join(", ", SORTABLE_PROPERTIES.stream().sorted().toList()));
+            }
+        }
+        // Tie-break on id so pages are stable when the sort key repeats.
+        Sort sort = pageable.getSort().and(Sort.by("id"));
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+    }
+
+    public PagedResponse<MovieResponseDTO> toPagedResponse(Page<Movie> moviePage) {
+        List<Long> ids = moviePage.getContent().stream().map(Movie::getId).toList();
+        if (!ids.isEmpty()) {
+            // Initializes the genres of the movies already in the persistence context.
+            movieRepository.findAllWithGenresByIdIn(ids);
+        }
+        return pagedResponseMapper.toPagedResponse(moviePage, MovieResponseDTO.class);
+    }
+}
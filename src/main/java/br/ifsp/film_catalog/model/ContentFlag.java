@@ -35,6 +35,11 @@ public class ContentFlag {
     @Column(name = "flag_reason", nullable = false)
     private String flagReason;
 
+    // Set by ContentFlagRepository.markEvaluated in the transaction that counts the flag, never through the entity
+    @Setter(AccessLevel.NONE)
+    @Column(nullable = false)
+    private boolean evaluated = false;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @MapsId("userId")
     @JoinColumn(name = "reporter_user_id", referencedColumnName = "id")
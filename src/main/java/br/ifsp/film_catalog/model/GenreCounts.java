@@ -0,0 +1,140 @@
+package br.ifsp.film_catalog.model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable vector of per-genre counts, stored as two parallel primitive arrays sorted by genre id.
+ * A user follows a few dozen genres at most, so updates copy the arrays instead of keeping a map.
+ * Genres whose count drops to zero are removed.
+ */
+public final class GenreCounts {
+
+    public static final GenreCounts EMPTY = new GenreCounts(new long[0], new int[0]);
+
+    private final long[] genreIds;
+    private final int[] counts;
+
+    private GenreCounts(long[] genreIds, int[] counts) {
+        this.genreIds = genreIds;
+        this.counts = counts;
+    }
+
+    public static GenreCounts of(Map<Long, Long> countByGenreId) {
+        GenreCounts result = EMPTY;
+        for (Map.Entry<Long, Long> entry : countByGenreId.entrySet()) {
+            result = result.add(entry.getKey(), Math.toIntExact(entry.getValue()));
+        }
+        return result;
+    }
+
+    /**
+     * Adds {@code delta} once per occurrence of each genre id, so a list holding the genres of several
+     * movies counts a genre once per movie.
+     */
+    public GenreCounts add(Collection<Long> genreIds, int delta) {
+        GenreCounts result = this;
+        for (Long genreId : genreIds) {
+            result = result.add(genreId, delta);
+        }
+        return result;
+    }
+
+    public GenreCounts add(long genreId, int delta) {
+        int position = Arrays.binarySearch(genreIds, genreId);
+        if (position >= 0) {
+            int count = Math.max(0, counts[position] + delta);
+            if (count == 0) {
+                return remove(position);
+            }
+            int[] newCounts = counts.clone();
+            newCounts[position] = count;
+            return new GenreCounts(genreIds, newCounts);
+        }
+        if (delta <= 0) {
+            return this;
+        }
+
+        int insertAt = -position - 1;
+        long[] newIds = new long[genreIds.length + 1];
+        int[] newCounts = new int[counts.length + 1];
+        System.arraycopy(genreIds, 0, newIds, 0, insertAt);
+        System.arraycopy(counts, 0, newCounts, 0, insertAt);
+        newIds[insertAt] = genreId;
+        newCounts[insertAt] = delta;
+        System.arraycopy(genreIds, insertAt, newIds, insertAt + 1, genreIds.length - insertAt);
+        System.arraycopy(counts, insertAt, newCounts, insertAt + 1, counts.length - insertAt);
+        return new GenreCounts(newIds, newCounts);
+    }
+
+    public int countOf(long genreId) {
+        int position = Arrays.binarySearch(genreIds, genreId);
+        return position >= 0 ? counts[position] : 0;
+    }
+
+    public int size() {
+        return genreIds.length;
+    }
+
+    /**
+     * Genre ids with the highest counts, ties broken by the lower id.
+     */
+    public List<Long> top(int limit) {
+        return IntStream.range(0, genreIds.length)
+                .boxed()
+                .sorted(Comparator.<Integer>comparingInt(i -> counts[i]).reversed().thenComparingLong(i -> genreIds[i]))
+                .limit(limit)
+                .map(i -> genreIds[i])
+                .toList();
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(genreIds.length * (Long.BYTES + Integer.BYTES));
+        for (int i = 0; i < genreIds.length; i++) {
+            buffer.putLong(genreIds[i]).putInt(counts[i]);
+        }
+        return buffer.array();
+    }
+
+    public static GenreCounts fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return EMPTY;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int size = bytes.length / (Long.BYTES + Integer.BYTES);
+        long[] genreIds = new long[size];
+        int[] counts = new int[size];
+        for (int i = 0; i < size; i++) {
+            genreIds[i] = buffer.getLong();
+            counts[i] = buffer.getInt();
+        }
+        return new GenreCounts(genreIds, counts);
+    }
+
+    private GenreCounts remove(int position) {
+        long[] newIds = new long[genreIds.length - 1];
+        int[] newCounts = new int[counts.length - 1];
+        System.arraycopy(genreIds, 0, newIds, 0, position);
+        System.arraycopy(counts, 0, newCounts, 0, position);
+        System.arraycopy(genreIds, position + 1, newIds, position, genreIds.length - position - 1);
+        System.arraycopy(counts, position + 1, newCounts, position, counts.length - position - 1);
+        return new GenreCounts(newIds, newCounts);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GenreCounts other)) return false;
+        return Arrays.equals(genreIds, other.genreIds) && Arrays.equals(counts, other.counts);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(genreIds) + Arrays.hashCode(counts);
+    }
+}
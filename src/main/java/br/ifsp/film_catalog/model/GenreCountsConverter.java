@@ -0,0 +1,18 @@
+package br.ifsp.film_catalog.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter
+public class GenreCountsConverter implements AttributeConverter<GenreCounts, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(GenreCounts counts) {
+        return counts == null ? null : counts.toBytes();
+    }
+
+    @Override
+    public GenreCounts convertToEntityAttribute(byte[] bytes) {
+        return GenreCounts.fromBytes(bytes);
+    }
+}
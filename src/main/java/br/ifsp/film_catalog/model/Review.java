@@ -3,6 +3,8 @@ package br.ifsp.film_catalog.model;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.hibernate.annotations.DynamicUpdate;
+
 import br.ifsp.film_catalog.model.common.BaseEntity;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -14,26 +16,47 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "reviews")
+@DynamicUpdate // Entity saves only write changed columns, so they never undo the atomic flag_count/hidden update
+@Table(name = "reviews", indexes = {
+    // Serves the "most helpful" listing of a movie straight from the index order
+    @Index(name = "idx_reviews_movie_helpfulness", columnList = "user_watched_movie_id, hidden, helpfulness_score"),
+    // Moderation queue ordered by flag count, then recency
+    @Index(name = "idx_reviews_flag_count", columnList = "flag_count, id")
+})
 public class Review extends BaseEntity {
 
     @Setter
     @Column(nullable = false)
     private boolean hidden = false;
 
+    // Set when the flag threshold hid the review, cleared by any moderator hide or unhide,
+    // so taking flags back never overrides a moderator's decision
+    @Setter
+    @Column(name = "auto_hidden", nullable = false)
+    private boolean autoHidden = false;
+
     @Setter
     @Column(columnDefinition = "TEXT")
     private String content;
 
-    @Setter private int directionScore;
-    @Setter private int screenplayScore;
-    @Setter private int cinematographyScore;
+    // Null for rating-only reviews (e.g. imported ones), so they stay out of the sub-score averages
+    @Setter private Integer directionScore;
+    @Setter private Integer screenplayScore;
+    @Setter private Integer cinematographyScore;
     @Setter private int generalScore;
 
     @Setter
     @Column(name = "likes_count", nullable = false)
     private int likesCount = 0;
 
+    // Maintained by ReviewRepository.incrementFlagCount, never through the entity
+    @Column(name = "flag_count", nullable = false)
+    private int flagCount = 0;
+
+    @Setter
+    @Column(name = "helpfulness_score", nullable = false)
+    private double helpfulnessScore = 0;
+
     @Setter
     @OneToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumns({ // Used because UserWatched has a composite key
@@ -32,6 +32,11 @@ public class User extends BaseEntity {
     @Column(unique = true)
     private String username;
 
+    // Set when the account is being deleted, so it can no longer sign in or write while its data goes
+    @Setter
+    @Column(nullable = false)
+    private boolean deactivated = false;
+
     @ManyToMany(fetch = FetchType.EAGER)
     @JoinTable(
             name = "user_roles",
@@ -0,0 +1,30 @@
+package br.ifsp.film_catalog.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * How many of the movies a user watched or favorited belong to each genre. Updated with deltas
+ * as the lists change; a stale profile is rebuilt from the lists on its next read.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "user_genre_affinities")
+public class UserGenreAffinity {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Convert(converter = GenreCountsConverter.class)
+    @Column(name = "genre_counts", columnDefinition = "BLOB")
+    private GenreCounts genreCounts = GenreCounts.EMPTY;
+
+    // Set when the counts may no longer match the lists, e.g. after a movie changes genres
+    @Column(nullable = false)
+    private boolean stale = true;
+}
@@ -0,0 +1,42 @@
+package br.ifsp.film_catalog.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cached profile counters of a user. Written only through {@code UserStatsRepository}: writes add
+ * deltas in place and a stale or missing row is recomputed in one statement.
+ */
+@Getter
+@NoArgsConstructor
+@Entity
+@Table(name = "user_stats")
+public class UserStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "watched_count", nullable = false)
+    private long watchedCount;
+
+    @Column(name = "favorites_count", nullable = false)
+    private long favoritesCount;
+
+    @Column(name = "reviews_count", nullable = false)
+    private long reviewsCount;
+
+    @Column(name = "likes_received", nullable = false)
+    private long likesReceived;
+
+    @Column(name = "watchlists_count", nullable = false)
+    private long watchlistsCount;
+
+    @Column(name = "minutes_watched", nullable = false)
+    private long minutesWatched;
+
+    // Set when a change could not be applied as a delta, e.g. a watched movie changed its duration
+    @Column(nullable = false)
+    private boolean stale;
+}
@@ -21,6 +21,9 @@ public class Watchlist extends BaseEntity {
     @Setter
     private String description;
 
+    @Column(name = "share_token", unique = true, length = 32)
+    private String shareToken; // Anyone with the token can read the list; null while it is private
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(
             name = "user_id", // This is the foreign key column in the 'watchlists' table.
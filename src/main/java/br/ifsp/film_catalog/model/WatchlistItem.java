@@ -0,0 +1,44 @@
+package br.ifsp.film_catalog.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import br.ifsp.film_catalog.model.key.WatchlistMovieId;
+
+/**
+ * A row of the {@code watchlist_movies} join table with its rank in the list.
+ * <p>
+ * Positions are sparse ordering keys: items are appended {@link #POSITION_GAP} apart, so moving one
+ * item only writes a value between its new neighbours. Equal positions are ordered by movie id.
+ * Rows added through {@link Watchlist#addMovie} get the default position 0.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@EqualsAndHashCode(of = "id")
+@ToString(exclude = {"watchlist", "movie"})
+@Table(name = "watchlist_movies",
+       indexes = @Index(name = "idx_watchlist_movies_rank", columnList = "watchlist_id, position, movie_id"))
+public class WatchlistItem {
+
+    public static final long POSITION_GAP = 1024;
+
+    @EmbeddedId
+    private WatchlistMovieId id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @MapsId("watchlistId") // Maps the 'watchlistId' part of the EmbeddedId
+    @JoinColumn(name = "watchlist_id")
+    private Watchlist watchlist;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @MapsId("movieId") // Maps the 'movieId' part of the EmbeddedId
+    @JoinColumn(name = "movie_id")
+    private Movie movie;
+
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long position;
+}
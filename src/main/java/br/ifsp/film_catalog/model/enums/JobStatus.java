@@ -0,0 +1,8 @@
+package br.ifsp.film_catalog.model.enums;
+
+public enum JobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
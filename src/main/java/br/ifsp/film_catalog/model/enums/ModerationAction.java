@@ -0,0 +1,7 @@
+package br.ifsp.film_catalog.model.enums;
+
+public enum ModerationAction {
+    HIDE,
+    UNHIDE,
+    DELETE
+}
@@ -0,0 +1,7 @@
+package br.ifsp.film_catalog.model.enums;
+
+public enum ModerationEventType {
+    FLAGGED,           // A user flagged a review
+    THRESHOLD_CROSSED, // The review reached the flag count that puts it in the moderation queue
+    AUTO_HIDDEN        // The review reached the auto-hide threshold and was hidden
+}
@@ -0,0 +1,9 @@
+package br.ifsp.film_catalog.model.enums;
+
+public enum WatchlistSetOperation {
+    COPY,        // All movies of one list
+    MERGE,       // Movies in any of the lists
+    INTERSECT,   // Movies in every list
+    DIFFERENCE,  // Movies of the first list that are in none of the others
+    UNWATCHED    // Movies of one list the user has not watched
+}
@@ -0,0 +1,20 @@
+package br.ifsp.film_catalog.model.key;
+
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * Represents the composite primary key of a movie in a watchlist.
+ */
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class WatchlistMovieId implements Serializable {
+    private Long watchlistId;
+    private Long movieId;
+}
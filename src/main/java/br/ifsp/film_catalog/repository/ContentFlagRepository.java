@@ -1,11 +1,52 @@
 package br.ifsp.film_catalog.repository;
 
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import br.ifsp.film_catalog.model.ContentFlag;
 import br.ifsp.film_catalog.model.key.UserReviewId;
+import jakarta.persistence.LockModeType;
 
 public interface ContentFlagRepository extends JpaRepository<ContentFlag, UserReviewId> {
     boolean existsById(UserReviewId id);
 
+    @Modifying
+    @Query("DELETE FROM ContentFlag f WHERE f.review.id IN :reviewIds")
+    int deleteByReviewIdIn(@Param("reviewIds") Collection<Long> reviewIds);
+
+    @Query("SELECT f.id.reviewId FROM ContentFlag f WHERE f.id.userId = :userId ORDER BY f.id.reviewId")
+    List<Long> findReviewIdsByReporterId(@Param("userId") Long userId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM ContentFlag f WHERE f.id.userId = :userId AND f.id.reviewId IN :reviewIds")
+    int deleteByReporterIdAndReviewIdIn(@Param("userId") Long userId, @Param("reviewIds") Collection<Long> reviewIds);
+
+    /**
+     * Marks the given reporters' flags on a review as counted, returning how many were still uncounted.
+     */
+    @Modifying
+    @Query("UPDATE ContentFlag f SET f.evaluated = true WHERE f.id.reviewId = :reviewId AND f.id.userId IN :userIds AND f.evaluated = false")
+    int markEvaluated(@Param("reviewId") Long reviewId, @Param("userIds") Collection<Long> userIds);
+
+    // Keyset continuation over uncounted flags after the (reviewId, userId) of the last row read
+    @Query("""
+    SELECT f FROM ContentFlag f
+    WHERE f.evaluated = false
+      AND (f.id.reviewId > :reviewId OR (f.id.reviewId = :reviewId AND f.id.userId > :userId))
+    ORDER BY f.id.reviewId, f.id.userId
+    """)
+    List<ContentFlag> findUnevaluatedAfter(@Param("reviewId") Long reviewId, @Param("userId") Long userId, Pageable pageable);
+
+    // Locking read, so it also sees evaluations committed after the transaction's snapshot
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT f FROM ContentFlag f WHERE f.id.userId = :userId AND f.id.reviewId IN :reviewIds AND f.evaluated = true")
+    List<ContentFlag> findEvaluatedForUpdate(@Param("userId") Long userId, @Param("reviewIds") Collection<Long> reviewIds);
+
 }
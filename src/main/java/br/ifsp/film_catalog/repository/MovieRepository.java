@@ -3,6 +3,8 @@ package br.ifsp.film_catalog.repository;
 import br.ifsp.film_catalog.model.Genre;
 import br.ifsp.film_catalog.model.Movie;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
@@ -24,4 +26,49 @@ public interface MovieRepository extends JpaRepository<Movie, Long> {
     Page<Movie> findByGenresNameContainingIgnoreCase(@Param("genreName") String genreName, Pageable pageable);
     
     boolean existsByGenresId(Long genreId);
+
+    @Query("SELECT m.id FROM Movie m WHERE m.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT DISTINCT m FROM Movie m LEFT JOIN FETCH m.genres WHERE m.id IN :ids")
+    List<Movie> findAllWithGenresByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Scores each movie by the summed weights of the given genres it has; unused genre slots take id -1
+    @Query(value = """
+    SELECT m.* FROM movies m
+    JOIN (SELECT mg.movie_id,
+                 SUM(CASE mg.genre_id WHEN :genre1 THEN :weight1 WHEN :genre2 THEN :weight2 WHEN :genre3 THEN :weight3 ELSE 0 END) AS score
+          FROM movie_genres mg
+          WHERE mg.genre_id IN (:genre1, :genre2, :genre3)
+          GROUP BY mg.movie_id) scored ON scored.movie_id = m.id
+    WHERE NOT EXISTS (SELECT 1 FROM user_watcheds w WHERE w.user_id = :userId AND w.movie_id = m.id)
+    ORDER BY scored.score DESC, m.id
+    """,
+           countQuery = """
+    SELECT COUNT(DISTINCT mg.movie_id) FROM movie_genres mg
+    WHERE mg.genre_id IN (:genre1, :genre2, :genre3)
+      AND NOT EXISTS (SELECT 1 FROM user_watcheds w WHERE w.user_id = :userId AND w.movie_id = mg.movie_id)
+    """,
+           nativeQuery = true)
+    Page<Movie> findUnwatchedByWeightedGenres(@Param("userId") Long userId,
+                                              @Param("genre1") long genre1, @Param("weight1") int weight1,
+                                              @Param("genre2") long genre2, @Param("weight2") int weight2,
+                                              @Param("genre3") long genre3, @Param("weight3") int weight3,
+                                              Pageable pageable);
+
+    @Query("SELECT COALESCE(SUM(m.duration), 0) FROM Movie m WHERE m.id IN :ids")
+    long sumDurationByIdIn(@Param("ids") Collection<Long> ids);
+
+    // One row per movie and genre, so a genre shared by several movies is listed once per movie
+    @Query("SELECT g.id FROM Movie m JOIN m.genres g WHERE m.id IN :movieIds")
+    List<Long> findGenreIdsByMovieIdIn(@Param("movieIds") Collection<Long> movieIds);
+
+    @Query("SELECT m.id AS id, m.title AS title, m.releaseYear AS releaseYear FROM Movie m")
+    List<MovieTitle> findAllTitles();
+
+    interface MovieTitle {
+        Long getId();
+        String getTitle();
+        int getReleaseYear();
+    }
 }
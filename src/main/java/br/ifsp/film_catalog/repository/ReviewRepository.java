@@ -3,6 +3,8 @@ package br.ifsp.film_catalog.repository;
 import br.ifsp.film_catalog.model.Movie;
 import br.ifsp.film_catalog.model.Review;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.domain.Page;
@@ -12,13 +14,28 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-public interface ReviewRepository extends JpaRepository<Review, Long> {
+public interface ReviewRepository extends JpaRepository<Review, Long>, ReviewRepositoryCustom {
     Page<Review> findByUserWatched_User_Id(Long userId, Pageable pageable);
 
-    @Query("SELECT r FROM Review r WHERE SIZE(r.flags) >= :minFlags ORDER BY SIZE(r.flags) DESC, r.id ASC")
-    List<Review> findReviewsWithMinimumFlagsOrderByFlagsDesc(
-            @Param("minFlags") Integer minFlags
-    );
+    @Query(value = """
+    SELECT r FROM Review r JOIN FETCH r.userWatched uw JOIN FETCH uw.user JOIN FETCH uw.movie
+    WHERE r.flagCount >= :minFlags
+    ORDER BY r.flagCount DESC, r.id DESC
+    """,
+           countQuery = "SELECT COUNT(r) FROM Review r WHERE r.flagCount >= :minFlags")
+    Page<Review> findFlaggedReviews(@Param("minFlags") int minFlags, Pageable pageable);
+
+    // Keyset continuation of findFlaggedReviews after the (flagCount, id) of the last row read
+    @Query("""
+    SELECT r FROM Review r JOIN FETCH r.userWatched uw JOIN FETCH uw.user JOIN FETCH uw.movie
+    WHERE r.flagCount >= :minFlags
+      AND (r.flagCount < :cursorFlags OR (r.flagCount = :cursorFlags AND r.id < :cursorId))
+    ORDER BY r.flagCount DESC, r.id DESC
+    """)
+    List<Review> findFlaggedReviewsAfter(@Param("minFlags") int minFlags,
+                                         @Param("cursorFlags") int cursorFlags,
+                                         @Param("cursorId") long cursorId,
+                                         Pageable pageable);
 
     @Query("""
     SELECT r.userWatched.movie
@@ -31,26 +48,143 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
 
     Page<Review> findByUserWatched_Movie_Id(Long movieId, Pageable pageable);
 
+    @Query("SELECT r FROM Review r JOIN FETCH r.userWatched uw JOIN FETCH uw.user JOIN FETCH uw.movie WHERE r.id IN :ids")
+    List<Review> findAllWithUserAndMovieByIdIn(@Param("ids") Collection<Long> ids);
+
+    List<Review> findByHiddenFalseAndIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    // Only what the helpfulness score is computed from, one chunk in id order
+    @Query("""
+    SELECT r.id AS id, r.likesCount AS likesCount, r.flagCount AS flagCount,
+           r.createdAt AS createdAt, r.helpfulnessScore AS helpfulnessScore
+    FROM Review r
+    WHERE r.id > :afterId
+    ORDER BY r.id
+    """)
+    List<HelpfulnessInputs> findHelpfulnessInputsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    Page<Review> findByUserWatched_Movie_IdAndHiddenFalseOrderByHelpfulnessScoreDescIdDesc(Long movieId, Pageable pageable);
+
+    // Recent reviews feed; rating-only reviews have no text to show and are left out
+    @Query("SELECT r FROM Review r JOIN FETCH r.userWatched uw JOIN FETCH uw.user JOIN FETCH uw.movie WHERE r.hidden = false AND r.content IS NOT NULL AND r.id < :beforeId ORDER BY r.id DESC")
+    List<Review> findVisibleBefore(@Param("beforeId") Long beforeId, Pageable pageable);
+
     long countByUserWatched_User_Id(Long userId);
 
     @Query("SELECT COALESCE(SUM(r.likesCount), 0) FROM Review r WHERE r.userWatched.user.id = :userId")
     long sumLikesCountByUserWatched_User_Id(@Param("userId") Long userId);
 
-    @Query("SELECT AVG(r.directionScore) FROM Review r WHERE r.userWatched.user.id = :userId")
+    @Query("SELECT COALESCE(AVG(r.directionScore), 0.0) FROM Review r WHERE r.userWatched.user.id = :userId")
     double calculateAverageDirectionScoreByUserWatched_User_Id(@Param("userId") Long userId);
 
-    @Query("SELECT AVG(r.screenplayScore) FROM Review r WHERE r.userWatched.user.id = :userId")
+    @Query("SELECT COALESCE(AVG(r.screenplayScore), 0.0) FROM Review r WHERE r.userWatched.user.id = :userId")
     double calculateAverageScreenplayScoreByUserWatched_User_Id(@Param("userId") Long userId);
 
-    @Query("SELECT AVG(r.cinematographyScore) FROM Review r WHERE r.userWatched.user.id = :userId")
+    @Query("SELECT COALESCE(AVG(r.cinematographyScore), 0.0) FROM Review r WHERE r.userWatched.user.id = :userId")
     double calculateAverageCinematographyScoreByUserWatched_User_Id(@Param("userId") Long userId);
 
     @Query("SELECT AVG(r.generalScore) FROM Review r WHERE r.userWatched.user.id = :userId")
     double calculateAverageGeneralScoreByUserWatched_User_Id(@Param("userId") Long userId);
 
+    // Keyset over review ids matching a moderation filter; null parameters are ignored
+    @Query("""
+    SELECT r.id FROM Review r
+    WHERE r.id > :afterId
+      AND (:hidden IS NULL OR r.hidden = :hidden)
+      AND (:userId IS NULL OR r.userWatched.id.userId = :userId)
+      AND (:movieId IS NULL OR r.userWatched.id.movieId = :movieId)
+      AND (:minFlags IS NULL OR r.flagCount >= :minFlags)
+    ORDER BY r.id
+    """)
+    List<Long> findIdsForModeration(@Param("afterId") Long afterId,
+                                    @Param("hidden") Boolean hidden,
+                                    @Param("userId") Long userId,
+                                    @Param("movieId") Long movieId,
+                                    @Param("minFlags") Integer minFlags,
+                                    Pageable pageable);
+
+    @Query("SELECT r.id FROM Review r WHERE r.userWatched.id.userId = :userId ORDER BY r.id")
+    List<Long> findIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT r.id FROM Review r WHERE r.id IN :ids AND (:hidden IS NULL OR r.hidden = :hidden)")
+    List<Long> findIdsForModerationIn(@Param("ids") Collection<Long> ids, @Param("hidden") Boolean hidden);
+
+    /**
+     * Moderator hide or unhide; also claims reviews the flag threshold had hidden, so taking their flags back
+     * no longer shows them again.
+     */
     @Modifying
-    @Query("DELETE FROM Review r WHERE r.userWatched.id.movieId = :movieId")
-    void deleteByUserWatchedMovieId(@Param("movieId") Long movieId);
-}
+    @Query("UPDATE Review r SET r.hidden = :hidden, r.autoHidden = false WHERE r.id IN :ids AND (r.hidden <> :hidden OR r.autoHidden = true)")
+    int updateHiddenByIdIn(@Param("ids") Collection<Long> ids, @Param("hidden") boolean hidden);
+
+    @Modifying
+    @Query("DELETE FROM Review r WHERE r.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Adds newly committed flags and auto-hides the review once the threshold is reached, in a single statement.
+     * A review the threshold hides is marked auto-hidden, unless a moderator had already hidden it. The
+     * expressions reading the old hidden and count come first, for databases that apply SET left to right.
+     */
+    @Modifying
+    @Query("""
+    UPDATE Review r
+    SET r.autoHidden = CASE WHEN r.hidden = false AND r.flagCount + :delta >= :threshold THEN true ELSE r.autoHidden END,
+        r.hidden = CASE WHEN r.flagCount + :delta >= :threshold THEN true ELSE r.hidden END,
+        r.flagCount = r.flagCount + :delta
+    WHERE r.id = :reviewId
+    """)
+    int addToFlagCount(@Param("reviewId") Long reviewId, @Param("delta") int delta, @Param("threshold") int threshold);
 
+    @Query("SELECT r.flagCount AS flagCount, r.hidden AS hidden FROM Review r WHERE r.id = :reviewId")
+    FlagState findFlagStateById(@Param("reviewId") Long reviewId);
+
+    /**
+     * Takes back one flag from each review, for flags removed without going through moderation. A review
+     * the threshold hid is shown again in the same statement once its count drops below it, the expressions
+     * reading the old count again coming first; one a moderator hid stays hidden.
+     * {@link #findIdsAutoHiddenAtFlagCount} tells which ones are shown beforehand.
+     */
+    @Modifying
+    @Query("""
+    UPDATE Review r
+    SET r.hidden = CASE WHEN r.autoHidden = true AND r.flagCount = :threshold THEN false ELSE r.hidden END,
+        r.autoHidden = CASE WHEN r.autoHidden = true AND r.flagCount = :threshold THEN false ELSE r.autoHidden END,
+        r.flagCount = r.flagCount - 1
+    WHERE r.id IN :ids AND r.flagCount > 0
+    """)
+    int takeBackFlagByIdIn(@Param("ids") Collection<Long> ids, @Param("threshold") int threshold);
 
+    @Query("SELECT r.id FROM Review r WHERE r.id IN :ids AND r.autoHidden = true AND r.flagCount = :flagCount")
+    List<Long> findIdsAutoHiddenAtFlagCount(@Param("ids") Collection<Long> ids, @Param("flagCount") int flagCount);
+
+    /**
+     * Recounts every review from its evaluated flags; uncounted ones are left to the evaluation pipeline.
+     */
+    @Modifying
+    @Query("UPDATE Review r SET r.flagCount = (SELECT COUNT(f) FROM ContentFlag f WHERE f.review = r AND f.evaluated = true)")
+    int resyncFlagCounts();
+
+    // Applies the auto-hide to visible reviews a recount left at or over the threshold
+    @Modifying
+    @Query("UPDATE Review r SET r.hidden = true, r.autoHidden = true WHERE r.hidden = false AND r.flagCount >= :threshold")
+    int autoHideAtFlagCount(@Param("threshold") int threshold);
+
+    // Shows again reviews the threshold hid once a recount left them under it
+    @Modifying
+    @Query("UPDATE Review r SET r.hidden = false, r.autoHidden = false WHERE r.autoHidden = true AND r.flagCount < :threshold")
+    int showAutoHiddenUnderFlagCount(@Param("threshold") int threshold);
+
+    interface FlagState {
+        int getFlagCount();
+        boolean getHidden();
+    }
+
+    interface HelpfulnessInputs {
+        Long getId();
+        int getLikesCount();
+        int getFlagCount();
+        Instant getCreatedAt();
+        double getHelpfulnessScore();
+    }
+}
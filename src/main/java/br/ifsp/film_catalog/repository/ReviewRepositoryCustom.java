@@ -0,0 +1,18 @@
+package br.ifsp.film_catalog.repository;
+
+import java.util.Map;
+
+public interface ReviewRepositoryCustom {
+
+    /**
+     * Inserts rating-only reviews (no text, only the general score) with JDBC batches, bypassing
+     * the persistence context. The watched entries must exist and have no review yet.
+     */
+    void batchInsertRatings(Long userId, Map<Long, Integer> generalScoreByMovieId);
+
+    /**
+     * Writes helpfulness scores with one JDBC batch. updated_at is left alone: a rescore is not an
+     * edit of the review.
+     */
+    void batchUpdateHelpfulnessScores(Map<Long, Double> scoreByReviewId);
+}
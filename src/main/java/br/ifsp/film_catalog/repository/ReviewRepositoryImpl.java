@@ -0,0 +1,49 @@
+package br.ifsp.film_catalog.repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Calendar;
+import java.util.Map;
+import java.util.TimeZone;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class ReviewRepositoryImpl implements ReviewRepositoryCustom {
+
+    private static final int BATCH_SIZE = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ReviewRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void batchInsertRatings(Long userId, Map<Long, Integer> generalScoreByMovieId) {
+        // Hibernate stores Instant columns in UTC, so the timestamps are bound the same way
+        Timestamp now = Timestamp.from(Instant.now());
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO reviews (hidden, auto_hidden, content, direction_score, screenplay_score, cinematography_score,
+                                     general_score, likes_count, flag_count, helpfulness_score,
+                                     user_watched_user_id, user_watched_movie_id, created_at, updated_at)
+                VALUES (false, false, NULL, NULL, NULL, NULL, ?, 0, 0, 0, ?, ?, ?, ?)
+                """,
+                generalScoreByMovieId.entrySet(), BATCH_SIZE, (statement, entry) -> {
+                    statement.setInt(1, entry.getValue());
+                    statement.setLong(2, userId);
+                    statement.setLong(3, entry.getKey());
+                    statement.setTimestamp(4, now, utc);
+                    statement.setTimestamp(5, now, utc);
+                });
+    }
+
+    @Override
+    public void batchUpdateHelpfulnessScores(Map<Long, Double> scoreByReviewId) {
+        jdbcTemplate.batchUpdate("UPDATE reviews SET helpfulness_score = ? WHERE id = ?",
+                scoreByReviewId.entrySet(), BATCH_SIZE, (statement, entry) -> {
+                    statement.setDouble(1, entry.getValue());
+                    statement.setLong(2, entry.getKey());
+                });
+    }
+}
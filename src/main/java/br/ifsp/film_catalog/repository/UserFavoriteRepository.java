@@ -1,11 +1,38 @@
 package br.ifsp.film_catalog.repository;
 
+import br.ifsp.film_catalog.model.Movie;
 import br.ifsp.film_catalog.model.UserFavorite;
 import br.ifsp.film_catalog.model.key.UserMovieId;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.lang.NonNull;
 
+import java.util.Collection;
+import java.util.List;
 
-public interface UserFavoriteRepository extends JpaRepository<UserFavorite, UserMovieId> {
+
+public interface UserFavoriteRepository extends JpaRepository<UserFavorite, UserMovieId>, UserFavoriteRepositoryCustom {
     boolean existsById(@NonNull UserMovieId favoriteId);
+
+    // Movie is the root entity so Pageable sorts apply to movie columns
+    @Query(value = "SELECT m FROM Movie m JOIN m.favoritedBy f WHERE f.user.id = :userId",
+           countQuery = "SELECT COUNT(f) FROM UserFavorite f WHERE f.user.id = :userId")
+    Page<Movie> findFavoriteMoviesByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT f.id.movieId FROM UserFavorite f WHERE f.id.userId = :userId AND f.id.movieId IN :movieIds")
+    List<Long> findMovieIdsByUserIdAndMovieIdIn(@Param("userId") Long userId, @Param("movieIds") Collection<Long> movieIds);
+
+    @Query("SELECT f.id.movieId FROM UserFavorite f WHERE f.id.userId = :userId")
+    List<Long> findMovieIdsByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT f.id.movieId FROM UserFavorite f WHERE f.id.userId = :userId ORDER BY f.id.movieId")
+    List<Long> findMovieIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM UserFavorite f WHERE f.id.userId = :userId AND f.id.movieId IN :movieIds")
+    int deleteByUserIdAndMovieIdIn(@Param("userId") Long userId, @Param("movieIds") Collection<Long> movieIds);
 }
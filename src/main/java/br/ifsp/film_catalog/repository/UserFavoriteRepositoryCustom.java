@@ -0,0 +1,23 @@
+package br.ifsp.film_catalog.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface UserFavoriteRepositoryCustom {
+
+    /**
+     * Inserts favorites with JDBC batches, bypassing the persistence context.
+     * Callers must have filtered out existing favorites.
+     */
+    void batchInsert(Long userId, Collection<Long> movieIds, LocalDateTime favoritedAt);
+
+    /**
+     * Streams every favorite as (user id, movie id) without loading entities.
+     */
+    void forEachFavorite(FavoriteRowHandler handler);
+
+    @FunctionalInterface
+    interface FavoriteRowHandler {
+        void accept(long userId, long movieId);
+    }
+}
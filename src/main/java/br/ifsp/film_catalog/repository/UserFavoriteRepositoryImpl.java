@@ -0,0 +1,43 @@
+package br.ifsp.film_catalog.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class UserFavoriteRepositoryImpl implements UserFavoriteRepositoryCustom {
+
+    private static final int BATCH_SIZE = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserFavoriteRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void batchInsert(Long userId, Collection<Long> movieIds, LocalDateTime favoritedAt) {
+        Timestamp timestamp = Timestamp.valueOf(favoritedAt);
+        jdbcTemplate.batchUpdate("INSERT INTO user_favorites (user_id, movie_id, favorited_at) VALUES (?, ?, ?)",
+                movieIds, BATCH_SIZE, (statement, movieId) -> {
+                    statement.setLong(1, userId);
+                    statement.setLong(2, movieId);
+                    statement.setTimestamp(3, timestamp);
+                });
+    }
+
+    @Override
+    public void forEachFavorite(FavoriteRowHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement("SELECT user_id, movie_id FROM user_favorites",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(Integer.MIN_VALUE); // MySQL streams rows instead of buffering the result
+            return statement;
+        }, resultSet -> {
+            handler.accept(resultSet.getLong(1), resultSet.getLong(2));
+        });
+    }
+}
@@ -0,0 +1,58 @@
+package br.ifsp.film_catalog.repository;
+
+import br.ifsp.film_catalog.model.UserGenreAffinity;
+
+import java.util.List;
+import java.util.Optional;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface UserGenreAffinityRepository extends JpaRepository<UserGenreAffinity, Long> {
+
+    // Creates an empty, stale profile so that concurrent first updates never race on the insert
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO user_genre_affinities (user_id, stale) VALUES (:userId, true)", nativeQuery = true)
+    void insertIfAbsent(@Param("userId") Long userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM UserGenreAffinity a WHERE a.userId = :userId")
+    Optional<UserGenreAffinity> findForUpdate(@Param("userId") Long userId);
+
+    @Query("""
+    SELECT g.id AS genreId, COUNT(w) AS total
+    FROM UserWatched w JOIN w.movie m JOIN m.genres g
+    WHERE w.id.userId = :userId
+    GROUP BY g.id
+    """)
+    List<GenreTotal> countWatchedByGenre(@Param("userId") Long userId);
+
+    @Query("""
+    SELECT g.id AS genreId, COUNT(f) AS total
+    FROM UserFavorite f JOIN f.movie m JOIN m.genres g
+    WHERE f.id.userId = :userId
+    GROUP BY g.id
+    """)
+    List<GenreTotal> countFavoritesByGenre(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("""
+    UPDATE UserGenreAffinity a SET a.stale = true
+    WHERE a.userId IN (SELECT w.id.userId FROM UserWatched w WHERE w.id.movieId = :movieId)
+       OR a.userId IN (SELECT f.id.userId FROM UserFavorite f WHERE f.id.movieId = :movieId)
+    """)
+    int markStaleForMovie(@Param("movieId") Long movieId);
+
+    @Modifying
+    @Query("DELETE FROM UserGenreAffinity a WHERE a.userId = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
+
+    interface GenreTotal {
+        Long getGenreId();
+        long getTotal();
+    }
+}
@@ -4,7 +4,11 @@ import br.ifsp.film_catalog.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -17,4 +21,28 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
+
+    // Keyset over the login identifiers, used to build the availability filter
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<UserIdentifiers> findIdentifiersAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Query(value = "DELETE FROM user_roles WHERE user_id = :userId", nativeQuery = true)
+    int deleteRolesByUserId(@Param("userId") Long userId);
+
+    // Also takes the row lock, which holds off concurrent inserts referencing the user until commit
+    @Modifying
+    @Query("UPDATE User u SET u.deactivated = true WHERE u.id = :userId")
+    int deactivateById(@Param("userId") Long userId);
+
+    // Removes the row alone; dependents must already be gone, see UserDeletionService
+    @Modifying
+    @Query("DELETE FROM User u WHERE u.id = :userId")
+    int deleteRowById(@Param("userId") Long userId);
+
+    interface UserIdentifiers {
+        Long getId();
+        String getUsername();
+        String getEmail();
+    }
 }
@@ -0,0 +1,75 @@
+package br.ifsp.film_catalog.repository;
+
+import br.ifsp.film_catalog.model.UserStats;
+
+import java.util.Collection;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface UserStatsRepository extends JpaRepository<UserStats, Long> {
+
+    // Users without a row are skipped; their counters are computed on the next read
+    @Modifying
+    @Query("""
+    UPDATE UserStats s SET
+        s.watchedCount = s.watchedCount + :watched,
+        s.minutesWatched = s.minutesWatched + :minutes,
+        s.favoritesCount = s.favoritesCount + :favorites,
+        s.reviewsCount = s.reviewsCount + :reviews,
+        s.likesReceived = s.likesReceived + :likes,
+        s.watchlistsCount = s.watchlistsCount + :watchlists
+    WHERE s.userId = :userId
+    """)
+    int addDeltas(@Param("userId") Long userId,
+                  @Param("watched") long watched,
+                  @Param("minutes") long minutes,
+                  @Param("favorites") long favorites,
+                  @Param("reviews") long reviews,
+                  @Param("likes") long likes,
+                  @Param("watchlists") long watchlists);
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = """
+    INSERT INTO user_stats (user_id, watched_count, minutes_watched, favorites_count, reviews_count,
+                            likes_received, watchlists_count, stale)
+    SELECT :userId,
+           (SELECT COUNT(*) FROM user_watcheds w WHERE w.user_id = :userId),
+           (SELECT COALESCE(SUM(m.duration), 0) FROM user_watcheds w JOIN movies m ON m.id = w.movie_id WHERE w.user_id = :userId),
+           (SELECT COUNT(*) FROM user_favorites f WHERE f.user_id = :userId),
+           (SELECT COUNT(*) FROM reviews r WHERE r.user_watched_user_id = :userId),
+           (SELECT COALESCE(SUM(r.likes_count), 0) FROM reviews r WHERE r.user_watched_user_id = :userId),
+           (SELECT COUNT(*) FROM watchlists l WHERE l.user_id = :userId),
+           false
+    ON DUPLICATE KEY UPDATE
+        watched_count = VALUES(watched_count),
+        minutes_watched = VALUES(minutes_watched),
+        favorites_count = VALUES(favorites_count),
+        reviews_count = VALUES(reviews_count),
+        likes_received = VALUES(likes_received),
+        watchlists_count = VALUES(watchlists_count),
+        stale = false
+    """, nativeQuery = true)
+    void recompute(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("""
+    UPDATE UserStats s SET s.stale = true
+    WHERE s.userId IN (SELECT w.id.userId FROM UserWatched w WHERE w.id.movieId = :movieId)
+       OR s.userId IN (SELECT f.id.userId FROM UserFavorite f WHERE f.id.movieId = :movieId)
+    """)
+    int markStaleForMovie(@Param("movieId") Long movieId);
+
+    @Modifying
+    @Query("""
+    UPDATE UserStats s SET s.stale = true
+    WHERE s.userId IN (SELECT r.userWatched.id.userId FROM Review r WHERE r.id IN :reviewIds)
+    """)
+    int markStaleForReviews(@Param("reviewIds") Collection<Long> reviewIds);
+
+    @Modifying
+    @Query("DELETE FROM UserStats s WHERE s.userId = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
+}
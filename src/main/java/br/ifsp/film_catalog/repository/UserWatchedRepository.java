@@ -1,10 +1,41 @@
 package br.ifsp.film_catalog.repository;
 
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import br.ifsp.film_catalog.model.Movie;
 import br.ifsp.film_catalog.model.UserWatched;
 import br.ifsp.film_catalog.model.key.UserMovieId;
 
-public interface UserWatchedRepository extends JpaRepository<UserWatched, UserMovieId> {
-    
+public interface UserWatchedRepository extends JpaRepository<UserWatched, UserMovieId>, UserWatchedRepositoryCustom {
+
+    // Movie is the root entity so Pageable sorts apply to movie columns
+    @Query(value = "SELECT m FROM Movie m JOIN m.watchedBy w WHERE w.user.id = :userId",
+           countQuery = "SELECT COUNT(w) FROM UserWatched w WHERE w.user.id = :userId")
+    Page<Movie> findWatchedMoviesByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT w.id.movieId FROM UserWatched w WHERE w.id.userId = :userId AND w.id.movieId IN :movieIds")
+    List<Long> findMovieIdsByUserIdAndMovieIdIn(@Param("userId") Long userId, @Param("movieIds") Collection<Long> movieIds);
+
+    @Query("SELECT w.id.movieId FROM UserWatched w WHERE w.id.userId = :userId ORDER BY w.id.movieId")
+    List<Long> findMovieIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM UserWatched w WHERE w.id.userId = :userId AND w.id.movieId IN :movieIds")
+    int deleteByUserIdAndMovieIdIn(@Param("userId") Long userId, @Param("movieIds") Collection<Long> movieIds);
+
+    @Query("SELECT w.id.movieId AS movieId, r.generalScore AS generalScore FROM UserWatched w LEFT JOIN w.review r WHERE w.id.userId = :userId")
+    List<WatchedScore> findWatchedScoresByUserId(@Param("userId") Long userId);
+
+    interface WatchedScore {
+        Long getMovieId();
+        Integer getGeneralScore();
+    }
 }
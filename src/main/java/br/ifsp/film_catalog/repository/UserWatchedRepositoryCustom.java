@@ -0,0 +1,29 @@
+package br.ifsp.film_catalog.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+
+public interface UserWatchedRepositoryCustom {
+
+    /**
+     * Inserts watched entries with JDBC batches, bypassing the persistence context.
+     * Callers must have filtered out existing entries.
+     */
+    void batchInsert(Long userId, Collection<Long> movieIds, LocalDateTime watchedAt);
+
+    /**
+     * Same as {@link #batchInsert(Long, Collection, LocalDateTime)} with a watch date per movie.
+     */
+    void batchInsert(Long userId, Map<Long, LocalDateTime> watchedAtByMovieId);
+
+    /**
+     * Streams every watched entry with the general score of its review, if any, without loading entities.
+     */
+    void forEachWatched(WatchedRowHandler handler);
+
+    @FunctionalInterface
+    interface WatchedRowHandler {
+        void accept(long userId, long movieId, Integer generalScore);
+    }
+}
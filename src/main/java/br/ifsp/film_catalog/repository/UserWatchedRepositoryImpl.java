@@ -0,0 +1,58 @@
+package br.ifsp.film_catalog.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class UserWatchedRepositoryImpl implements UserWatchedRepositoryCustom {
+
+    private static final int BATCH_SIZE = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserWatchedRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void batchInsert(Long userId, Collection<Long> movieIds, LocalDateTime watchedAt) {
+        Timestamp timestamp = Timestamp.valueOf(watchedAt);
+        jdbcTemplate.batchUpdate("INSERT INTO user_watcheds (user_id, movie_id, watched_at) VALUES (?, ?, ?)",
+                movieIds, BATCH_SIZE, (statement, movieId) -> {
+                    statement.setLong(1, userId);
+                    statement.setLong(2, movieId);
+                    statement.setTimestamp(3, timestamp);
+                });
+    }
+
+    @Override
+    public void batchInsert(Long userId, Map<Long, LocalDateTime> watchedAtByMovieId) {
+        jdbcTemplate.batchUpdate("INSERT INTO user_watcheds (user_id, movie_id, watched_at) VALUES (?, ?, ?)",
+                watchedAtByMovieId.entrySet(), BATCH_SIZE, (statement, entry) -> {
+                    statement.setLong(1, userId);
+                    statement.setLong(2, entry.getKey());
+                    statement.setTimestamp(3, Timestamp.valueOf(entry.getValue()));
+                });
+    }
+
+    @Override
+    public void forEachWatched(WatchedRowHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement("""
+                    SELECT w.user_id, w.movie_id, r.general_score
+                    FROM user_watcheds w
+                    LEFT JOIN reviews r ON r.user_watched_user_id = w.user_id AND r.user_watched_movie_id = w.movie_id
+                    """, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(Integer.MIN_VALUE); // MySQL streams rows instead of buffering the result
+            return statement;
+        }, resultSet -> {
+            int score = resultSet.getInt(3);
+            handler.accept(resultSet.getLong(1), resultSet.getLong(2), resultSet.wasNull() ? null : score);
+        });
+    }
+}
@@ -1,19 +1,179 @@
 package br.ifsp.film_catalog.repository;
 
+import br.ifsp.film_catalog.model.Movie;
 import br.ifsp.film_catalog.model.Watchlist;
+import br.ifsp.film_catalog.model.WatchlistItem;
+import jakarta.persistence.LockModeType;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-public interface WatchlistRepository extends JpaRepository<Watchlist, Long> {
+public interface WatchlistRepository extends JpaRepository<Watchlist, Long>, WatchlistRepositoryCustom {
 
     Page<Watchlist> findAllByUser_Id(Long id, Pageable pageable);
 
-    @Query("SELECT w FROM Watchlist w LEFT JOIN FETCH w.movies WHERE w.id = :watchlistId AND w.user.id = :userId")
-    Optional<Watchlist> findByIdAndUserId(@Param("watchlistId") Long watchlistId, @Param("userId") Long userId);
+    /**
+     * One row per watchlist of the user with its movie count, runtime and movie ids in rank order,
+     * aggregated in the same query that pages the lists.
+     */
+    @Query(value = "SELECT w.id AS id, w.name AS name, w.description AS description, " +
+                   "COUNT(m.id) AS movieCount, COALESCE(SUM(m.duration), 0) AS totalRuntime, " +
+                   "LISTAGG(CAST(m.id AS String), ',') WITHIN GROUP (ORDER BY i.position, m.id) AS movieIds " +
+                   "FROM Watchlist w LEFT JOIN WatchlistItem i ON i.watchlist = w LEFT JOIN i.movie m " +
+                   "WHERE w.user.id = :userId GROUP BY w.id, w.name, w.description",
+           countQuery = "SELECT COUNT(w) FROM Watchlist w WHERE w.user.id = :userId")
+    Page<WatchlistSummary> findSummariesByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    // Watchlist row only; the contents are read and changed through the join table queries below
+    Optional<Watchlist> findByIdAndUser_Id(Long id, Long userId);
+
+    Optional<Watchlist> findByShareToken(String shareToken);
+
+    @Query("SELECT w.shareToken FROM Watchlist w WHERE w.id IN :ids AND w.shareToken IS NOT NULL")
+    List<String> findShareTokensByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Serializes changes to the order of a list
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM Watchlist w WHERE w.id = :id AND w.user.id = :userId")
+    Optional<Watchlist> findForUpdate(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Query(value = "SELECT m FROM Movie m JOIN m.watchlists w WHERE w.id = :watchlistId",
+           countQuery = "SELECT COUNT(m) FROM Movie m JOIN m.watchlists w WHERE w.id = :watchlistId")
+    Page<Movie> findMoviesByWatchlistId(@Param("watchlistId") Long watchlistId, Pageable pageable);
+
+    // Keyset read in rank order after the (position, movie id) of the last item read
+    @Query("""
+    SELECT i FROM WatchlistItem i JOIN FETCH i.movie
+    WHERE i.id.watchlistId = :watchlistId
+      AND (i.position > :cursorPosition OR (i.position = :cursorPosition AND i.id.movieId > :cursorMovieId))
+    ORDER BY i.position, i.id.movieId
+    """)
+    List<WatchlistItem> findItemsAfter(@Param("watchlistId") Long watchlistId,
+                                       @Param("cursorPosition") long cursorPosition,
+                                       @Param("cursorMovieId") long cursorMovieId,
+                                       Pageable pageable);
+
+    @Query("SELECT i.position FROM WatchlistItem i WHERE i.id.watchlistId = :watchlistId AND i.id.movieId = :movieId")
+    Optional<Long> findPosition(@Param("watchlistId") Long watchlistId, @Param("movieId") Long movieId);
+
+    // Position of the item that follows (position, movie id), leaving out the item being moved
+    @Query("""
+    SELECT i.position FROM WatchlistItem i
+    WHERE i.id.watchlistId = :watchlistId AND i.id.movieId <> :movingMovieId
+      AND (i.position > :position OR (i.position = :position AND i.id.movieId > :movieId))
+    ORDER BY i.position, i.id.movieId
+    """)
+    List<Long> findNextPositions(@Param("watchlistId") Long watchlistId,
+                                 @Param("movingMovieId") Long movingMovieId,
+                                 @Param("position") long position,
+                                 @Param("movieId") long movieId,
+                                 Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE WatchlistItem i SET i.position = :position WHERE i.id.watchlistId = :watchlistId AND i.id.movieId = :movieId")
+    int updatePosition(@Param("watchlistId") Long watchlistId, @Param("movieId") Long movieId, @Param("position") long position);
+
+    // Spreads the positions of a list POSITION_GAP apart again, keeping the current order
+    @Modifying
+    @Query(value = "UPDATE watchlist_movies wm " +
+                   "JOIN (SELECT movie_id, ROW_NUMBER() OVER (ORDER BY position, movie_id) AS item_rank " +
+                   "      FROM watchlist_movies WHERE watchlist_id = :watchlistId) ranked ON ranked.movie_id = wm.movie_id " +
+                   "SET wm.position = ranked.item_rank * " + WatchlistItem.POSITION_GAP + " " +
+                   "WHERE wm.watchlist_id = :watchlistId", nativeQuery = true)
+    int rebalancePositions(@Param("watchlistId") Long watchlistId);
+
+    // Appends after the last item; callers hold the list lock and have checked the movie is not in it yet
+    @Modifying
+    @Query(value = "INSERT INTO watchlist_movies (watchlist_id, movie_id, position) " +
+                   "SELECT :watchlistId, :movieId, COALESCE(MAX(position), 0) + " + WatchlistItem.POSITION_GAP + " " +
+                   "FROM watchlist_movies WHERE watchlist_id = :watchlistId", nativeQuery = true)
+    int addMovie(@Param("watchlistId") Long watchlistId, @Param("movieId") Long movieId);
+
+    @Modifying
+    @Query(value = "DELETE FROM watchlist_movies WHERE watchlist_id = :watchlistId AND movie_id = :movieId", nativeQuery = true)
+    int removeMovie(@Param("watchlistId") Long watchlistId, @Param("movieId") Long movieId);
+
+    @Query(value = "SELECT movie_id FROM watchlist_movies WHERE watchlist_id = :watchlistId AND movie_id IN :movieIds", nativeQuery = true)
+    List<Long> findMovieIdsByWatchlistIdAndMovieIdIn(@Param("watchlistId") Long watchlistId, @Param("movieIds") Collection<Long> movieIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM watchlist_movies WHERE watchlist_id = :watchlistId AND movie_id IN :movieIds", nativeQuery = true)
+    int removeMovies(@Param("watchlistId") Long watchlistId, @Param("movieIds") Collection<Long> movieIds);
+
+    long countByIdInAndUser_Id(Collection<Long> ids, Long userId);
+
+    // Set operations: each writes its result into an empty target list with one INSERT ... SELECT,
+    // numbering positions in the rank order of the source lists. Return the number of movies written.
+
+    @Modifying
+    @Query(value = "INSERT INTO watchlist_movies (watchlist_id, movie_id, position) " +
+                   "SELECT :targetId, wm.movie_id, ROW_NUMBER() OVER (ORDER BY wm.position, wm.movie_id) * " + WatchlistItem.POSITION_GAP + " " +
+                   "FROM watchlist_movies wm WHERE wm.watchlist_id = :sourceId", nativeQuery = true)
+    int copyMovies(@Param("sourceId") Long sourceId, @Param("targetId") Long targetId);
+
+    // A movie found in several lists takes its rank from the first of them in sourceIds;
+    // sourceOrder is the same ids joined with commas, in the same order
+    @Modifying
+    @Query(value = "INSERT INTO watchlist_movies (watchlist_id, movie_id, position) " +
+                   "SELECT :targetId, ranked.movie_id, " +
+                   "       ROW_NUMBER() OVER (ORDER BY ranked.source_rank, ranked.position, ranked.movie_id) * " + WatchlistItem.POSITION_GAP + " " +
+                   "FROM (SELECT wm.movie_id, wm.position, FIND_IN_SET(wm.watchlist_id, :sourceOrder) AS source_rank, " +
+                   "             ROW_NUMBER() OVER (PARTITION BY wm.movie_id ORDER BY FIND_IN_SET(wm.watchlist_id, :sourceOrder), wm.position) AS occurrence " +
+                   "      FROM watchlist_movies wm WHERE wm.watchlist_id IN :sourceIds) ranked " +
+                   "WHERE ranked.occurrence = 1", nativeQuery = true)
+    int mergeMovies(@Param("sourceIds") Collection<Long> sourceIds, @Param("sourceOrder") String sourceOrder,
+                    @Param("targetId") Long targetId);
+
+    // sourceIds must be distinct and include firstId, whose ranks the result keeps
+    @Modifying
+    @Query(value = "INSERT INTO watchlist_movies (watchlist_id, movie_id, position) " +
+                   "SELECT :targetId, wm.movie_id, ROW_NUMBER() OVER (ORDER BY wm.position, wm.movie_id) * " + WatchlistItem.POSITION_GAP + " " +
+                   "FROM watchlist_movies wm WHERE wm.watchlist_id = :firstId AND wm.movie_id IN (" +
+                   "    SELECT o.movie_id FROM watchlist_movies o WHERE o.watchlist_id IN :sourceIds " +
+                   "    GROUP BY o.movie_id HAVING COUNT(*) = :sourceCount)", nativeQuery = true)
+    int intersectMovies(@Param("firstId") Long firstId, @Param("sourceIds") Collection<Long> sourceIds,
+                        @Param("sourceCount") int sourceCount, @Param("targetId") Long targetId);
+
+    @Modifying
+    @Query(value = "INSERT INTO watchlist_movies (watchlist_id, movie_id, position) " +
+                   "SELECT :targetId, wm.movie_id, ROW_NUMBER() OVER (ORDER BY wm.position, wm.movie_id) * " + WatchlistItem.POSITION_GAP + " " +
+                   "FROM watchlist_movies wm WHERE wm.watchlist_id = :firstId AND NOT EXISTS (" +
+                   "    SELECT 1 FROM watchlist_movies o WHERE o.watchlist_id IN :otherIds AND o.movie_id = wm.movie_id)", nativeQuery = true)
+    int differenceMovies(@Param("firstId") Long firstId, @Param("otherIds") Collection<Long> otherIds, @Param("targetId") Long targetId);
+
+    @Modifying
+    @Query(value = "INSERT INTO watchlist_movies (watchlist_id, movie_id, position) " +
+                   "SELECT :targetId, wm.movie_id, ROW_NUMBER() OVER (ORDER BY wm.position, wm.movie_id) * " + WatchlistItem.POSITION_GAP + " " +
+                   "FROM watchlist_movies wm WHERE wm.watchlist_id = :sourceId AND NOT EXISTS (" +
+                   "    SELECT 1 FROM user_watcheds uw WHERE uw.user_id = :userId AND uw.movie_id = wm.movie_id)", nativeQuery = true)
+    int unwatchedMovies(@Param("sourceId") Long sourceId, @Param("userId") Long userId, @Param("targetId") Long targetId);
+
+    @Query("SELECT w.id FROM Watchlist w WHERE w.user.id = :userId ORDER BY w.id")
+    List<Long> findIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Modifying
+    @Query(value = "DELETE FROM watchlist_movies WHERE watchlist_id IN :watchlistIds", nativeQuery = true)
+    int deleteMoviesByWatchlistIdIn(@Param("watchlistIds") Collection<Long> watchlistIds);
+
+    @Modifying
+    @Query("DELETE FROM Watchlist w WHERE w.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    interface WatchlistSummary {
+        Long getId();
+        String getName();
+        String getDescription();
+        Long getMovieCount();
+        Long getTotalRuntime();
+        String getMovieIds(); // Comma separated, may be cut short by the database for very long lists
+    }
 }
@@ -0,0 +1,14 @@
+package br.ifsp.film_catalog.repository;
+
+import java.util.Collection;
+
+public interface WatchlistRepositoryCustom {
+
+    /**
+     * Appends the movies, in the given order, with multi-row inserts on the join table, bypassing
+     * the persistence context. Callers hold the list lock and pass only movies not in it yet.
+     *
+     * @return the number of rows inserted
+     */
+    int addMovies(Long watchlistId, Collection<Long> movieIds);
+}
@@ -0,0 +1,43 @@
+package br.ifsp.film_catalog.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import br.ifsp.film_catalog.model.WatchlistItem;
+
+public class WatchlistRepositoryImpl implements WatchlistRepositoryCustom {
+
+    private static final int ROWS_PER_STATEMENT = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public WatchlistRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int addMovies(Long watchlistId, Collection<Long> movieIds) {
+        List<Long> ids = new ArrayList<>(movieIds);
+        Long last = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MAX(position), 0) FROM watchlist_movies WHERE watchlist_id = ?", Long.class, watchlistId);
+        long position = last == null ? 0 : last;
+        int inserted = 0;
+        for (int from = 0; from < ids.size(); from += ROWS_PER_STATEMENT) {
+            List<Long> chunk = ids.subList(from, Math.min(from + ROWS_PER_STATEMENT, ids.size()));
+            StringBuilder sql = new StringBuilder("INSERT INTO watchlist_movies (watchlist_id, movie_id, position) VALUES ");
+            Object[] args = new Object[chunk.size() * 3];
+            for (int i = 0; i < chunk.size(); i++) {
+                position += WatchlistItem.POSITION_GAP;
+                sql.append(i == 0 ? "(?, ?, ?)" : ", (?, ?, ?)");
+                args[i * 3] = watchlistId;
+                args[i * 3 + 1] = chunk.get(i);
+                args[i * 3 + 2] = position;
+            }
+            inserted += jdbcTemplate.update(sql.toString(), args);
+        }
+        return inserted;
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.core.GrantedAuthority;
@@ -40,6 +41,10 @@ public class CustomJwtAuthenticationConverter implements Converter<Jwt, Abstract
 
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + userId));
+        // Tokens issued before the account started being deleted stop working
+        if (user.isDeactivated()) {
+            throw new DisabledException("User is being deleted: " + userId);
+        }
         return new UserAuthenticated(user);
     }
 }
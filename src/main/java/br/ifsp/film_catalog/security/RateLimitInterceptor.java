@@ -0,0 +1,70 @@
+package br.ifsp.film_catalog.security;
+
+import br.ifsp.film_catalog.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.env.Environment;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Applies {@link RateLimited} to controller methods, keyed by the authenticated user
+ * (or the client address for anonymous calls).
+ */
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final SlidingWindowRateLimiter rateLimiter;
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    public RateLimitInterceptor(SlidingWindowRateLimiter rateLimiter, Environment environment, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        RateLimited rateLimited = handlerMethod.getMethodAnnotation(RateLimited.class);
+        if (rateLimited == null) {
+            return true;
+        }
+
+        String key = rateLimited.key();
+        int limit = environment.getProperty("app.rate-limit." + key + ".limit", Integer.class, rateLimited.limit());
+        int windowSeconds = environment.getProperty("app.rate-limit." + key + ".window-seconds", Integer.class, rateLimited.windowSeconds());
+
+        long retryAfter = rateLimiter.tryAcquire(key + ":" + callerOf(request), limit, windowSeconds * 1000L);
+        if (retryAfter > 0) {
+            Counter.builder("ratelimit.rejected")
+                    .description("Calls rejected by the per-user rate limiter")
+                    .tag("action", key)
+                    .register(meterRegistry)
+                    .increment();
+            throw new RateLimitExceededException(
+                    String.format("Too many requests: at most %d per %d seconds. Try again in %d seconds.", limit, windowSeconds, retryAfter),
+                    retryAfter);
+        }
+        return true;
+    }
+
+    private static String callerOf(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserAuthenticated user) {
+            return "user:" + user.getUser().getId();
+        }
+        if (authentication != null && authentication.isAuthenticated() && authentication.getName() != null) {
+            return "name:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,22 @@
+package br.ifsp.film_catalog.security;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limits how many times each authenticated user may call the annotated endpoint within a sliding window.
+ * The limits can be overridden with {@code app.rate-limit.<key>.limit} and
+ * {@code app.rate-limit.<key>.window-seconds}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimited {
+
+    String key();
+
+    int limit();
+
+    int windowSeconds() default 60;
+}
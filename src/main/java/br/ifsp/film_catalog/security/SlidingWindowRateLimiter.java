@@ -0,0 +1,125 @@
+package br.ifsp.film_catalog.security;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory sliding-window counter per key (e.g. action and user).
+ * <p>
+ * Each window is split into {@value #BUCKETS} buckets. A bucket is one {@code long} packing the bucket
+ * epoch (high bits) and its count (low {@value #COUNT_BITS} bits), updated with CAS only, so concurrent
+ * calls for the same user never block each other. A call is counted first and rolled back when it
+ * pushes the window over the limit, which keeps the limit exact under concurrency.
+ */
+@Component
+public class SlidingWindowRateLimiter {
+
+    static final int BUCKETS = 10;
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final ConcurrentMap<String, Window> windows = new ConcurrentHashMap<>();
+
+    /**
+     * Records a call and returns 0 when it is allowed, or the number of seconds after which the
+     * caller may try again.
+     */
+    public long tryAcquire(String key, int limit, long windowMillis) {
+        return tryAcquire(key, limit, windowMillis, System.currentTimeMillis());
+    }
+
+    public long tryAcquire(String key, int limit, long windowMillis, long nowMillis) {
+        Window window = windows.computeIfAbsent(key, k -> new Window(windowMillis));
+        return window.tryAcquire(limit, nowMillis);
+    }
+
+    public int size() {
+        return windows.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.cleanup-interval-ms:60000}")
+    public void evictIdle() {
+        evictIdle(System.currentTimeMillis());
+    }
+
+    public void evictIdle(long nowMillis) {
+        windows.entrySet().removeIf(entry -> entry.getValue().isIdle(nowMillis));
+    }
+
+    private static final class Window {
+
+        private final long bucketMillis;
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private volatile long lastAccessMillis;
+
+        private Window(long windowMillis) {
+            this.bucketMillis = Math.max(1, windowMillis / BUCKETS);
+        }
+
+        private long tryAcquire(int limit, long nowMillis) {
+            lastAccessMillis = nowMillis;
+            long epoch = nowMillis / bucketMillis;
+            int slot = (int) (epoch % BUCKETS);
+
+            long updated;
+            while (true) {
+                long current = buckets.get(slot);
+                long next = epochOf(current) == epoch ? current + 1 : pack(epoch, 1);
+                if (buckets.compareAndSet(slot, current, next)) {
+                    updated = next;
+                    break;
+                }
+            }
+
+            long total = 0;
+            long oldestEpoch = epoch;
+            for (int i = 0; i < BUCKETS; i++) {
+                long bucket = i == slot ? updated : buckets.get(i);
+                long bucketEpoch = epochOf(bucket);
+                if (bucketEpoch > epoch - BUCKETS && bucketEpoch <= epoch && countOf(bucket) > 0) {
+                    total += countOf(bucket);
+                    oldestEpoch = Math.min(oldestEpoch, bucketEpoch);
+                }
+            }
+            if (total <= limit) {
+                return 0;
+            }
+
+            release(slot, epoch);
+            long freedAtMillis = (oldestEpoch + BUCKETS) * bucketMillis;
+            return Math.max(1, (freedAtMillis - nowMillis + 999) / 1000);
+        }
+
+        private void release(int slot, long epoch) {
+            while (true) {
+                long current = buckets.get(slot);
+                if (epochOf(current) != epoch || countOf(current) == 0) {
+                    return;
+                }
+                if (buckets.compareAndSet(slot, current, current - 1)) {
+                    return;
+                }
+            }
+        }
+
+        private boolean isIdle(long nowMillis) {
+            return nowMillis - lastAccessMillis > bucketMillis * BUCKETS;
+        }
+
+        private static long pack(long epoch, long count) {
+            return (epoch << COUNT_BITS) | count;
+        }
+
+        private static long epochOf(long bucket) {
+            return bucket >>> COUNT_BITS;
+        }
+
+        private static long countOf(long bucket) {
+            return bucket & COUNT_MASK;
+        }
+    }
+}
@@ -53,7 +53,7 @@ public class UserAuthenticated implements UserDetails, Principal {
 
     @Override
     public boolean isEnabled() {
-        return true;
+        return !user.isDeactivated();
     }
 
     @Override
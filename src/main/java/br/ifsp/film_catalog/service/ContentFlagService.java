@@ -1,10 +1,10 @@
 package br.ifsp.film_catalog.service;
 
 import br.ifsp.film_catalog.dto.*;
+import br.ifsp.film_catalog.dto.page.CursorPagedResponse;
 import br.ifsp.film_catalog.dto.page.PagedResponse;
 import br.ifsp.film_catalog.exception.InvalidReviewStateException;
 import br.ifsp.film_catalog.exception.ResourceNotFoundException;
-import br.ifsp.film_catalog.mapper.PagedResponseMapper;
 import br.ifsp.film_catalog.model.ContentFlag;
 import br.ifsp.film_catalog.model.Review;
 import br.ifsp.film_catalog.model.User;
@@ -12,17 +12,15 @@ import br.ifsp.film_catalog.model.key.UserReviewId;
 import br.ifsp.film_catalog.repository.ContentFlagRepository;
 import br.ifsp.film_catalog.repository.ReviewRepository;
 import br.ifsp.film_catalog.repository.UserRepository;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class ContentFlagService {
@@ -31,24 +29,21 @@ public class ContentFlagService {
     private final ReviewRepository reviewRepository;
     private final UserRepository userRepository;
     private final ReviewService reviewService;
-    private final ModelMapper modelMapper;
-    private final PagedResponseMapper pagedResponseMapper;
+    private final FlagEvaluationPipeline flagEvaluationPipeline;
 
     @Value("${app.reviews.flags.auto-hide-threshold:10}")
-    private int autoHideThreshold;
+    private int autoHideThreshold = 10;
 
     public ContentFlagService(ContentFlagRepository contentFlagRepository,
                               ReviewRepository reviewRepository,
                               UserRepository userRepository,
                               ReviewService reviewService,
-                              ModelMapper modelMapper,
-                              PagedResponseMapper pagedResponseMapper) {
+                              FlagEvaluationPipeline flagEvaluationPipeline) {
         this.contentFlagRepository = contentFlagRepository;
         this.reviewRepository = reviewRepository;
         this.userRepository = userRepository;
         this.reviewService = reviewService;
-        this.modelMapper = modelMapper;
-        this.pagedResponseMapper = pagedResponseMapper;
+        this.flagEvaluationPipeline = flagEvaluationPipeline;
     }
 
     @Transactional
@@ -64,17 +59,17 @@ public class ContentFlagService {
             throw new InvalidReviewStateException("User has already flagged this review: " + reporterUserId);
         }
 
-        if (review.getUserWatched() != null && review.getUserWatched().getUser().getId().equals(reporterUserId)) {
+        // Reading the id from the composite key avoids initializing the watched entry and its user.
+        if (review.getUserWatched() != null && reporterUserId.equals(review.getUserWatched().getId().getUserId())) {
             throw new InvalidReviewStateException("Users cannot flag their own reviews.");
         }
 
         ContentFlag contentFlag = new ContentFlag(reporter, review, requestDTO.getFlagReason());
         ContentFlag savedFlag = contentFlagRepository.save(contentFlag);
 
-        long currentFlags = review.getFlags().size();
-        if (currentFlags >= autoHideThreshold && !review.isHidden()) {
-            reviewService.toggleHideReview(reviewId, true);
-        }
+        // Counting, auto-hide and moderator events run in the background pipeline, so a burst of
+        // flags on one review does not serialize on its row.
+        TransactionHooks.afterCommit(() -> flagEvaluationPipeline.enqueue(reviewId, reporterUserId, savedFlag.getFlagReason()));
 
         return ContentFlagResponseDTO.builder()
                 .reviewId(review.getId())
@@ -86,51 +81,79 @@ public class ContentFlagService {
                 .build();
     }
 
+    /**
+     * Recounts the flags of every review and applies the auto-hide threshold to the new counts. Runs
+     * before the search index and feed are built, so reviews it hides or shows need no eviction.
+     */
+    @Transactional
+    public int resyncFlagCounts() {
+        int updated = reviewRepository.resyncFlagCounts();
+        reviewRepository.autoHideAtFlagCount(autoHideThreshold);
+        reviewRepository.showAutoHiddenUnderFlagCount(autoHideThreshold);
+        return updated;
+    }
+
+    /**
+     * Moderation queue: reviews with at least {@code minFlags} flags, most flagged first and newest
+     * first among ties. The ordering is fixed so it can be read from the (flag_count, id) index.
+     */
     @Transactional(readOnly = true)
     public PagedResponse<FlaggedReviewResponseDTO> getHeavilyFlaggedReviews(int minFlags, Pageable pageable) {
-        List<Review> flaggedReviews = reviewRepository.findReviewsWithMinimumFlagsOrderByFlagsDesc(minFlags);
-
-        if (flaggedReviews.isEmpty()) {
-            Page<FlaggedReviewResponseDTO> emptyPage = Page.empty(pageable);
-            return pagedResponseMapper.toPagedResponse(emptyPage, FlaggedReviewResponseDTO.class);
-        }
-
-        List<FlaggedReviewResponseDTO> flaggedReviewDTOs = flaggedReviews.stream()
-                .map(review -> FlaggedReviewResponseDTO.builder()
-                        .review(mapToReviewResponseDTO(review))
-                        .flagCount((long) review.getFlags().size())
-                        .build())
-                .collect(Collectors.toList());
-
-        Page<FlaggedReviewResponseDTO> page = new PageImpl<>(flaggedReviewDTOs, pageable, flaggedReviewDTOs.size());
-
-        return pagedResponseMapper.toPagedResponse(page, FlaggedReviewResponseDTO.class);
+        Pageable unsorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        Page<Review> reviewPage = reviewRepository.findFlaggedReviews(minFlags, unsorted);
+
+        return new PagedResponse<>(
+                reviewPage.map(this::toFlaggedDTO).getContent(),
+                reviewPage.getNumber(),
+                reviewPage.getSize(),
+                reviewPage.getTotalElements(),
+                reviewPage.getTotalPages(),
+                reviewPage.isLast()
+        );
     }
 
-
-    private ReviewResponseDTO mapToReviewResponseDTO(Review review) {
-        ReviewResponseDTO dto = modelMapper.map(review, ReviewResponseDTO.class);
-
-        if (review.getUserWatched() != null && review.getUserWatched().getUser() != null) {
-            dto.setUsername(review.getUserWatched().getUser().getUsername());
-            dto.setUserId(review.getUserWatched().getUser().getId());
+    /**
+     * Same queue as {@link #getHeavilyFlaggedReviews} with keyset pagination, so deep pages cost the
+     * same as the first one. The cursor has the form {@code flagCount:reviewId}.
+     */
+    @Transactional(readOnly = true)
+    public CursorPagedResponse<FlaggedReviewResponseDTO> getHeavilyFlaggedReviews(int minFlags, String cursor, int size) {
+        if (size < 1 || size > 100) {
+            throw new IllegalArgumentException("Page size must be between 1 and 100.");
         }
 
-        if (review.getUserWatched() != null) {
-            dto.setMovieId(review.getUserWatched().getMovie().getId());
-            dto.setMovieTitle(review.getUserWatched().getMovie().getTitle());
+        int cursorFlags = Integer.MAX_VALUE;
+        long cursorId = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = cursor.split(":");
+            try {
+                if (parts.length != 2) {
+                    throw new NumberFormatException();
+                }
+                cursorFlags = Integer.parseInt(parts[0]);
+                cursorId = Long.parseLong(parts[1]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
         }
 
-        // createdAt e updatedAt, se não vierem pelo modelMapper, copie manualmente:
-        if (review.getCreatedAt() != null) {
-            dto.setCreatedAt(LocalDateTime.now());
-        }
-        if (review.getUpdatedAt() != null) {
-            dto.setUpdatedAt(LocalDateTime.now());
-        }
+        // Read one extra review to know whether another page exists.
+        List<Review> reviews = reviewRepository.findFlaggedReviewsAfter(minFlags, cursorFlags, cursorId, PageRequest.of(0, size + 1));
+        boolean hasNext = reviews.size() > size;
+        List<Review> page = hasNext ? reviews.subList(0, size) : reviews;
 
-        return dto;
+        String nextCursor = null;
+        if (hasNext) {
+            Review last = page.get(page.size() - 1);
+            nextCursor = last.getFlagCount() + ":" + last.getId();
+        }
+        return new CursorPagedResponse<>(page.stream().map(this::toFlaggedDTO).toList(), nextCursor, size, hasNext);
     }
 
-
+    private FlaggedReviewResponseDTO toFlaggedDTO(Review review) {
+        return FlaggedReviewResponseDTO.builder()
+                .review(reviewService.toDTO(review))
+                .flagCount((long) review.getFlagCount())
+                .build();
+    }
 }
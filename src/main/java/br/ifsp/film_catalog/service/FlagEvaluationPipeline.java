@@ -0,0 +1,334 @@
+package br.ifsp.film_catalog.service;
+
+import br.ifsp.film_catalog.dto.ModerationEventDTO;
+import br.ifsp.film_catalog.model.ContentFlag;
+import br.ifsp.film_catalog.model.Review;
+import br.ifsp.film_catalog.model.enums.ModerationEventType;
+import br.ifsp.film_catalog.repository.ContentFlagRepository;
+import br.ifsp.film_catalog.repository.ReviewRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Background stage that turns committed flags into flag counts, auto-hides and moderator events.
+ * <p>
+ * {@code flagReview} only inserts the flag and enqueues it here. Flags are coalesced per review, and
+ * each drain runs one evaluation per review: a single UPDATE adds all of its new flags and applies
+ * the auto-hide threshold. Bursts on a popular review therefore cost one row update per drain instead
+ * of one per flag. An evaluation that fails puts its flags back, merged with any that arrived
+ * meanwhile, and the review is retried with exponential backoff.
+ * <p>
+ * The queue itself lives in memory, but the database knows which flags it still owes: a flag row is
+ * inserted unevaluated, and the evaluation marks it evaluated in the same transaction that adds it to
+ * the count. Only the rows it actually marks are counted, so a flag enqueued twice or deleted meanwhile
+ * is never counted twice, and {@link #recover} queues again whatever a crash or redeploy left behind.
+ * Flags deleted outside of moderation are taken back through {@link #withdraw}.
+ */
+@Component
+public class FlagEvaluationPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(FlagEvaluationPipeline.class);
+    private static final int MAX_NOTICES_PER_REVIEW = 100;
+    private static final long MAX_RETRY_BACKOFF_MS = 60_000;
+
+    private final ReviewRepository reviewRepository;
+    private final ContentFlagRepository contentFlagRepository;
+    private final ReviewService reviewService;
+    private final ReviewHelpfulnessService reviewHelpfulnessService;
+    private final ModerationEventBus moderationEventBus;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer lagTimer;
+
+    private final ConcurrentMap<Long, PendingFlags> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock drainLock = new ReentrantLock();
+
+    @Value("${app.reviews.flags.auto-hide-threshold:10}")
+    private int autoHideThreshold = 10;
+
+    // Flag count at which a review is announced to moderators as needing attention
+    @Value("${app.moderation.events.review-threshold:5}")
+    private int reviewThreshold = 5;
+
+    @Value("${app.reviews.flags.pipeline.lag-sla-ms:5000}")
+    private long lagSlaMs = 5000;
+
+    // Delay before the first retry of a failed evaluation, doubled on each further failure
+    @Value("${app.reviews.flags.pipeline.retry-backoff-ms:1000}")
+    private long retryBackoffMs = 1000;
+
+    public FlagEvaluationPipeline(ReviewRepository reviewRepository,
+                                  ContentFlagRepository contentFlagRepository,
+                                  ReviewService reviewService,
+                                  ReviewHelpfulnessService reviewHelpfulnessService,
+                                  ModerationEventBus moderationEventBus,
+                                  TransactionTemplate transactionTemplate,
+                                  MeterRegistry meterRegistry) {
+        this.reviewRepository = reviewRepository;
+        this.contentFlagRepository = contentFlagRepository;
+        this.reviewService = reviewService;
+        this.reviewHelpfulnessService = reviewHelpfulnessService;
+        this.moderationEventBus = moderationEventBus;
+        this.transactionTemplate = transactionTemplate;
+        this.lagTimer = Timer.builder("moderation.flags.evaluation.lag")
+                .description("Time between a flag commit and its evaluation")
+                .register(meterRegistry);
+        meterRegistry.gauge("moderation.flags.pending", pending, ConcurrentMap::size);
+    }
+
+    /**
+     * Queues a committed flag for evaluation.
+     */
+    public void enqueue(Long reviewId, Long reporterUserId, String flagReason) {
+        enqueue(reviewId, new FlagNotice(reporterUserId, flagReason, Instant.now()));
+    }
+
+    /**
+     * Queues again every flag committed but not evaluated yet, such as those still pending when the
+     * previous instance stopped. Flags are read in key order, one chunk per query; one that is also
+     * enqueued by its own commit meanwhile is only counted once.
+     *
+     * @return the number of flags queued
+     */
+    public int recover(int chunkSize) {
+        long lastReviewId = 0L;
+        long lastUserId = 0L;
+        int recovered = 0;
+        List<ContentFlag> chunk;
+        do {
+            chunk = contentFlagRepository.findUnevaluatedAfter(lastReviewId, lastUserId, PageRequest.of(0, chunkSize));
+            for (ContentFlag flag : chunk) {
+                lastReviewId = flag.getId().getReviewId();
+                lastUserId = flag.getId().getUserId();
+                enqueue(lastReviewId, new FlagNotice(lastUserId, flag.getFlagReason(), flag.getCreatedAt()));
+            }
+            recovered += chunk.size();
+        } while (chunk.size() == chunkSize);
+        return recovered;
+    }
+
+    /**
+     * Takes back the flags a reporter raised on the given reviews, whose rows the current transaction
+     * deletes without going through moderation (e.g. when the reporter's account is deleted).
+     * <p>
+     * Flags still pending leave the queue, and come back if the transaction rolls back. Evaluated ones,
+     * read under a row lock so a concurrent evaluation is seen, are subtracted from their reviews: a review the threshold hid is shown again once it drops below it, one
+     * a moderator hid stays hidden, and every touched review gets its helpfulness refreshed. The drain is
+     * held off meanwhile, so none of these reviews is being evaluated.
+     */
+    public void withdraw(Long reporterUserId, Collection<Long> reviewIds) {
+        drainLock.lock();
+        try {
+            Map<Long, FlagNotice> withdrawn = new HashMap<>();
+            for (Long reviewId : reviewIds) {
+                pending.computeIfPresent(reviewId, (id, flags) -> {
+                    FlagNotice notice = flags.remove(reporterUserId);
+                    if (notice != null) {
+                        withdrawn.put(id, notice);
+                    }
+                    return flags.reporters.isEmpty() ? null : flags;
+                });
+            }
+            if (!withdrawn.isEmpty()) {
+                TransactionHooks.afterRollback(() -> withdrawn.forEach(this::enqueue));
+            }
+
+            List<Long> counted = contentFlagRepository.findEvaluatedForUpdate(reporterUserId, reviewIds).stream()
+                    .map(flag -> flag.getId().getReviewId())
+                    .toList();
+            if (counted.isEmpty()) {
+                return;
+            }
+            Set<Long> shownAgain = new HashSet<>(reviewRepository.findIdsAutoHiddenAtFlagCount(counted, autoHideThreshold));
+            reviewRepository.takeBackFlagByIdIn(counted, autoHideThreshold);
+            List<Review> reviews = reviewRepository.findAllWithUserAndMovieByIdIn(counted);
+            reviews.forEach(review -> reviewHelpfulnessService.refresh(review, review.getFlagCount()));
+            reviewService.restoreUnhiddenReviews(reviews.stream()
+                    .filter(review -> shownAgain.contains(review.getId()))
+                    .toList());
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    private void enqueue(Long reviewId, FlagNotice notice) {
+        pending.compute(reviewId, (id, flags) -> {
+            PendingFlags next = flags != null ? flags : new PendingFlags(notice.flaggedAt());
+            next.add(notice);
+            return next;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.reviews.flags.pipeline.interval-ms:500}")
+    public void drain() {
+        drainLock.lock();
+        try {
+            Instant now = Instant.now();
+            for (Long reviewId : List.copyOf(pending.keySet())) {
+                PendingFlags waiting = pending.get(reviewId);
+                if (waiting != null && waiting.retryAt != null && waiting.retryAt.isAfter(now)) {
+                    continue;
+                }
+                PendingFlags flags = pending.remove(reviewId);
+                if (flags != null) {
+                    evaluate(reviewId, flags);
+                }
+            }
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        drain();
+    }
+
+    private void evaluate(Long reviewId, PendingFlags flags) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> apply(reviewId, flags));
+        } catch (RuntimeException e) {
+            long backoffMs = Math.min(MAX_RETRY_BACKOFF_MS, retryBackoffMs << Math.min(flags.attempts, 16));
+            log.error("Flag evaluation failed for review {} ({} flags, attempt {}); retrying in {} ms",
+                    reviewId, flags.reporters.size(), flags.attempts + 1, backoffMs, e);
+            flags.attempts++;
+            flags.retryAt = Instant.now().plusMillis(backoffMs);
+            // Flags enqueued since the drain are folded into the failed batch, which keeps its first flag time
+            pending.merge(reviewId, flags, (newer, failed) -> failed.absorb(newer));
+            return;
+        }
+
+        Duration lag = Duration.between(flags.firstFlaggedAt, Instant.now());
+        lagTimer.record(lag);
+        if (lag.toMillis() > lagSlaMs) {
+            log.warn("Flag evaluation lag of {} ms for review {} exceeds the {} ms SLA", lag.toMillis(), reviewId, lagSlaMs);
+        }
+    }
+
+    private void apply(Long reviewId, PendingFlags flags) {
+        ReviewRepository.FlagState before = reviewRepository.findFlagStateById(reviewId);
+        if (before == null) {
+            return; // Deleted since it was flagged
+        }
+        int counted = contentFlagRepository.markEvaluated(reviewId, flags.reporters);
+        if (counted == 0) {
+            return; // Withdrawn, or already counted by an earlier enqueue of the same flags
+        }
+        reviewRepository.addToFlagCount(reviewId, counted, autoHideThreshold);
+
+        Review review = reviewRepository.findById(reviewId).orElse(null);
+        if (review == null) {
+            return;
+        }
+        reviewHelpfulnessService.refresh(review, review.getFlagCount());
+
+        boolean autoHidden = review.isHidden() && !before.getHidden();
+        if (autoHidden) {
+            reviewService.evictHiddenReview(reviewId);
+        }
+
+        Instant now = Instant.now();
+        List<ModerationEventDTO> events = new ArrayList<>(flags.notices.size() + 2);
+        for (FlagNotice notice : flags.notices) {
+            events.add(ModerationEventDTO.builder()
+                    .type(ModerationEventType.FLAGGED)
+                    .reviewId(reviewId)
+                    .flagCount(review.getFlagCount())
+                    .hidden(review.isHidden())
+                    .reporterUserId(notice.reporterUserId())
+                    .flagReason(notice.flagReason())
+                    .occurredAt(notice.flaggedAt())
+                    .build());
+        }
+        if (before.getFlagCount() < reviewThreshold && review.getFlagCount() >= reviewThreshold) {
+            events.add(ModerationEventDTO.builder()
+                    .type(ModerationEventType.THRESHOLD_CROSSED)
+                    .reviewId(reviewId)
+                    .flagCount(review.getFlagCount())
+                    .hidden(review.isHidden())
+                    .occurredAt(now)
+                    .build());
+        }
+        if (autoHidden) {
+            events.add(ModerationEventDTO.builder()
+                    .type(ModerationEventType.AUTO_HIDDEN)
+                    .reviewId(reviewId)
+                    .flagCount(review.getFlagCount())
+                    .hidden(true)
+                    .occurredAt(now)
+                    .build());
+        }
+        // evaluate() takes any failure for a rollback and puts the flags back, so nothing thrown after
+        // the commit is let through.
+        TransactionHooks.afterCommit(() -> {
+            try {
+                events.forEach(moderationEventBus::publish);
+            } catch (RuntimeException e) {
+                log.warn("Could not publish moderation events of review {}", reviewId, e);
+            }
+        });
+    }
+
+    private record FlagNotice(Long reporterUserId, String flagReason, Instant flaggedAt) {
+    }
+
+    // Only mutated inside ConcurrentHashMap.compute/merge, or by the drain after removing it from the map.
+    private static final class PendingFlags {
+
+        private final Instant firstFlaggedAt;
+        private final List<FlagNotice> notices = new ArrayList<>();
+        private final Set<Long> reporters = new HashSet<>(); // Every reporter, including those past the notice cap
+        private int attempts;
+        private volatile Instant retryAt; // Read by the drain before it takes the entry
+
+        private PendingFlags(Instant firstFlaggedAt) {
+            this.firstFlaggedAt = firstFlaggedAt;
+        }
+
+        // A reporter flags a review at most once, so a flag enqueued again (e.g. by recover) is ignored.
+        private void add(FlagNotice notice) {
+            if (reporters.add(notice.reporterUserId()) && notices.size() < MAX_NOTICES_PER_REVIEW) {
+                notices.add(notice);
+            }
+        }
+
+        // Drops the reporter's flag, returning its notice, or null when the reporter has none pending.
+        private FlagNotice remove(Long reporterUserId) {
+            if (!reporters.remove(reporterUserId)) {
+                return null;
+            }
+            for (int i = 0; i < notices.size(); i++) {
+                if (notices.get(i).reporterUserId().equals(reporterUserId)) {
+                    return notices.remove(i);
+                }
+            }
+            return new FlagNotice(reporterUserId, null, firstFlaggedAt); // Past the notice cap
+        }
+
+        private PendingFlags absorb(PendingFlags newer) {
+            newer.notices.forEach(this::add);
+            reporters.addAll(newer.reporters);
+            return this;
+        }
+    }
+}
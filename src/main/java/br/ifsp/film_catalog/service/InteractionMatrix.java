@@ -0,0 +1,163 @@
+package br.ifsp.film_catalog.service;
+
+import java.util.Arrays;
+
+/**
+ * Immutable user-movie interaction weights in compressed sparse row form, the input of
+ * {@link ItemSimilarityModel#build}.
+ * <p>
+ * Users and movies are kept as sorted id arrays. The entries of user {@code u} sit in
+ * {@code items}/{@code weights} between {@code rowStart[u]} and {@code rowStart[u + 1]}, each
+ * entry holding the position of a movie in {@code movieIds} and its summed weight. Everything is
+ * held in primitive arrays, so a full scan of the watched and favorite tables costs a few bytes per
+ * row instead of a boxed map entry.
+ */
+public final class InteractionMatrix {
+
+    public static final InteractionMatrix EMPTY =
+            new InteractionMatrix(new long[0], new long[0], new int[1], new int[0], new float[0]);
+
+    final long[] userIds;
+    final long[] movieIds;
+    final int[] rowStart;
+    final int[] items;
+    final float[] weights;
+
+    private InteractionMatrix(long[] userIds, long[] movieIds, int[] rowStart, int[] items, float[] weights) {
+        this.userIds = userIds;
+        this.movieIds = movieIds;
+        this.rowStart = rowStart;
+        this.items = items;
+        this.weights = weights;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int userCount() {
+        return userIds.length;
+    }
+
+    public int movieCount() {
+        return movieIds.length;
+    }
+
+    /**
+     * Number of distinct (user, movie) pairs.
+     */
+    public int size() {
+        return items.length;
+    }
+
+    /**
+     * Summed weight of a user-movie pair, or 0 when the user never interacted with the movie.
+     */
+    public float weight(long userId, long movieId) {
+        int user = Arrays.binarySearch(userIds, userId);
+        int movie = Arrays.binarySearch(movieIds, movieId);
+        if (user < 0 || movie < 0) {
+            return 0f;
+        }
+        for (int k = rowStart[user]; k < rowStart[user + 1]; k++) {
+            if (items[k] == movie) {
+                return weights[k];
+            }
+        }
+        return 0f;
+    }
+
+    /**
+     * Collects (user, movie, weight) triples in any order; repeated pairs add up.
+     */
+    public static final class Builder {
+
+        private long[] users = new long[1024];
+        private long[] movies = new long[1024];
+        private float[] weights = new float[1024];
+        private int size;
+
+        private Builder() {
+        }
+
+        public Builder add(long userId, long movieId, float weight) {
+            if (size == users.length) {
+                int capacity = size * 2;
+                users = Arrays.copyOf(users, capacity);
+                movies = Arrays.copyOf(movies, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+            }
+            users[size] = userId;
+            movies[size] = movieId;
+            weights[size++] = weight;
+            return this;
+        }
+
+        public InteractionMatrix build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            long[] userIds = distinctSorted(users, size);
+            long[] movieIds = distinctSorted(movies, size);
+
+            // Counting sort of the triples by user position
+            int[] userOf = new int[size];
+            int[] rowStart = new int[userIds.length + 1];
+            for (int i = 0; i < size; i++) {
+                userOf[i] = Arrays.binarySearch(userIds, users[i]);
+                rowStart[userOf[i] + 1]++;
+            }
+            for (int u = 0; u < userIds.length; u++) {
+                rowStart[u + 1] += rowStart[u];
+            }
+            int[] items = new int[size];
+            float[] rowWeights = new float[size];
+            int[] filled = Arrays.copyOf(rowStart, userIds.length);
+            for (int i = 0; i < size; i++) {
+                int slot = filled[userOf[i]]++;
+                items[slot] = Arrays.binarySearch(movieIds, movies[i]);
+                rowWeights[slot] = weights[i];
+            }
+
+            // Adds up repeated movies of a row, compacting the arrays in place
+            int[] slotOf = new int[movieIds.length];
+            Arrays.fill(slotOf, -1);
+            int written = 0;
+            int rowEnd = 0;
+            for (int u = 0; u < userIds.length; u++) {
+                int rowBegin = written;
+                int from = rowEnd;
+                rowEnd = rowStart[u + 1];
+                for (int k = from; k < rowEnd; k++) {
+                    int movie = items[k];
+                    if (slotOf[movie] < 0) {
+                        slotOf[movie] = written;
+                        items[written] = movie;
+                        rowWeights[written++] = rowWeights[k];
+                    } else {
+                        rowWeights[slotOf[movie]] += rowWeights[k];
+                    }
+                }
+                for (int k = rowBegin; k < written; k++) {
+                    slotOf[items[k]] = -1;
+                }
+                rowStart[u] = rowBegin;
+            }
+            rowStart[userIds.length] = written;
+            return new InteractionMatrix(userIds, movieIds, rowStart,
+                    Arrays.copyOf(items, written), Arrays.copyOf(rowWeights, written));
+        }
+
+        private static long[] distinctSorted(long[] values, int length) {
+            long[] sorted = Arrays.copyOf(values, length);
+            Arrays.sort(sorted);
+            int distinct = 0;
+            for (int i = 0; i < length; i++) {
+                if (i == 0 || sorted[i] != sorted[distinct - 1]) {
+                    sorted[distinct++] = sorted[i];
+                }
+            }
+            return Arrays.copyOf(sorted, distinct);
+        }
+    }
+}
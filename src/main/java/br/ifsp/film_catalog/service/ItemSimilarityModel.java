@@ -0,0 +1,299 @@
+package br.ifsp.film_catalog.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable item-to-item similarity table: for each movie, its most similar movies and their
+ * similarity, kept in primitive arrays indexed by position in the sorted movie id array.
+ * <p>
+ * Similarity is the cosine between the interaction vectors of two movies (one component per user),
+ * damped by {@code co / (co + shrinkage)} where {@code co} is the number of users the movies share,
+ * so pairs seen together by a handful of users do not rank as near duplicates. Rows are computed
+ * independently, which lets the build run in parallel.
+ */
+public final class ItemSimilarityModel {
+
+    public static final ItemSimilarityModel EMPTY =
+            new ItemSimilarityModel(new long[0], new int[0][], new float[0][], 0, Instant.EPOCH);
+
+    private final long[] movieIds;
+    private final int[][] neighbors;
+    private final float[][] similarities;
+    private final int users;
+    private final Instant builtAt;
+
+    private ItemSimilarityModel(long[] movieIds, int[][] neighbors, float[][] similarities, int users, Instant builtAt) {
+        this.movieIds = movieIds;
+        this.neighbors = neighbors;
+        this.similarities = similarities;
+        this.users = users;
+        this.builtAt = builtAt;
+    }
+
+    /**
+     * Builds the table from per-user interaction weights.
+     *
+     * @param maxNeighbors    similar movies kept per movie
+     * @param shrinkage       damping of pairs with few users in common
+     * @param maxItemsPerUser heaviest interactions kept per user; bounds the quadratic cost of very long histories
+     * @param pool            pool the rows are computed on
+     */
+    public static ItemSimilarityModel build(InteractionMatrix interactions, int maxNeighbors, double shrinkage,
+                                            int maxItemsPerUser, ForkJoinPool pool) {
+        long[] movieIds = interactions.movieIds;
+        int movieCount = movieIds.length;
+        int userCount = interactions.userCount();
+
+        // User rows: movie positions and weights
+        int[][] userItems = new int[userCount][];
+        float[][] userWeights = new float[userCount][];
+        int[] usersPerMovie = new int[movieCount];
+        for (int user = 0; user < userCount; user++) {
+            int from = interactions.rowStart[user];
+            int to = interactions.rowStart[user + 1];
+            float cutoff = to - from > maxItemsPerUser
+                    ? kthHeaviest(interactions.weights, from, to, maxItemsPerUser)
+                    : Float.NEGATIVE_INFINITY;
+            // Heavier than the cutoff first, then ties with it until the row is full
+            int kept = 0;
+            userItems[user] = new int[Math.min(to - from, maxItemsPerUser)];
+            userWeights[user] = new float[userItems[user].length];
+            for (int pass = 0; pass < 2; pass++) {
+                for (int k = from; k < to && kept < userItems[user].length; k++) {
+                    float weight = interactions.weights[k];
+                    if (pass == 0 ? weight > cutoff : weight == cutoff) {
+                        int movie = interactions.items[k];
+                        userItems[user][kept] = movie;
+                        userWeights[user][kept++] = weight;
+                        usersPerMovie[movie]++;
+                    }
+                }
+            }
+        }
+
+        // Movie columns: user positions and weights, plus the vector norms
+        int[][] movieUsers = new int[movieCount][];
+        float[][] movieWeights = new float[movieCount][];
+        for (int movie = 0; movie < movieCount; movie++) {
+            movieUsers[movie] = new int[usersPerMovie[movie]];
+            movieWeights[movie] = new float[usersPerMovie[movie]];
+        }
+        int[] filled = new int[movieCount];
+        double[] norms = new double[movieCount];
+        for (int u = 0; u < userItems.length; u++) {
+            for (int k = 0; k < userItems[u].length; k++) {
+                int movie = userItems[u][k];
+                float weight = userWeights[u][k];
+                movieUsers[movie][filled[movie]] = u;
+                movieWeights[movie][filled[movie]++] = weight;
+                norms[movie] += weight * weight;
+            }
+        }
+        for (int movie = 0; movie < movieCount; movie++) {
+            norms[movie] = Math.sqrt(norms[movie]);
+        }
+
+        int[][] neighbors = new int[movieCount][];
+        float[][] similarities = new float[movieCount][];
+        ThreadLocal<RowScratch> scratch = ThreadLocal.withInitial(() -> new RowScratch(movieCount));
+        try {
+            pool.submit(() -> IntStream.range(0, movieCount).parallel().forEach(movie -> {
+                RowScratch row = scratch.get();
+                row.compute(movie, movieUsers, movieWeights, userItems, userWeights, norms, shrinkage, maxNeighbors);
+                neighbors[movie] = row.topNeighbors();
+                similarities[movie] = row.topSimilarities();
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Similarity build interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Similarity build failed", e.getCause());
+        }
+        return new ItemSimilarityModel(movieIds, neighbors, similarities, userCount, Instant.now());
+    }
+
+    /**
+     * Ranks unseen movies for a user history ({@code movieId -> weight}) by the weighted sum of
+     * their similarity to the movies in the history.
+     *
+     * @param exclude movies that must not be recommended
+     * @param limit   maximum number of movie ids returned
+     */
+    public List<Long> recommend(Map<Long, Float> history, Collection<Long> exclude, int limit) {
+        Map<Integer, Double> scores = new HashMap<>();
+        for (Map.Entry<Long, Float> seed : history.entrySet()) {
+            int movie = Arrays.binarySearch(movieIds, seed.getKey());
+            if (movie < 0) {
+                continue;
+            }
+            for (int k = 0; k < neighbors[movie].length; k++) {
+                scores.merge(neighbors[movie][k], (double) seed.getValue() * similarities[movie][k], Double::sum);
+            }
+        }
+
+        List<Map.Entry<Integer, Double>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<Integer, Double>comparingByValue(Comparator.reverseOrder())
+                .thenComparing(Map.Entry::getKey));
+        List<Long> result = new ArrayList<>();
+        for (Map.Entry<Integer, Double> entry : ranked) {
+            long movieId = movieIds[entry.getKey()];
+            if (entry.getValue() > 0 && !exclude.contains(movieId)) {
+                result.add(movieId);
+                if (result.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    // Weight of the k-th heaviest entry between from (inclusive) and to (exclusive).
+    private static float kthHeaviest(float[] weights, int from, int to, int k) {
+        float[] sorted = Arrays.copyOfRange(weights, from, to);
+        Arrays.sort(sorted);
+        return sorted[sorted.length - k];
+    }
+
+    public int movieCount() {
+        return movieIds.length;
+    }
+
+    public int userCount() {
+        return users;
+    }
+
+    public Instant builtAt() {
+        return builtAt;
+    }
+
+    // Per-thread buffers for one row of the similarity matrix, reset after each row.
+    private static final class RowScratch {
+
+        private final double[] dot;
+        private final int[] common;
+        private final int[] touched;
+        private int touchedCount;
+        private int[] heapMovies = new int[0];
+        private float[] heapSimilarities = new float[0];
+        private int heapSize;
+
+        private RowScratch(int movieCount) {
+            this.dot = new double[movieCount];
+            this.common = new int[movieCount];
+            this.touched = new int[movieCount];
+        }
+
+        void compute(int movie, int[][] movieUsers, float[][] movieWeights, int[][] userItems, float[][] userWeights,
+                     double[] norms, double shrinkage, int maxNeighbors) {
+            touchedCount = 0;
+            for (int k = 0; k < movieUsers[movie].length; k++) {
+                int u = movieUsers[movie][k];
+                float weight = movieWeights[movie][k];
+                for (int j = 0; j < userItems[u].length; j++) {
+                    int other = userItems[u][j];
+                    if (other == movie) {
+                        continue;
+                    }
+                    if (common[other]++ == 0) {
+                        touched[touchedCount++] = other;
+                    }
+                    dot[other] += weight * userWeights[u][j];
+                }
+            }
+
+            if (heapMovies.length != maxNeighbors) {
+                heapMovies = new int[maxNeighbors];
+                heapSimilarities = new float[maxNeighbors];
+            }
+            heapSize = 0;
+            for (int t = 0; t < touchedCount; t++) {
+                int other = touched[t];
+                double norm = norms[movie] * norms[other];
+                if (norm > 0 && dot[other] > 0) {
+                    offer(other, (float) (dot[other] / norm * common[other] / (common[other] + shrinkage)));
+                }
+                dot[other] = 0;
+                common[other] = 0;
+            }
+        }
+
+        int[] topNeighbors() {
+            sortHeapDescending();
+            return Arrays.copyOf(heapMovies, heapSize);
+        }
+
+        float[] topSimilarities() {
+            return Arrays.copyOf(heapSimilarities, heapSize);
+        }
+
+        // Bounded min-heap on similarity: the root is the weakest neighbor kept so far.
+        private void offer(int movie, float similarity) {
+            if (heapSize < heapMovies.length) {
+                heapMovies[heapSize] = movie;
+                heapSimilarities[heapSize] = similarity;
+                siftUp(heapSize++);
+            } else if (heapSize > 0 && similarity > heapSimilarities[0]) {
+                heapMovies[0] = movie;
+                heapSimilarities[0] = similarity;
+                siftDown(0, heapSize);
+            }
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (heapSimilarities[parent] <= heapSimilarities[index]) {
+                    return;
+                }
+                swap(parent, index);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index, int size) {
+            while (true) {
+                int smallest = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < size && heapSimilarities[left] < heapSimilarities[smallest]) {
+                    smallest = left;
+                }
+                if (right < size && heapSimilarities[right] < heapSimilarities[smallest]) {
+                    smallest = right;
+                }
+                if (smallest == index) {
+                    return;
+                }
+                swap(index, smallest);
+                index = smallest;
+            }
+        }
+
+        // Heap sort in place: repeatedly moves the weakest to the end, leaving the strongest first.
+        private void sortHeapDescending() {
+            for (int end = heapSize - 1; end > 0; end--) {
+                swap(0, end);
+                siftDown(0, end);
+            }
+        }
+
+        private void swap(int a, int b) {
+            int movie = heapMovies[a];
+            heapMovies[a] = heapMovies[b];
+            heapMovies[b] = movie;
+            float similarity = heapSimilarities[a];
+            heapSimilarities[a] = heapSimilarities[b];
+            heapSimilarities[b] = similarity;
+        }
+    }
+}
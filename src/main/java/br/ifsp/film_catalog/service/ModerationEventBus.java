@@ -0,0 +1,225 @@
+package br.ifsp.film_catalog.service;
+
+import br.ifsp.film_catalog.dto.ModerationEventDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process fan-out of moderation events to Server-Sent Events subscribers.
+ * <p>
+ * Publishing never blocks on a client: each subscriber has its own bounded queue that drops its
+ * oldest event when full, and queues are drained to the connections by a small dedicated pool.
+ * A drain sends a limited number of events before yielding the thread to other subscribers, and a
+ * send that takes longer than {@code app.moderation.stream.send-timeout-ms} drops its subscriber:
+ * the sender is interrupted and the pool gets a replacement thread until the stuck write returns.
+ * A slow or stalled browser therefore only loses events of its own stream.
+ */
+@Component
+public class ModerationEventBus {
+
+    private static final Logger log = LoggerFactory.getLogger(ModerationEventBus.class);
+    private static final int MAX_EVENTS_PER_DRAIN = 32;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ThreadPoolExecutor senders;
+    private final Counter droppedEvents;
+    private final Counter stalledSubscribers;
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final long sendTimeoutNanos;
+
+    public ModerationEventBus(MeterRegistry meterRegistry,
+                              @Value("${app.moderation.stream.buffer-size:256}") int bufferSize,
+                              @Value("${app.moderation.stream.timeout-ms:1800000}") long timeoutMs,
+                              @Value("${app.moderation.stream.sender-threads:2}") int senderThreads,
+                              @Value("${app.moderation.stream.send-timeout-ms:5000}") long sendTimeoutMs) {
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 30L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "moderation-stream-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.droppedEvents = Counter.builder("moderation.stream.events.dropped")
+                .description("Moderation events discarded because a subscriber buffer was full")
+                .register(meterRegistry);
+        this.stalledSubscribers = Counter.builder("moderation.stream.subscribers.stalled")
+                .description("Subscribers dropped because a send exceeded the send timeout")
+                .register(meterRegistry);
+        meterRegistry.gauge("moderation.stream.subscribers", subscribers, Set::size);
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    public void publish(ModerationEventDTO event) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.offer(event)) {
+                schedule(subscriber);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.moderation.stream.stall-check-interval-ms:1000}")
+    public void dropStalledSubscribers() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.abortIfStalled(now)) {
+                stalledSubscribers.increment();
+                log.debug("Dropping moderation stream subscriber stalled for more than {} ms",
+                        TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos));
+                resizeSenders(1); // Healthy subscribers keep their threads while the write is stuck
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        subscribers.forEach(Subscriber::close);
+    }
+
+    private void schedule(Subscriber subscriber) {
+        try {
+            senders.execute(subscriber::drain);
+        } catch (RejectedExecutionException e) {
+            subscriber.close();
+        }
+    }
+
+    private synchronized void resizeSenders(int delta) {
+        // The maximum must never drop below the core size, so it grows first and shrinks last.
+        if (delta > 0) {
+            senders.setMaximumPoolSize(senders.getMaximumPoolSize() + delta);
+            senders.setCorePoolSize(senders.getCorePoolSize() + delta);
+        } else {
+            senders.setCorePoolSize(senders.getCorePoolSize() + delta);
+            senders.setMaximumPoolSize(senders.getMaximumPoolSize() + delta);
+        }
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final ArrayDeque<ModerationEventDTO> queue = new ArrayDeque<>();
+        private boolean draining;
+        private boolean aborted;
+        private Thread sender; // Set while a send is in progress
+        private long sendStartedAt;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        // Enqueues the event and returns true when the caller must schedule a drain.
+        private synchronized boolean offer(ModerationEventDTO event) {
+            if (queue.size() >= bufferSize) {
+                queue.pollFirst();
+                droppedEvents.increment();
+            }
+            queue.addLast(event);
+            if (draining) {
+                return false;
+            }
+            draining = true;
+            return true;
+        }
+
+        private synchronized ModerationEventDTO next() {
+            ModerationEventDTO event = aborted ? null : queue.pollFirst();
+            if (event == null) {
+                draining = false;
+            }
+            return event;
+        }
+
+        private synchronized void sending() {
+            sender = Thread.currentThread();
+            sendStartedAt = System.nanoTime();
+        }
+
+        // Returns true when the send was aborted by the stall check.
+        private synchronized boolean sent() {
+            sender = null;
+            if (aborted) {
+                Thread.interrupted(); // The interrupt was meant for the send, not for the pool thread's next task
+            }
+            return aborted;
+        }
+
+        private synchronized boolean abortIfStalled(long now) {
+            if (sender == null || aborted || now - sendStartedAt < sendTimeoutNanos) {
+                return false;
+            }
+            aborted = true;
+            subscribers.remove(this);
+            sender.interrupt();
+            return true;
+        }
+
+        private void drain() {
+            for (int count = 0; count < MAX_EVENTS_PER_DRAIN; count++) {
+                ModerationEventDTO event = next();
+                if (event == null) {
+                    return;
+                }
+                boolean failed = false;
+                sending();
+                try {
+                    emitter.send(SseEmitter.event()
+                            .id(String.valueOf(sequence.incrementAndGet()))
+                            .name(event.getType().name())
+                            .data(event));
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Dropping moderation stream subscriber: {}", e.getMessage());
+                    failed = true;
+                } finally {
+                    if (sent()) {
+                        resizeSenders(-1);
+                        failed = true;
+                    }
+                }
+                if (failed) {
+                    close();
+                    return;
+                }
+            }
+            // More events are queued: let other subscribers use the thread before sending them.
+            schedule(this);
+        }
+
+        private void close() {
+            subscribers.remove(this);
+            emitter.complete();
+        }
+    }
+}
@@ -39,9 +39,13 @@ public class MovieService {
     private final ModelMapper modelMapper;
     private final PagedResponseMapper pagedResponseMapper;
     private final ReviewRepository reviewRepository;
+    private final UserGenreAffinityService userGenreAffinityService;
+    private final UserStatsService userStatsService;
 
     public MovieService(GenreRepository genreRepository, MovieRepository movieRepository,
-                        ModelMapper modelMapper, PagedResponseMapper pagedResponseMapper, AdminUserInitializer adminUserInitializer, ReviewRepository reviewRepository) {
+                        ModelMapper modelMapper, PagedResponseMapper pagedResponseMapper, AdminUserInitializer adminUserInitializer, ReviewRepository reviewRepository,
+                        UserGenreAffinityService userGenreAffinityService,
+                        UserStatsService userStatsService) {
         this.genreRepository = genreRepository;
         this.movieRepository = movieRepository;
         this.modelMapper = modelMapper;
@@ -49,6 +53,8 @@ public class MovieService {
         this.adminUserInitializer = adminUserInitializer;
 
         this.reviewRepository = reviewRepository;
+        this.userGenreAffinityService = userGenreAffinityService;
+        this.userStatsService = userStatsService;
     }
 
     @Transactional(readOnly = true)
@@ -111,8 +117,16 @@ public class MovieService {
             }
         });
         
+        Set<Long> genresBefore = genreIds(movie);
+        int durationBefore = movie.getDuration();
         modelMapper.map(movieRequestDTO, movie);
         Movie updatedMovie = movieRepository.save(movie);
+        if (!genreIds(updatedMovie).equals(genresBefore)) {
+            userGenreAffinityService.markStaleForMovie(id);
+        }
+        if (updatedMovie.getDuration() != durationBefore) {
+            userStatsService.markStaleForMovie(id);
+        }
         return modelMapper.map(updatedMovie, MovieResponseDTO.class);
     }
 
@@ -130,8 +144,9 @@ public class MovieService {
         if (patchDTO.getReleaseYear() != null) {
             movie.setReleaseYear(patchDTO.getReleaseYear());
         }
-        if (patchDTO.getDuration() != null) {
+        if (patchDTO.getDuration() != null && patchDTO.getDuration() != movie.getDuration()) {
             movie.setDuration(patchDTO.getDuration());
+            userStatsService.markStaleForMovie(id);
         }
         if (patchDTO.getContentRating() != null) {
             try {
@@ -145,8 +160,12 @@ public class MovieService {
         if (patchDTO.getGenreIds() != null) {
             // Aqui você vai precisar buscar os gêneros pelo IDs e setar no filme
             List<Genre> genres = genreRepository.findAllById(patchDTO.getGenreIds());
+            Set<Long> genresBefore = genreIds(movie);
             movie.getGenres().clear();
             movie.getGenres().addAll(genres);
+            if (!genreIds(movie).equals(genresBefore)) {
+                userGenreAffinityService.markStaleForMovie(id);
+            }
         }
 
         movie = movieRepository.save(movie);
@@ -161,6 +180,8 @@ public class MovieService {
         }
         // Add checks here if movie deletion has other constraints (e.g., part of watchlists, reviews)
 
+        userGenreAffinityService.markStaleForMovie(id);
+        userStatsService.markStaleForMovie(id);
         movieRepository.deleteById(id);
     }
 
@@ -189,5 +210,14 @@ public class MovieService {
         );
     }
 
-
-}
\ No newline at end of file
+    private static Set<Long> genreIds(Movie movie) {
+        Set<Long> ids = new HashSet<>();
+        if (movie.getGenres() == null) {
+            return ids;
+        }
+        for (Genre genre : movie.getGenres()) {
+            ids.add(genre.getId());
+        }
+        return ids;
+    }
+}
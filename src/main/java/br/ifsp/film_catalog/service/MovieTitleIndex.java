@@ -0,0 +1,87 @@
+package br.ifsp.film_catalog.service;
+
+import br.ifsp.film_catalog.repository.MovieRepository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Snapshot of the catalog keyed by normalized title and release year, used to match titles coming
+ * from other services. Titles are compared without case, accents and punctuation, so
+ * "Amélie" matches "amelie" and "Spider-Man" matches "Spider Man".
+ * <p>
+ * Release years often differ by one between sources (festival vs. theatrical release), so a miss on
+ * the exact year falls back to the neighbouring years when that still identifies a single movie.
+ */
+public class MovieTitleIndex {
+
+    private static final long AMBIGUOUS = -1L;
+
+    private final Map<String, Long> byTitleAndYear = new HashMap<>();
+    private final Map<String, Long> byTitle = new HashMap<>();
+
+    public static MovieTitleIndex of(Collection<MovieRepository.MovieTitle> movies) {
+        MovieTitleIndex index = new MovieTitleIndex();
+        movies.forEach(movie -> index.add(movie.getId(), movie.getTitle(), movie.getReleaseYear()));
+        return index;
+    }
+
+    public void add(Long movieId, String title, int releaseYear) {
+        String key = normalize(title);
+        if (key.isEmpty()) {
+            return;
+        }
+        byTitleAndYear.merge(key + "|" + releaseYear, movieId, (current, added) -> AMBIGUOUS);
+        byTitle.merge(key, movieId, (current, added) -> AMBIGUOUS);
+    }
+
+    /**
+     * Finds the movie for a title and an optional release year.
+     */
+    public Match match(String title, Integer releaseYear) {
+        String key = normalize(title);
+        if (key.isEmpty()) {
+            return Match.NOT_FOUND;
+        }
+        if (releaseYear == null) {
+            return toMatch(byTitle.get(key));
+        }
+
+        Long exact = byTitleAndYear.get(key + "|" + releaseYear);
+        if (exact != null) {
+            return toMatch(exact);
+        }
+        Long before = byTitleAndYear.get(key + "|" + (releaseYear - 1));
+        Long after = byTitleAndYear.get(key + "|" + (releaseYear + 1));
+        if (before != null && after != null) {
+            return Match.AMBIGUOUS_TITLE;
+        }
+        return toMatch(before != null ? before : after);
+    }
+
+    public int size() {
+        return byTitleAndYear.size();
+    }
+
+    static String normalize(String title) {
+        return String.join(" ", ReviewSearchIndex.tokenize(title));
+    }
+
+    private static Match toMatch(Long movieId) {
+        if (movieId == null) {
+            return Match.NOT_FOUND;
+        }
+        return movieId == AMBIGUOUS ? Match.AMBIGUOUS_TITLE : new Match(movieId, false);
+    }
+
+    public record Match(Long movieId, boolean ambiguous) {
+
+        static final Match NOT_FOUND = new Match(null, false);
+        static final Match AMBIGUOUS_TITLE = new Match(null, true);
+
+        public boolean found() {
+            return movieId != null;
+        }
+    }
+}
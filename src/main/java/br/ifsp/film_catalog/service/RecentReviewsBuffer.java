@@ -0,0 +1,181 @@
+package br.ifsp.film_catalog.service;
+
+import br.ifsp.film_catalog.dto.ReviewResponseDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Bounded ring buffer with the most recent visible reviews of the platform, newest last.
+ * <p>
+ * The buffer covers every visible review whose id is greater than {@link #horizon()}: a page that
+ * needs older reviews than that must be completed from the database. Removed reviews leave an empty
+ * slot behind so the covered range stays contiguous.
+ */
+@Component
+public class RecentReviewsBuffer {
+
+    private final int capacity;
+    private final long[] ids;
+    private final ReviewResponseDTO[] slots;
+    private int head; // Index where the next review is written (the oldest slot when full)
+    private int count;
+    private long horizon;
+
+    public RecentReviewsBuffer(@Value("${app.reviews.recent.capacity:1000}") int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Recent reviews capacity must be positive.");
+        }
+        this.capacity = capacity;
+        this.ids = new long[capacity];
+        this.slots = new ReviewResponseDTO[capacity];
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Replaces the buffer content with the given reviews, ordered newest first.
+     * @param complete true when no older visible review exists outside of the given list.
+     */
+    public synchronized void reset(List<ReviewResponseDTO> newestFirst, boolean complete) {
+        head = 0;
+        count = 0;
+        horizon = 0;
+        int loaded = Math.min(newestFirst.size(), capacity);
+        for (int i = loaded - 1; i >= 0; i--) {
+            append(newestFirst.get(i));
+        }
+        if (!complete && loaded > 0) {
+            horizon = newestFirst.get(loaded - 1).getId() - 1;
+        }
+    }
+
+    /**
+     * Adds a review that became visible. Reviews older than the covered range are ignored since
+     * the database fallback already returns them.
+     */
+    public synchronized void add(ReviewResponseDTO review) {
+        long id = review.getId();
+        if (id <= horizon) {
+            return;
+        }
+        if (count == 0 || id > ids[physical(count - 1)]) {
+            append(review);
+            return;
+        }
+
+        int position = search(id);
+        if (position >= 0) {
+            slots[physical(position)] = review;
+            return;
+        }
+
+        // An older review became visible again (e.g. unhidden): shift newer ones to keep id order.
+        int insertAt = -position - 1;
+        if (count == capacity) {
+            evictOldest();
+            insertAt--;
+            if (insertAt < 0) {
+                return;
+            }
+        }
+        for (int i = count; i > insertAt; i--) {
+            ids[physical(i)] = ids[physical(i - 1)];
+            slots[physical(i)] = slots[physical(i - 1)];
+        }
+        ids[physical(insertAt)] = id;
+        slots[physical(insertAt)] = review;
+        head = (head + 1) % capacity;
+        count++;
+    }
+
+    /**
+     * Refreshes the snapshot of a review already in the buffer, e.g. after an edit or a like.
+     */
+    public synchronized void update(ReviewResponseDTO review) {
+        int position = search(review.getId());
+        if (position >= 0 && slots[physical(position)] != null) {
+            slots[physical(position)] = review;
+        }
+    }
+
+    public synchronized void remove(Long reviewId) {
+        int position = search(reviewId);
+        if (position >= 0) {
+            slots[physical(position)] = null;
+        }
+    }
+
+    public synchronized void removeAll(Collection<Long> reviewIds) {
+        reviewIds.forEach(this::remove);
+    }
+
+    /**
+     * Returns up to {@code limit} reviews with an id lower than {@code beforeId}, newest first.
+     */
+    public synchronized Slice page(long beforeId, int limit) {
+        List<ReviewResponseDTO> content = new ArrayList<>(Math.min(limit, count));
+        for (int i = count - 1; i >= 0 && content.size() < limit; i--) {
+            ReviewResponseDTO review = slots[physical(i)];
+            if (review != null && ids[physical(i)] < beforeId) {
+                content.add(review);
+            }
+        }
+        return new Slice(content, horizon);
+    }
+
+    public synchronized long horizon() {
+        return horizon;
+    }
+
+    private void append(ReviewResponseDTO review) {
+        if (count == capacity) {
+            evictOldest();
+        }
+        ids[head] = review.getId();
+        slots[head] = review;
+        head = (head + 1) % capacity;
+        count++;
+    }
+
+    private void evictOldest() {
+        int oldest = physical(0);
+        horizon = Math.max(horizon, ids[oldest]);
+        slots[oldest] = null;
+        count--;
+    }
+
+    // Logical position 0 is the oldest review in the buffer.
+    private int physical(int position) {
+        int start = count == capacity ? head : Math.floorMod(head - count, capacity);
+        return (start + position) % capacity;
+    }
+
+    private int search(long id) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = ids[physical(mid)];
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Reviews read from the buffer plus the horizon below which the caller must query the database.
+     */
+    public record Slice(List<ReviewResponseDTO> content, long horizon) {
+    }
+}
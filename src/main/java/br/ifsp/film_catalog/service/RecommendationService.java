@@ -0,0 +1,177 @@
+package br.ifsp.film_catalog.service;
+
+import br.ifsp.film_catalog.dto.MovieResponseDTO;
+import br.ifsp.film_catalog.dto.page.PagedResponse;
+import br.ifsp.film_catalog.exception.ResourceNotFoundException;
+import br.ifsp.film_catalog.model.Movie;
+import br.ifsp.film_catalog.repository.MovieRepository;
+import br.ifsp.film_catalog.repository.UserFavoriteRepository;
+import br.ifsp.film_catalog.repository.UserRepository;
+import br.ifsp.film_catalog.repository.UserWatchedRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.modelmapper.ModelMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Personalized recommendations from an item-to-item collaborative filtering model.
+ * <p>
+ * A scheduled job streams all watched entries, review scores and favorites into an
+ * {@link InteractionMatrix}, builds an {@link ItemSimilarityModel} on a dedicated pool and swaps it
+ * in with a single volatile write, so requests always read a complete model. A request only loads
+ * the user's own history and walks the neighbor lists of those movies. Users without history, or
+ * whose movies have no neighbors yet, get the genre-based recommendations instead.
+ */
+@Service
+public class RecommendationService {
+
+    private static final Logger log = LoggerFactory.getLogger(RecommendationService.class);
+    private static final float FAVORITE_WEIGHT = 1f;
+
+    private final UserRepository userRepository;
+    private final MovieRepository movieRepository;
+    private final UserWatchedRepository userWatchedRepository;
+    private final UserFavoriteRepository userFavoriteRepository;
+    private final UserService userService;
+    private final ModelMapper modelMapper;
+    private final Timer buildTimer;
+    private final AtomicBoolean building = new AtomicBoolean();
+    private volatile ItemSimilarityModel model = ItemSimilarityModel.EMPTY;
+
+    @Value("${app.recommendations.neighbors:50}")
+    private int neighbors = 50;
+
+    @Value("${app.recommendations.shrinkage:10}")
+    private double shrinkage = 10;
+
+    @Value("${app.recommendations.max-items-per-user:500}")
+    private int maxItemsPerUser = 500;
+
+    @Value("${app.recommendations.max-results:500}")
+    private int maxResults = 500;
+
+    @Value("${app.recommendations.build-parallelism:0}")
+    private int buildParallelism = 0; // 0 uses every available processor
+
+    public RecommendationService(UserRepository userRepository,
+                                 MovieRepository movieRepository,
+                                 UserWatchedRepository userWatchedRepository,
+                                 UserFavoriteRepository userFavoriteRepository,
+                                 UserService userService,
+                                 ModelMapper modelMapper,
+                                 MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.movieRepository = movieRepository;
+        this.userWatchedRepository = userWatchedRepository;
+        this.userFavoriteRepository = userFavoriteRepository;
+        this.userService = userService;
+        this.modelMapper = modelMapper;
+        this.buildTimer = Timer.builder("recommendations.model.build")
+                .description("Time to rebuild the item similarity model")
+                .register(meterRegistry);
+        meterRegistry.gauge("recommendations.model.movies", this, service -> service.model.movieCount());
+    }
+
+    @Scheduled(initialDelayString = "${app.recommendations.rebuild-initial-delay-ms:30000}",
+               fixedDelayString = "${app.recommendations.rebuild-interval-ms:3600000}")
+    public void rebuildModel() {
+        if (!building.compareAndSet(false, true)) {
+            return;
+        }
+        int parallelism = buildParallelism > 0 ? buildParallelism : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            ItemSimilarityModel built = buildTimer.recordCallable(() ->
+                    ItemSimilarityModel.build(loadInteractions(), neighbors, shrinkage, maxItemsPerUser, pool));
+            model = built;
+            log.info("Item similarity model rebuilt: {} movies, {} users", built.movieCount(), built.userCount());
+        } catch (Exception e) {
+            log.error("Could not rebuild the item similarity model, keeping the one built at {}", model.builtAt(), e);
+        } finally {
+            pool.shutdown();
+            building.set(false);
+        }
+    }
+
+    /**
+     * Pages over the user's top {@code app.recommendations.max-results} movies, best match first;
+     * the total counts those that still exist. The order is the ranking itself, so a sort is rejected.
+     */
+    @Transactional(readOnly = true)
+    public PagedResponse<MovieResponseDTO> getRecommendations(Long userId, Pageable pageable) {
+        if (pageable.getSort().isSorted()) {
+            throw new IllegalArgumentException("Recommendations are ordered by relevance and cannot be sorted.");
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+
+        Map<Long, Float> history = new HashMap<>();
+        userWatchedRepository.findWatchedScoresByUserId(userId)
+                .forEach(watched -> history.merge(watched.getMovieId(), watchedWeight(watched.getGeneralScore()), Float::sum));
+        userFavoriteRepository.findMovieIdsByUserId(userId)
+                .forEach(movieId -> history.merge(movieId, FAVORITE_WEIGHT, Float::sum));
+
+        List<Long> ranked = model.recommend(history, history.keySet(), maxResults);
+        if (!ranked.isEmpty()) {
+            // Movies deleted since the last build are dropped before paging, so the total stays exact
+            Set<Long> existing = new HashSet<>(movieRepository.findExistingIds(ranked));
+            ranked = ranked.stream().filter(existing::contains).toList();
+        }
+        if (ranked.isEmpty()) {
+            return userService.getGenreRecommendations(userId, pageable);
+        }
+        return toPage(ranked, pageable);
+    }
+
+    private PagedResponse<MovieResponseDTO> toPage(List<Long> ranked, Pageable pageable) {
+        int size = pageable.getPageSize();
+        int from = (int) Math.min(pageable.getOffset(), ranked.size());
+        List<Long> pageIds = ranked.subList(from, Math.min(from + size, ranked.size()));
+
+        Map<Long, Movie> movies = pageIds.isEmpty()
+                ? Map.of()
+                : movieRepository.findAllWithGenresByIdIn(pageIds).stream()
+                        .collect(Collectors.toMap(Movie::getId, Function.identity()));
+        // Movies deleted since the existence check are skipped
+        List<MovieResponseDTO> content = pageIds.stream()
+                .map(movies::get)
+                .filter(Objects::nonNull)
+                .map(movie -> modelMapper.map(movie, MovieResponseDTO.class))
+                .toList();
+
+        int totalPages = (ranked.size() + size - 1) / size;
+        return new PagedResponse<>(content, pageable.getPageNumber(), size, ranked.size(), totalPages,
+                pageable.getPageNumber() >= totalPages - 1);
+    }
+
+    private InteractionMatrix loadInteractions() {
+        InteractionMatrix.Builder interactions = InteractionMatrix.builder();
+        userWatchedRepository.forEachWatched((userId, movieId, generalScore) ->
+                interactions.add(userId, movieId, watchedWeight(generalScore)));
+        userFavoriteRepository.forEachFavorite((userId, movieId) -> interactions.add(userId, movieId, FAVORITE_WEIGHT));
+        return interactions.build();
+    }
+
+    // A watched movie counts 1, moved by a quarter point per review star above or below 3.
+    static float watchedWeight(Integer generalScore) {
+        return generalScore == null ? 1f : 1f + (generalScore - 3) * 0.25f;
+    }
+}
@@ -0,0 +1,113 @@
+package br.ifsp.film_catalog.service;
+
+import br.ifsp.film_catalog.model.Review;
+import br.ifsp.film_catalog.repository.ReviewRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the precomputed "most helpful" ranking score of reviews.
+ * <p>
+ * The score is the lower bound of the Wilson interval for the share of likes among all
+ * likes and flags, so a review needs many votes to rank high, multiplied by an exponential
+ * decay on the review age. Like and flag events refresh a single review; the scheduled job
+ * recomputes every review so the time decay keeps moving.
+ */
+@Service
+public class ReviewHelpfulnessService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewHelpfulnessService.class);
+    private static final double Z = 1.96; // 95% confidence
+
+    private final ReviewRepository reviewRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.reviews.helpfulness.half-life-days:30}")
+    private double halfLifeDays = 30;
+
+    @Value("${app.reviews.helpfulness.recompute-chunk-size:500}")
+    private int chunkSize = 500;
+
+    public ReviewHelpfulnessService(ReviewRepository reviewRepository,
+                                    TransactionTemplate transactionTemplate) {
+        this.reviewRepository = reviewRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Recomputes the score of a managed review; the change is flushed with the surrounding transaction.
+     */
+    public void refresh(Review review, int flagCount) {
+        review.setHelpfulnessScore(score(review.getLikesCount(), flagCount, review.getCreatedAt(), Instant.now(), halfLifeDays));
+    }
+
+    @Scheduled(initialDelayString = "${app.reviews.helpfulness.recompute-initial-delay-ms:60000}",
+               fixedDelayString = "${app.reviews.helpfulness.recompute-interval-ms:3600000}")
+    public void recomputeAll() {
+        Instant now = Instant.now();
+        long lastId = 0L;
+        long updated = 0;
+        int processed;
+        do {
+            long afterId = lastId;
+            List<Long> chunkIds = transactionTemplate.execute(status -> recomputeChunk(afterId, now));
+            processed = chunkIds == null ? 0 : chunkIds.size();
+            if (processed > 0) {
+                lastId = chunkIds.get(processed - 1);
+                updated += processed;
+            }
+        } while (processed == chunkSize);
+        log.info("Recomputed helpfulness score of {} reviews", updated);
+    }
+
+    // Rescores one chunk of reviews in id order and returns their ids. Only the scoring columns are read,
+    // and the changed scores go out in a single JDBC batch.
+    private List<Long> recomputeChunk(long afterId, Instant now) {
+        List<ReviewRepository.HelpfulnessInputs> reviews =
+                reviewRepository.findHelpfulnessInputsAfter(afterId, PageRequest.of(0, chunkSize));
+        List<Long> ids = new ArrayList<>(reviews.size());
+        Map<Long, Double> changed = new LinkedHashMap<>();
+        for (ReviewRepository.HelpfulnessInputs review : reviews) {
+            ids.add(review.getId());
+            double score = score(review.getLikesCount(), review.getFlagCount(), review.getCreatedAt(), now, halfLifeDays);
+            if (score != review.getHelpfulnessScore()) {
+                changed.put(review.getId(), score);
+            }
+        }
+        if (!changed.isEmpty()) {
+            reviewRepository.batchUpdateHelpfulnessScores(changed);
+        }
+        return ids;
+    }
+
+    /**
+     * Time-decayed Wilson lower bound of likes over likes plus flags.
+     */
+    public static double score(int likes, int flags, Instant createdAt, Instant now, double halfLifeDays) {
+        int votes = likes + flags;
+        if (votes <= 0) {
+            return 0;
+        }
+
+        double positive = (double) likes / votes;
+        double z2 = Z * Z;
+        double wilson = (positive + z2 / (2 * votes)
+                - Z * Math.sqrt((positive * (1 - positive) + z2 / (4 * votes)) / votes))
+                / (1 + z2 / votes);
+
+        double ageDays = createdAt == null ? 0 : Math.max(0, Duration.between(createdAt, now).toMinutes() / 1440.0);
+        return wilson * Math.pow(0.5, ageDays / halfLifeDays);
+    }
+}
@@ -0,0 +1,146 @@
+package br.ifsp.film_catalog.service;
+
+import br.ifsp.film_catalog.dto.BulkModerationRequestDTO;
+import br.ifsp.film_catalog.dto.BulkModerationResultDTO;
+import br.ifsp.film_catalog.dto.ReviewResponseDTO;
+import br.ifsp.film_catalog.model.Review;
+import br.ifsp.film_catalog.model.enums.ModerationAction;
+import br.ifsp.film_catalog.repository.ContentFlagRepository;
+import br.ifsp.film_catalog.repository.ReviewRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Bulk hide, unhide and delete of reviews.
+ * <p>
+ * Targets are resolved in id order, chunk by chunk, and each chunk is applied with set-based
+ * statements in its own transaction, so a large action never holds long locks. Chunks committed
+ * before a failure stay applied. The search index and the recent reviews buffer are updated after
+ * each chunk commits.
+ */
+@Service
+public class ReviewModerationService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewModerationService.class);
+
+    private final ReviewRepository reviewRepository;
+    private final ContentFlagRepository contentFlagRepository;
+    private final ReviewService reviewService;
+    private final ReviewSearchIndex reviewSearchIndex;
+    private final RecentReviewsBuffer recentReviewsBuffer;
+    private final TransactionTemplate transactionTemplate;
+    private final UserStatsService userStatsService;
+
+    @Value("${app.moderation.bulk.chunk-size:500}")
+    private int chunkSize = 500;
+
+    public ReviewModerationService(ReviewRepository reviewRepository,
+                                   ContentFlagRepository contentFlagRepository,
+                                   ReviewService reviewService,
+                                   ReviewSearchIndex reviewSearchIndex,
+                                   RecentReviewsBuffer recentReviewsBuffer,
+                                   TransactionTemplate transactionTemplate,
+                                   UserStatsService userStatsService) {
+        this.reviewRepository = reviewRepository;
+        this.contentFlagRepository = contentFlagRepository;
+        this.reviewService = reviewService;
+        this.reviewSearchIndex = reviewSearchIndex;
+        this.recentReviewsBuffer = recentReviewsBuffer;
+        this.transactionTemplate = transactionTemplate;
+        this.userStatsService = userStatsService;
+    }
+
+    public BulkModerationResultDTO execute(ModerationAction action, BulkModerationRequestDTO request) {
+        boolean byIds = request.getReviewIds() != null && !request.getReviewIds().isEmpty();
+        boolean byFilter = request.getUserId() != null || request.getMovieId() != null || request.getMinFlags() != null;
+        if (byIds == byFilter) {
+            throw new IllegalArgumentException("Provide either a list of review ids or at least one filter (userId, movieId, minFlags).");
+        }
+
+        // Only reviews not yet in the target state are selected, so counts reflect real changes.
+        Boolean currentHidden = switch (action) {
+            case HIDE -> false;
+            case UNHIDE -> true;
+            case DELETE -> null;
+        };
+
+        BulkModerationResultDTO result = BulkModerationResultDTO.builder().action(action).build();
+        if (byIds) {
+            List<Long> ids = request.getReviewIds().stream().filter(Objects::nonNull).distinct().sorted().toList();
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+                transactionTemplate.executeWithoutResult(status ->
+                        applyChunk(action, reviewRepository.findIdsForModerationIn(chunk, currentHidden), result));
+            }
+        } else {
+            long lastId = 0L;
+            int selected;
+            do {
+                long afterId = lastId;
+                List<Long> chunk = transactionTemplate.execute(status -> {
+                    List<Long> ids = reviewRepository.findIdsForModeration(afterId, currentHidden,
+                            request.getUserId(), request.getMovieId(), request.getMinFlags(), PageRequest.of(0, chunkSize));
+                    applyChunk(action, ids, result);
+                    return ids;
+                });
+                selected = chunk == null ? 0 : chunk.size();
+                if (selected > 0) {
+                    lastId = chunk.get(selected - 1);
+                }
+            } while (selected == chunkSize);
+        }
+
+        log.info("Bulk {} affected {} of {} selected reviews in {} chunks",
+                action, result.getAffectedReviews(), result.getMatchedReviews(), result.getChunks());
+        return result;
+    }
+
+    private void applyChunk(ModerationAction action, List<Long> ids, BulkModerationResultDTO result) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        result.setMatchedReviews(result.getMatchedReviews() + ids.size());
+        result.setChunks(result.getChunks() + 1);
+
+        switch (action) {
+            case HIDE -> {
+                result.setAffectedReviews(result.getAffectedReviews() + reviewRepository.updateHiddenByIdIn(ids, true));
+                TransactionHooks.afterCommit(() -> {
+                    reviewSearchIndex.removeAll(ids);
+                    recentReviewsBuffer.removeAll(ids);
+                });
+            }
+            case UNHIDE -> {
+                result.setAffectedReviews(result.getAffectedReviews() + reviewRepository.updateHiddenByIdIn(ids, false));
+                List<Review> visible = reviewRepository.findAllWithUserAndMovieByIdIn(ids).stream()
+                        .filter(review -> !review.isHidden())
+                        .toList();
+                List<ReviewResponseDTO> dtos = visible.stream()
+                        .filter(review -> review.getContent() != null)
+                        .map(reviewService::toDTO)
+                        .toList();
+                TransactionHooks.afterCommit(() -> {
+                    visible.forEach(review -> reviewSearchIndex.index(review.getId(), review.getContent()));
+                    dtos.forEach(recentReviewsBuffer::add);
+                });
+            }
+            case DELETE -> {
+                // Flags reference the reviews, so they go first.
+                userStatsService.markStaleForReviews(ids);
+                result.setRemovedFlags(result.getRemovedFlags() + contentFlagRepository.deleteByReviewIdIn(ids));
+                result.setAffectedReviews(result.getAffectedReviews() + reviewRepository.deleteByIdIn(ids));
+                TransactionHooks.afterCommit(() -> {
+                    reviewSearchIndex.removeAll(ids);
+                    recentReviewsBuffer.removeAll(ids);
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,395 @@
+package br.ifsp.film_catalog.service;
+
+import br.ifsp.film_catalog.model.Review;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process inverted index over the content of visible reviews.
+ * Each term maps to the reviews containing it, sorted by id, and the token positions inside each review,
+ * which is enough to answer term, prefix ({@code word*}) and phrase ({@code "two words"}) queries.
+ * Hidden reviews are never kept in the index, so callers must remove a review when it is hidden
+ * and index it again when it becomes visible.
+ */
+@Component
+public class ReviewSearchIndex {
+
+    private static final Pattern PHRASE = Pattern.compile("\"([^\"]*)\"");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final int MIN_PREFIX_LENGTH = 2;
+    // A prefix matching more terms than this only narrows the other clauses of the query
+    private static final int MAX_PREFIX_TERMS = 64;
+
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+    // reviewId -> distinct terms of the review, used to unindex it
+    private final Map<Long, String[]> documentTerms = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Adds or replaces a review in the index. Hidden reviews are removed instead.
+     */
+    public void index(Review review) {
+        if (review == null || review.getId() == null) {
+            return;
+        }
+        if (review.isHidden()) {
+            remove(review.getId());
+            return;
+        }
+        index(review.getId(), review.getContent());
+    }
+
+    public void index(Long reviewId, String content) {
+        List<String> tokens = tokenize(content);
+        Map<String, List<Integer>> positionsByTerm = new LinkedHashMap<>();
+        for (int position = 0; position < tokens.size(); position++) {
+            positionsByTerm.computeIfAbsent(tokens.get(position), term -> new ArrayList<>()).add(position);
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeUnderLock(reviewId);
+            for (Map.Entry<String, List<Integer>> entry : positionsByTerm.entrySet()) {
+                int[] positions = entry.getValue().stream().mapToInt(Integer::intValue).toArray();
+                postings.computeIfAbsent(entry.getKey(), term -> new Postings()).put(reviewId, positions);
+            }
+            documentTerms.put(reviewId, positionsByTerm.keySet().toArray(String[]::new));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long reviewId) {
+        lock.writeLock().lock();
+        try {
+            removeUnderLock(reviewId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeAll(Collection<Long> reviewIds) {
+        lock.writeLock().lock();
+        try {
+            reviewIds.forEach(this::removeUnderLock);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentTerms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a query and returns the matching review ids, newest first.
+     * All clauses must match: plain words match exactly, {@code word*} matches by prefix and
+     * quoted text must appear as a contiguous phrase.
+     */
+    public Page<Long> search(String query, Pageable pageable) {
+        List<Clause> clauses = parse(query);
+        if (clauses.isEmpty()) {
+            throw new IllegalArgumentException("Search query must contain at least one searchable word.");
+        }
+
+        long[] matches;
+        lock.readLock().lock();
+        try {
+            matches = evaluate(clauses);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Matches come out in ascending id order; ids are generated in insertion order, so walking
+        // them backwards gives newest first.
+        int total = matches.length;
+        int start = (int) Math.min(pageable.getOffset(), total);
+        int end = Math.min(start + pageable.getPageSize(), total);
+        List<Long> content = new ArrayList<>(end - start);
+        for (int i = total - 1 - start; i > total - 1 - end; i--) {
+            content.add(matches[i]);
+        }
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    // Returns the matching ids in ascending order.
+    private long[] evaluate(List<Clause> clauses) {
+        List<Postings> exact = new ArrayList<>();
+        for (Clause clause : clauses) {
+            if (clause.prefix) {
+                continue;
+            }
+            for (String term : clause.terms) {
+                Postings termPostings = postings.get(term);
+                if (termPostings == null) {
+                    return new long[0];
+                }
+                exact.add(termPostings);
+            }
+        }
+
+        // Intersect from the shortest list so the working set only shrinks.
+        long[] result = null;
+        int size = 0;
+        if (!exact.isEmpty()) {
+            exact.sort(Comparator.comparingInt(termPostings -> termPostings.size));
+            result = Arrays.copyOf(exact.get(0).ids, exact.get(0).size);
+            size = result.length;
+            for (int i = 1; i < exact.size() && size > 0; i++) {
+                size = retainContained(result, size, exact.get(i));
+            }
+        }
+
+        for (Clause clause : clauses) {
+            if (!clause.prefix || (result != null && size == 0)) {
+                continue;
+            }
+            String prefix = clause.terms.get(0);
+            List<Postings> expansion = new ArrayList<>();
+            for (Postings termPostings : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values()) {
+                expansion.add(termPostings);
+                if (expansion.size() > MAX_PREFIX_TERMS) {
+                    break;
+                }
+            }
+            if (result == null) {
+                if (expansion.size() > MAX_PREFIX_TERMS) {
+                    throw new IllegalArgumentException("Prefix '" + prefix + "*' matches too many words; type more letters or add another word.");
+                }
+                result = union(expansion);
+                size = result.length;
+            } else if (expansion.size() > MAX_PREFIX_TERMS) {
+                size = retainWithPrefix(result, size, prefix);
+            } else {
+                size = retainContainedInAny(result, size, expansion);
+            }
+        }
+
+        for (Clause clause : clauses) {
+            if (clause.terms.size() > 1) {
+                int kept = 0;
+                for (int i = 0; i < size; i++) {
+                    if (containsPhrase(result[i], clause.terms)) {
+                        result[kept++] = result[i];
+                    }
+                }
+                size = kept;
+            }
+        }
+        return result == null ? new long[0] : Arrays.copyOf(result, size);
+    }
+
+    // Keeps, in place, the ids of result[0..size) that are in the postings. The postings are
+    // searched from where the previous id was found, so a pass costs size * log(postings).
+    private static int retainContained(long[] result, int size, Postings termPostings) {
+        int kept = 0;
+        int from = 0;
+        for (int i = 0; i < size && from < termPostings.size; i++) {
+            int found = Arrays.binarySearch(termPostings.ids, from, termPostings.size, result[i]);
+            if (found >= 0) {
+                result[kept++] = result[i];
+                from = found + 1;
+            } else {
+                from = -found - 1;
+            }
+        }
+        return kept;
+    }
+
+    private static int retainContainedInAny(long[] result, int size, List<Postings> expansion) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            for (Postings termPostings : expansion) {
+                if (termPostings.indexOf(result[i]) >= 0) {
+                    result[kept++] = result[i];
+                    break;
+                }
+            }
+        }
+        return kept;
+    }
+
+    private int retainWithPrefix(long[] result, int size, String prefix) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            for (String term : documentTerms.get(result[i])) {
+                if (term.startsWith(prefix)) {
+                    result[kept++] = result[i];
+                    break;
+                }
+            }
+        }
+        return kept;
+    }
+
+    private static long[] union(List<Postings> expansion) {
+        int total = 0;
+        for (Postings termPostings : expansion) {
+            total += termPostings.size;
+        }
+        long[] merged = new long[total];
+        int offset = 0;
+        for (Postings termPostings : expansion) {
+            System.arraycopy(termPostings.ids, 0, merged, offset, termPostings.size);
+            offset += termPostings.size;
+        }
+        Arrays.sort(merged);
+        int distinct = 0;
+        for (int i = 0; i < merged.length; i++) {
+            if (distinct == 0 || merged[distinct - 1] != merged[i]) {
+                merged[distinct++] = merged[i];
+            }
+        }
+        return Arrays.copyOf(merged, distinct);
+    }
+
+    private boolean containsPhrase(long reviewId, List<String> terms) {
+        int[] firstPositions = postings.get(terms.get(0)).positions(reviewId);
+        for (int start : firstPositions) {
+            boolean matched = true;
+            for (int offset = 1; offset < terms.size() && matched; offset++) {
+                int[] positions = postings.get(terms.get(offset)).positions(reviewId);
+                matched = Arrays.binarySearch(positions, start + offset) >= 0;
+            }
+            if (matched) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void removeUnderLock(Long reviewId) {
+        String[] terms = documentTerms.remove(reviewId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Postings termPostings = postings.get(term);
+            if (termPostings != null) {
+                termPostings.remove(reviewId);
+                if (termPostings.size == 0) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static List<Clause> parse(String query) {
+        List<Clause> clauses = new ArrayList<>();
+        if (query == null) {
+            return clauses;
+        }
+
+        Matcher phraseMatcher = PHRASE.matcher(query);
+        while (phraseMatcher.find()) {
+            List<String> terms = tokenize(phraseMatcher.group(1));
+            if (!terms.isEmpty()) {
+                clauses.add(new Clause(terms, false));
+            }
+        }
+
+        String remainder = phraseMatcher.replaceAll(" ").replace("\"", " ");
+        for (String word : remainder.trim().split("\\s+")) {
+            boolean prefix = word.endsWith("*");
+            List<String> terms = tokenize(word);
+            if (terms.isEmpty()) {
+                continue;
+            }
+            if (prefix && terms.size() == 1 && terms.get(0).length() >= MIN_PREFIX_LENGTH) {
+                clauses.add(new Clause(terms, true));
+            } else {
+                terms.forEach(term -> clauses.add(new Clause(List.of(term), false)));
+            }
+        }
+        return clauses;
+    }
+
+    /**
+     * Splits text into lower-case, accent-free words so that "Ação" and "acao" match.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return Arrays.stream(NON_WORD.split(normalized))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    private record Clause(List<String> terms, boolean prefix) {
+    }
+
+    /**
+     * Reviews containing a term: ids kept sorted in a primitive array, with each review's token
+     * positions at the same index. Ids grow with time, so new reviews are appended at the end.
+     */
+    private static final class Postings {
+
+        private long[] ids = new long[4];
+        private int[][] positions = new int[4][];
+        private int size;
+
+        private int indexOf(long reviewId) {
+            return Arrays.binarySearch(ids, 0, size, reviewId);
+        }
+
+        private int[] positions(long reviewId) {
+            return positions[indexOf(reviewId)];
+        }
+
+        private void put(long reviewId, int[] reviewPositions) {
+            int index = indexOf(reviewId);
+            if (index >= 0) {
+                positions[index] = reviewPositions;
+                return;
+            }
+            index = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            System.arraycopy(positions, index, positions, index + 1, size - index);
+            ids[index] = reviewId;
+            positions[index] = reviewPositions;
+            size++;
+        }
+
+        private void remove(long reviewId) {
+            int index = indexOf(reviewId);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            System.arraycopy(positions, index + 1, positions, index, size - index - 1);
+            positions[--size] = null;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package br.ifsp.film_catalog.service;
 import br.ifsp.film_catalog.dto.ReviewAveragesDTO;
 import br.ifsp.film_catalog.dto.ReviewRequestDTO;
 import br.ifsp.film_catalog.dto.ReviewResponseDTO;
+import br.ifsp.film_catalog.dto.page.CursorPagedResponse;
 import br.ifsp.film_catalog.dto.page.PagedResponse;
 import br.ifsp.film_catalog.dto.page.PagedResponseWithHiddenReviews;
 import br.ifsp.film_catalog.exception.InvalidReviewStateException;
@@ -17,6 +18,7 @@ import br.ifsp.film_catalog.repository.UserWatchedRepository;
 import jakarta.servlet.http.HttpServletResponse;
 import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
@@ -30,29 +32,46 @@ import java.time.LocalDateTime;
 import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ReviewService {
 
+
     private final ReviewRepository reviewRepository;
     private final UserRepository userRepository;
     private final MovieRepository movieRepository;
     private final UserWatchedRepository userWatchedRepository;
     private final ModelMapper modelMapper;
     private final PagedResponseMapper pagedResponseMapper;
+    private final ReviewSearchIndex reviewSearchIndex;
+    private final RecentReviewsBuffer recentReviewsBuffer;
+    private final ReviewHelpfulnessService reviewHelpfulnessService;
+    private final UserStatsService userStatsService;
 
     public ReviewService(ReviewRepository reviewRepository,
                          UserRepository userRepository,
                          MovieRepository movieRepository,
                          UserWatchedRepository userWatchedRepository,
                          ModelMapper modelMapper,
-                         PagedResponseMapper pagedResponseMapper) {
+                         PagedResponseMapper pagedResponseMapper,
+                         ReviewSearchIndex reviewSearchIndex,
+                         RecentReviewsBuffer recentReviewsBuffer,
+                         ReviewHelpfulnessService reviewHelpfulnessService,
+                         UserStatsService userStatsService) {
         this.reviewRepository = reviewRepository;
         this.userRepository = userRepository;
         this.movieRepository = movieRepository;
         this.userWatchedRepository = userWatchedRepository;
         this.modelMapper = modelMapper;
         this.pagedResponseMapper = pagedResponseMapper;
+        this.reviewSearchIndex = reviewSearchIndex;
+        this.recentReviewsBuffer = recentReviewsBuffer;
+        this.reviewHelpfulnessService = reviewHelpfulnessService;
+        this.userStatsService = userStatsService;
     }
 
     @Transactional
@@ -75,7 +94,14 @@ public class ReviewService {
         userWatched.setReview(review);
         userWatchedRepository.save(userWatched);
 
-        return toDTO(userWatched.getReview());
+        Review savedReview = userWatched.getReview();
+        userStatsService.reviewsChanged(userId, 1, 0);
+        ReviewResponseDTO responseDTO = toDTO(savedReview);
+        TransactionHooks.afterCommit(() -> {
+            reviewSearchIndex.index(savedReview.getId(), savedReview.getContent());
+            recentReviewsBuffer.add(responseDTO);
+        });
+        return responseDTO;
     }
 
     @Transactional(readOnly = true)
@@ -85,6 +111,74 @@ public class ReviewService {
         return toDTO(review);
     }
 
+    /**
+     * Pages over the search index, which only holds visible reviews. A review hidden or deleted moments
+     * ago can still be in it until its after-commit eviction runs; such reviews are left out of the page,
+     * which may then come back short, but never evicted from here: this read may not see the latest
+     * commits, and the after-commit hooks alone keep the index in step with the database.
+     */
+    @Transactional(readOnly = true)
+    public PagedResponse<ReviewResponseDTO> searchReviews(String query, Pageable pageable) {
+        Page<Long> matches = reviewSearchIndex.search(query, pageable);
+        Map<Long, Review> reviewsById = reviewRepository.findAllWithUserAndMovieByIdIn(matches.getContent()).stream()
+                .collect(Collectors.toMap(Review::getId, Function.identity()));
+        // Keep the index ordering
+        List<Review> reviews = matches.getContent().stream()
+                .map(reviewsById::get)
+                .filter(review -> review != null && !review.isHidden())
+                .toList();
+
+        return new PagedResponse<>(
+                reviews.stream().map(this::toDTO).toList(),
+                matches.getNumber(),
+                matches.getSize(),
+                matches.getTotalElements(),
+                matches.getTotalPages(),
+                matches.isLast()
+        );
+    }
+
+    /**
+     * Platform-wide feed of visible reviews, newest first. Pages are served from the in-memory buffer
+     * and only reach the database once the cursor moves past the buffer's horizon.
+     */
+    @Transactional(readOnly = true)
+    public CursorPagedResponse<ReviewResponseDTO> getRecentReviews(Long cursor, int size) {
+        if (size < 1 || size > 100) {
+            throw new IllegalArgumentException("Page size must be between 1 and 100.");
+        }
+        long beforeId = cursor != null ? cursor : Long.MAX_VALUE;
+
+        // Read one extra review to know whether another page exists.
+        RecentReviewsBuffer.Slice slice = recentReviewsBuffer.page(beforeId, size + 1);
+        List<ReviewResponseDTO> content = new ArrayList<>(slice.content());
+        if (content.size() <= size) {
+            long dbBeforeId = Math.min(beforeId, slice.horizon() + 1);
+            if (dbBeforeId > 1) {
+                reviewRepository.findVisibleBefore(dbBeforeId, PageRequest.of(0, size + 1 - content.size()))
+                        .forEach(review -> content.add(toDTO(review)));
+            }
+        }
+
+        boolean hasNext = content.size() > size;
+        List<ReviewResponseDTO> page = hasNext ? content.subList(0, size) : content;
+        String nextCursor = hasNext ? String.valueOf(page.get(page.size() - 1).getId()) : null;
+        return new CursorPagedResponse<>(List.copyOf(page), nextCursor, size, hasNext);
+    }
+
+    /**
+     * Loads the newest visible reviews into the recent reviews buffer.
+     */
+    @Transactional(readOnly = true)
+    public void loadRecentReviews() {
+        int capacity = recentReviewsBuffer.capacity();
+        List<ReviewResponseDTO> newest = reviewRepository.findVisibleBefore(Long.MAX_VALUE, PageRequest.of(0, capacity))
+                .stream()
+                .map(this::toDTO)
+                .toList();
+        recentReviewsBuffer.reset(newest, newest.size() < capacity);
+    }
+
     @Transactional(readOnly = true)
     public PagedResponseWithHiddenReviews getReviewsByMovie(Long movieId, Pageable pageable) {
         if (!movieRepository.existsById(movieId)) {
@@ -115,6 +209,29 @@ public class ReviewService {
         );
     }
 
+    /**
+     * Visible reviews of a movie ordered by the precomputed helpfulness score, best first.
+     */
+    @Transactional(readOnly = true)
+    public PagedResponse<ReviewResponseDTO> getMostHelpfulReviewsByMovie(Long movieId, Pageable pageable) {
+        if (!movieRepository.existsById(movieId)) {
+            throw new ResourceNotFoundException("Movie not found with id: " + movieId);
+        }
+
+        // The ordering is fixed by the query so it can be served by the helpfulness index.
+        Pageable unsorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        Page<Review> reviewPage = reviewRepository
+                .findByUserWatched_Movie_IdAndHiddenFalseOrderByHelpfulnessScoreDescIdDesc(movieId, unsorted);
+
+        return new PagedResponse<>(
+                reviewPage.map(this::toDTO).getContent(),
+                reviewPage.getNumber(),
+                reviewPage.getSize(),
+                reviewPage.getTotalElements(),
+                reviewPage.getTotalPages(),
+                reviewPage.isLast()
+        );
+    }
 
     @Transactional(readOnly = true)
     public PagedResponseWithHiddenReviews getReviewsByUser(Long userId, Pageable pageable) {
@@ -162,6 +279,10 @@ public class ReviewService {
         Review updatedReview = reviewRepository.save(review);
         ReviewResponseDTO responseDTO = toDTO(updatedReview);
         responseDTO.setCreatedAt(date); 
+        TransactionHooks.afterCommit(() -> {
+            reviewSearchIndex.index(updatedReview);
+            recentReviewsBuffer.update(responseDTO);
+        });
         return responseDTO;
     }
 
@@ -174,8 +295,13 @@ public class ReviewService {
         if (userWatched != null) {
             userWatched.setReview(null);
             userWatchedRepository.save(userWatched);
+            userStatsService.reviewsChanged(userWatched.getId().getUserId(), -1, -review.getLikesCount());
         }
         reviewRepository.delete(review);
+        TransactionHooks.afterCommit(() -> {
+            reviewSearchIndex.remove(reviewId);
+            recentReviewsBuffer.remove(reviewId);
+        });
     }
 
     @Transactional
@@ -183,7 +309,11 @@ public class ReviewService {
         Review review = reviewRepository.findById(reviewId)
                 .orElseThrow(() -> new ResourceNotFoundException("Review not found with id: " + reviewId));
         review.setLikesCount(review.getLikesCount() + 1);
-        return toDTO(reviewRepository.save(review));
+        reviewHelpfulnessService.refresh(review, review.getFlagCount());
+        userStatsService.reviewsChanged(review.getUserWatched().getId().getUserId(), 0, 1);
+        ReviewResponseDTO responseDTO = toDTO(reviewRepository.save(review));
+        TransactionHooks.afterCommit(() -> recentReviewsBuffer.update(responseDTO));
+        return responseDTO;
     }
 
     @Transactional
@@ -191,7 +321,44 @@ public class ReviewService {
         Review review = reviewRepository.findById(reviewId)
                 .orElseThrow(() -> new ResourceNotFoundException("Review not found with id: " + reviewId));
         review.setHidden(hide);
-        return toDTO(reviewRepository.save(review));
+        review.setAutoHidden(false); // The moderator's decision now stands over the flag threshold
+        Review savedReview = reviewRepository.save(review);
+        ReviewResponseDTO responseDTO = toDTO(savedReview);
+        TransactionHooks.afterCommit(() -> {
+            reviewSearchIndex.index(savedReview);
+            if (savedReview.isHidden()) {
+                recentReviewsBuffer.remove(reviewId);
+            } else if (savedReview.getContent() != null) {
+                recentReviewsBuffer.add(responseDTO);
+            }
+        });
+        return responseDTO;
+    }
+
+    /**
+     * Drops a review hidden outside of the entity (e.g. by the flag auto-hide) from the in-memory
+     * structures once the current transaction commits.
+     */
+    void evictHiddenReview(Long reviewId) {
+        TransactionHooks.afterCommit(() -> {
+            reviewSearchIndex.remove(reviewId);
+            recentReviewsBuffer.remove(reviewId);
+        });
+    }
+
+    /**
+     * Puts reviews shown again outside of the entity (e.g. when their flags are taken back) into the
+     * in-memory structures once the current transaction commits.
+     */
+    void restoreUnhiddenReviews(List<Review> reviews) {
+        List<ReviewResponseDTO> feed = reviews.stream()
+                .filter(review -> review.getContent() != null)
+                .map(this::toDTO)
+                .toList();
+        TransactionHooks.afterCommit(() -> {
+            reviews.forEach(reviewSearchIndex::index);
+            feed.forEach(recentReviewsBuffer::add);
+        });
     }
 
     @Transactional(readOnly = true)
@@ -213,9 +380,9 @@ public class ReviewService {
             document.add(new Paragraph("Usuário: " + review.getUserWatched().getUser().getUsername()));
             document.add(new Paragraph("Filme: " + review.getUserWatched().getMovie().getTitle()));
             document.add(new Paragraph("Nota Geral: " + review.getGeneralScore()));
-            document.add(new Paragraph("Nota de Direção: " + review.getDirectionScore()));
-            document.add(new Paragraph("Nota de Roteiro: " + review.getScreenplayScore()));
-            document.add(new Paragraph("Nota de Cinematografia: " + review.getCinematographyScore()));
+            document.add(new Paragraph("Nota de Direção: " + Objects.toString(review.getDirectionScore(), "-")));
+            document.add(new Paragraph("Nota de Roteiro: " + Objects.toString(review.getScreenplayScore(), "-")));
+            document.add(new Paragraph("Nota de Cinematografia: " + Objects.toString(review.getCinematographyScore(), "-")));
             document.add(new Paragraph("Conteúdo: " + review.getContent()));
             document.add(new Paragraph("------"));
         }
@@ -251,7 +418,7 @@ public class ReviewService {
     }
 
 
-    private ReviewResponseDTO toDTO(Review review) {
+    ReviewResponseDTO toDTO(Review review) {
         return ReviewResponseDTO.builder()
                 .id(review.getId())
                 .content(review.getContent())
@@ -0,0 +1,97 @@
+package br.ifsp.film_catalog.service;
+
+import br.ifsp.film_catalog.dto.SharedWatchlistDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of rendered pages of shared watchlists, keyed by share token, cursor and page
+ * size.
+ * <p>
+ * A load is registered under the cache lock before the loader reads anything, and {@link #invalidate}
+ * drops the token's pages, loading ones included, under the same lock, so a page read before a change
+ * is never served after it. Nothing is kept per token besides its pages, so memory stays bounded by
+ * the capacity however many lists are shared and unshared. Concurrent requests for a page that is not
+ * cached wait on the first one's load instead of querying themselves: the database sees one load per
+ * miss however many readers arrive together. Failed loads are not cached. Only watchlist changes
+ * invalidate pages; edits to the movies themselves show once the page is evicted or the list changes.
+ */
+@Component
+public class SharedWatchlistCache {
+
+    private final int capacity;
+    private final LinkedHashMap<PageKey, CompletableFuture<SharedWatchlistDTO>> pages;
+
+    public SharedWatchlistCache(@Value("${app.watchlists.shared-cache.capacity:1000}") int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Shared watchlist cache capacity must be positive.");
+        }
+        this.capacity = capacity;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PageKey, CompletableFuture<SharedWatchlistDTO>> eldest) {
+                return size() > SharedWatchlistCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached page, loading it with {@code loader} on a miss. Exceptions thrown by the
+     * loader reach every request that waited on it.
+     */
+    public SharedWatchlistDTO get(String shareToken, String cursor, int size, Supplier<SharedWatchlistDTO> loader) {
+        PageKey key = new PageKey(shareToken, cursor, size);
+        CompletableFuture<SharedWatchlistDTO> page;
+        boolean loading = false;
+        synchronized (pages) {
+            page = pages.get(key);
+            if (page == null) {
+                page = new CompletableFuture<>();
+                pages.put(key, page);
+                loading = true;
+            }
+        }
+
+        if (loading) {
+            try {
+                page.complete(loader.get());
+            } catch (RuntimeException e) {
+                synchronized (pages) {
+                    pages.remove(key, page);
+                }
+                page.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return page.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Drops every page of a shared list, including pages still loading. Call once the change, unsharing
+     * or deletion is committed.
+     */
+    public void invalidate(String shareToken) {
+        synchronized (pages) {
+            pages.keySet().removeIf(key -> key.shareToken().equals(shareToken));
+        }
+    }
+
+    public int size() {
+        synchronized (pages) {
+            return pages.size();
+        }
+    }
+
+    private record PageKey(String shareToken, String cursor, int size) {
+    }
+}
@@ -0,0 +1,180 @@
+package br.ifsp.film_catalog.service;
+
+import br.ifsp.film_catalog.dto.UserAvailabilityDTO;
+import br.ifsp.film_catalog.repository.UserRepository;
+import br.ifsp.film_catalog.repository.UserRepository.UserIdentifiers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Answers whether a username or email is still free without a query for most calls.
+ * <p>
+ * Every normalized username and email goes into a {@link BloomFilter} loaded at startup and fed by
+ * registrations and renames once they commit. A value the filter has never seen is free; only a
+ * possible hit is confirmed against the database. Renamed and deleted values cannot leave the
+ * filter, they only cost a confirming query, so the filter is rebuilt once enough of them pile up
+ * or it outgrows the size it was built for. Until the first load finishes every check goes to the
+ * database.
+ */
+@Service
+public class UserAvailabilityService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserAvailabilityService.class);
+    private static final String USERNAME_PREFIX = "u:";
+    private static final String EMAIL_PREFIX = "e:";
+
+    private final UserRepository userRepository;
+    private final AtomicLong released = new AtomicLong();
+    private volatile BloomFilter filter;
+    private volatile BloomFilter building;
+
+    @Value("${app.users.availability.false-positive-rate:0.01}")
+    private double falsePositiveRate = 0.01;
+
+    @Value("${app.users.availability.min-capacity:10000}")
+    private long minCapacity = 10_000;
+
+    @Value("${app.users.availability.load-chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    public UserAvailabilityService(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    public UserAvailabilityDTO check(String username, String email) {
+        boolean hasUsername = username != null && !username.isBlank();
+        boolean hasEmail = email != null && !email.isBlank();
+        if (!hasUsername && !hasEmail) {
+            throw new IllegalArgumentException("Provide a username, an email or both.");
+        }
+        UserAvailabilityDTO availability = new UserAvailabilityDTO();
+        if (hasUsername) {
+            availability.setUsername(username.trim());
+            availability.setUsernameAvailable(!isUsernameTaken(username));
+        }
+        if (hasEmail) {
+            availability.setEmail(email.trim());
+            availability.setEmailAvailable(!isEmailTaken(email));
+        }
+        return availability;
+    }
+
+    public boolean isUsernameTaken(String username) {
+        BloomFilter current = filter;
+        if (current != null && !current.mightContain(USERNAME_PREFIX + normalize(username))) {
+            return false;
+        }
+        return userRepository.existsByUsername(username.trim());
+    }
+
+    public boolean isEmailTaken(String email) {
+        BloomFilter current = filter;
+        if (current != null && !current.mightContain(EMAIL_PREFIX + normalize(email))) {
+            return false;
+        }
+        return userRepository.existsByEmail(email.trim());
+    }
+
+    /**
+     * Records the identifiers of a committed registration.
+     */
+    public void recordRegistered(String username, String email) {
+        put(USERNAME_PREFIX, username);
+        put(EMAIL_PREFIX, email);
+    }
+
+    /**
+     * Records a committed change of username or email: the new values go in, the old ones are
+     * counted towards the next rebuild.
+     */
+    public void recordChanged(String previousUsername, String previousEmail, String username, String email) {
+        if (!Objects.equals(previousUsername, username)) {
+            put(USERNAME_PREFIX, username);
+            recordReleased(1);
+        }
+        if (!Objects.equals(previousEmail, email)) {
+            put(EMAIL_PREFIX, email);
+            recordReleased(1);
+        }
+    }
+
+    /**
+     * Counts identifiers that are free again but still set in the filter.
+     */
+    public void recordReleased(int identifiers) {
+        released.addAndGet(identifiers);
+    }
+
+    /**
+     * Builds a new filter from the users table and swaps it in. Registrations committed while it
+     * is being built go into both filters, so none is lost by the swap.
+     */
+    public synchronized void load() {
+        long capacity = Math.max(minCapacity, userRepository.count() * 4); // Two identifiers per user, room to double
+        BloomFilter next = new BloomFilter(capacity, falsePositiveRate);
+        long releasedBefore = released.get();
+        building = next;
+        try {
+            long lastId = 0L;
+            List<UserIdentifiers> chunk;
+            do {
+                chunk = userRepository.findIdentifiersAfter(lastId, PageRequest.of(0, chunkSize));
+                for (UserIdentifiers user : chunk) {
+                    putInto(next, USERNAME_PREFIX, user.getUsername());
+                    putInto(next, EMAIL_PREFIX, user.getEmail());
+                    lastId = user.getId();
+                }
+            } while (chunk.size() == chunkSize);
+            filter = next;
+            released.addAndGet(-releasedBefore);
+        } finally {
+            building = null;
+        }
+        log.info("User availability filter built: {} identifiers, capacity {}", next.insertions(), capacity);
+    }
+
+    @Scheduled(fixedDelayString = "${app.users.availability.rebuild-check-interval-ms:600000}")
+    public void rebuildIfNeeded() {
+        BloomFilter current = filter;
+        if (current == null) {
+            return;
+        }
+        boolean full = current.insertions() > current.expectedInsertions();
+        boolean stale = released.get() > current.insertions() / 4;
+        if (full || stale) {
+            load();
+        }
+    }
+
+    // Reads the filter being built first: load() publishes it as the filter before clearing it,
+    // so a value always reaches whichever filter ends up in use.
+    private void put(String prefix, String value) {
+        BloomFilter next = building;
+        if (next != null) {
+            putInto(next, prefix, value);
+        }
+        BloomFilter current = filter;
+        if (current != null && current != next) {
+            putInto(current, prefix, value);
+        }
+    }
+
+    private static void putInto(BloomFilter target, String prefix, String value) {
+        if (value != null && !value.isBlank()) {
+            target.put(prefix + normalize(value));
+        }
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,303 @@
+package br.ifsp.film_catalog.service;
+
+import br.ifsp.film_catalog.dto.UserDeletionJobDTO;
+import br.ifsp.film_catalog.exception.RateLimitExceededException;
+import br.ifsp.film_catalog.exception.ResourceNotFoundException;
+import br.ifsp.film_catalog.model.enums.JobStatus;
+import br.ifsp.film_catalog.repository.ContentFlagRepository;
+import br.ifsp.film_catalog.repository.ReviewRepository;
+import br.ifsp.film_catalog.repository.UserFavoriteRepository;
+import br.ifsp.film_catalog.repository.UserRepository;
+import br.ifsp.film_catalog.repository.UserWatchedRepository;
+import br.ifsp.film_catalog.repository.WatchlistRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+import java.util.function.LongConsumer;
+
+/**
+ * Deletes users in the background.
+ * <p>
+ * Instead of letting Hibernate walk the cascade graph row by row, a job removes the user's data with
+ * set-based deletes in dependency order: flags the user raised (taken back from the flagged reviews
+ * through the {@link FlagEvaluationPipeline}), the user's reviews and the flags on them, watched
+ * entries, favorites, watchlists and their movies, and finally the derived rows, roles and the user
+ * itself. Each phase works in chunks of ids, one short transaction per chunk, so locks are held
+ * briefly and a failed job can be started again from where it stopped. The account is deactivated
+ * first, so it cannot sign in or add rows meanwhile; the last transaction locks the user row and
+ * sweeps whatever requests already under way wrote since. Job state is kept in memory for a while
+ * after the job ends.
+ */
+@Service
+public class UserDeletionService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserDeletionService.class);
+
+    private final UserRepository userRepository;
+    private final ContentFlagRepository contentFlagRepository;
+    private final ReviewRepository reviewRepository;
+    private final UserWatchedRepository userWatchedRepository;
+    private final UserFavoriteRepository userFavoriteRepository;
+    private final WatchlistRepository watchlistRepository;
+    private final UserGenreAffinityService userGenreAffinityService;
+    private final UserStatsService userStatsService;
+    private final UserAvailabilityService userAvailabilityService;
+    private final FlagEvaluationPipeline flagEvaluationPipeline;
+    private final ReviewSearchIndex reviewSearchIndex;
+    private final RecentReviewsBuffer recentReviewsBuffer;
+    private final SharedWatchlistCache sharedWatchlistCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor workers;
+    private final Map<String, DeletionJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${app.user-deletion.chunk-size:500}")
+    private int chunkSize = 500;
+
+    @Value("${app.user-deletion.retention-minutes:60}")
+    private long retentionMinutes = 60;
+
+    public UserDeletionService(UserRepository userRepository,
+                               ContentFlagRepository contentFlagRepository,
+                               ReviewRepository reviewRepository,
+                               UserWatchedRepository userWatchedRepository,
+                               UserFavoriteRepository userFavoriteRepository,
+                               WatchlistRepository watchlistRepository,
+                               UserGenreAffinityService userGenreAffinityService,
+                               UserStatsService userStatsService,
+                               UserAvailabilityService userAvailabilityService,
+                               FlagEvaluationPipeline flagEvaluationPipeline,
+                               ReviewSearchIndex reviewSearchIndex,
+                               RecentReviewsBuffer recentReviewsBuffer,
+                               SharedWatchlistCache sharedWatchlistCache,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${app.user-deletion.worker-threads:1}") int workerThreads,
+                               @Value("${app.user-deletion.queue-capacity:50}") int queueCapacity) {
+        this.userRepository = userRepository;
+        this.contentFlagRepository = contentFlagRepository;
+        this.reviewRepository = reviewRepository;
+        this.userWatchedRepository = userWatchedRepository;
+        this.userFavoriteRepository = userFavoriteRepository;
+        this.watchlistRepository = watchlistRepository;
+        this.userGenreAffinityService = userGenreAffinityService;
+        this.userStatsService = userStatsService;
+        this.userAvailabilityService = userAvailabilityService;
+        this.flagEvaluationPipeline = flagEvaluationPipeline;
+        this.reviewSearchIndex = reviewSearchIndex;
+        this.recentReviewsBuffer = recentReviewsBuffer;
+        this.sharedWatchlistCache = sharedWatchlistCache;
+        this.transactionTemplate = transactionTemplate;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "user-deletion-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Queues the deletion of a user. A user already being deleted gets the running job back.
+     */
+    public synchronized UserDeletionJobDTO start(Long userId) {
+        DeletionJob active = jobs.values().stream()
+                .filter(job -> job.userId.equals(userId) && job.finishedAt == null)
+                .findFirst()
+                .orElse(null);
+        if (active != null) {
+            return active.toDTO();
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+
+        DeletionJob job = new DeletionJob(UUID.randomUUID().toString(), userId);
+        jobs.put(job.id, job);
+        try {
+            workers.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw new RateLimitExceededException("Too many user deletions in progress. Try again later.", 60);
+        }
+        return job.toDTO();
+    }
+
+    public UserDeletionJobDTO getJob(Long userId, String jobId) {
+        DeletionJob job = jobs.get(jobId);
+        if (job == null || !job.userId.equals(userId)) {
+            throw new ResourceNotFoundException("Deletion job not found with id: " + jobId);
+        }
+        return job.toDTO();
+    }
+
+    @Scheduled(fixedDelayString = "${app.user-deletion.sweep-interval-ms:600000}")
+    public void evictFinishedJobs() {
+        Instant limit = Instant.now().minus(Duration.ofMinutes(retentionMinutes));
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(limit));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    void run(DeletionJob job) {
+        job.startedAt = Instant.now();
+        job.status = JobStatus.RUNNING;
+        try {
+            deleteUserData(job.userId, job);
+            userAvailabilityService.recordReleased(2); // Username and email
+            job.status = JobStatus.COMPLETED;
+            log.info("User {} deleted by job {}: {} flags, {} reviews, {} watched, {} favorites, {} watchlists",
+                    job.userId, job.id, job.removedFlags, job.removedReviews, job.removedWatched,
+                    job.removedFavorites, job.removedWatchlists);
+        } catch (Exception e) {
+            log.warn("Deletion job {} of user {} failed", job.id, job.userId, e);
+            job.error = "Deletion stopped before completion. Data removed so far stays removed; start it again to finish.";
+            job.status = JobStatus.FAILED;
+        } finally {
+            job.finishedAt = Instant.now();
+        }
+    }
+
+    void deleteUserData(Long userId, DeletionJob job) {
+        PageRequest chunk = PageRequest.of(0, chunkSize);
+
+        // First, so the account can no longer sign in or add rows while the chunks run
+        transactionTemplate.executeWithoutResult(status -> userRepository.deactivateById(userId));
+
+        List<Phase> phases = List.of(
+                // Flags raised on other users' reviews: counts, auto-hides and helpfulness are taken back
+                new Phase(removed -> job.removedFlags += removed, () -> {
+                    List<Long> reviewIds = contentFlagRepository.findReviewIdsByReporterId(userId, chunk);
+                    if (reviewIds.isEmpty()) {
+                        return 0;
+                    }
+                    flagEvaluationPipeline.withdraw(userId, reviewIds);
+                    return contentFlagRepository.deleteByReporterIdAndReviewIdIn(userId, reviewIds);
+                }),
+                // The user's reviews, after the flags that reference them
+                new Phase(removed -> job.removedReviews += removed, () -> {
+                    List<Long> reviewIds = reviewRepository.findIdsByUserId(userId, chunk);
+                    if (reviewIds.isEmpty()) {
+                        return 0;
+                    }
+                    contentFlagRepository.deleteByReviewIdIn(reviewIds);
+                    int removed = reviewRepository.deleteByIdIn(reviewIds);
+                    TransactionHooks.afterCommit(() -> {
+                        reviewSearchIndex.removeAll(reviewIds);
+                        recentReviewsBuffer.removeAll(reviewIds);
+                    });
+                    return removed;
+                }),
+                new Phase(removed -> job.removedWatched += removed, () -> {
+                    List<Long> movieIds = userWatchedRepository.findMovieIdsByUserId(userId, chunk);
+                    return movieIds.isEmpty() ? 0 : userWatchedRepository.deleteByUserIdAndMovieIdIn(userId, movieIds);
+                }),
+                new Phase(removed -> job.removedFavorites += removed, () -> {
+                    List<Long> movieIds = userFavoriteRepository.findMovieIdsByUserId(userId, chunk);
+                    return movieIds.isEmpty() ? 0 : userFavoriteRepository.deleteByUserIdAndMovieIdIn(userId, movieIds);
+                }),
+                new Phase(removed -> job.removedWatchlists += removed, () -> {
+                    List<Long> watchlistIds = watchlistRepository.findIdsByUserId(userId, chunk);
+                    if (watchlistIds.isEmpty()) {
+                        return 0;
+                    }
+                    List<String> shareTokens = watchlistRepository.findShareTokensByIdIn(watchlistIds);
+                    watchlistRepository.deleteMoviesByWatchlistIdIn(watchlistIds);
+                    int removed = watchlistRepository.deleteByIdIn(watchlistIds);
+                    TransactionHooks.afterCommit(() -> shareTokens.forEach(sharedWatchlistCache::invalidate));
+                    return removed;
+                }));
+        phases.forEach(this::deleteInChunks);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // Locks the user row, then removes rows written by requests that were under way when the
+            // account was deactivated; inserts still waiting for the lock fail once the user is gone
+            userRepository.deactivateById(userId);
+            phases.forEach(UserDeletionService::deleteRemaining);
+            userGenreAffinityService.delete(userId);
+            userStatsService.delete(userId);
+            userRepository.deleteRolesByUserId(userId);
+            userRepository.deleteRowById(userId);
+        });
+    }
+
+    // Runs a chunk per transaction until a chunk removes nothing.
+    private void deleteInChunks(Phase phase) {
+        while (true) {
+            Integer removed = transactionTemplate.execute(status -> phase.chunk().getAsInt());
+            if (removed == null || removed == 0) {
+                return;
+            }
+            phase.progress().accept(removed);
+        }
+    }
+
+    // Runs chunks inside the current transaction until one removes nothing.
+    private static void deleteRemaining(Phase phase) {
+        int removed;
+        while ((removed = phase.chunk().getAsInt()) > 0) {
+            phase.progress().accept(removed);
+        }
+    }
+
+    // One dependency of the user: a chunk deletes up to chunkSize rows and returns how many it removed.
+    private record Phase(LongConsumer progress, IntSupplier chunk) {
+    }
+
+    static final class DeletionJob {
+
+        private final String id;
+        private final Long userId;
+        private final Instant createdAt = Instant.now();
+        private volatile JobStatus status = JobStatus.QUEUED;
+        private volatile long removedFlags;
+        private volatile long removedReviews;
+        private volatile long removedWatched;
+        private volatile long removedFavorites;
+        private volatile long removedWatchlists;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        DeletionJob(String id, Long userId) {
+            this.id = id;
+            this.userId = userId;
+        }
+
+        UserDeletionJobDTO toDTO() {
+            return UserDeletionJobDTO.builder()
+                    .jobId(id)
+                    .userId(userId)
+                    .status(status)
+                    .removedFlags(removedFlags)
+                    .removedReviews(removedReviews)
+                    .removedWatched(removedWatched)
+                    .removedFavorites(removedFavorites)
+                    .removedWatchlists(removedWatchlists)
+                    .createdAt(createdAt)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .error(error)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package br.ifsp.film_catalog.service;
+
+import br.ifsp.film_catalog.model.Genre;
+import br.ifsp.film_catalog.model.GenreCounts;
+import br.ifsp.film_catalog.model.UserGenreAffinity;
+import br.ifsp.film_catalog.repository.GenreRepository;
+import br.ifsp.film_catalog.repository.MovieRepository;
+import br.ifsp.film_catalog.repository.UserGenreAffinityRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the per-user genre profile used for recommendations.
+ * <p>
+ * Each movie added to or removed from the watched or favorite lists changes the profile by one per
+ * genre of the movie, under a row lock so concurrent changes of the same user serialize. Profiles
+ * are created stale and marked stale when a movie changes genres; a stale profile skips deltas and
+ * is rebuilt with two grouped queries on its next read.
+ * <p>
+ * A rebuild runs in a transaction of its own that takes the row lock before reading anything, and
+ * counts under READ COMMITTED: the counts see every list change committed before the lock, and any
+ * change still in flight waits for the lock and then applies its delta to the rebuilt profile. In the
+ * caller's transaction the counts could come from a snapshot taken before the lock.
+ */
+@Service
+public class UserGenreAffinityService {
+
+    private final UserGenreAffinityRepository affinityRepository;
+    private final MovieRepository movieRepository;
+    private final GenreRepository genreRepository;
+    private final TransactionTemplate rebuildTransaction;
+
+    public UserGenreAffinityService(UserGenreAffinityRepository affinityRepository,
+                                    MovieRepository movieRepository,
+                                    GenreRepository genreRepository,
+                                    PlatformTransactionManager transactionManager) {
+        this.affinityRepository = affinityRepository;
+        this.movieRepository = movieRepository;
+        this.genreRepository = genreRepository;
+        this.rebuildTransaction = new TransactionTemplate(transactionManager);
+        this.rebuildTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.rebuildTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+
+    /**
+     * Counts movies just added to the watched or favorite list of a user.
+     */
+    @Transactional
+    public void recordAdded(Long userId, Collection<Long> movieIds) {
+        apply(userId, movieIds, 1);
+    }
+
+    /**
+     * Discounts movies just removed from the watched or favorite list of a user.
+     */
+    @Transactional
+    public void recordRemoved(Long userId, Collection<Long> movieIds) {
+        apply(userId, movieIds, -1);
+    }
+
+    @Transactional
+    public List<Genre> getTopGenres(Long userId, int limit) {
+        List<Long> genreIds = current(userId).getGenreCounts().top(limit);
+        if (genreIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Genre> genres = genreRepository.findAllById(genreIds).stream()
+                .collect(Collectors.toMap(Genre::getId, Function.identity()));
+        return genreIds.stream().map(genres::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Top genre ids of the user with their counts, highest first.
+     */
+    @Transactional
+    public Map<Long, Integer> getTopGenreWeights(Long userId, int limit) {
+        GenreCounts counts = current(userId).getGenreCounts();
+        Map<Long, Integer> weights = new LinkedHashMap<>();
+        counts.top(limit).forEach(genreId -> weights.put(genreId, counts.countOf(genreId)));
+        return weights;
+    }
+
+    /**
+     * Flags the profiles of everyone who watched or favorited a movie whose genres changed or which is being deleted.
+     */
+    @Transactional
+    public void markStaleForMovie(Long movieId) {
+        affinityRepository.markStaleForMovie(movieId);
+    }
+
+    @Transactional
+    public void delete(Long userId) {
+        affinityRepository.deleteByUserId(userId);
+    }
+
+    private UserGenreAffinity current(Long userId) {
+        return affinityRepository.findById(userId)
+                .filter(affinity -> !affinity.isStale())
+                .orElseGet(() -> rebuildTransaction.execute(status -> rebuild(userId)));
+    }
+
+    private void apply(Long userId, Collection<Long> movieIds, int delta) {
+        if (movieIds.isEmpty()) {
+            return;
+        }
+        UserGenreAffinity affinity = lock(userId);
+        if (affinity.isStale()) {
+            return;
+        }
+        List<Long> genreIds = movieRepository.findGenreIdsByMovieIdIn(movieIds);
+        affinity.setGenreCounts(affinity.getGenreCounts().add(genreIds, delta));
+    }
+
+    private UserGenreAffinity rebuild(Long userId) {
+        UserGenreAffinity affinity = lock(userId);
+        if (!affinity.isStale()) {
+            return affinity; // Rebuilt by a concurrent reader while waiting for the lock
+        }
+
+        Map<Long, Long> counts = new HashMap<>();
+        affinityRepository.countWatchedByGenre(userId)
+                .forEach(total -> counts.merge(total.getGenreId(), total.getTotal(), Long::sum));
+        affinityRepository.countFavoritesByGenre(userId)
+                .forEach(total -> counts.merge(total.getGenreId(), total.getTotal(), Long::sum));
+
+        affinity.setGenreCounts(GenreCounts.of(counts));
+        affinity.setStale(false);
+        return affinity;
+    }
+
+    private UserGenreAffinity lock(Long userId) {
+        affinityRepository.insertIfAbsent(userId);
+        return affinityRepository.findForUpdate(userId)
+                .orElseThrow(() -> new IllegalStateException("Genre profile missing for user " + userId));
+    }
+}
@@ -1,5 +1,6 @@
 package br.ifsp.film_catalog.service;
 
+import br.ifsp.film_catalog.dto.BatchOperationResultDTO;
 import br.ifsp.film_catalog.dto.MovieResponseDTO;
 import br.ifsp.film_catalog.dto.RoleRequestDTO;
 import br.ifsp.film_catalog.dto.UserPatchDTO;
@@ -8,6 +9,7 @@ import br.ifsp.film_catalog.dto.UserRequestWithRolesDTO;
 import br.ifsp.film_catalog.dto.UserResponseDTO;
 import br.ifsp.film_catalog.dto.page.PagedResponse;
 import br.ifsp.film_catalog.exception.ResourceNotFoundException;
+import br.ifsp.film_catalog.mapper.MoviePageAssembler;
 import br.ifsp.film_catalog.mapper.PagedResponseMapper;
 import br.ifsp.film_catalog.model.Genre;
 import br.ifsp.film_catalog.model.Movie;
@@ -24,26 +26,31 @@ import br.ifsp.film_catalog.repository.UserFavoriteRepository;
 import br.ifsp.film_catalog.repository.UserRepository;
 import br.ifsp.film_catalog.repository.UserWatchedRepository;
 
-import java.util.Map;
 import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.function.Function;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Service
 public class UserService {
 
+    private static final int RECOMMENDATION_GENRES = 3;
+
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final MovieRepository movieRepository;
@@ -53,6 +60,11 @@ public class UserService {
     private final PasswordEncoder passwordEncoder;
     private final ModelMapper modelMapper;
     private final PagedResponseMapper pagedResponseMapper;
+    private final MoviePageAssembler moviePageAssembler;
+    private final UserGenreAffinityService userGenreAffinityService;
+    private final UserStatsService userStatsService;
+    private final ReviewService reviewService;
+    private final UserAvailabilityService userAvailabilityService;
 
     public UserService(UserRepository userRepository,
                          RoleRepository roleRepository,
@@ -61,7 +73,12 @@ public class UserService {
                          UserWatchedRepository userWatchedRepository,
                          PasswordEncoder passwordEncoder,
                          ModelMapper modelMapper,
-                         PagedResponseMapper pagedResponseMapper, ReviewRepository reviewRepository) {
+                         PagedResponseMapper pagedResponseMapper, ReviewRepository reviewRepository,
+                         MoviePageAssembler moviePageAssembler,
+                         UserGenreAffinityService userGenreAffinityService,
+                         UserStatsService userStatsService,
+                         ReviewService reviewService,
+                         UserAvailabilityService userAvailabilityService) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.movieRepository = movieRepository;
@@ -71,6 +88,11 @@ public class UserService {
         this.modelMapper = modelMapper;
         this.pagedResponseMapper = pagedResponseMapper;
         this.reviewRepository = reviewRepository;
+        this.moviePageAssembler = moviePageAssembler;
+        this.userGenreAffinityService = userGenreAffinityService;
+        this.userStatsService = userStatsService;
+        this.reviewService = reviewService;
+        this.userAvailabilityService = userAvailabilityService;
     }
 
     @Transactional(readOnly = true)
@@ -123,6 +145,8 @@ public class UserService {
         }
 
         User savedUser = userRepository.save(user);
+        TransactionHooks.afterCommit(() ->
+                userAvailabilityService.recordRegistered(savedUser.getUsername(), savedUser.getEmail()));
         return modelMapper.map(savedUser, UserResponseDTO.class);
     }
 
@@ -130,6 +154,8 @@ public class UserService {
     public UserResponseDTO updateUser(Long id, UserRequestWithRolesDTO userRequestDTO) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
+        String previousUsername = user.getUsername();
+        String previousEmail = user.getEmail();
 
         // Check for username conflict if username is being changed
         userRepository.findByUsername(userRequestDTO.getUsername()).ifPresent(existingUser -> {
@@ -162,6 +188,7 @@ public class UserService {
         }
 
         User updatedUser = userRepository.save(user);
+        recordIdentifierChange(previousUsername, previousEmail, user);
         return modelMapper.map(updatedUser, UserResponseDTO.class);
     }
 
@@ -169,6 +196,8 @@ public class UserService {
     public UserResponseDTO patchUser(Long id, UserPatchDTO userPatchDTO) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
+        String previousUsername = user.getUsername();
+        String previousEmail = user.getEmail();
 
         // Name
         if (userPatchDTO.getName() != null) {
@@ -223,19 +252,18 @@ public class UserService {
         }
 
         User patchedUser = userRepository.save(user);
+        recordIdentifierChange(previousUsername, previousEmail, user);
         return modelMapper.map(patchedUser, UserResponseDTO.class);
     }
 
-
-    @Transactional
-    public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new ResourceNotFoundException("User not found with id: " + id);
-        }
-        // Add any other business logic before deletion if necessary (e.g., check for dependencies)
-        userRepository.deleteById(id);
+    private void recordIdentifierChange(String previousUsername, String previousEmail, User user) {
+        String username = user.getUsername();
+        String email = user.getEmail();
+        TransactionHooks.afterCommit(() ->
+                userAvailabilityService.recordChanged(previousUsername, previousEmail, username, email));
     }
 
+
     @Transactional
     public void addFavoriteMovie(Long userId, Long movieId) {
         UserMovieId favoriteId = new UserMovieId(userId, movieId);
@@ -249,6 +277,21 @@ public class UserService {
 
         UserFavorite favorite = new UserFavorite(user, movie);
         userFavoriteRepository.save(favorite);
+        userGenreAffinityService.recordAdded(userId, List.of(movieId));
+        userStatsService.favoritesChanged(userId, 1);
+    }
+
+    /**
+     * Adds many favorites at once: one query validates the movies, one finds the ones already
+     * favorited and the rest are inserted with JDBC batches.
+     */
+    @Transactional
+    public BatchOperationResultDTO addFavoriteMovies(Long userId, List<Long> movieIds) {
+        return addInBatch(userId, movieIds, userFavoriteRepository::findMovieIdsByUserIdAndMovieIdIn,
+                toInsert -> {
+                    userFavoriteRepository.batchInsert(userId, toInsert, LocalDateTime.now());
+                    userStatsService.favoritesChanged(userId, toInsert.size());
+                });
     }
 
     @Transactional
@@ -258,8 +301,13 @@ public class UserService {
         Movie movie = movieRepository.findById(movieId)
                 .orElseThrow(() -> new ResourceNotFoundException("Movie not found with id: " + movieId));
 
+        boolean favorited = userFavoriteRepository.existsById(new UserMovieId(userId, movieId));
         user.removeFavorite(movie);
         userRepository.save(user);
+        if (favorited) {
+            userGenreAffinityService.recordRemoved(userId, List.of(movieId));
+            userStatsService.favoritesChanged(userId, -1);
+        }
     }
 
     @Transactional(readOnly = true)
@@ -268,16 +316,8 @@ public class UserService {
             throw new ResourceNotFoundException("User not found with id: " + userId);
         }
         
-        List<Movie> favoriteMovies = userRepository.findById(userId).get().getFavoriteMovies().stream()
-                .map(favorite -> favorite.getMovie())
-                .collect(Collectors.toList());
-        
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), favoriteMovies.size());
-        
-        Page<Movie> page = new PageImpl<>(favoriteMovies.subList(start, end), pageable, favoriteMovies.size());
-
-        return pagedResponseMapper.toPagedResponse(page, MovieResponseDTO.class);
+        Page<Movie> page = userFavoriteRepository.findFavoriteMoviesByUserId(userId, moviePageAssembler.movieSort(pageable));
+        return moviePageAssembler.toPagedResponse(page);
     }
 
     @Transactional
@@ -294,18 +334,80 @@ public class UserService {
         
         UserWatched watched = new UserWatched(user, movie, LocalDateTime.now());
         userWatchedRepository.save(watched);
+        userGenreAffinityService.recordAdded(userId, List.of(movieId));
+        userStatsService.watchedChanged(userId, List.of(movieId), 1);
+    }
+
+    /**
+     * Marks many movies as watched at once: one query validates the movies, one finds the ones
+     * already watched and the rest are inserted with JDBC batches.
+     */
+    @Transactional
+    public BatchOperationResultDTO addWatchedMovies(Long userId, List<Long> movieIds) {
+        return addInBatch(userId, movieIds, userWatchedRepository::findMovieIdsByUserIdAndMovieIdIn,
+                toInsert -> {
+                    userWatchedRepository.batchInsert(userId, toInsert, LocalDateTime.now());
+                    userStatsService.watchedChanged(userId, toInsert, 1);
+                });
+    }
+
+    private BatchOperationResultDTO addInBatch(Long userId, List<Long> movieIds,
+                                               BiFunction<Long, Collection<Long>, List<Long>> findAlreadyPresent,
+                                               Consumer<List<Long>> insert) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+
+        Set<Long> distinctIds = new LinkedHashSet<>(movieIds);
+        Set<Long> existingMovies = new HashSet<>(movieRepository.findExistingIds(distinctIds));
+        Set<Long> alreadyPresent = existingMovies.isEmpty()
+                ? Set.of()
+                : new HashSet<>(findAlreadyPresent.apply(userId, existingMovies));
+
+        List<Long> toInsert = distinctIds.stream()
+                .filter(id -> existingMovies.contains(id) && !alreadyPresent.contains(id))
+                .toList();
+        if (!toInsert.isEmpty()) {
+            insert.accept(toInsert);
+            userGenreAffinityService.recordAdded(userId, toInsert);
+        }
+
+        Set<Long> seen = new HashSet<>();
+        List<BatchOperationResultDTO.ItemResult> items = new ArrayList<>(movieIds.size());
+        for (Long movieId : movieIds) {
+            BatchOperationResultDTO.Status status;
+            if (!seen.add(movieId)) {
+                status = BatchOperationResultDTO.Status.DUPLICATE_IN_REQUEST;
+            } else if (!existingMovies.contains(movieId)) {
+                status = BatchOperationResultDTO.Status.MOVIE_NOT_FOUND;
+            } else if (alreadyPresent.contains(movieId)) {
+                status = BatchOperationResultDTO.Status.ALREADY_PRESENT;
+            } else {
+                status = BatchOperationResultDTO.Status.ADDED;
+            }
+            items.add(new BatchOperationResultDTO.ItemResult(movieId, status));
+        }
+
+        return BatchOperationResultDTO.builder()
+                .requested(movieIds.size())
+                .succeeded(toInsert.size())
+                .items(items)
+                .build();
     }
 
     @Transactional
     public void removeWatchedMovie(Long userId, Long movieId) {
         UserMovieId watchedId = new UserMovieId(userId, movieId);
-        if (userWatchedRepository.existsById(watchedId)) {
-            userWatchedRepository.deleteById(watchedId);
-            
-            reviewRepository.deleteByUserWatchedMovieId(movieId);
-        } else {
-            throw new ResourceNotFoundException("Watched record not found for user " + userId + " and movie " + movieId);
+        UserWatched watched = userWatchedRepository.findById(watchedId)
+                .orElseThrow(() -> new ResourceNotFoundException("Watched record not found for user " + userId + " and movie " + movieId));
+
+        // Only this user's review of the movie goes away with the watched entry
+        if (watched.getReview() != null) {
+            reviewService.deleteReview(watched.getReview().getId(), userId);
         }
+        userWatchedRepository.delete(watched);
+        userGenreAffinityService.recordRemoved(userId, List.of(movieId));
+        userStatsService.watchedChanged(userId, List.of(movieId), -1);
     }
 
     @Transactional(readOnly = true)
@@ -313,57 +415,48 @@ public class UserService {
         if (!userRepository.existsById(userId)) {
             throw new ResourceNotFoundException("User not found with id: " + userId);
         }
-        User user = userRepository.findById(userId).get();
-        
-        List<Movie> watchedMoviesList = user.getWatchedMovies().stream()
-                .map(UserWatched::getMovie)
-                .collect(Collectors.toList());
-
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), watchedMoviesList.size());
-        
-        Page<Movie> pageResult = new PageImpl<>(watchedMoviesList.subList(start, end), pageable, watchedMoviesList.size());
-
-        return pagedResponseMapper.toPagedResponse(pageResult, MovieResponseDTO.class);
+        Page<Movie> page = userWatchedRepository.findWatchedMoviesByUserId(userId, moviePageAssembler.movieSort(pageable));
+        return moviePageAssembler.toPagedResponse(page);
     }
 
+    /**
+     * Genres the user watches and favorites the most, read from the stored genre profile.
+     */
     public List<Genre> getTopGenresForUser(Long userId, int limit) {
         if (!userRepository.existsById(userId)) {
             throw new ResourceNotFoundException("User not found with id: " + userId);
         }
-        User user = userRepository.findById(userId).get();
-
-        List<Movie> watched = user.getWatchedMovies().stream()
-            .map(UserWatched::getMovie).toList();
-        
-        List<Movie> favorites = user.getFavoriteMovies().stream()
-            .map(UserFavorite::getMovie).toList();
-
-        List<Movie> all = Stream.concat(watched.stream(), favorites.stream()).toList();
-
-        Map<Genre, Long> genreFrequency = all.stream()
-            .flatMap(movie -> movie.getGenres().stream())
-            .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
-
-        return genreFrequency.entrySet().stream()
-            .sorted(Map.Entry.<Genre, Long>comparingByValue().reversed())
-            .limit(limit)
-            .map(Map.Entry::getKey)
-            .toList();
+        return userGenreAffinityService.getTopGenres(userId, limit);
     }
 
-    public PagedResponse<MovieResponseDTO> getRecommendedMoviesByGenres(List<Genre> genres, Pageable pageable){
-        if (genres == null || genres.isEmpty()) {
-            throw new IllegalArgumentException("Genres list cannot be null or empty.");
+    /**
+     * Unwatched movies ranked by how much of the user's top genres they cover, each genre weighted by
+     * how often it appears in the user's watched and favorite movies. Scoring, exclusion and the page
+     * total all come from the database.
+     */
+    @Transactional
+    public PagedResponse<MovieResponseDTO> getGenreRecommendations(Long userId, Pageable pageable) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+        Map<Long, Integer> weights = userGenreAffinityService.getTopGenreWeights(userId, RECOMMENDATION_GENRES);
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("User has no watched or favorite movies to base recommendations on.");
         }
 
-        List<Movie> recommendedMovies = movieRepository.findByGenresContaining(genres.get(0), pageable)
-                .stream()
-                .filter(movie -> movie.getGenres().stream().anyMatch(genres::contains))
-                .collect(Collectors.toList());
+        long[] genreIds = {-1, -1, -1};
+        int[] genreWeights = new int[RECOMMENDATION_GENRES];
+        int slot = 0;
+        for (Map.Entry<Long, Integer> entry : weights.entrySet()) {
+            genreIds[slot] = entry.getKey();
+            genreWeights[slot++] = entry.getValue();
+        }
 
-        Page<Movie> moviePage = new PageImpl<>(recommendedMovies, pageable, recommendedMovies.size());
-        return pagedResponseMapper.toPagedResponse(moviePage, MovieResponseDTO.class);
+        // The query defines its own order, so only the page position is kept from the request
+        Page<Movie> page = movieRepository.findUnwatchedByWeightedGenres(userId,
+                genreIds[0], genreWeights[0], genreIds[1], genreWeights[1], genreIds[2], genreWeights[2],
+                PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+        return moviePageAssembler.toPagedResponse(page);
     }
 
 }
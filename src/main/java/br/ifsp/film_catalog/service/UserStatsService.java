@@ -0,0 +1,114 @@
+package br.ifsp.film_catalog.service;
+
+import br.ifsp.film_catalog.dto.UserSummaryDTO;
+import br.ifsp.film_catalog.exception.ResourceNotFoundException;
+import br.ifsp.film_catalog.model.UserStats;
+import br.ifsp.film_catalog.repository.MovieRepository;
+import br.ifsp.film_catalog.repository.UserRepository;
+import br.ifsp.film_catalog.repository.UserStatsRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+/**
+ * Profile counters of each user: watched, favorites, reviews, likes received, watchlists and
+ * minutes watched.
+ * <p>
+ * Every write that changes one of them adds a delta to the user's row in the same transaction, so
+ * reading the summary is a primary key lookup. Changes that cannot be expressed as a delta, such as
+ * a movie changing its duration, mark the affected rows stale; stale or missing rows are recomputed
+ * with a single statement on their next read.
+ */
+@Service
+public class UserStatsService {
+
+    private final UserStatsRepository userStatsRepository;
+    private final UserRepository userRepository;
+    private final MovieRepository movieRepository;
+
+    public UserStatsService(UserStatsRepository userStatsRepository,
+                            UserRepository userRepository,
+                            MovieRepository movieRepository) {
+        this.userStatsRepository = userStatsRepository;
+        this.userRepository = userRepository;
+        this.movieRepository = movieRepository;
+    }
+
+    @Transactional
+    public UserSummaryDTO getSummary(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+        UserStats stats = userStatsRepository.findById(userId)
+                .filter(current -> !current.isStale())
+                .orElseGet(() -> {
+                    userStatsRepository.recompute(userId);
+                    return userStatsRepository.findById(userId).orElseThrow();
+                });
+
+        return UserSummaryDTO.builder()
+                .userId(userId)
+                .watchedCount(stats.getWatchedCount())
+                .favoritesCount(stats.getFavoritesCount())
+                .reviewsCount(stats.getReviewsCount())
+                .likesReceived(stats.getLikesReceived())
+                .watchlistsCount(stats.getWatchlistsCount())
+                .minutesWatched(stats.getMinutesWatched())
+                .build();
+    }
+
+    /**
+     * Records movies added to ({@code sign = 1}) or removed from ({@code sign = -1}) the watched list.
+     */
+    @Transactional
+    public void watchedChanged(Long userId, Collection<Long> movieIds, int sign) {
+        if (movieIds.isEmpty()) {
+            return;
+        }
+        long minutes = movieRepository.sumDurationByIdIn(movieIds);
+        userStatsRepository.addDeltas(userId, sign * (long) movieIds.size(), sign * minutes, 0, 0, 0, 0);
+    }
+
+    @Transactional
+    public void favoritesChanged(Long userId, int delta) {
+        if (delta != 0) {
+            userStatsRepository.addDeltas(userId, 0, 0, delta, 0, 0, 0);
+        }
+    }
+
+    /**
+     * Records reviews written or deleted by the user, with the likes those reviews carried.
+     */
+    @Transactional
+    public void reviewsChanged(Long userId, int reviews, long likes) {
+        if (reviews != 0 || likes != 0) {
+            userStatsRepository.addDeltas(userId, 0, 0, 0, reviews, likes, 0);
+        }
+    }
+
+    @Transactional
+    public void watchlistsChanged(Long userId, int delta) {
+        userStatsRepository.addDeltas(userId, 0, 0, 0, 0, 0, delta);
+    }
+
+    @Transactional
+    public void markStaleForMovie(Long movieId) {
+        userStatsRepository.markStaleForMovie(movieId);
+    }
+
+    /**
+     * Marks the authors of reviews about to be removed in bulk. Must run before the delete.
+     */
+    @Transactional
+    public void markStaleForReviews(Collection<Long> reviewIds) {
+        if (!reviewIds.isEmpty()) {
+            userStatsRepository.markStaleForReviews(reviewIds);
+        }
+    }
+
+    @Transactional
+    public void delete(Long userId) {
+        userStatsRepository.deleteByUserId(userId);
+    }
+}
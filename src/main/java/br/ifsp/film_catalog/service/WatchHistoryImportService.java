@@ -0,0 +1,479 @@
+package br.ifsp.film_catalog.service;
+
+import br.ifsp.film_catalog.dto.WatchHistoryImportJobDTO;
+import br.ifsp.film_catalog.dto.WatchHistoryImportJobDTO.Reason;
+import br.ifsp.film_catalog.dto.WatchHistoryImportJobDTO.SkippedRow;
+import br.ifsp.film_catalog.exception.RateLimitExceededException;
+import br.ifsp.film_catalog.exception.ResourceNotFoundException;
+import br.ifsp.film_catalog.model.enums.JobStatus;
+import br.ifsp.film_catalog.repository.MovieRepository;
+import br.ifsp.film_catalog.repository.ReviewRepository;
+import br.ifsp.film_catalog.repository.UserRepository;
+import br.ifsp.film_catalog.repository.UserWatchedRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Imports watch histories exported from other services as CSV files.
+ * <p>
+ * The upload is copied to a temporary file and processed by a background job that reads it line by
+ * line, so memory does not grow with the file. Rows hold a title, a release year, a watch date and an
+ * optional 0-5 rating; with a header row the columns may come in any order. Titles are matched through
+ * a {@link MovieTitleIndex} built once per job, and matched rows are written in batches, each batch in
+ * its own transaction: movies already watched are left untouched, new ones get a {@code UserWatched}
+ * row and, when rated, a rating-only review, which has no text and so stays out of the recent reviews
+ * feed and the sub-score averages. Job progress and the rows that could not be imported are
+ * kept in memory for a while after the job ends.
+ */
+@Service
+public class WatchHistoryImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(WatchHistoryImportService.class);
+    private static final int MAX_LISTED_SKIPPED_ROWS = 500;
+    private static final int MAX_SCORE = 5;
+
+    private final UserRepository userRepository;
+    private final MovieRepository movieRepository;
+    private final UserWatchedRepository userWatchedRepository;
+    private final ReviewRepository reviewRepository;
+    private final UserGenreAffinityService userGenreAffinityService;
+    private final UserStatsService userStatsService;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor workers;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${app.import.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${app.import.retention-minutes:60}")
+    private long retentionMinutes = 60;
+
+    public WatchHistoryImportService(UserRepository userRepository,
+                                     MovieRepository movieRepository,
+                                     UserWatchedRepository userWatchedRepository,
+                                     ReviewRepository reviewRepository,
+                                     UserGenreAffinityService userGenreAffinityService,
+                                     UserStatsService userStatsService,
+                                     TransactionTemplate transactionTemplate,
+                                     @Value("${app.import.worker-threads:2}") int workerThreads,
+                                     @Value("${app.import.queue-capacity:20}") int queueCapacity) {
+        this.userRepository = userRepository;
+        this.movieRepository = movieRepository;
+        this.userWatchedRepository = userWatchedRepository;
+        this.reviewRepository = reviewRepository;
+        this.userGenreAffinityService = userGenreAffinityService;
+        this.userStatsService = userStatsService;
+        this.transactionTemplate = transactionTemplate;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "watch-history-import-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Stores the upload and queues its import. Returns the job as queued.
+     */
+    public WatchHistoryImportJobDTO start(Long userId, MultipartFile file) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("The uploaded file is empty.");
+        }
+
+        Path path;
+        try {
+            path = Files.createTempFile("watch-history-", ".csv");
+            file.transferTo(path);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not store the uploaded file.", e);
+        }
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), userId, file.getOriginalFilename(), file.getSize());
+        jobs.put(job.id, job);
+        try {
+            workers.execute(() -> run(job, path));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            deleteQuietly(path);
+            throw new RateLimitExceededException("Too many imports in progress. Try again later.", 60);
+        }
+        return job.toDTO();
+    }
+
+    public WatchHistoryImportJobDTO getJob(Long userId, String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null || !job.userId.equals(userId)) {
+            throw new ResourceNotFoundException("Import job not found with id: " + jobId);
+        }
+        return job.toDTO();
+    }
+
+    @Scheduled(fixedDelayString = "${app.import.sweep-interval-ms:600000}")
+    public void evictFinishedJobs() {
+        Instant limit = Instant.now().minus(Duration.ofMinutes(retentionMinutes));
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(limit));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    void run(ImportJob job, Path path) {
+        job.startedAt = Instant.now();
+        job.status = JobStatus.RUNNING;
+        try (CountingInputStream input = new CountingInputStream(Files.newInputStream(path));
+             BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            job.input = input;
+            MovieTitleIndex index = MovieTitleIndex.of(movieRepository.findAllTitles());
+            importRows(job, reader, index);
+            job.status = JobStatus.COMPLETED;
+            log.info("Watch history import {} of user {}: {} rows, {} watched, {} reviews, {} skipped",
+                    job.id, job.userId, job.processedRows, job.importedWatched, job.importedReviews, job.skippedRows);
+        } catch (Exception e) {
+            log.warn("Watch history import {} of user {} failed after {} rows", job.id, job.userId, job.processedRows, e);
+            job.error = "Import stopped at line " + (job.processedRows + 1) + ". Rows before it were imported.";
+            job.status = JobStatus.FAILED;
+        } finally {
+            job.finishedAt = Instant.now();
+            deleteQuietly(path);
+        }
+    }
+
+    private void importRows(ImportJob job, BufferedReader reader, MovieTitleIndex index) throws IOException {
+        Columns columns = Columns.POSITIONAL;
+        Set<Long> seenMovieIds = new HashSet<>();
+        List<PendingRow> batch = new ArrayList<>(batchSize);
+        LocalDateTime importedAt = LocalDateTime.now();
+
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+                line = line.substring(1);
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> fields = splitCsvLine(line);
+            if (lineNumber == 1 && Columns.isHeader(fields)) {
+                columns = Columns.fromHeader(fields);
+                continue;
+            }
+
+            job.processedRows++;
+            PendingRow row = parseRow(job, lineNumber, fields, columns, index, importedAt);
+            if (row == null) {
+                continue;
+            }
+            if (!seenMovieIds.add(row.movieId())) {
+                job.skip(lineNumber, columns.title(fields), columns.year(fields), Reason.DUPLICATE_IN_FILE);
+                continue;
+            }
+            batch.add(row);
+            if (batch.size() >= batchSize) {
+                flush(job, batch);
+            }
+        }
+        flush(job, batch);
+    }
+
+    // Validates and matches one row; returns null, after recording why, when it cannot be imported.
+    private PendingRow parseRow(ImportJob job, long lineNumber, List<String> fields, Columns columns,
+                                MovieTitleIndex index, LocalDateTime importedAt) {
+        String title = columns.title(fields);
+        String year = columns.year(fields);
+        Integer releaseYear;
+        LocalDateTime watchedAt;
+        Integer score;
+        try {
+            releaseYear = year.isEmpty() ? null : Integer.valueOf(year);
+            watchedAt = parseWatchedAt(columns.watchedAt(fields), importedAt);
+            score = parseScore(columns.rating(fields));
+        } catch (NumberFormatException | DateTimeParseException e) {
+            job.skip(lineNumber, title, year, Reason.INVALID_ROW);
+            return null;
+        }
+        if (title.isEmpty() || (score != null && (score < 0 || score > MAX_SCORE))) {
+            job.skip(lineNumber, title, year, Reason.INVALID_ROW);
+            return null;
+        }
+
+        MovieTitleIndex.Match match = index.match(title, releaseYear);
+        if (!match.found()) {
+            job.skip(lineNumber, title, year, match.ambiguous() ? Reason.AMBIGUOUS_TITLE : Reason.MOVIE_NOT_FOUND);
+            return null;
+        }
+        return new PendingRow(match.movieId(), watchedAt, score);
+    }
+
+    private void flush(ImportJob job, List<PendingRow> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int[] counts = transactionTemplate.execute(status -> {
+            List<Long> movieIds = batch.stream().map(PendingRow::movieId).toList();
+            Set<Long> alreadyWatched = new HashSet<>(userWatchedRepository.findMovieIdsByUserIdAndMovieIdIn(job.userId, movieIds));
+
+            Map<Long, LocalDateTime> watched = new LinkedHashMap<>();
+            Map<Long, Integer> scores = new LinkedHashMap<>();
+            for (PendingRow row : batch) {
+                if (alreadyWatched.contains(row.movieId())) {
+                    continue;
+                }
+                watched.put(row.movieId(), row.watchedAt());
+                if (row.score() != null) {
+                    scores.put(row.movieId(), row.score());
+                }
+            }
+            userWatchedRepository.batchInsert(job.userId, watched);
+            reviewRepository.batchInsertRatings(job.userId, scores);
+            userGenreAffinityService.recordAdded(job.userId, watched.keySet());
+            userStatsService.watchedChanged(job.userId, watched.keySet(), 1);
+            userStatsService.reviewsChanged(job.userId, scores.size(), 0);
+            return new int[] { watched.size(), scores.size(), alreadyWatched.size() };
+        });
+        job.importedWatched += counts[0];
+        job.importedReviews += counts[1];
+        job.alreadyWatched += counts[2];
+        batch.clear();
+    }
+
+    private static LocalDateTime parseWatchedAt(String value, LocalDateTime fallback) {
+        if (value.isEmpty()) {
+            return fallback;
+        }
+        return value.length() <= 10 ? LocalDate.parse(value).atStartOfDay() : LocalDateTime.parse(value.replace(' ', 'T'));
+    }
+
+    // Decimal ratings such as "3.5" are rounded to the nearest whole score.
+    private static Integer parseScore(String value) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        return new BigDecimal(value.replace(',', '.')).setScale(0, RoundingMode.HALF_UP).intValueExact();
+    }
+
+    /**
+     * Splits a CSV line on commas, honouring double-quoted fields and {@code ""} escapes.
+     * Quoted fields spanning several lines are not supported.
+     */
+    static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete temporary import file {}", path, e);
+        }
+    }
+
+    private record PendingRow(Long movieId, LocalDateTime watchedAt, Integer score) {
+    }
+
+    // Column positions of title, year, watched date and rating.
+    private record Columns(int titleIndex, int yearIndex, int watchedAtIndex, int ratingIndex) {
+
+        static final Columns POSITIONAL = new Columns(0, 1, 2, 3);
+
+        static boolean isHeader(List<String> fields) {
+            return fields.stream().anyMatch(field -> field.equalsIgnoreCase("title") || field.equalsIgnoreCase("name"));
+        }
+
+        static Columns fromHeader(List<String> header) {
+            int title = -1, year = -1, watchedAt = -1, rating = -1;
+            for (int i = 0; i < header.size(); i++) {
+                switch (header.get(i).toLowerCase(Locale.ROOT).replaceAll("[^a-z]", "")) {
+                    case "title", "name" -> title = i;
+                    case "year", "releaseyear" -> year = i;
+                    case "watcheddate", "watchedat", "watched", "date" -> watchedAt = i;
+                    case "rating", "score" -> rating = i;
+                    default -> { }
+                }
+            }
+            return new Columns(title, year, watchedAt, rating);
+        }
+
+        String title(List<String> fields) {
+            return field(fields, titleIndex);
+        }
+
+        String year(List<String> fields) {
+            return field(fields, yearIndex);
+        }
+
+        String watchedAt(List<String> fields) {
+            return field(fields, watchedAtIndex);
+        }
+
+        String rating(List<String> fields) {
+            return field(fields, ratingIndex);
+        }
+
+        private static String field(List<String> fields, int index) {
+            return index >= 0 && index < fields.size() ? fields.get(index) : "";
+        }
+    }
+
+    // Mutable job state: written only by its worker thread, read by status requests.
+    static final class ImportJob {
+
+        private final String id;
+        private final Long userId;
+        private final String fileName;
+        private final long fileSize;
+        private final Instant createdAt = Instant.now();
+        private final List<SkippedRow> skipped = new CopyOnWriteArrayList<>();
+        private volatile JobStatus status = JobStatus.QUEUED;
+        private volatile CountingInputStream input;
+        private volatile long processedRows;
+        private volatile long importedWatched;
+        private volatile long importedReviews;
+        private volatile long alreadyWatched;
+        private volatile long skippedRows;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        private ImportJob(String id, Long userId, String fileName, long fileSize) {
+            this.id = id;
+            this.userId = userId;
+            this.fileName = fileName;
+            this.fileSize = fileSize;
+        }
+
+        private void skip(long line, String title, String year, Reason reason) {
+            skippedRows++;
+            if (skipped.size() < MAX_LISTED_SKIPPED_ROWS) {
+                skipped.add(new SkippedRow(line, title, year, reason));
+            }
+        }
+
+        private int progressPercent() {
+            if (status == JobStatus.COMPLETED) {
+                return 100;
+            }
+            CountingInputStream current = input;
+            if (current == null || fileSize <= 0) {
+                return 0;
+            }
+            return (int) Math.min(99, current.count * 100 / fileSize);
+        }
+
+        private WatchHistoryImportJobDTO toDTO() {
+            return WatchHistoryImportJobDTO.builder()
+                    .jobId(id)
+                    .userId(userId)
+                    .fileName(fileName)
+                    .status(status)
+                    .progressPercent(progressPercent())
+                    .processedRows(processedRows)
+                    .importedWatched(importedWatched)
+                    .importedReviews(importedReviews)
+                    .alreadyWatched(alreadyWatched)
+                    .skippedRows(skippedRows)
+                    .skipped(List.copyOf(skipped))
+                    .createdAt(createdAt)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .error(error)
+                    .build();
+        }
+    }
+
+    // Counts the bytes handed to the reader, which is enough for a progress estimate.
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private volatile long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                count++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+    }
+}
@@ -1,41 +1,89 @@
 package br.ifsp.film_catalog.service;
 
+import br.ifsp.film_catalog.dto.BatchOperationResultDTO;
+import br.ifsp.film_catalog.dto.BatchOperationResultDTO.Status;
+import br.ifsp.film_catalog.dto.MovieResponseDTO;
+import br.ifsp.film_catalog.dto.SharedWatchlistDTO;
+import br.ifsp.film_catalog.dto.WatchlistBatchRequestDTO;
+import br.ifsp.film_catalog.dto.WatchlistBatchResultDTO;
+import br.ifsp.film_catalog.dto.WatchlistMoveRequestDTO;
 import br.ifsp.film_catalog.dto.WatchlistRequestDTO;
 import br.ifsp.film_catalog.dto.WatchlistResponseDTO;
+import br.ifsp.film_catalog.dto.WatchlistSetOperationRequestDTO;
+import br.ifsp.film_catalog.dto.WatchlistShareDTO;
+import br.ifsp.film_catalog.dto.WatchlistSummaryDTO;
+import br.ifsp.film_catalog.dto.page.CursorPagedResponse;
 import br.ifsp.film_catalog.dto.page.PagedResponse;
 import br.ifsp.film_catalog.exception.ResourceNotFoundException;
+import br.ifsp.film_catalog.mapper.MoviePageAssembler;
 import br.ifsp.film_catalog.mapper.PagedResponseMapper;
 import br.ifsp.film_catalog.model.Movie;
 import br.ifsp.film_catalog.model.User;
 import br.ifsp.film_catalog.model.Watchlist;
+import br.ifsp.film_catalog.model.WatchlistItem;
+import br.ifsp.film_catalog.model.enums.WatchlistSetOperation;
 import br.ifsp.film_catalog.repository.MovieRepository;
 import br.ifsp.film_catalog.repository.UserRepository;
 import br.ifsp.film_catalog.repository.WatchlistRepository;
+import br.ifsp.film_catalog.repository.WatchlistRepository.WatchlistSummary;
 import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class WatchlistService {
 
+    private static final Set<String> SUMMARY_SORT_PROPERTIES = Set.of("id", "name", "description");
+    private static final int COVER_MOVIES = 4;
+    private static final SecureRandom SHARE_TOKEN_RANDOM = new SecureRandom();
+
     private final WatchlistRepository watchlistRepository;
     private final UserRepository userRepository;
     private final MovieRepository movieRepository;
     private final ModelMapper modelMapper;
     private final PagedResponseMapper pagedResponseMapper;
+    private final UserStatsService userStatsService;
+    private final MoviePageAssembler moviePageAssembler;
+    private final SharedWatchlistCache sharedWatchlistCache;
+    private final TransactionTemplate sharedPageTransaction;
 
     public WatchlistService(WatchlistRepository watchlistRepository,
                               UserRepository userRepository,
                               MovieRepository movieRepository,
                               ModelMapper modelMapper,
-                              PagedResponseMapper pagedResponseMapper) {
+                              PagedResponseMapper pagedResponseMapper,
+                              UserStatsService userStatsService,
+                              MoviePageAssembler moviePageAssembler,
+                              SharedWatchlistCache sharedWatchlistCache,
+                              PlatformTransactionManager transactionManager) {
         this.watchlistRepository = watchlistRepository;
         this.userRepository = userRepository;
         this.movieRepository = movieRepository;
         this.modelMapper = modelMapper;
         this.pagedResponseMapper = pagedResponseMapper;
+        this.userStatsService = userStatsService;
+        this.moviePageAssembler = moviePageAssembler;
+        this.sharedWatchlistCache = sharedWatchlistCache;
+        this.sharedPageTransaction = new TransactionTemplate(transactionManager);
+        this.sharedPageTransaction.setReadOnly(true);
     }
 
     @Transactional
@@ -49,68 +97,406 @@ public class WatchlistService {
         watchlist.setUser(user);
 
         Watchlist savedWatchlist = watchlistRepository.save(watchlist);
+        userStatsService.watchlistsChanged(userId, 1);
         return modelMapper.map(savedWatchlist, WatchlistResponseDTO.class);
     }
 
+    /**
+     * Creates a watchlist holding the result of a set operation over the user's lists. The result is
+     * computed and written by the database in a single INSERT ... SELECT on the join table, so no
+     * list contents pass through the application.
+     */
+    @Transactional
+    public WatchlistResponseDTO createFromSetOperation(Long userId, WatchlistSetOperationRequestDTO request) {
+        List<Long> sourceIds = List.copyOf(new LinkedHashSet<>(request.getSourceWatchlistIds()));
+        WatchlistSetOperation operation = request.getOperation();
+        boolean singleSource = operation == WatchlistSetOperation.COPY || operation == WatchlistSetOperation.UNWATCHED;
+        if (singleSource && sourceIds.size() != 1) {
+            throw new IllegalArgumentException(operation + " takes exactly one source watchlist.");
+        }
+        if (!singleSource && sourceIds.size() < 2) {
+            throw new IllegalArgumentException(operation + " takes at least two distinct source watchlists.");
+        }
+        if (watchlistRepository.countByIdInAndUser_Id(sourceIds, userId) != sourceIds.size()) {
+            throw new ResourceNotFoundException("Source watchlists not found for user: " + userId);
+        }
+        User user = userRepository.getReferenceById(userId); // Owner checked through the source lists
+
+        Watchlist target = new Watchlist(request.getName(), user);
+        target.setDescription(request.getDescription());
+        Watchlist saved = watchlistRepository.save(target);
+        Long targetId = saved.getId();
+
+        Long firstId = sourceIds.get(0);
+        switch (operation) {
+            case COPY -> watchlistRepository.copyMovies(firstId, targetId);
+            case MERGE -> watchlistRepository.mergeMovies(sourceIds,
+                    sourceIds.stream().map(String::valueOf).collect(Collectors.joining(",")), targetId);
+            case INTERSECT -> watchlistRepository.intersectMovies(firstId, sourceIds, sourceIds.size(), targetId);
+            case DIFFERENCE -> watchlistRepository.differenceMovies(firstId, sourceIds.subList(1, sourceIds.size()), targetId);
+            case UNWATCHED -> watchlistRepository.unwatchedMovies(firstId, userId, targetId);
+        }
+        userStatsService.watchlistsChanged(userId, 1);
+        return modelMapper.map(saved, WatchlistResponseDTO.class);
+    }
+
+    /**
+     * Lists the user's watchlists as summaries. Counts, runtime and cover movies come from the
+     * grouped query that pages the lists, so no list contents are loaded.
+     */
     @Transactional(readOnly = true)
-    public PagedResponse<WatchlistResponseDTO> getWatchlistsByUser(Long userId, Pageable pageable) {
+    public PagedResponse<WatchlistSummaryDTO> getWatchlistsByUser(Long userId, Pageable pageable) {
         if (!userRepository.existsById(userId)) {
             throw new ResourceNotFoundException("User not found with id: " + userId);
         }
-        Page<Watchlist> watchlistPage = watchlistRepository.findAllByUser_Id(userId, pageable);
-        return pagedResponseMapper.toPagedResponse(watchlistPage, WatchlistResponseDTO.class);
+        Page<WatchlistSummary> page = watchlistRepository.findSummariesByUserId(userId, summarySort(pageable));
+        List<WatchlistSummaryDTO> content = page.getContent().stream()
+                .map(summary -> toSummaryDTO(summary, userId))
+                .toList();
+        return new PagedResponse<>(content, page.getNumber(), page.getSize(),
+                page.getTotalElements(), page.getTotalPages(), page.isLast());
     }
 
     @Transactional(readOnly = true)
     public WatchlistResponseDTO getWatchlistByIdAndUser(Long userId, Long watchlistId) {
-        Watchlist watchlist = watchlistRepository.findByIdAndUserId(watchlistId, userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Watchlist not found with id: " + watchlistId + " for user: " + userId));
+        Watchlist watchlist = findOwnedWatchlist(userId, watchlistId);
         return modelMapper.map(watchlist, WatchlistResponseDTO.class);
     }
 
+    /**
+     * Pages the movies of a watchlist straight from the join table, genres loaded per page.
+     */
+    @Transactional(readOnly = true)
+    public PagedResponse<MovieResponseDTO> getWatchlistMovies(Long userId, Long watchlistId, Pageable pageable) {
+        findOwnedWatchlist(userId, watchlistId);
+        Page<Movie> page = watchlistRepository.findMoviesByWatchlistId(watchlistId, moviePageAssembler.movieSort(pageable));
+        return moviePageAssembler.toPagedResponse(page);
+    }
+
+    /**
+     * Movies of a watchlist in rank order with keyset pagination, so deep pages cost the same as the
+     * first one. The cursor has the form {@code position:movieId}.
+     */
+    @Transactional(readOnly = true)
+    public CursorPagedResponse<MovieResponseDTO> getRankedWatchlistMovies(Long userId, Long watchlistId, String cursor, int size) {
+        findOwnedWatchlist(userId, watchlistId);
+        return rankedPage(watchlistId, cursor, size);
+    }
+
+    /**
+     * Reads a page of a shared watchlist by its token. Pages are served from
+     * {@link SharedWatchlistCache}, and a miss is loaded once however many requests wait on it.
+     * Only a miss opens a read-only transaction, so a cache hit never takes a database connection
+     * and the list, its items and their movies are read consistently.
+     */
+    public SharedWatchlistDTO getSharedWatchlist(String shareToken, String cursor, int size) {
+        String pageCursor = cursor == null || cursor.isBlank() ? null : cursor;
+        return sharedWatchlistCache.get(shareToken, pageCursor, size, () -> sharedPageTransaction.execute(status -> {
+            Watchlist watchlist = watchlistRepository.findByShareToken(shareToken)
+                    .orElseThrow(() -> new ResourceNotFoundException("Shared watchlist not found."));
+            return SharedWatchlistDTO.builder()
+                    .name(watchlist.getName())
+                    .description(watchlist.getDescription())
+                    .movies(rankedPage(watchlist.getId(), pageCursor, size))
+                    .build();
+        }));
+    }
+
+    /**
+     * Makes the list readable by anyone with its share token. Sharing an already shared list
+     * returns the token it has.
+     */
+    @Transactional
+    public WatchlistShareDTO shareWatchlist(Long userId, Long watchlistId) {
+        Watchlist watchlist = findOwnedWatchlist(userId, watchlistId);
+        if (watchlist.getShareToken() == null) {
+            byte[] random = new byte[16];
+            SHARE_TOKEN_RANDOM.nextBytes(random);
+            watchlist.setShareToken(Base64.getUrlEncoder().withoutPadding().encodeToString(random));
+            watchlistRepository.save(watchlist);
+        }
+        return new WatchlistShareDTO(watchlistId, watchlist.getShareToken());
+    }
+
+    /**
+     * Makes the list private again. Its token stops working; sharing it again issues a new one.
+     */
+    @Transactional
+    public void unshareWatchlist(Long userId, Long watchlistId) {
+        Watchlist watchlist = findOwnedWatchlist(userId, watchlistId);
+        if (watchlist.getShareToken() != null) {
+            invalidateShared(watchlist);
+            watchlist.setShareToken(null);
+            watchlistRepository.save(watchlist);
+        }
+    }
+
+    /**
+     * Moves a movie right after another one, or to the top. Only the moved row is written, with a
+     * position halfway between its new neighbours; the list is spread out again only when two
+     * neighbours have no room left between them.
+     */
+    @Transactional
+    public void moveMovie(Long userId, Long watchlistId, Long movieId, WatchlistMoveRequestDTO request) {
+        Long afterMovieId = request.getAfterMovieId();
+        if (movieId.equals(afterMovieId)) {
+            throw new IllegalArgumentException("A movie cannot be moved after itself.");
+        }
+        Watchlist watchlist = lockOwnedWatchlist(userId, watchlistId);
+        findPositionInList(watchlistId, movieId);
+
+        Long position = positionAfter(watchlistId, movieId, afterMovieId);
+        if (position == null) {
+            watchlistRepository.rebalancePositions(watchlistId);
+            position = positionAfter(watchlistId, movieId, afterMovieId);
+        }
+        watchlistRepository.updatePosition(watchlistId, movieId, position);
+        invalidateShared(watchlist);
+    }
+
     @Transactional
     public WatchlistResponseDTO updateWatchlist(Long userId, Long watchlistId, WatchlistRequestDTO watchlistRequestDTO) {
-        Watchlist watchlist = watchlistRepository.findByIdAndUserId(watchlistId, userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Watchlist not found with id: " + watchlistId + " for user: " + userId));
+        Watchlist watchlist = findOwnedWatchlist(userId, watchlistId);
 
         watchlist.setName(watchlistRequestDTO.getName());
         watchlist.setDescription(watchlistRequestDTO.getDescription());
 
         Watchlist updatedWatchlist = watchlistRepository.save(watchlist);
+        invalidateShared(watchlist);
         return modelMapper.map(updatedWatchlist, WatchlistResponseDTO.class);
     }
 
     @Transactional
     public void deleteWatchlist(Long userId, Long watchlistId) {
-        Watchlist watchlist = watchlistRepository.findByIdAndUserId(watchlistId, userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Watchlist not found with id: " + watchlistId + " for user: " + userId));
+        Watchlist watchlist = findOwnedWatchlist(userId, watchlistId);
         watchlistRepository.delete(watchlist);
+        userStatsService.watchlistsChanged(userId, -1);
+        invalidateShared(watchlist);
     }
 
+    /**
+     * Adds a movie with a single keyed insert on the join table, without loading the list.
+     * Adding a movie that is already in the list changes nothing. The list is locked like for any
+     * other change to its order, so concurrent adds never read the same last position.
+     */
     @Transactional
     public WatchlistResponseDTO addMovieToWatchlist(Long userId, Long watchlistId, Long movieId) {
-        Watchlist watchlist = watchlistRepository.findByIdAndUserId(watchlistId, userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Watchlist not found with id: " + watchlistId + " for user: " + userId));
-        Movie movie = movieRepository.findById(movieId)
-                .orElseThrow(() -> new ResourceNotFoundException("Movie not found with id: " + movieId));
-
-        // Verifica se o filme já está na watchlist para evitar duplicatas na tabela de junção
-        if (watchlist.getMovies().stream().noneMatch(m -> m.getId().equals(movieId))) {
-            watchlist.addMovie(movie);
-            watchlistRepository.save(watchlist);
+        Watchlist watchlist = lockOwnedWatchlist(userId, watchlistId);
+        if (!movieRepository.existsById(movieId)) {
+            throw new ResourceNotFoundException("Movie not found with id: " + movieId);
+        }
+        if (!watchlistRepository.findMovieIdsByWatchlistIdAndMovieIdIn(watchlistId, List.of(movieId)).isEmpty()) {
+            return modelMapper.map(watchlist, WatchlistResponseDTO.class);
         }
+        watchlistRepository.addMovie(watchlistId, movieId);
+        invalidateShared(watchlist);
         return modelMapper.map(watchlist, WatchlistResponseDTO.class);
     }
 
     @Transactional
     public WatchlistResponseDTO removeMovieFromWatchlist(Long userId, Long watchlistId, Long movieId) {
-        Watchlist watchlist = watchlistRepository.findByIdAndUserId(watchlistId, userId)
+        Watchlist watchlist = findOwnedWatchlist(userId, watchlistId);
+        if (!movieRepository.existsById(movieId)) {
+            throw new ResourceNotFoundException("Movie not found with id: " + movieId);
+        }
+        watchlistRepository.removeMovie(watchlistId, movieId);
+        invalidateShared(watchlist);
+        return modelMapper.map(watchlist, WatchlistResponseDTO.class);
+    }
+
+    /**
+     * Adds and removes many movies in one transaction: one existence check and one multi-row
+     * statement per side, whatever the number of ids. Each requested id gets its own outcome.
+     */
+    @Transactional
+    public WatchlistBatchResultDTO applyBatch(Long userId, Long watchlistId, WatchlistBatchRequestDTO request) {
+        List<Long> toAdd = request.getAdd() == null ? List.of() : request.getAdd();
+        List<Long> toRemove = request.getRemove() == null ? List.of() : request.getRemove();
+        if (toAdd.isEmpty() && toRemove.isEmpty()) {
+            throw new IllegalArgumentException("Provide movie ids to add, to remove or both.");
+        }
+        Set<Long> conflicting = new LinkedHashSet<>(toAdd);
+        conflicting.retainAll(new HashSet<>(toRemove));
+        if (!conflicting.isEmpty()) {
+            throw new IllegalArgumentException("Movie ids cannot be added and removed in the same batch: " + conflicting);
+        }
+        Watchlist watchlist = lockOwnedWatchlist(userId, watchlistId);
+
+        BatchOperationResultDTO added = toBatchResult(toAdd, Status.ADDED, ids -> {
+            Set<Long> existingMovies = new HashSet<>(movieRepository.findExistingIds(ids));
+            Set<Long> alreadyPresent = existingMovies.isEmpty()
+                    ? Set.of()
+                    : new HashSet<>(watchlistRepository.findMovieIdsByWatchlistIdAndMovieIdIn(watchlistId, existingMovies));
+            List<Long> inserted = ids.stream()
+                    .filter(id -> existingMovies.contains(id) && !alreadyPresent.contains(id))
+                    .toList();
+            if (!inserted.isEmpty()) {
+                watchlistRepository.addMovies(watchlistId, inserted);
+            }
+            return id -> !existingMovies.contains(id) ? Status.MOVIE_NOT_FOUND
+                    : alreadyPresent.contains(id) ? Status.ALREADY_PRESENT
+                    : Status.ADDED;
+        });
+
+        BatchOperationResultDTO removed = toBatchResult(toRemove, Status.REMOVED, ids -> {
+            Set<Long> present = new HashSet<>(watchlistRepository.findMovieIdsByWatchlistIdAndMovieIdIn(watchlistId, ids));
+            if (!present.isEmpty()) {
+                watchlistRepository.removeMovies(watchlistId, present);
+            }
+            return id -> present.contains(id) ? Status.REMOVED : Status.NOT_PRESENT;
+        });
+
+        invalidateShared(watchlist);
+        return WatchlistBatchResultDTO.builder()
+                .watchlistId(watchlistId)
+                .added(added)
+                .removed(removed)
+                .build();
+    }
+
+    // Applies the operation once to the distinct ids and reports an outcome for every requested id.
+    private static BatchOperationResultDTO toBatchResult(List<Long> movieIds, Status success,
+                                                         Function<Set<Long>, Function<Long, Status>> apply) {
+        Set<Long> distinctIds = new LinkedHashSet<>(movieIds);
+        Function<Long, Status> outcome = distinctIds.isEmpty() ? id -> success : apply.apply(distinctIds);
+
+        Set<Long> seen = new HashSet<>();
+        List<BatchOperationResultDTO.ItemResult> items = new ArrayList<>(movieIds.size());
+        int succeeded = 0;
+        for (Long movieId : movieIds) {
+            Status status = seen.add(movieId) ? outcome.apply(movieId) : Status.DUPLICATE_IN_REQUEST;
+            if (status == success) {
+                succeeded++;
+            }
+            items.add(new BatchOperationResultDTO.ItemResult(movieId, status));
+        }
+        return BatchOperationResultDTO.builder()
+                .requested(movieIds.size())
+                .succeeded(succeeded)
+                .items(items)
+                .build();
+    }
+
+    // Only watchlist columns can be sorted on in the grouped query; id breaks ties for stable pages.
+    private static Pageable summarySort(Pageable pageable) {
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SUMMARY_SORT_PROPERTIES.contains(order.getProperty())) {
+                throw new IllegalArgumentException("Cannot sort watchlists by '" + order.getProperty()
+                        + "'. Allowed: " + String.join(", ", SUMMARY_SORT_PROPERTIES.stream().sorted().toList()));
+            }
+        }
+        Sort sort = pageable.getSort().and(Sort.by("id"));
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+    }
+
+    private static WatchlistSummaryDTO toSummaryDTO(WatchlistSummary summary, Long userId) {
+        return WatchlistSummaryDTO.builder()
+                .id(summary.getId())
+                .name(summary.getName())
+                .description(summary.getDescription())
+                .userId(userId)
+                .movieCount(summary.getMovieCount() == null ? 0 : summary.getMovieCount())
+                .totalRuntime(summary.getTotalRuntime() == null ? 0 : summary.getTotalRuntime())
+                .coverMovieIds(coverMovieIds(summary.getMovieIds()))
+                .build();
+    }
+
+    // Takes the first ids only: a long list can come back truncated, but never within its first few ids.
+    private static List<Long> coverMovieIds(String movieIds) {
+        List<Long> covers = new ArrayList<>(COVER_MOVIES);
+        if (movieIds == null || movieIds.isEmpty()) {
+            return covers;
+        }
+        for (String id : movieIds.split(",", COVER_MOVIES + 1)) {
+            if (covers.size() == COVER_MOVIES) {
+                break;
+            }
+            covers.add(Long.valueOf(id.trim()));
+        }
+        return covers;
+    }
+
+    // Movies of a list in rank order, read with one keyset query plus one genre query for the page.
+    private CursorPagedResponse<MovieResponseDTO> rankedPage(Long watchlistId, String cursor, int size) {
+        if (size < 1 || size > 100) {
+            throw new IllegalArgumentException("Page size must be between 1 and 100.");
+        }
+        long cursorPosition = Long.MIN_VALUE;
+        long cursorMovieId = Long.MIN_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = cursor.split(":");
+            try {
+                if (parts.length != 2) {
+                    throw new NumberFormatException();
+                }
+                cursorPosition = Long.parseLong(parts[0]);
+                cursorMovieId = Long.parseLong(parts[1]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
+
+        // Read one extra item to know whether another page exists.
+        List<WatchlistItem> items = watchlistRepository.findItemsAfter(watchlistId, cursorPosition, cursorMovieId, PageRequest.of(0, size + 1));
+        boolean hasNext = items.size() > size;
+        List<WatchlistItem> page = hasNext ? items.subList(0, size) : items;
+
+        List<Long> movieIds = page.stream().map(item -> item.getId().getMovieId()).toList();
+        Map<Long, Movie> moviesWithGenres = movieIds.isEmpty()
+                ? Map.of()
+                : movieRepository.findAllWithGenresByIdIn(movieIds).stream()
+                        .collect(Collectors.toMap(Movie::getId, Function.identity()));
+        // Movies deleted since the items were read are skipped
+        List<MovieResponseDTO> content = movieIds.stream()
+                .map(moviesWithGenres::get)
+                .filter(Objects::nonNull)
+                .map(movie -> modelMapper.map(movie, MovieResponseDTO.class))
+                .toList();
+
+        String nextCursor = null;
+        if (hasNext) {
+            WatchlistItem last = page.get(page.size() - 1);
+            nextCursor = last.getPosition() + ":" + last.getId().getMovieId();
+        }
+        return new CursorPagedResponse<>(content, nextCursor, size, hasNext);
+    }
+
+    // Drops the cached pages of a shared list once the change commits.
+    private void invalidateShared(Watchlist watchlist) {
+        String shareToken = watchlist.getShareToken();
+        if (shareToken != null) {
+            TransactionHooks.afterCommit(() -> sharedWatchlistCache.invalidate(shareToken));
+        }
+    }
+
+    // Position between afterMovieId (or the top) and the item that follows it, or null when there is no room.
+    private Long positionAfter(Long watchlistId, Long movieId, Long afterMovieId) {
+        long previous = afterMovieId == null ? Long.MIN_VALUE : findPositionInList(watchlistId, afterMovieId);
+        long previousMovieId = afterMovieId == null ? Long.MIN_VALUE : afterMovieId;
+        List<Long> next = watchlistRepository.findNextPositions(watchlistId, movieId, previous, previousMovieId, PageRequest.of(0, 1));
+
+        if (next.isEmpty()) {
+            return afterMovieId == null ? 0L : previous + WatchlistItem.POSITION_GAP; // Alone in the list or moved to the end
+        }
+        if (afterMovieId == null) {
+            return next.get(0) - WatchlistItem.POSITION_GAP;
+        }
+        long gap = next.get(0) - previous;
+        return gap >= 2 ? previous + gap / 2 : null;
+    }
+
+    private long findPositionInList(Long watchlistId, Long movieId) {
+        return watchlistRepository.findPosition(watchlistId, movieId)
+                .orElseThrow(() -> new ResourceNotFoundException("Movie with id " + movieId + " is not in watchlist " + watchlistId));
+    }
+
+    private Watchlist lockOwnedWatchlist(Long userId, Long watchlistId) {
+        return watchlistRepository.findForUpdate(watchlistId, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Watchlist not found with id: " + watchlistId + " for user: " + userId));
-        Movie movie = movieRepository.findById(movieId)
-                .orElseThrow(() -> new ResourceNotFoundException("Movie not found with id: " + movieId));
+    }
 
-        watchlist.removeMovie(movie);
-        watchlistRepository.save(watchlist);
-        return modelMapper.map(watchlist, WatchlistResponseDTO.class);
+    private Watchlist findOwnedWatchlist(Long userId, Long watchlistId) {
+        return watchlistRepository.findByIdAndUser_Id(watchlistId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Watchlist not found with id: " + watchlistId + " for user: " + userId));
     }
 }
@@ -44,6 +44,7 @@ CREATE TABLE users (
     password VARCHAR(255),
     roles ENUM('ROLE_USER', 'ROLE_ADMIN') NOT NULL,
     username VARCHAR(255) UNIQUE,
+    deactivated BOOLEAN NOT NULL DEFAULT FALSE, -- Set while UserDeletionService removes the account
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
     updated_at TIMESTAMP NOT NULL
 );
@@ -71,6 +72,7 @@ CREATE TABLE watchlists (
     name VARCHAR(255),
     description VARCHAR(255),
     user_id BIGINT NOT NULL,
+    share_token VARCHAR(32) UNIQUE, -- Set while the list is shared
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
     updated_at TIMESTAMP NOT NULL,
     CONSTRAINT fk_watchlist_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
@@ -96,10 +98,33 @@ CREATE TABLE user_favorites (
     CONSTRAINT fk_favorite_movie FOREIGN KEY (movie_id) REFERENCES movies(id) ON DELETE CASCADE
 );
 
+-- Corresponds to UserGenreAffinity.java: per-genre counts of the watched and favorite movies,
+-- stored as (genre id BIGINT, count INT) pairs sorted by genre id
+CREATE TABLE user_genre_affinities (
+    user_id BIGINT NOT NULL PRIMARY KEY,
+    genre_counts BLOB,
+    stale BOOLEAN NOT NULL DEFAULT TRUE,
+    CONSTRAINT fk_genre_affinity_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Corresponds to UserStats.java: profile counters kept up to date by every write
+CREATE TABLE user_stats (
+    user_id BIGINT NOT NULL PRIMARY KEY,
+    watched_count BIGINT NOT NULL DEFAULT 0,
+    favorites_count BIGINT NOT NULL DEFAULT 0,
+    reviews_count BIGINT NOT NULL DEFAULT 0,
+    likes_received BIGINT NOT NULL DEFAULT 0,
+    watchlists_count BIGINT NOT NULL DEFAULT 0,
+    minutes_watched BIGINT NOT NULL DEFAULT 0,
+    stale BOOLEAN NOT NULL DEFAULT FALSE,
+    CONSTRAINT fk_user_stats_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
 -- Corresponds to Review.java (now extends BaseEntity for a simple ID)
 CREATE TABLE reviews (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, -- Simple ID from BaseEntity
     hidden BOOLEAN NOT NULL DEFAULT FALSE,
+    auto_hidden BOOLEAN NOT NULL DEFAULT FALSE, -- Hidden by the flag threshold rather than by a moderator
     content TEXT,
     direction_score INT,
     screenplay_score INT,
@@ -108,12 +133,17 @@ CREATE TABLE reviews (
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
     updated_at TIMESTAMP NOT NULL,
     likes_count INT NOT NULL DEFAULT 0,
+    flag_count INT NOT NULL DEFAULT 0, -- Denormalized count of content_flags rows for the review
+    helpfulness_score DOUBLE PRECISION NOT NULL DEFAULT 0, -- Precomputed ranking score, see ReviewHelpfulnessService
     user_watched_user_id BIGINT NOT NULL, -- FK part 1 to user_watcheds
     user_watched_movie_id BIGINT NOT NULL, -- FK part 2 to user_watcheds
     CONSTRAINT fk_review_userwatched FOREIGN KEY (user_watched_user_id, user_watched_movie_id) REFERENCES user_watcheds(user_id, movie_id) ON DELETE CASCADE,
     CONSTRAINT uq_review_userwatched UNIQUE (user_watched_user_id, user_watched_movie_id) -- Ensures One-to-One with UserWatched
 );
 
+CREATE INDEX idx_reviews_movie_helpfulness ON reviews (user_watched_movie_id, hidden, helpfulness_score);
+CREATE INDEX idx_reviews_flag_count ON reviews (flag_count, id);
+
 
 -- =====================================================================================
 -- JOIN TABLES (For Many-to-Many relationships)
@@ -137,14 +167,16 @@ CREATE TABLE movie_genres (
     CONSTRAINT fk_moviegenres_genre FOREIGN KEY (genre_id) REFERENCES genres(id) ON DELETE CASCADE
 );
 
--- Corresponds to the @JoinTable in Watchlist.java
+-- Corresponds to the @JoinTable in Watchlist.java and to WatchlistItem.java
 CREATE TABLE watchlist_movies (
     watchlist_id BIGINT NOT NULL,
     movie_id BIGINT NOT NULL,
+    position BIGINT NOT NULL DEFAULT 0, -- Sparse rank key, see WatchlistItem.POSITION_GAP
     PRIMARY KEY (watchlist_id, movie_id),
     CONSTRAINT fk_watchlistmovies_watchlist FOREIGN KEY (watchlist_id) REFERENCES watchlists(id) ON DELETE CASCADE,
     CONSTRAINT fk_watchlistmovies_movie FOREIGN KEY (movie_id) REFERENCES movies(id) ON DELETE CASCADE
 );
+CREATE INDEX idx_watchlist_movies_rank ON watchlist_movies (watchlist_id, position, movie_id);
 
 -- Corresponds to ContentFlag.java (with simplified FK to Review's new simple ID)
 CREATE TABLE content_flags (
@@ -153,6 +185,7 @@ CREATE TABLE content_flags (
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
     updated_at TIMESTAMP NOT NULL,
     flag_reason VARCHAR(255) NOT NULL,
+    evaluated BOOLEAN NOT NULL DEFAULT FALSE, -- Set once FlagEvaluationPipeline added the flag to reviews.flag_count
     PRIMARY KEY (reporter_user_id, review_id),
     CONSTRAINT fk_flag_reporter FOREIGN KEY (reporter_user_id) REFERENCES users(id) ON DELETE CASCADE,
     CONSTRAINT fk_flag_review FOREIGN KEY (review_id) REFERENCES reviews(id) ON DELETE CASCADE
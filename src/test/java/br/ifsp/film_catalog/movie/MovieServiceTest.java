@@ -11,6 +11,8 @@ import br.ifsp.film_catalog.model.Genre;
 import br.ifsp.film_catalog.model.enums.ContentRating;
 import br.ifsp.film_catalog.repository.MovieRepository;
 import br.ifsp.film_catalog.service.MovieService;
+import br.ifsp.film_catalog.service.UserGenreAffinityService;
+import br.ifsp.film_catalog.service.UserStatsService;
 import br.ifsp.film_catalog.repository.GenreRepository;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -55,6 +57,12 @@ class MovieServiceTest {
     @Mock
     private PagedResponseMapper pagedResponseMapper;
 
+    @Mock
+    private UserGenreAffinityService userGenreAffinityService;
+
+    @Mock
+    private UserStatsService userStatsService;
+
     @InjectMocks
     private MovieService movieService;
 
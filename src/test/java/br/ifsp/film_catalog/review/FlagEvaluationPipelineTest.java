@@ -0,0 +1,221 @@
+package br.ifsp.film_catalog.review;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.ifsp.film_catalog.dto.ModerationEventDTO;
+import br.ifsp.film_catalog.model.ContentFlag;
+import br.ifsp.film_catalog.model.Review;
+import br.ifsp.film_catalog.model.User;
+import br.ifsp.film_catalog.model.enums.ModerationEventType;
+import br.ifsp.film_catalog.repository.ContentFlagRepository;
+import br.ifsp.film_catalog.repository.ReviewRepository;
+import br.ifsp.film_catalog.service.FlagEvaluationPipeline;
+import br.ifsp.film_catalog.service.ModerationEventBus;
+import br.ifsp.film_catalog.service.ReviewHelpfulnessService;
+import br.ifsp.film_catalog.service.ReviewService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class FlagEvaluationPipelineTest {
+
+    private static final Long REVIEW_ID = 7L;
+
+    @Mock private ReviewRepository reviewRepository;
+    @Mock private ContentFlagRepository contentFlagRepository;
+    @Mock private ReviewService reviewService;
+    @Mock private ReviewHelpfulnessService reviewHelpfulnessService;
+    @Mock private ModerationEventBus moderationEventBus;
+    @Mock private TransactionTemplate transactionTemplate;
+
+    private FlagEvaluationPipeline pipeline;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        pipeline = new FlagEvaluationPipeline(reviewRepository, contentFlagRepository, reviewService,
+                reviewHelpfulnessService, moderationEventBus, transactionTemplate, new SimpleMeterRegistry());
+        // Lenient: withdraw runs in the caller's transaction, so a test may never drain through it
+        lenient().doAnswer(invocation -> {
+            invocation.getArgument(0, Consumer.class).accept((TransactionStatus) null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    void drain_shouldCoalesceFlagsOfAReviewIntoOneUpdate() {
+        when(reviewRepository.findFlagStateById(REVIEW_ID)).thenReturn(flagState(0, false));
+        when(contentFlagRepository.markEvaluated(REVIEW_ID, Set.of(1L, 2L, 3L))).thenReturn(3);
+        when(reviewRepository.findById(REVIEW_ID)).thenReturn(Optional.of(review(3, false)));
+
+        pipeline.enqueue(REVIEW_ID, 1L, "SPAM");
+        pipeline.enqueue(REVIEW_ID, 2L, "SPAM");
+        pipeline.enqueue(REVIEW_ID, 3L, "OFFENSIVE");
+        pipeline.drain();
+
+        verify(reviewRepository).addToFlagCount(REVIEW_ID, 3, 10);
+        verify(moderationEventBus, times(3)).publish(any());
+    }
+
+    @Test
+    void drain_shouldOnlyCountFlagsItMarksEvaluated() {
+        when(reviewRepository.findFlagStateById(REVIEW_ID)).thenReturn(flagState(0, false));
+        when(contentFlagRepository.markEvaluated(REVIEW_ID, Set.of(1L))).thenReturn(0);
+
+        pipeline.enqueue(REVIEW_ID, 1L, "SPAM");
+        pipeline.enqueue(REVIEW_ID, 1L, "SPAM");
+        pipeline.drain();
+
+        verify(reviewRepository, never()).addToFlagCount(any(), anyInt(), anyInt());
+        verify(moderationEventBus, never()).publish(any());
+    }
+
+    @Test
+    void recover_shouldQueueUnevaluatedFlagsChunkByChunk() {
+        when(contentFlagRepository.findUnevaluatedAfter(eq(0L), eq(0L), any()))
+                .thenReturn(List.of(flag(REVIEW_ID, 1L), flag(REVIEW_ID, 2L)));
+        when(contentFlagRepository.findUnevaluatedAfter(eq(REVIEW_ID), eq(2L), any())).thenReturn(List.of());
+        when(reviewRepository.findFlagStateById(REVIEW_ID)).thenReturn(flagState(0, false));
+        when(contentFlagRepository.markEvaluated(REVIEW_ID, Set.of(1L, 2L))).thenReturn(2);
+        when(reviewRepository.findById(REVIEW_ID)).thenReturn(Optional.of(review(2, false)));
+
+        assertThat(pipeline.recover(2)).isEqualTo(2);
+        pipeline.drain();
+
+        verify(reviewRepository).addToFlagCount(REVIEW_ID, 2, 10);
+    }
+
+    @Test
+    void drain_shouldReportAutoHideWhenTheBatchReachesTheThreshold() {
+        when(reviewRepository.findFlagStateById(REVIEW_ID)).thenReturn(flagState(9, false));
+        when(contentFlagRepository.markEvaluated(REVIEW_ID, Set.of(1L))).thenReturn(1);
+        when(reviewRepository.findById(REVIEW_ID)).thenReturn(Optional.of(review(10, true)));
+
+        pipeline.enqueue(REVIEW_ID, 1L, "SPAM");
+        pipeline.drain();
+
+        verify(reviewRepository).addToFlagCount(REVIEW_ID, 1, 10);
+        ArgumentCaptor<ModerationEventDTO> events = ArgumentCaptor.forClass(ModerationEventDTO.class);
+        verify(moderationEventBus, times(2)).publish(events.capture());
+        assertThat(events.getAllValues()).extracting(ModerationEventDTO::getType)
+                .containsExactly(ModerationEventType.FLAGGED, ModerationEventType.AUTO_HIDDEN);
+    }
+
+    @Test
+    void drain_shouldKeepFailedFlagsAndApplyThemWithNewerOnesOnTheNextDrain() {
+        ReflectionTestUtils.setField(pipeline, "retryBackoffMs", 0L);
+        when(reviewRepository.findFlagStateById(REVIEW_ID))
+                .thenThrow(new IllegalStateException("Lock wait timeout exceeded"))
+                .thenReturn(flagState(0, false));
+        when(contentFlagRepository.markEvaluated(REVIEW_ID, Set.of(1L, 2L, 3L))).thenReturn(3);
+        when(reviewRepository.findById(REVIEW_ID)).thenReturn(Optional.of(review(3, false)));
+
+        pipeline.enqueue(REVIEW_ID, 1L, "SPAM");
+        pipeline.enqueue(REVIEW_ID, 2L, "SPAM");
+        pipeline.drain();
+        verify(reviewRepository, never()).addToFlagCount(any(), anyInt(), anyInt());
+
+        pipeline.enqueue(REVIEW_ID, 3L, "SPAM");
+        pipeline.drain();
+
+        verify(reviewRepository).addToFlagCount(REVIEW_ID, 3, 10);
+        ArgumentCaptor<ModerationEventDTO> events = ArgumentCaptor.forClass(ModerationEventDTO.class);
+        verify(moderationEventBus, times(3)).publish(events.capture());
+        assertThat(events.getAllValues()).extracting(ModerationEventDTO::getReporterUserId).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void drain_shouldWaitForTheBackoffBeforeRetrying() {
+        when(reviewRepository.findFlagStateById(REVIEW_ID)).thenThrow(new IllegalStateException("Deadlock"));
+
+        pipeline.enqueue(REVIEW_ID, 1L, "SPAM");
+        pipeline.drain();
+        pipeline.drain();
+
+        verify(reviewRepository, times(1)).findFlagStateById(eq(REVIEW_ID));
+    }
+
+    @Test
+    void withdraw_shouldDropAPendingFlagAndSubtractACountedOne() {
+        Long countedReviewId = 8L;
+        when(reviewRepository.findFlagStateById(REVIEW_ID)).thenReturn(flagState(0, false));
+        when(contentFlagRepository.markEvaluated(REVIEW_ID, Set.of(2L))).thenReturn(1);
+        when(reviewRepository.findById(REVIEW_ID)).thenReturn(Optional.of(review(1, false)));
+        when(contentFlagRepository.findEvaluatedForUpdate(1L, List.of(REVIEW_ID, countedReviewId)))
+                .thenReturn(List.of(flag(countedReviewId, 1L)));
+        when(reviewRepository.findIdsAutoHiddenAtFlagCount(List.of(countedReviewId), 10)).thenReturn(List.of(countedReviewId));
+        Review counted = review(9, false);
+        counted.setId(countedReviewId);
+        when(reviewRepository.findAllWithUserAndMovieByIdIn(List.of(countedReviewId))).thenReturn(List.of(counted));
+
+        pipeline.enqueue(REVIEW_ID, 1L, "SPAM");
+        pipeline.enqueue(REVIEW_ID, 2L, "SPAM");
+        pipeline.withdraw(1L, List.of(REVIEW_ID, countedReviewId));
+        pipeline.drain();
+
+        verify(reviewRepository).takeBackFlagByIdIn(List.of(countedReviewId), 10);
+        verify(reviewHelpfulnessService).refresh(counted, 9);
+        verify(reviewRepository).addToFlagCount(REVIEW_ID, 1, 10);
+        ArgumentCaptor<ModerationEventDTO> events = ArgumentCaptor.forClass(ModerationEventDTO.class);
+        verify(moderationEventBus).publish(events.capture());
+        assertThat(events.getValue().getReporterUserId()).isEqualTo(2L);
+    }
+
+    @Test
+    void withdraw_shouldRemoveAReviewWhoseOnlyPendingFlagIsWithdrawn() {
+        pipeline.enqueue(REVIEW_ID, 1L, "SPAM");
+        pipeline.withdraw(1L, List.of(REVIEW_ID));
+        pipeline.drain();
+
+        verify(reviewRepository, never()).findFlagStateById(any());
+        verify(reviewRepository, never()).takeBackFlagByIdIn(any(), anyInt());
+    }
+
+    private static ContentFlag flag(Long reviewId, Long reporterUserId) {
+        User reporter = new User();
+        reporter.setId(reporterUserId);
+        Review review = new Review();
+        review.setId(reviewId);
+        ContentFlag flag = new ContentFlag(reporter, review, "SPAM");
+        flag.setCreatedAt(Instant.now());
+        return flag;
+    }
+
+    private static Review review(int flagCount, boolean hidden) {
+        Review review = new Review();
+        review.setId(REVIEW_ID);
+        review.setHidden(hidden);
+        ReflectionTestUtils.setField(review, "flagCount", flagCount);
+        return review;
+    }
+
+    private static ReviewRepository.FlagState flagState(int flagCount, boolean hidden) {
+        return new ReviewRepository.FlagState() {
+            public int getFlagCount() { return flagCount; }
+            public boolean getHidden() { return hidden; }
+        };
+    }
+}
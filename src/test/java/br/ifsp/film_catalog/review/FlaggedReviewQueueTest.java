@@ -0,0 +1,84 @@
+package br.ifsp.film_catalog.review;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import br.ifsp.film_catalog.model.Movie;
+import br.ifsp.film_catalog.model.Review;
+import br.ifsp.film_catalog.model.User;
+import br.ifsp.film_catalog.model.UserWatched;
+import br.ifsp.film_catalog.model.enums.ContentRating;
+import br.ifsp.film_catalog.repository.ReviewRepository;
+
+/**
+ * Ordering and paging of the moderation queue, offset and keyset, against an embedded database.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.sql.init.mode=never"
+})
+class FlaggedReviewQueueTest {
+
+    @Autowired private TestEntityManager entityManager;
+    @Autowired private ReviewRepository reviewRepository;
+
+    // Review ids in creation order, flagged 3, 7, 7 and 1 times
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        User author = new User();
+        author.setName("Author");
+        author.setUsername("author");
+        author.setEmail("author@example.com");
+        author.setPassword("password");
+        entityManager.persist(author);
+
+        for (int flags : new int[] {3, 7, 7, 1}) {
+            Movie movie = new Movie();
+            movie.setTitle("Movie " + ids.size());
+            movie.setReleaseYear(2020);
+            movie.setDuration(100);
+            movie.setContentRating(ContentRating.AL);
+            entityManager.persist(movie);
+            UserWatched watched = new UserWatched(author, movie, LocalDateTime.now());
+            entityManager.persist(watched);
+            Review review = new Review(watched, "Review " + ids.size());
+            entityManager.persist(review);
+            entityManager.flush();
+            reviewRepository.addToFlagCount(review.getId(), flags, 100);
+            ids.add(review.getId());
+        }
+        entityManager.clear();
+    }
+
+    @Test
+    void findFlaggedReviews_shouldOrderByFlagCountThenNewestAndCountOnlyQualifyingReviews() {
+        Page<Review> first = reviewRepository.findFlaggedReviews(2, PageRequest.of(0, 2));
+        Page<Review> second = reviewRepository.findFlaggedReviews(2, PageRequest.of(1, 2));
+
+        assertThat(first.getContent()).extracting(Review::getId).containsExactly(ids.get(2), ids.get(1));
+        assertThat(second.getContent()).extracting(Review::getId).containsExactly(ids.get(0));
+        assertThat(first.getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    void findFlaggedReviewsAfter_shouldContinueFromCursorWithinTiedCounts() {
+        List<Review> afterNewestTie = reviewRepository.findFlaggedReviewsAfter(2, 7, ids.get(2), PageRequest.of(0, 10));
+
+        assertThat(afterNewestTie).extracting(Review::getId).containsExactly(ids.get(1), ids.get(0));
+        assertThat(afterNewestTie.get(0).getUserWatched().getUser().getUsername()).isEqualTo("author");
+    }
+}
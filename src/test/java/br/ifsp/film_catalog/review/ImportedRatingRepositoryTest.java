@@ -0,0 +1,92 @@
+package br.ifsp.film_catalog.review;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import br.ifsp.film_catalog.model.Movie;
+import br.ifsp.film_catalog.model.Review;
+import br.ifsp.film_catalog.model.User;
+import br.ifsp.film_catalog.model.UserWatched;
+import br.ifsp.film_catalog.model.enums.ContentRating;
+import br.ifsp.film_catalog.repository.ReviewRepository;
+
+/**
+ * Rating-only reviews written by the watch history import, against an embedded database.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.sql.init.mode=never"
+})
+class ImportedRatingRepositoryTest {
+
+    @Autowired private TestEntityManager entityManager;
+    @Autowired private ReviewRepository reviewRepository;
+
+    private User user;
+    private Long writtenReviewId;
+    private Long importedMovieId;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setName("Critic");
+        user.setUsername("critic");
+        user.setEmail("critic@example.com");
+        user.setPassword("password");
+        entityManager.persist(user);
+
+        UserWatched written = new UserWatched(user, movie("Written"), LocalDateTime.now());
+        entityManager.persist(written);
+        Review review = new Review(written, "Direção impecável");
+        review.setDirectionScore(4);
+        review.setScreenplayScore(2);
+        review.setCinematographyScore(5);
+        review.setGeneralScore(4);
+        entityManager.persist(review);
+        writtenReviewId = review.getId();
+
+        Movie imported = movie("Imported");
+        entityManager.persist(new UserWatched(user, imported, LocalDateTime.now()));
+        importedMovieId = imported.getId();
+        entityManager.flush();
+    }
+
+    @Test
+    void batchInsertRatings_shouldLeaveSubScoresOutOfTheAverages() {
+        reviewRepository.batchInsertRatings(user.getId(), Map.of(importedMovieId, 2));
+
+        assertThat(reviewRepository.calculateAverageDirectionScoreByUserWatched_User_Id(user.getId())).isEqualTo(4.0);
+        assertThat(reviewRepository.calculateAverageScreenplayScoreByUserWatched_User_Id(user.getId())).isEqualTo(2.0);
+        assertThat(reviewRepository.calculateAverageCinematographyScoreByUserWatched_User_Id(user.getId())).isEqualTo(5.0);
+        assertThat(reviewRepository.calculateAverageGeneralScoreByUserWatched_User_Id(user.getId())).isEqualTo(3.0);
+    }
+
+    @Test
+    void findVisibleBefore_shouldLeaveRatingOnlyReviewsOutOfTheFeed() {
+        reviewRepository.batchInsertRatings(user.getId(), Map.of(importedMovieId, 2));
+
+        assertThat(reviewRepository.findVisibleBefore(Long.MAX_VALUE, PageRequest.of(0, 10)))
+                .extracting(Review::getId)
+                .containsExactly(writtenReviewId);
+    }
+
+    private Movie movie(String title) {
+        Movie movie = new Movie();
+        movie.setTitle(title);
+        movie.setReleaseYear(2020);
+        movie.setDuration(100);
+        movie.setContentRating(ContentRating.AL);
+        entityManager.persist(movie);
+        return movie;
+    }
+}
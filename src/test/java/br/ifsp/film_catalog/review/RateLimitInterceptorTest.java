@@ -0,0 +1,115 @@
+package br.ifsp.film_catalog.review;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import br.ifsp.film_catalog.exception.GlobalExceptionHandler;
+import br.ifsp.film_catalog.model.User;
+import br.ifsp.film_catalog.security.RateLimitInterceptor;
+import br.ifsp.film_catalog.security.RateLimited;
+import br.ifsp.film_catalog.security.SlidingWindowRateLimiter;
+import br.ifsp.film_catalog.security.UserAuthenticated;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RateLimitInterceptorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private MockEnvironment environment;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        environment = new MockEnvironment();
+        RateLimitInterceptor interceptor = new RateLimitInterceptor(new SlidingWindowRateLimiter(), environment, meterRegistry);
+        mockMvc = MockMvcBuilders.standaloneSetup(new LimitedController())
+                .addInterceptors(interceptor)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void limitedEndpoint_shouldReturn429WithRetryAfterOnceTheUserExceedsTheLimit() throws Exception {
+        authenticateAs(1L);
+
+        mockMvc.perform(post("/like")).andExpect(status().isOk());
+        mockMvc.perform(post("/like")).andExpect(status().isOk());
+        mockMvc.perform(post("/like"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+
+        assertThat(meterRegistry.get("ratelimit.rejected").tag("action", "like").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void limitedEndpoint_shouldKeepABudgetPerUser() throws Exception {
+        authenticateAs(1L);
+        mockMvc.perform(post("/like")).andExpect(status().isOk());
+        mockMvc.perform(post("/like")).andExpect(status().isOk());
+
+        authenticateAs(2L);
+        mockMvc.perform(post("/like")).andExpect(status().isOk());
+    }
+
+    @Test
+    void limitedEndpoint_shouldHonourConfiguredOverride() throws Exception {
+        environment.setProperty("app.rate-limit.like.limit", "1");
+        authenticateAs(1L);
+
+        mockMvc.perform(post("/like")).andExpect(status().isOk());
+        mockMvc.perform(post("/like")).andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void unannotatedEndpoint_shouldNotBeLimited() throws Exception {
+        authenticateAs(1L);
+
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(post("/free")).andExpect(status().isOk());
+        }
+    }
+
+    private static void authenticateAs(Long userId) {
+        User user = new User();
+        user.setId(userId);
+        UserAuthenticated principal = new UserAuthenticated(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+
+    @RestController
+    static class LimitedController {
+
+        @RateLimited(key = "like", limit = 2)
+        @PostMapping("/like")
+        ResponseEntity<Void> like() {
+            return ResponseEntity.ok().build();
+        }
+
+        @PostMapping("/free")
+        ResponseEntity<Void> free() {
+            return ResponseEntity.ok().build();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package br.ifsp.film_catalog.review;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import br.ifsp.film_catalog.dto.ReviewResponseDTO;
+import br.ifsp.film_catalog.service.RecentReviewsBuffer;
+
+class RecentReviewsBufferTest {
+
+    private static ReviewResponseDTO review(long id) {
+        return ReviewResponseDTO.builder().id(id).content("Review " + id).build();
+    }
+
+    private static List<Long> ids(RecentReviewsBuffer.Slice slice) {
+        return slice.content().stream().map(ReviewResponseDTO::getId).toList();
+    }
+
+    @Test
+    void page_shouldReturnNewestFirstBeforeCursor() {
+        RecentReviewsBuffer buffer = new RecentReviewsBuffer(5);
+        for (long id = 1; id <= 4; id++) {
+            buffer.add(review(id));
+        }
+
+        assertThat(ids(buffer.page(Long.MAX_VALUE, 2))).containsExactly(4L, 3L);
+        assertThat(ids(buffer.page(3L, 10))).containsExactly(2L, 1L);
+        assertThat(buffer.horizon()).isZero();
+    }
+
+    @Test
+    void add_shouldEvictOldestAndMoveHorizonWhenFull() {
+        RecentReviewsBuffer buffer = new RecentReviewsBuffer(3);
+        for (long id = 1; id <= 5; id++) {
+            buffer.add(review(id));
+        }
+
+        RecentReviewsBuffer.Slice slice = buffer.page(Long.MAX_VALUE, 10);
+        assertThat(ids(slice)).containsExactly(5L, 4L, 3L);
+        assertThat(slice.horizon()).isEqualTo(2L);
+    }
+
+    @Test
+    void remove_shouldSkipReviewAndAddShouldRestoreItInOrder() {
+        RecentReviewsBuffer buffer = new RecentReviewsBuffer(4);
+        buffer.add(review(1));
+        buffer.add(review(3));
+        buffer.add(review(5));
+
+        buffer.remove(3L);
+        assertThat(ids(buffer.page(Long.MAX_VALUE, 10))).containsExactly(5L, 1L);
+
+        buffer.add(review(3));
+        buffer.add(review(4));
+        assertThat(ids(buffer.page(Long.MAX_VALUE, 10))).containsExactly(5L, 4L, 3L, 1L);
+    }
+
+    @Test
+    void add_shouldIgnoreReviewsOlderThanHorizon() {
+        RecentReviewsBuffer buffer = new RecentReviewsBuffer(2);
+        buffer.reset(List.of(review(20), review(10)), false);
+
+        buffer.add(review(5));
+
+        RecentReviewsBuffer.Slice slice = buffer.page(Long.MAX_VALUE, 10);
+        assertThat(ids(slice)).containsExactly(20L, 10L);
+        assertThat(slice.horizon()).isEqualTo(9L);
+    }
+}
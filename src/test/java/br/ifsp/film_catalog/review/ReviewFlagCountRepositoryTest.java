@@ -0,0 +1,190 @@
+package br.ifsp.film_catalog.review;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import br.ifsp.film_catalog.model.ContentFlag;
+import br.ifsp.film_catalog.model.Movie;
+import br.ifsp.film_catalog.model.Review;
+import br.ifsp.film_catalog.model.User;
+import br.ifsp.film_catalog.model.UserWatched;
+import br.ifsp.film_catalog.model.enums.ContentRating;
+import br.ifsp.film_catalog.repository.ContentFlagRepository;
+import br.ifsp.film_catalog.repository.ReviewRepository;
+
+/**
+ * Runs the atomic flag count statements against an embedded database.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.sql.init.mode=never"
+})
+class ReviewFlagCountRepositoryTest {
+
+    private static final int THRESHOLD = 10;
+
+    @Autowired private TestEntityManager entityManager;
+    @Autowired private ReviewRepository reviewRepository;
+    @Autowired private ContentFlagRepository contentFlagRepository;
+
+    private Long reviewId;
+
+    @BeforeEach
+    void setUp() {
+        User author = new User();
+        author.setName("Author");
+        author.setUsername("author");
+        author.setEmail("author@example.com");
+        author.setPassword("password");
+        entityManager.persist(author);
+
+        Movie movie = new Movie();
+        movie.setTitle("Flagged Movie");
+        movie.setReleaseYear(2020);
+        movie.setDuration(100);
+        movie.setContentRating(ContentRating.AL);
+        entityManager.persist(movie);
+
+        UserWatched watched = new UserWatched(author, movie, LocalDateTime.now());
+        entityManager.persist(watched);
+        Review review = new Review(watched, "Polêmica");
+        entityManager.persist(review);
+        entityManager.flush();
+        reviewId = review.getId();
+    }
+
+    @Test
+    void markEvaluated_shouldCountEachFlagOnlyOnce() {
+        Long first = flag("first");
+        Long second = flag("second");
+
+        assertThat(contentFlagRepository.markEvaluated(reviewId, List.of(first))).isEqualTo(1);
+        assertThat(contentFlagRepository.markEvaluated(reviewId, List.of(first, second))).isEqualTo(1);
+        assertThat(contentFlagRepository.markEvaluated(reviewId, List.of(first, second))).isZero();
+    }
+
+    @Test
+    void resyncFlagCounts_shouldCountEvaluatedFlagsAndApplyTheThreshold() {
+        List<Long> reporters = new ArrayList<>();
+        for (int i = 0; i < THRESHOLD + 1; i++) {
+            reporters.add(flag("reporter" + i));
+        }
+        contentFlagRepository.markEvaluated(reviewId, reporters.subList(0, THRESHOLD));
+        entityManager.clear();
+
+        reviewRepository.resyncFlagCounts();
+        reviewRepository.autoHideAtFlagCount(THRESHOLD);
+
+        ReviewRepository.FlagState state = reviewRepository.findFlagStateById(reviewId);
+        assertThat(state.getFlagCount()).isEqualTo(THRESHOLD);
+        assertThat(state.getHidden()).isTrue();
+        assertThat(contentFlagRepository.findUnevaluatedAfter(0L, 0L, PageRequest.of(0, 10)))
+                .extracting(flag -> flag.getId().getUserId())
+                .containsExactly(reporters.get(THRESHOLD));
+    }
+
+    @Test
+    void addToFlagCount_shouldBumpCountAndKeepReviewVisibleBelowThreshold() {
+        reviewRepository.addToFlagCount(reviewId, 3, THRESHOLD);
+        reviewRepository.addToFlagCount(reviewId, 6, THRESHOLD);
+
+        ReviewRepository.FlagState state = reviewRepository.findFlagStateById(reviewId);
+        assertThat(state.getFlagCount()).isEqualTo(9);
+        assertThat(state.getHidden()).isFalse();
+    }
+
+    @Test
+    void addToFlagCount_shouldHideReviewInTheStatementThatReachesThreshold() {
+        reviewRepository.addToFlagCount(reviewId, 9, THRESHOLD);
+        reviewRepository.addToFlagCount(reviewId, 1, THRESHOLD);
+
+        ReviewRepository.FlagState state = reviewRepository.findFlagStateById(reviewId);
+        assertThat(state.getFlagCount()).isEqualTo(THRESHOLD);
+        assertThat(state.getHidden()).isTrue();
+    }
+
+    @Test
+    void addToFlagCount_shouldNotUnhideReviewHiddenByModerator() {
+        entityManager.clear();
+        Review review = reviewRepository.findById(reviewId).orElseThrow();
+        review.setHidden(true);
+        reviewRepository.saveAndFlush(review);
+
+        reviewRepository.addToFlagCount(reviewId, 1, THRESHOLD);
+
+        assertThat(reviewRepository.findFlagStateById(reviewId).getHidden()).isTrue();
+    }
+
+    @Test
+    void takeBackFlagByIdIn_shouldShowReviewAgainOnlyWhenItDropsBelowThreshold() {
+        reviewRepository.addToFlagCount(reviewId, THRESHOLD, THRESHOLD);
+
+        assertThat(reviewRepository.findIdsAutoHiddenAtFlagCount(List.of(reviewId), THRESHOLD)).containsExactly(reviewId);
+        reviewRepository.takeBackFlagByIdIn(List.of(reviewId), THRESHOLD);
+
+        ReviewRepository.FlagState state = reviewRepository.findFlagStateById(reviewId);
+        assertThat(state.getFlagCount()).isEqualTo(THRESHOLD - 1);
+        assertThat(state.getHidden()).isFalse();
+    }
+
+    @Test
+    void takeBackFlagByIdIn_shouldKeepReviewStillOverThresholdHidden() {
+        reviewRepository.addToFlagCount(reviewId, THRESHOLD + 1, THRESHOLD);
+
+        reviewRepository.takeBackFlagByIdIn(List.of(reviewId), THRESHOLD);
+
+        ReviewRepository.FlagState state = reviewRepository.findFlagStateById(reviewId);
+        assertThat(state.getFlagCount()).isEqualTo(THRESHOLD);
+        assertThat(state.getHidden()).isTrue();
+    }
+
+    @Test
+    void takeBackFlagByIdIn_shouldKeepReviewHiddenByModeratorHidden() {
+        entityManager.clear();
+        Review review = reviewRepository.findById(reviewId).orElseThrow();
+        review.setHidden(true);
+        reviewRepository.saveAndFlush(review);
+        reviewRepository.addToFlagCount(reviewId, THRESHOLD, THRESHOLD);
+
+        assertThat(reviewRepository.findIdsAutoHiddenAtFlagCount(List.of(reviewId), THRESHOLD)).isEmpty();
+        reviewRepository.takeBackFlagByIdIn(List.of(reviewId), THRESHOLD);
+
+        ReviewRepository.FlagState state = reviewRepository.findFlagStateById(reviewId);
+        assertThat(state.getFlagCount()).isEqualTo(THRESHOLD - 1);
+        assertThat(state.getHidden()).isTrue();
+    }
+
+    @Test
+    void takeBackFlagByIdIn_shouldKeepAutoHiddenReviewAModeratorThenHidHidden() {
+        reviewRepository.addToFlagCount(reviewId, THRESHOLD, THRESHOLD);
+        reviewRepository.updateHiddenByIdIn(List.of(reviewId), true);
+
+        assertThat(reviewRepository.findIdsAutoHiddenAtFlagCount(List.of(reviewId), THRESHOLD)).isEmpty();
+        reviewRepository.takeBackFlagByIdIn(List.of(reviewId), THRESHOLD);
+
+        assertThat(reviewRepository.findFlagStateById(reviewId).getHidden()).isTrue();
+    }
+
+    private Long flag(String username) {
+        User reporter = new User();
+        reporter.setName(username);
+        reporter.setUsername(username);
+        reporter.setEmail(username + "@example.com");
+        reporter.setPassword("password");
+        entityManager.persist(reporter);
+        entityManager.persist(new ContentFlag(reporter, entityManager.find(Review.class, reviewId), "SPAM"));
+        entityManager.flush();
+        return reporter.getId();
+    }
+}
@@ -0,0 +1,79 @@
+package br.ifsp.film_catalog.review;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.assertj.core.data.Offset;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.ifsp.film_catalog.repository.ReviewRepository;
+
+import br.ifsp.film_catalog.service.ReviewHelpfulnessService;
+
+class ReviewHelpfulnessScoreTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-31T12:00:00Z");
+
+    @Test
+    void score_shouldBeZeroWithoutVotes() {
+        assertThat(ReviewHelpfulnessService.score(0, 0, NOW, NOW, 30)).isZero();
+    }
+
+    @Test
+    void score_shouldRankManyLikesAboveFewLikes() {
+        double fewVotes = ReviewHelpfulnessService.score(2, 0, NOW, NOW, 30);
+        double manyVotes = ReviewHelpfulnessService.score(90, 10, NOW, NOW, 30);
+
+        assertThat(manyVotes).isGreaterThan(fewVotes);
+        assertThat(ReviewHelpfulnessService.score(10, 10, NOW, NOW, 30)).isLessThan(manyVotes);
+    }
+
+    @Test
+    void score_shouldHalveAfterOneHalfLife() {
+        double fresh = ReviewHelpfulnessService.score(50, 5, NOW, NOW, 30);
+        double old = ReviewHelpfulnessService.score(50, 5, NOW.minus(Duration.ofDays(30)), NOW, 30);
+
+        assertThat(old).isCloseTo(fresh / 2, Offset.offset(1e-9));
+    }
+
+    @Test
+    void recomputeAll_shouldBatchOnlyChangedScores() {
+        ReviewRepository reviewRepository = mock(ReviewRepository.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        Instant createdAt = Instant.now();
+        double unchangedScore = ReviewHelpfulnessService.score(0, 0, createdAt, createdAt, 30);
+        when(reviewRepository.findHelpfulnessInputsAfter(eq(0L), any()))
+                .thenReturn(List.of(inputs(1L, 0, 0, createdAt, unchangedScore), inputs(2L, 40, 2, createdAt, 0)));
+
+        new ReviewHelpfulnessService(reviewRepository, transactionTemplate).recomputeAll();
+
+        ArgumentCaptor<Map<Long, Double>> scores = ArgumentCaptor.forClass(Map.class);
+        verify(reviewRepository).batchUpdateHelpfulnessScores(scores.capture());
+        assertThat(scores.getValue()).containsOnlyKeys(2L);
+        assertThat(scores.getValue().get(2L)).isPositive();
+    }
+
+    private static ReviewRepository.HelpfulnessInputs inputs(Long id, int likes, int flags, Instant createdAt, double score) {
+        return new ReviewRepository.HelpfulnessInputs() {
+            public Long getId() { return id; }
+            public int getLikesCount() { return likes; }
+            public int getFlagCount() { return flags; }
+            public Instant getCreatedAt() { return createdAt; }
+            public double getHelpfulnessScore() { return score; }
+        };
+    }
+}
@@ -0,0 +1,147 @@
+package br.ifsp.film_catalog.review;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.ifsp.film_catalog.dto.BulkModerationRequestDTO;
+import br.ifsp.film_catalog.dto.BulkModerationResultDTO;
+import br.ifsp.film_catalog.model.Review;
+import br.ifsp.film_catalog.model.enums.ModerationAction;
+import br.ifsp.film_catalog.repository.ContentFlagRepository;
+import br.ifsp.film_catalog.repository.ReviewRepository;
+import br.ifsp.film_catalog.service.RecentReviewsBuffer;
+import br.ifsp.film_catalog.service.ReviewModerationService;
+import br.ifsp.film_catalog.service.ReviewSearchIndex;
+import br.ifsp.film_catalog.service.ReviewService;
+import br.ifsp.film_catalog.service.UserStatsService;
+
+@ExtendWith(MockitoExtension.class)
+class ReviewModerationServiceTest {
+
+    @Mock private ReviewRepository reviewRepository;
+    @Mock private ContentFlagRepository contentFlagRepository;
+    @Mock private ReviewService reviewService;
+    @Mock private ReviewSearchIndex reviewSearchIndex;
+    @Mock private RecentReviewsBuffer recentReviewsBuffer;
+    @Mock private TransactionTemplate transactionTemplate;
+    @Mock private UserStatsService userStatsService;
+
+    private ReviewModerationService reviewModerationService;
+
+    @BeforeEach
+    void setUp() {
+        reviewModerationService = new ReviewModerationService(reviewRepository, contentFlagRepository, reviewService,
+                reviewSearchIndex, recentReviewsBuffer, transactionTemplate, userStatsService);
+    }
+
+    @Test
+    void execute_shouldRejectIdsCombinedWithFilter() {
+        BulkModerationRequestDTO request = BulkModerationRequestDTO.builder().reviewIds(List.of(1L)).userId(2L).build();
+
+        assertThrows(IllegalArgumentException.class, () -> reviewModerationService.execute(ModerationAction.HIDE, request));
+        verifyNoInteractions(reviewRepository);
+    }
+
+    @Test
+    void execute_hideByIds_shouldSelectVisibleReviewsOnceAndEvictThem() {
+        runTransactionsInline();
+        BulkModerationRequestDTO request = BulkModerationRequestDTO.builder().reviewIds(Arrays.asList(3L, 1L, null, 1L, 2L)).build();
+        when(reviewRepository.findIdsForModerationIn(List.of(1L, 2L, 3L), false)).thenReturn(List.of(1L, 2L));
+        when(reviewRepository.updateHiddenByIdIn(List.of(1L, 2L), true)).thenReturn(2);
+
+        BulkModerationResultDTO result = reviewModerationService.execute(ModerationAction.HIDE, request);
+
+        assertEquals(2, result.getMatchedReviews());
+        assertEquals(2, result.getAffectedReviews());
+        assertEquals(1, result.getChunks());
+        verify(reviewSearchIndex).removeAll(List.of(1L, 2L));
+        verify(recentReviewsBuffer).removeAll(List.of(1L, 2L));
+    }
+
+    @Test
+    void execute_unhideByFilter_shouldWalkChunksAndIndexVisibleReviewsAgain() {
+        runTransactionsInline();
+        ReflectionTestUtils.setField(reviewModerationService, "chunkSize", 2);
+        BulkModerationRequestDTO request = BulkModerationRequestDTO.builder().movieId(7L).build();
+        when(reviewRepository.findIdsForModeration(eq(0L), eq(true), isNull(), eq(7L), isNull(), any()))
+                .thenReturn(List.of(4L, 6L));
+        when(reviewRepository.findIdsForModeration(eq(6L), eq(true), isNull(), eq(7L), isNull(), any()))
+                .thenReturn(List.of(9L));
+        when(reviewRepository.updateHiddenByIdIn(List.of(4L, 6L), false)).thenReturn(2);
+        when(reviewRepository.updateHiddenByIdIn(List.of(9L), false)).thenReturn(1);
+        when(reviewRepository.findAllWithUserAndMovieByIdIn(List.of(4L, 6L)))
+                .thenReturn(List.of(review(4L, "Ótimo roteiro"), review(6L, "Boa direção")));
+        when(reviewRepository.findAllWithUserAndMovieByIdIn(List.of(9L))).thenReturn(List.of(review(9L, "Fotografia linda")));
+
+        BulkModerationResultDTO result = reviewModerationService.execute(ModerationAction.UNHIDE, request);
+
+        assertEquals(3, result.getMatchedReviews());
+        assertEquals(3, result.getAffectedReviews());
+        assertEquals(2, result.getChunks());
+        verify(reviewSearchIndex).index(4L, "Ótimo roteiro");
+        verify(reviewSearchIndex).index(6L, "Boa direção");
+        verify(reviewSearchIndex).index(9L, "Fotografia linda");
+    }
+
+    @Test
+    void execute_delete_shouldRemoveFlagsBeforeReviews() {
+        runTransactionsInline();
+        BulkModerationRequestDTO request = BulkModerationRequestDTO.builder().reviewIds(List.of(5L)).build();
+        when(reviewRepository.findIdsForModerationIn(List.of(5L), null)).thenReturn(List.of(5L));
+        when(contentFlagRepository.deleteByReviewIdIn(List.of(5L))).thenReturn(3);
+        when(reviewRepository.deleteByIdIn(List.of(5L))).thenReturn(1);
+
+        BulkModerationResultDTO result = reviewModerationService.execute(ModerationAction.DELETE, request);
+
+        assertEquals(1, result.getAffectedReviews());
+        assertEquals(3, result.getRemovedFlags());
+        InOrder order = inOrder(userStatsService, contentFlagRepository, reviewRepository);
+        order.verify(userStatsService).markStaleForReviews(List.of(5L));
+        order.verify(contentFlagRepository).deleteByReviewIdIn(List.of(5L));
+        order.verify(reviewRepository).deleteByIdIn(List.of(5L));
+        verify(reviewSearchIndex).removeAll(List.of(5L));
+        verify(reviewRepository, never()).updateHiddenByIdIn(any(), eq(true));
+    }
+
+    private static Review review(Long id, String content) {
+        Review review = new Review();
+        review.setId(id);
+        review.setContent(content);
+        return review;
+    }
+
+    // Each action uses only one of the two entry points, hence lenient
+    @SuppressWarnings("unchecked")
+    private void runTransactionsInline() {
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.getArgument(0, TransactionCallback.class).doInTransaction(null));
+        lenient().doAnswer(invocation -> {
+            invocation.getArgument(0, Consumer.class).accept((TransactionStatus) null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+}
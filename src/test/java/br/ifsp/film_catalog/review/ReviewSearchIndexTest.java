@@ -0,0 +1,97 @@
+package br.ifsp.film_catalog.review;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import br.ifsp.film_catalog.model.Review;
+import br.ifsp.film_catalog.service.ReviewSearchIndex;
+
+class ReviewSearchIndexTest {
+
+    private ReviewSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ReviewSearchIndex();
+        index.index(1L, "Uma direção incrível e uma fotografia linda.");
+        index.index(2L, "Fotografia linda, mas o roteiro é fraco.");
+        index.index(3L, "Roteiro incrível do começo ao fim.");
+    }
+
+    @Test
+    void search_shouldMatchAllTermsIgnoringCaseAndAccents() {
+        Page<Long> result = index.search("DIRECAO Fotografia", PageRequest.of(0, 10));
+
+        assertThat(result.getContent()).containsExactly(1L);
+    }
+
+    @Test
+    void search_shouldMatchPhraseOnlyWhenWordsAreAdjacent() {
+        assertThat(index.search("\"fotografia linda\"", PageRequest.of(0, 10)).getContent())
+                .containsExactly(2L, 1L);
+        assertThat(index.search("\"linda fotografia\"", PageRequest.of(0, 10)).getContent())
+                .isEmpty();
+    }
+
+    @Test
+    void search_shouldMatchPrefixAndReturnNewestFirst() {
+        Page<Long> result = index.search("rot*", PageRequest.of(0, 10));
+
+        assertThat(result.getContent()).containsExactly(3L, 2L);
+        assertThat(result.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    void search_shouldPageResults() {
+        Page<Long> page = index.search("incrivel", PageRequest.of(1, 1));
+        assertThat(page.getContent()).containsExactly(1L);
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(page.isLast()).isTrue();
+    }
+
+    @Test
+    void index_shouldDropHiddenReviewsAndReplaceUpdatedContent() {
+        Review hidden = new Review();
+        hidden.setId(1L);
+        hidden.setHidden(true);
+        index.index(hidden);
+        index.index(3L, "Trilha sonora marcante.");
+
+        assertThat(index.search("incrivel", PageRequest.of(0, 10)).getContent()).isEmpty();
+        assertThat(index.search("trilha", PageRequest.of(0, 10)).getContent()).containsExactly(3L);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void search_shouldRejectQueriesWithoutWords() {
+        assertThatThrownBy(() -> index.search(" \"\" ", PageRequest.of(0, 10)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void search_shouldNarrowOtherClausesWithBroadPrefixAndRejectItAlone() {
+        for (int i = 0; i < 65; i++) { // One more word than a prefix may expand to
+            index.index(100L + i, "palavra" + i);
+        }
+        index.index(500L, "Roteiro com palavras demais.");
+
+        assertThat(index.search("roteiro pal*", PageRequest.of(0, 10)).getContent()).containsExactly(500L);
+        assertThatThrownBy(() -> index.search("pal*", PageRequest.of(0, 10)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void search_shouldKeepPostingsConsistentAfterOutOfOrderInsertsAndRemovals() {
+        index.index(10L, "Roteiro sólido.");
+        index.index(5L, "Roteiro confuso.");
+        index.remove(2L);
+
+        assertThat(index.search("roteiro", PageRequest.of(0, 10)).getContent()).containsExactly(10L, 5L, 3L);
+        assertThat(index.search("lin*", PageRequest.of(0, 10)).getContent()).containsExactly(1L);
+    }
+}
@@ -16,6 +16,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.never;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.any;
@@ -26,9 +27,12 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import br.ifsp.film_catalog.dto.ReviewRequestDTO;
 import br.ifsp.film_catalog.dto.ReviewResponseDTO;
+import br.ifsp.film_catalog.dto.page.PagedResponse;
 import br.ifsp.film_catalog.exception.InvalidReviewStateException;
 import br.ifsp.film_catalog.exception.ResourceNotFoundException;
 import br.ifsp.film_catalog.mapper.PagedResponseMapper;
@@ -41,7 +45,11 @@ import br.ifsp.film_catalog.repository.MovieRepository;
 import br.ifsp.film_catalog.repository.ReviewRepository;
 import br.ifsp.film_catalog.repository.UserRepository;
 import br.ifsp.film_catalog.repository.UserWatchedRepository;
+import br.ifsp.film_catalog.service.RecentReviewsBuffer;
+import br.ifsp.film_catalog.service.ReviewHelpfulnessService;
+import br.ifsp.film_catalog.service.ReviewSearchIndex;
 import br.ifsp.film_catalog.service.ReviewService;
+import br.ifsp.film_catalog.service.UserStatsService;
 
 @ExtendWith(MockitoExtension.class)
 @ActiveProfiles("test")
@@ -65,6 +73,18 @@ public class ReviewServiceTest {
     @Mock
     private PagedResponseMapper pagedResponseMapper;
 
+    @Mock
+    private ReviewSearchIndex reviewSearchIndex;
+
+    @Mock
+    private RecentReviewsBuffer recentReviewsBuffer;
+
+    @Mock
+    private ReviewHelpfulnessService reviewHelpfulnessService;
+
+    @Mock
+    private UserStatsService userStatsService;
+
     @InjectMocks
     private ReviewService reviewService;
 
@@ -291,7 +311,10 @@ void updateReview_success() {
         Review review = new Review();
         review.setId(reviewId);
 
+        review.setLikesCount(4);
+
         UserWatched userWatched = new UserWatched();
+        userWatched.setId(new UserMovieId(123L, 10L));
         review.setUserWatched(userWatched);
 
         when(reviewRepository.findById(reviewId)).thenReturn(Optional.of(review));
@@ -299,7 +322,10 @@ void updateReview_success() {
         reviewService.deleteReview(reviewId, 123L);
 
         verify(userWatchedRepository).save(userWatched);
+        verify(userStatsService).reviewsChanged(123L, -1, -4);
         verify(reviewRepository).delete(review);
+        verify(reviewSearchIndex).remove(reviewId);
+        verify(recentReviewsBuffer).remove(reviewId);
     }
 
     @Test
@@ -359,4 +385,34 @@ void updateReview_success() {
         assertTrue(updatedReview.isHidden());
     }
 
+    @Test
+    void searchReviews_shouldFilterStaleHitsWithoutEvictingThem() {
+        Pageable pageable = PageRequest.of(0, 3);
+        Review hidden = searchableReview(5L, true);
+        Review visible3 = searchableReview(3L, false);
+
+        when(reviewSearchIndex.search("roteiro", pageable)).thenReturn(new PageImpl<>(List.of(5L, 4L, 3L), pageable, 3));
+        when(reviewRepository.findAllWithUserAndMovieByIdIn(List.of(5L, 4L, 3L))).thenReturn(List.of(visible3, hidden));
+
+        PagedResponse<ReviewResponseDTO> result = reviewService.searchReviews("roteiro", pageable);
+
+        assertEquals(List.of(3L), result.getContent().stream().map(ReviewResponseDTO::getId).toList());
+        verify(reviewSearchIndex, never()).removeAll(any());
+    }
+
+    private static Review searchableReview(Long id, boolean hidden) {
+        User user = new User();
+        user.setId(1L);
+        Movie movie = new Movie();
+        movie.setId(10L);
+        UserWatched userWatched = new UserWatched();
+        userWatched.setId(new UserMovieId(1L, 10L));
+        userWatched.setUser(user);
+        userWatched.setMovie(movie);
+        Review review = new Review();
+        review.setId(id);
+        review.setHidden(hidden);
+        review.setUserWatched(userWatched);
+        return review;
+    }
 }
@@ -0,0 +1,52 @@
+package br.ifsp.film_catalog.review;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import br.ifsp.film_catalog.security.SlidingWindowRateLimiter;
+
+class SlidingWindowRateLimiterTest {
+
+    private static final long WINDOW = 60_000;
+
+    @Test
+    void tryAcquire_shouldRejectOverLimitWithRetryAfter() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter();
+        long now = 1_000_000;
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("flag:user:1", 3, WINDOW, now)).isZero();
+        }
+        long retryAfter = limiter.tryAcquire("flag:user:1", 3, WINDOW, now);
+
+        assertThat(retryAfter).isBetween(1L, 60L);
+        // Other users keep their own budget.
+        assertThat(limiter.tryAcquire("flag:user:2", 3, WINDOW, now)).isZero();
+    }
+
+    @Test
+    void tryAcquire_shouldFreeCapacityAsTheWindowSlides() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter();
+        long start = 1_200_000;
+
+        assertThat(limiter.tryAcquire("like:user:1", 2, WINDOW, start)).isZero();
+        assertThat(limiter.tryAcquire("like:user:1", 2, WINDOW, start + 30_000)).isZero();
+        assertThat(limiter.tryAcquire("like:user:1", 2, WINDOW, start + 40_000)).isPositive();
+
+        // The first call leaves the window, the second one is still counted.
+        assertThat(limiter.tryAcquire("like:user:1", 2, WINDOW, start + 61_000)).isZero();
+        assertThat(limiter.tryAcquire("like:user:1", 2, WINDOW, start + 62_000)).isPositive();
+    }
+
+    @Test
+    void evictIdle_shouldDropWindowsWithoutRecentCalls() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter();
+        limiter.tryAcquire("like:user:1", 5, WINDOW, 0);
+        limiter.tryAcquire("like:user:2", 5, WINDOW, 50_000);
+
+        limiter.evictIdle(90_000);
+
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,39 @@
+package br.ifsp.film_catalog.user;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import br.ifsp.film_catalog.service.BloomFilter;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_shouldNeverMissAValueThatWasPut() {
+        BloomFilter filter = new BloomFilter(5_000, 0.01);
+        for (int i = 0; i < 5_000; i++) {
+            filter.put("u:user" + i);
+        }
+
+        for (int i = 0; i < 5_000; i++) {
+            assertThat(filter.mightContain("u:user" + i)).isTrue();
+        }
+        assertThat(filter.insertions()).isEqualTo(5_000);
+    }
+
+    @Test
+    void mightContain_shouldKeepFalsePositivesNearTheConfiguredRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("e:member" + i + "@example.com");
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain("e:visitor" + i + "@example.com")) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(300); // 1% expected, 3% tolerated
+    }
+}
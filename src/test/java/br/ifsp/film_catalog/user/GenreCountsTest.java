@@ -0,0 +1,40 @@
+package br.ifsp.film_catalog.user;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import br.ifsp.film_catalog.model.GenreCounts;
+
+class GenreCountsTest {
+
+    @Test
+    void add_shouldCountEachOccurrenceAndDropGenresAtZero() {
+        GenreCounts counts = GenreCounts.EMPTY.add(List.of(3L, 1L, 3L), 1);
+
+        assertThat(counts.countOf(3L)).isEqualTo(2);
+        assertThat(counts.countOf(1L)).isEqualTo(1);
+
+        GenreCounts removed = counts.add(List.of(1L, 7L), -1);
+        assertThat(removed.countOf(1L)).isZero();
+        assertThat(removed.size()).isEqualTo(1);
+    }
+
+    @Test
+    void top_shouldOrderByCountThenGenreId() {
+        GenreCounts counts = GenreCounts.of(Map.of(5L, 2L, 2L, 4L, 9L, 2L, 1L, 1L));
+
+        assertThat(counts.top(3)).containsExactly(2L, 5L, 9L);
+    }
+
+    @Test
+    void bytes_shouldRoundTrip() {
+        GenreCounts counts = GenreCounts.of(Map.of(10L, 3L, 4L, 8L));
+
+        assertThat(GenreCounts.fromBytes(counts.toBytes())).isEqualTo(counts);
+        assertThat(GenreCounts.fromBytes(null)).isEqualTo(GenreCounts.EMPTY);
+    }
+}
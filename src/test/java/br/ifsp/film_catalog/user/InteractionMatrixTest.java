@@ -0,0 +1,50 @@
+package br.ifsp.film_catalog.user;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import br.ifsp.film_catalog.service.InteractionMatrix;
+
+class InteractionMatrixTest {
+
+    @Test
+    void build_shouldGroupByUserAndAddUpRepeatedPairs() {
+        InteractionMatrix matrix = InteractionMatrix.builder()
+                .add(20L, 7L, 1f)
+                .add(10L, 5L, 1.25f)
+                .add(20L, 3L, 0.5f)
+                .add(10L, 5L, 1f) // Watched and favorited
+                .add(20L, 7L, 1f)
+                .build();
+
+        assertThat(matrix.userCount()).isEqualTo(2);
+        assertThat(matrix.movieCount()).isEqualTo(3);
+        assertThat(matrix.size()).isEqualTo(3);
+        assertThat(matrix.weight(10L, 5L)).isEqualTo(2.25f);
+        assertThat(matrix.weight(20L, 7L)).isEqualTo(2f);
+        assertThat(matrix.weight(20L, 3L)).isEqualTo(0.5f);
+        assertThat(matrix.weight(10L, 3L)).isZero();
+        assertThat(matrix.weight(30L, 5L)).isZero();
+    }
+
+    @Test
+    void build_shouldGrowPastTheInitialCapacity() {
+        InteractionMatrix.Builder builder = InteractionMatrix.builder();
+        for (long user = 0; user < 100; user++) {
+            for (long movie = 0; movie < 30; movie++) {
+                builder.add(user, movie, 1f);
+            }
+        }
+
+        InteractionMatrix matrix = builder.build();
+
+        assertThat(matrix.size()).isEqualTo(3000);
+        assertThat(matrix.weight(99L, 29L)).isEqualTo(1f);
+    }
+
+    @Test
+    void build_shouldReturnEmptyMatrixWithoutInteractions() {
+        assertThat(InteractionMatrix.builder().build().userCount()).isZero();
+    }
+}
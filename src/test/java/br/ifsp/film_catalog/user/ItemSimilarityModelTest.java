@@ -0,0 +1,75 @@
+package br.ifsp.film_catalog.user;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import br.ifsp.film_catalog.service.InteractionMatrix;
+import br.ifsp.film_catalog.service.ItemSimilarityModel;
+
+class ItemSimilarityModelTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    @AfterEach
+    void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void recommend_shouldRankMoviesWatchedTogetherFirst() {
+        // Movies 1, 2 and 3 are watched together; 4 only shares one user with them.
+        Map<Long, Map<Long, Float>> interactions = Map.of(
+                10L, Map.of(1L, 1f, 2L, 1f, 3L, 1f),
+                11L, Map.of(1L, 1f, 2L, 1f, 3L, 1f),
+                12L, Map.of(1L, 1f, 3L, 1f, 4L, 1f),
+                13L, Map.of(4L, 1f, 5L, 1f));
+
+        ItemSimilarityModel model = ItemSimilarityModel.build(matrix(interactions), 10, 1, 100, pool);
+        List<Long> ranked = model.recommend(Map.of(1L, 1f), Set.of(1L), 10);
+
+        assertThat(ranked).startsWith(3L, 2L).doesNotContain(1L, 5L);
+    }
+
+    @Test
+    void recommend_shouldExcludeSeenMoviesAndKeepOnlyTopNeighbors() {
+        Map<Long, Map<Long, Float>> interactions = Map.of(
+                10L, Map.of(1L, 1f, 2L, 1f, 3L, 1f, 4L, 1f),
+                11L, Map.of(1L, 1f, 2L, 1f));
+
+        ItemSimilarityModel model = ItemSimilarityModel.build(matrix(interactions), 1, 0, 100, pool);
+
+        assertThat(model.recommend(Map.of(1L, 1f), Set.of(1L), 10)).containsExactly(2L);
+        assertThat(model.recommend(Map.of(1L, 1f), Set.of(1L, 2L), 10)).isEmpty();
+    }
+
+    @Test
+    void build_shouldKeepOnlyTheHeaviestInteractionsOfLongHistories() {
+        // User 10 rated movie 3 low; with one item kept per user it no longer links 3 to 1.
+        Map<Long, Map<Long, Float>> interactions = Map.of(
+                10L, Map.of(1L, 2f, 3L, 0.5f),
+                11L, Map.of(1L, 1f, 2L, 1f));
+
+        ItemSimilarityModel model = ItemSimilarityModel.build(matrix(interactions), 10, 0, 1, pool);
+
+        assertThat(model.recommend(Map.of(3L, 1f), Set.of(3L), 10)).isEmpty();
+        assertThat(model.userCount()).isEqualTo(2);
+    }
+
+    @Test
+    void recommend_shouldReturnNothingForUnknownMovies() {
+        assertThat(ItemSimilarityModel.EMPTY.recommend(Map.of(1L, 1f), Set.of(), 10)).isEmpty();
+    }
+
+    private static InteractionMatrix matrix(Map<Long, Map<Long, Float>> interactions) {
+        InteractionMatrix.Builder builder = InteractionMatrix.builder();
+        interactions.forEach((userId, items) -> items.forEach((movieId, weight) -> builder.add(userId, movieId, weight)));
+        return builder.build();
+    }
+}
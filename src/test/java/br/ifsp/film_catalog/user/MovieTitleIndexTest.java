@@ -0,0 +1,44 @@
+package br.ifsp.film_catalog.user;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import br.ifsp.film_catalog.service.MovieTitleIndex;
+
+class MovieTitleIndexTest {
+
+    @Test
+    void match_shouldIgnoreCaseAccentsAndPunctuation() {
+        MovieTitleIndex index = new MovieTitleIndex();
+        index.add(1L, "Amélie", 2001);
+        index.add(2L, "Spider-Man: No Way Home", 2021);
+
+        assertThat(index.match("AMELIE", 2001).movieId()).isEqualTo(1L);
+        assertThat(index.match("spider man no way home", 2021).movieId()).isEqualTo(2L);
+        assertThat(index.match("Amelie", null).movieId()).isEqualTo(1L);
+        assertThat(index.match("Unknown", 2001).found()).isFalse();
+    }
+
+    @Test
+    void match_shouldAcceptNeighbouringYearOnlyWhenUnique() {
+        MovieTitleIndex index = new MovieTitleIndex();
+        index.add(1L, "Parasite", 2019);
+        index.add(2L, "Solaris", 1972);
+        index.add(3L, "Solaris", 1974);
+
+        assertThat(index.match("Parasite", 2020).movieId()).isEqualTo(1L);
+        assertThat(index.match("Parasite", 2021).found()).isFalse();
+        assertThat(index.match("Solaris", 1973).ambiguous()).isTrue();
+    }
+
+    @Test
+    void match_shouldReportRemakesWithoutYearAsAmbiguous() {
+        MovieTitleIndex index = new MovieTitleIndex();
+        index.add(1L, "Dune", 1984);
+        index.add(2L, "Dune", 2021);
+
+        assertThat(index.match("Dune", null).ambiguous()).isTrue();
+        assertThat(index.match("Dune", 2021).movieId()).isEqualTo(2L);
+    }
+}
@@ -0,0 +1,93 @@
+package br.ifsp.film_catalog.user;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import br.ifsp.film_catalog.dto.MovieResponseDTO;
+import br.ifsp.film_catalog.dto.page.PagedResponse;
+import br.ifsp.film_catalog.model.Movie;
+import br.ifsp.film_catalog.repository.MovieRepository;
+import br.ifsp.film_catalog.repository.UserFavoriteRepository;
+import br.ifsp.film_catalog.repository.UserRepository;
+import br.ifsp.film_catalog.repository.UserWatchedRepository;
+import br.ifsp.film_catalog.service.InteractionMatrix;
+import br.ifsp.film_catalog.service.ItemSimilarityModel;
+import br.ifsp.film_catalog.service.RecommendationService;
+import br.ifsp.film_catalog.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class RecommendationServiceTest {
+
+    private static final Long USER_ID = 1L;
+
+    @Mock private UserRepository userRepository;
+    @Mock private MovieRepository movieRepository;
+    @Mock private UserWatchedRepository userWatchedRepository;
+    @Mock private UserFavoriteRepository userFavoriteRepository;
+    @Mock private UserService userService;
+
+    private RecommendationService recommendationService;
+
+    @BeforeEach
+    void setUp() {
+        recommendationService = new RecommendationService(userRepository, movieRepository, userWatchedRepository,
+                userFavoriteRepository, userService, new ModelMapper(), new SimpleMeterRegistry());
+        // Movies 1, 2 and 3 are always watched together
+        InteractionMatrix interactions = InteractionMatrix.builder()
+                .add(10L, 1L, 1f).add(10L, 2L, 1f).add(10L, 3L, 1f)
+                .add(11L, 1L, 1f).add(11L, 2L, 1f).add(11L, 3L, 1f)
+                .build();
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            ReflectionTestUtils.setField(recommendationService, "model",
+                    ItemSimilarityModel.build(interactions, 10, 0, 100, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void getRecommendations_shouldCountOnlyMoviesThatStillExist() {
+        when(userRepository.existsById(USER_ID)).thenReturn(true);
+        when(userFavoriteRepository.findMovieIdsByUserId(USER_ID)).thenReturn(List.of(1L));
+        when(movieRepository.findExistingIds(anyList())).thenReturn(List.of(2L));
+        when(movieRepository.findAllWithGenresByIdIn(List.of(2L))).thenReturn(List.of(movie(2L)));
+
+        PagedResponse<MovieResponseDTO> page = recommendationService.getRecommendations(USER_ID, PageRequest.of(0, 10));
+
+        assertThat(page.getContent()).extracting(MovieResponseDTO::getId).containsExactly(2L);
+        assertThat(page.getTotalElements()).isEqualTo(1);
+        assertThat(page.getTotalPages()).isEqualTo(1);
+    }
+
+    @Test
+    void getRecommendations_shouldRejectASort() {
+        assertThatThrownBy(() -> recommendationService.getRecommendations(USER_ID, PageRequest.of(0, 10, Sort.by("title"))))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(userRepository, movieRepository);
+    }
+
+    private static Movie movie(Long id) {
+        Movie movie = new Movie();
+        movie.setId(id);
+        movie.setTitle("Movie " + id);
+        return movie;
+    }
+}
@@ -0,0 +1,99 @@
+package br.ifsp.film_catalog.user;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import br.ifsp.film_catalog.dto.UserAvailabilityDTO;
+import br.ifsp.film_catalog.repository.UserRepository;
+import br.ifsp.film_catalog.repository.UserRepository.UserIdentifiers;
+import br.ifsp.film_catalog.service.UserAvailabilityService;
+
+@ExtendWith(MockitoExtension.class)
+class UserAvailabilityServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private UserAvailabilityService userAvailabilityService;
+
+    @Test
+    void check_shouldAnswerWithoutQueryForUnknownValues() {
+        loadWith(identifiers(1L, "joao", "joao@example.com"));
+
+        UserAvailabilityDTO availability = userAvailabilityService.check("maria", "maria@example.com");
+
+        assertTrue(availability.getUsernameAvailable());
+        assertTrue(availability.getEmailAvailable());
+        verify(userRepository, never()).existsByUsername(anyString());
+        verify(userRepository, never()).existsByEmail(anyString());
+    }
+
+    @Test
+    void check_shouldConfirmPossibleHitsInTheDatabase() {
+        loadWith(identifiers(1L, "joao", "joao@example.com"));
+        when(userRepository.existsByUsername("Joao")).thenReturn(true);
+
+        UserAvailabilityDTO availability = userAvailabilityService.check(" Joao ", null);
+
+        assertEquals("Joao", availability.getUsername());
+        assertFalse(availability.getUsernameAvailable());
+        assertNull(availability.getEmailAvailable());
+    }
+
+    @Test
+    void check_shouldSeeRegistrationsMadeAfterTheLoad() {
+        loadWith();
+        userAvailabilityService.recordRegistered("ana", "ana@example.com");
+        when(userRepository.existsByEmail("ana@example.com")).thenReturn(true);
+
+        assertFalse(userAvailabilityService.check(null, "ana@example.com").getEmailAvailable());
+    }
+
+    @Test
+    void check_shouldRejectEmptyRequest() {
+        assertThrows(IllegalArgumentException.class, () -> userAvailabilityService.check(" ", null));
+    }
+
+    private void loadWith(UserIdentifiers... users) {
+        when(userRepository.count()).thenReturn((long) users.length);
+        when(userRepository.findIdentifiersAfter(eq(0L), any())).thenReturn(List.of(users));
+        userAvailabilityService.load();
+    }
+
+    private static UserIdentifiers identifiers(Long id, String username, String email) {
+        return new UserIdentifiers() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getUsername() {
+                return username;
+            }
+
+            @Override
+            public String getEmail() {
+                return email;
+            }
+        };
+    }
+}
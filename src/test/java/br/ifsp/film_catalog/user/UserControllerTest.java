@@ -7,7 +7,9 @@ import br.ifsp.film_catalog.dto.*;
 import br.ifsp.film_catalog.dto.page.PagedResponse;
 import br.ifsp.film_catalog.exception.InvalidMovieStateException;
 import br.ifsp.film_catalog.exception.ResourceNotFoundException;
+import br.ifsp.film_catalog.model.enums.JobStatus;
 import br.ifsp.film_catalog.repository.MovieRepository;
+import br.ifsp.film_catalog.service.UserDeletionService;
 import br.ifsp.film_catalog.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -52,6 +54,9 @@ class UserControllerTest {
         @MockBean
         private SecurityService securityService;
 
+        @MockBean
+        private UserDeletionService userDeletionService;
+
         @Autowired
         private ObjectMapper objectMapper;
 
@@ -214,13 +219,20 @@ class UserControllerTest {
 
         @Test
         @WithMockUser(roles = "ADMIN")
-        void deleteUser_shouldReturnNoContent_whenDeleted() throws Exception {
-                doNothing().when(userService).deleteUser(1L);
+        void deleteUser_shouldReturnAccepted_whenDeletionStarts() throws Exception {
+                UserDeletionJobDTO job = UserDeletionJobDTO.builder()
+                                .jobId("job-1")
+                                .userId(1L)
+                                .status(JobStatus.QUEUED)
+                                .build();
+                when(userDeletionService.start(1L)).thenReturn(job);
 
                 mockMvc.perform(delete("/api/users/1"))
-                                .andExpect(status().isNoContent());
+                                .andExpect(status().isAccepted())
+                                .andExpect(jsonPath("$.jobId").value("job-1"))
+                                .andExpect(jsonPath("$.status").value("QUEUED"));
 
-                verify(userService).deleteUser(1L);
+                verify(userDeletionService).start(1L);
         }
 
         @Test
@@ -620,7 +632,7 @@ class UserControllerTest {
         @Test
         @WithMockUser(roles = "ADMIN")
         void deleteUser_shouldReturn404_whenNotFound() throws Exception {
-                doThrow(new ResourceNotFoundException("User not found")).when(userService).deleteUser(999L);
+                when(userDeletionService.start(999L)).thenThrow(new ResourceNotFoundException("User not found"));
 
                 mockMvc.perform(delete("/api/users/999"))
                                 .andExpect(status().isNotFound());
@@ -0,0 +1,169 @@
+package br.ifsp.film_catalog.user;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.ifsp.film_catalog.dto.UserDeletionJobDTO;
+import br.ifsp.film_catalog.exception.ResourceNotFoundException;
+import br.ifsp.film_catalog.model.enums.JobStatus;
+import br.ifsp.film_catalog.repository.ContentFlagRepository;
+import br.ifsp.film_catalog.repository.ReviewRepository;
+import br.ifsp.film_catalog.repository.UserFavoriteRepository;
+import br.ifsp.film_catalog.repository.UserRepository;
+import br.ifsp.film_catalog.repository.UserWatchedRepository;
+import br.ifsp.film_catalog.repository.WatchlistRepository;
+import br.ifsp.film_catalog.service.FlagEvaluationPipeline;
+import br.ifsp.film_catalog.service.RecentReviewsBuffer;
+import br.ifsp.film_catalog.service.ReviewSearchIndex;
+import br.ifsp.film_catalog.service.SharedWatchlistCache;
+import br.ifsp.film_catalog.service.UserAvailabilityService;
+import br.ifsp.film_catalog.service.UserDeletionService;
+import br.ifsp.film_catalog.service.UserGenreAffinityService;
+import br.ifsp.film_catalog.service.UserStatsService;
+
+@ExtendWith(MockitoExtension.class)
+class UserDeletionServiceTest {
+
+    @Mock private UserRepository userRepository;
+    @Mock private ContentFlagRepository contentFlagRepository;
+    @Mock private ReviewRepository reviewRepository;
+    @Mock private UserWatchedRepository userWatchedRepository;
+    @Mock private UserFavoriteRepository userFavoriteRepository;
+    @Mock private WatchlistRepository watchlistRepository;
+    @Mock private UserGenreAffinityService userGenreAffinityService;
+    @Mock private UserStatsService userStatsService;
+    @Mock private UserAvailabilityService userAvailabilityService;
+    @Mock private FlagEvaluationPipeline flagEvaluationPipeline;
+    @Mock private ReviewSearchIndex reviewSearchIndex;
+    @Mock private RecentReviewsBuffer recentReviewsBuffer;
+    @Mock private SharedWatchlistCache sharedWatchlistCache;
+    @Mock private TransactionTemplate transactionTemplate;
+
+    private UserDeletionService userDeletionService;
+
+    @BeforeEach
+    void setUp() {
+        userDeletionService = new UserDeletionService(userRepository, contentFlagRepository, reviewRepository,
+                userWatchedRepository, userFavoriteRepository, watchlistRepository, userGenreAffinityService,
+                userStatsService, userAvailabilityService, flagEvaluationPipeline, reviewSearchIndex, recentReviewsBuffer, sharedWatchlistCache,
+                transactionTemplate, 1, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userDeletionService.shutdown();
+    }
+
+    @Test
+    void start_shouldThrowNotFound_whenUserDoesNotExist() {
+        when(userRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> userDeletionService.start(1L));
+        verify(userRepository, never()).deleteRowById(any());
+    }
+
+    @Test
+    void start_shouldRemoveDependentsInChunksBeforeTheUser() throws InterruptedException {
+        runTransactionsInline();
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(contentFlagRepository.findReviewIdsByReporterId(eq(1L), any())).thenReturn(List.of(5L, 6L), List.of());
+        when(contentFlagRepository.deleteByReporterIdAndReviewIdIn(1L, List.of(5L, 6L))).thenReturn(2);
+        when(reviewRepository.findIdsByUserId(eq(1L), any())).thenReturn(List.of(9L), List.of());
+        when(reviewRepository.deleteByIdIn(List.of(9L))).thenReturn(1);
+        when(userWatchedRepository.findMovieIdsByUserId(eq(1L), any())).thenReturn(List.of(10L, 11L), List.of());
+        when(userWatchedRepository.deleteByUserIdAndMovieIdIn(1L, List.of(10L, 11L))).thenReturn(2);
+        when(userFavoriteRepository.findMovieIdsByUserId(eq(1L), any())).thenReturn(List.of());
+        when(watchlistRepository.findIdsByUserId(eq(1L), any())).thenReturn(List.of(3L), List.of());
+        when(watchlistRepository.findShareTokensByIdIn(List.of(3L))).thenReturn(List.of("shared-token"));
+        when(watchlistRepository.deleteByIdIn(List.of(3L))).thenReturn(1);
+
+        UserDeletionJobDTO job = awaitFinished(userDeletionService.start(1L));
+
+        assertEquals(JobStatus.COMPLETED, job.getStatus());
+        assertEquals(2, job.getRemovedFlags());
+        assertEquals(1, job.getRemovedReviews());
+        assertEquals(2, job.getRemovedWatched());
+        assertEquals(0, job.getRemovedFavorites());
+        assertEquals(1, job.getRemovedWatchlists());
+
+        InOrder order = inOrder(flagEvaluationPipeline, reviewRepository, contentFlagRepository, userWatchedRepository,
+                watchlistRepository, userStatsService, userRepository);
+        order.verify(userRepository).deactivateById(1L);
+        order.verify(flagEvaluationPipeline).withdraw(1L, List.of(5L, 6L));
+        order.verify(contentFlagRepository).deleteByReporterIdAndReviewIdIn(1L, List.of(5L, 6L));
+        order.verify(contentFlagRepository).deleteByReviewIdIn(List.of(9L));
+        order.verify(reviewRepository).deleteByIdIn(List.of(9L));
+        order.verify(userWatchedRepository).deleteByUserIdAndMovieIdIn(1L, List.of(10L, 11L));
+        order.verify(watchlistRepository).deleteMoviesByWatchlistIdIn(List.of(3L));
+        order.verify(watchlistRepository).deleteByIdIn(List.of(3L));
+        order.verify(userStatsService).delete(1L);
+        order.verify(userRepository).deleteRolesByUserId(1L);
+        order.verify(userRepository).deleteRowById(1L);
+        verify(reviewSearchIndex).removeAll(List.of(9L));
+        verify(recentReviewsBuffer).removeAll(List.of(9L));
+        verify(sharedWatchlistCache).invalidate("shared-token");
+    }
+
+    @Test
+    void start_shouldSweepRowsWrittenDuringTheJobUnderTheFinalLock() throws InterruptedException {
+        runTransactionsInline();
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(contentFlagRepository.findReviewIdsByReporterId(eq(1L), any())).thenReturn(List.of());
+        when(reviewRepository.findIdsByUserId(eq(1L), any())).thenReturn(List.of());
+        // A watched entry added by a request already past authentication when the job began
+        when(userWatchedRepository.findMovieIdsByUserId(eq(1L), any())).thenReturn(List.of(), List.of(12L), List.of());
+        when(userWatchedRepository.deleteByUserIdAndMovieIdIn(1L, List.of(12L))).thenReturn(1);
+        when(userFavoriteRepository.findMovieIdsByUserId(eq(1L), any())).thenReturn(List.of());
+        when(watchlistRepository.findIdsByUserId(eq(1L), any())).thenReturn(List.of());
+
+        UserDeletionJobDTO job = awaitFinished(userDeletionService.start(1L));
+
+        assertEquals(JobStatus.COMPLETED, job.getStatus());
+        assertEquals(1, job.getRemovedWatched());
+        InOrder order = inOrder(userRepository, userWatchedRepository);
+        order.verify(userRepository, times(2)).deactivateById(1L);
+        order.verify(userWatchedRepository).deleteByUserIdAndMovieIdIn(1L, List.of(12L));
+        order.verify(userRepository).deleteRowById(1L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runTransactionsInline() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.getArgument(0, TransactionCallback.class).doInTransaction(null));
+        doAnswer(invocation -> {
+            invocation.getArgument(0, Consumer.class).accept((TransactionStatus) null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private UserDeletionJobDTO awaitFinished(UserDeletionJobDTO started) throws InterruptedException {
+        UserDeletionJobDTO job = started;
+        for (int attempt = 0; attempt < 200 && job.getFinishedAt() == null; attempt++) {
+            Thread.sleep(10);
+            job = userDeletionService.getJob(started.getUserId(), started.getJobId());
+        }
+        return job;
+    }
+}
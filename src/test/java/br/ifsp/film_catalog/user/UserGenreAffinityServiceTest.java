@@ -0,0 +1,135 @@
+package br.ifsp.film_catalog.user;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import br.ifsp.film_catalog.model.GenreCounts;
+import br.ifsp.film_catalog.model.UserGenreAffinity;
+import br.ifsp.film_catalog.repository.GenreRepository;
+import br.ifsp.film_catalog.repository.MovieRepository;
+import br.ifsp.film_catalog.repository.UserGenreAffinityRepository;
+import br.ifsp.film_catalog.service.UserGenreAffinityService;
+
+@ExtendWith(MockitoExtension.class)
+class UserGenreAffinityServiceTest {
+
+    private static final Long USER_ID = 1L;
+
+    @Mock private UserGenreAffinityRepository affinityRepository;
+    @Mock private MovieRepository movieRepository;
+    @Mock private GenreRepository genreRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private UserGenreAffinityService affinityService;
+
+    @BeforeEach
+    void setUp() {
+        affinityService = new UserGenreAffinityService(affinityRepository, movieRepository, genreRepository,
+                transactionManager);
+    }
+
+    @Test
+    void recordAdded_shouldAddOnePerGenreToAFreshProfile() {
+        UserGenreAffinity affinity = affinity(false, GenreCounts.of(Map.of(3L, 1L)));
+        when(affinityRepository.findForUpdate(USER_ID)).thenReturn(Optional.of(affinity));
+        when(movieRepository.findGenreIdsByMovieIdIn(List.of(10L, 11L))).thenReturn(List.of(3L, 5L, 3L));
+
+        affinityService.recordAdded(USER_ID, List.of(10L, 11L));
+
+        assertEquals(3, affinity.getGenreCounts().countOf(3L));
+        assertEquals(1, affinity.getGenreCounts().countOf(5L));
+        verify(affinityRepository).insertIfAbsent(USER_ID);
+    }
+
+    @Test
+    void recordRemoved_shouldSkipTheDeltaOfAStaleProfile() {
+        when(affinityRepository.findForUpdate(USER_ID)).thenReturn(Optional.of(affinity(true, GenreCounts.EMPTY)));
+
+        affinityService.recordRemoved(USER_ID, List.of(10L));
+
+        verify(movieRepository, never()).findGenreIdsByMovieIdIn(any());
+    }
+
+    @Test
+    void getTopGenreWeights_shouldReadAFreshProfileWithoutLockingOrRebuilding() {
+        when(affinityRepository.findById(USER_ID))
+                .thenReturn(Optional.of(affinity(false, GenreCounts.of(Map.of(3L, 4L, 5L, 2L)))));
+
+        Map<Long, Integer> weights = affinityService.getTopGenreWeights(USER_ID, 3);
+
+        assertThat(weights).containsExactly(Map.entry(3L, 4), Map.entry(5L, 2));
+        verify(affinityRepository, never()).findForUpdate(anyLong());
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void getTopGenreWeights_shouldRebuildAStaleProfileUnderTheLockInItsOwnTransaction() {
+        UserGenreAffinity affinity = affinity(true, GenreCounts.EMPTY);
+        when(affinityRepository.findById(USER_ID)).thenReturn(Optional.of(affinity));
+        when(affinityRepository.findForUpdate(USER_ID)).thenReturn(Optional.of(affinity));
+        when(affinityRepository.countWatchedByGenre(USER_ID)).thenReturn(List.of(total(3L, 2), total(5L, 1)));
+        when(affinityRepository.countFavoritesByGenre(USER_ID)).thenReturn(List.of(total(5L, 2)));
+
+        Map<Long, Integer> weights = affinityService.getTopGenreWeights(USER_ID, 3);
+
+        assertThat(weights).containsExactly(Map.entry(5L, 3), Map.entry(3L, 2));
+        assertFalse(affinity.isStale());
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        InOrder order = inOrder(transactionManager, affinityRepository);
+        order.verify(transactionManager).getTransaction(definition.capture());
+        order.verify(affinityRepository).findForUpdate(USER_ID);
+        order.verify(affinityRepository).countWatchedByGenre(USER_ID);
+        order.verify(transactionManager).commit(any());
+        assertEquals(TransactionDefinition.PROPAGATION_REQUIRES_NEW, definition.getValue().getPropagationBehavior());
+        assertEquals(TransactionDefinition.ISOLATION_READ_COMMITTED, definition.getValue().getIsolationLevel());
+    }
+
+    @Test
+    void getTopGenreWeights_shouldKeepAProfileRebuiltWhileWaitingForTheLock() {
+        when(affinityRepository.findById(USER_ID)).thenReturn(Optional.empty());
+        when(affinityRepository.findForUpdate(USER_ID))
+                .thenReturn(Optional.of(affinity(false, GenreCounts.of(Map.of(7L, 1L)))));
+
+        Map<Long, Integer> weights = affinityService.getTopGenreWeights(USER_ID, 3);
+
+        assertThat(weights).containsExactly(Map.entry(7L, 1));
+        verify(affinityRepository, never()).countWatchedByGenre(anyLong());
+    }
+
+    private static UserGenreAffinity affinity(boolean stale, GenreCounts counts) {
+        UserGenreAffinity affinity = new UserGenreAffinity();
+        affinity.setUserId(USER_ID);
+        affinity.setStale(stale);
+        affinity.setGenreCounts(counts);
+        return affinity;
+    }
+
+    private static UserGenreAffinityRepository.GenreTotal total(Long genreId, long total) {
+        return new UserGenreAffinityRepository.GenreTotal() {
+            public Long getGenreId() { return genreId; }
+            public long getTotal() { return total; }
+        };
+    }
+}
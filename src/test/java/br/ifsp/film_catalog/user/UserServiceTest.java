@@ -7,9 +7,14 @@ import br.ifsp.film_catalog.model.*;
 import br.ifsp.film_catalog.model.enums.RoleName;
 import br.ifsp.film_catalog.model.key.UserMovieId;
 import br.ifsp.film_catalog.repository.*;
+import br.ifsp.film_catalog.service.ReviewService;
+import br.ifsp.film_catalog.service.UserAvailabilityService;
+import br.ifsp.film_catalog.service.UserGenreAffinityService;
 import br.ifsp.film_catalog.service.UserService;
+import br.ifsp.film_catalog.service.UserStatsService;
 import br.ifsp.film_catalog.dto.*;
 import br.ifsp.film_catalog.dto.page.PagedResponse;
+import br.ifsp.film_catalog.mapper.MoviePageAssembler;
 import br.ifsp.film_catalog.mapper.PagedResponseMapper;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -42,6 +47,9 @@ class UserServiceTest {
     @Mock
     private UserWatchedRepository userWatchedRepository;
 
+    @Mock
+    private ReviewRepository reviewRepository;
+
     @Mock
     private PasswordEncoder passwordEncoder;
 
@@ -51,6 +59,21 @@ class UserServiceTest {
     @Mock
     private PagedResponseMapper pagedResponseMapper;
 
+    @Mock
+    private MoviePageAssembler moviePageAssembler;
+
+    @Mock
+    private UserGenreAffinityService userGenreAffinityService;
+
+    @Mock
+    private UserStatsService userStatsService;
+
+    @Mock
+    private ReviewService reviewService;
+
+    @Mock
+    private UserAvailabilityService userAvailabilityService;
+
     @InjectMocks
     private UserService userService;
 
@@ -136,24 +159,6 @@ class UserServiceTest {
         assertTrue(ex.getMessage().contains("Username 'john' already exists."));
     }
 
-    @Test
-    void testDeleteUser_success() {
-        when(userRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(userRepository).deleteById(1L);
-
-        assertDoesNotThrow(() -> userService.deleteUser(1L));
-
-        verify(userRepository).deleteById(1L);
-    }
-
-    @Test
-    void testDeleteUser_notFound() {
-        when(userRepository.existsById(1L)).thenReturn(false);
-
-        Exception ex = assertThrows(ResourceNotFoundException.class, () -> userService.deleteUser(1L));
-        assertTrue(ex.getMessage().contains("User not found with id"));
-    }
-
     @Test
     void testGetAllUsers() {
         Pageable pageable = PageRequest.of(0, 10);
@@ -208,4 +213,72 @@ class UserServiceTest {
         Exception ex = assertThrows(IllegalArgumentException.class, () -> userService.addFavoriteMovie(userId, movieId));
         assertTrue(ex.getMessage().contains("already a favorite"));
     }
+
+    @Test
+    void testAddWatchedMovies_reportsEachItem() {
+        Long userId = 1L;
+        List<Long> movieIds = List.of(10L, 11L, 12L, 10L);
+
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(movieRepository.findExistingIds(anyCollection())).thenReturn(List.of(10L, 11L));
+        when(userWatchedRepository.findMovieIdsByUserIdAndMovieIdIn(eq(userId), anyCollection())).thenReturn(List.of(11L));
+
+        BatchOperationResultDTO result = userService.addWatchedMovies(userId, movieIds);
+
+        assertEquals(4, result.getRequested());
+        assertEquals(1, result.getSucceeded());
+        assertEquals(List.of(
+                BatchOperationResultDTO.Status.ADDED,
+                BatchOperationResultDTO.Status.ALREADY_PRESENT,
+                BatchOperationResultDTO.Status.MOVIE_NOT_FOUND,
+                BatchOperationResultDTO.Status.DUPLICATE_IN_REQUEST),
+                result.getItems().stream().map(BatchOperationResultDTO.ItemResult::getStatus).toList());
+        verify(userWatchedRepository).batchInsert(eq(userId), eq(List.of(10L)), any());
+    }
+
+    @Test
+    void testGetGenreRecommendations_padsUnusedGenreSlots() {
+        Long userId = 1L;
+        Map<Long, Integer> weights = new LinkedHashMap<>();
+        weights.put(4L, 7);
+        weights.put(2L, 3);
+        Page<Movie> page = new PageImpl<>(List.of());
+
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(userGenreAffinityService.getTopGenreWeights(userId, 3)).thenReturn(weights);
+        when(movieRepository.findUnwatchedByWeightedGenres(userId, 4L, 7, 2L, 3, -1L, 0, PageRequest.of(1, 5))).thenReturn(page);
+
+        userService.getGenreRecommendations(userId, PageRequest.of(1, 5, Sort.by("title")));
+
+        verify(moviePageAssembler).toPagedResponse(page);
+    }
+
+    @Test
+    void testGetGenreRecommendations_withoutHistory() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userGenreAffinityService.getTopGenreWeights(1L, 3)).thenReturn(Map.of());
+
+        assertThrows(IllegalArgumentException.class, () -> userService.getGenreRecommendations(1L, PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void testRemoveWatchedMovie_deletesOnlyOwnReview() {
+        Long userId = 1L;
+        Long movieId = 10L;
+        UserMovieId watchedId = new UserMovieId(userId, movieId);
+        UserWatched watched = new UserWatched();
+        watched.setId(watchedId);
+        Review review = new Review(watched, "Great");
+        review.setId(99L);
+        watched.setReview(review);
+
+        when(userWatchedRepository.findById(watchedId)).thenReturn(Optional.of(watched));
+
+        userService.removeWatchedMovie(userId, movieId);
+
+        verify(reviewService).deleteReview(99L, userId);
+        verify(userWatchedRepository).delete(watched);
+        verify(userStatsService).watchedChanged(userId, List.of(movieId), -1);
+        verifyNoInteractions(reviewRepository);
+    }
 }
@@ -0,0 +1,174 @@
+package br.ifsp.film_catalog.user;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.ifsp.film_catalog.dto.WatchHistoryImportJobDTO;
+import br.ifsp.film_catalog.dto.WatchHistoryImportJobDTO.Reason;
+import br.ifsp.film_catalog.dto.WatchHistoryImportJobDTO.SkippedRow;
+import br.ifsp.film_catalog.model.enums.JobStatus;
+import br.ifsp.film_catalog.repository.MovieRepository;
+import br.ifsp.film_catalog.repository.ReviewRepository;
+import br.ifsp.film_catalog.repository.UserRepository;
+import br.ifsp.film_catalog.repository.UserWatchedRepository;
+import br.ifsp.film_catalog.service.UserGenreAffinityService;
+import br.ifsp.film_catalog.service.UserStatsService;
+import br.ifsp.film_catalog.service.WatchHistoryImportService;
+
+@ExtendWith(MockitoExtension.class)
+class WatchHistoryImportServiceTest {
+
+    @Mock private UserRepository userRepository;
+    @Mock private MovieRepository movieRepository;
+    @Mock private UserWatchedRepository userWatchedRepository;
+    @Mock private ReviewRepository reviewRepository;
+    @Mock private UserGenreAffinityService userGenreAffinityService;
+    @Mock private UserStatsService userStatsService;
+    @Mock private TransactionTemplate transactionTemplate;
+
+    private WatchHistoryImportService importService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        importService = new WatchHistoryImportService(userRepository, movieRepository, userWatchedRepository,
+                reviewRepository, userGenreAffinityService, userStatsService, transactionTemplate, 1, 10);
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(movieRepository.findAllTitles()).thenReturn(List.of(
+                title(10L, "Amélie", 2001), title(11L, "Parasite", 2019), title(12L, "Solaris", 1972),
+                title(13L, "Solaris", 1974), title(14L, "Dune", 2021)));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.getArgument(0, TransactionCallback.class).doInTransaction(null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        importService.shutdown();
+    }
+
+    @Test
+    void start_shouldReadHeaderColumnsInAnyOrderAndQuotedFields() throws InterruptedException {
+        String csv = "\uFEFFRating,Name,Year,Watched Date\n"
+                + "4.5,\"Amélie\",2001,2024-03-01\n"
+                + ",\"Parasite\",2019,2024-03-02 21:30:00\n";
+
+        WatchHistoryImportJobDTO job = awaitFinished(importService.start(1L, csv(csv)));
+
+        assertEquals(JobStatus.COMPLETED, job.getStatus());
+        assertEquals(2, job.getProcessedRows());
+        assertEquals(2, job.getImportedWatched());
+        assertEquals(1, job.getImportedReviews());
+        assertEquals(0, job.getSkippedRows());
+        verify(userWatchedRepository).batchInsert(1L, Map.of(
+                10L, LocalDateTime.of(2024, 3, 1, 0, 0),
+                11L, LocalDateTime.of(2024, 3, 2, 21, 30)));
+        verify(reviewRepository).batchInsertRatings(1L, Map.of(10L, 5));
+    }
+
+    @Test
+    void start_shouldSkipBadRowsWithTheirReasonAndImportTheRest() throws InterruptedException {
+        String csv = "Amélie,2001,2024-03-01,4\n"
+                + "Parasite,20x9,2024-03-01,4\n"
+                + "Dune,2021,yesterday,4\n"
+                + "Dune,2021,2024-03-01,9\n"
+                + ",2021,2024-03-01,3\n"
+                + "Solaris,1973,,\n"
+                + "Unknown Movie,1999,,\n"
+                + "amelie,2001,2024-03-02,5\n";
+
+        WatchHistoryImportJobDTO job = awaitFinished(importService.start(1L, csv(csv)));
+
+        assertEquals(JobStatus.COMPLETED, job.getStatus());
+        assertEquals(8, job.getProcessedRows());
+        assertEquals(1, job.getImportedWatched());
+        assertEquals(7, job.getSkippedRows());
+        assertThat(job.getSkipped()).extracting(SkippedRow::getLine, SkippedRow::getReason).containsExactly(
+                tuple(2L, Reason.INVALID_ROW), tuple(3L, Reason.INVALID_ROW), tuple(4L, Reason.INVALID_ROW),
+                tuple(5L, Reason.INVALID_ROW), tuple(6L, Reason.AMBIGUOUS_TITLE), tuple(7L, Reason.MOVIE_NOT_FOUND),
+                tuple(8L, Reason.DUPLICATE_IN_FILE));
+        verify(reviewRepository).batchInsertRatings(1L, Map.of(10L, 4));
+    }
+
+    @Test
+    void start_shouldFlushEveryBatchInItsOwnTransactionAndLeaveWatchedMoviesAlone() throws InterruptedException {
+        ReflectionTestUtils.setField(importService, "batchSize", 2);
+        when(userWatchedRepository.findMovieIdsByUserIdAndMovieIdIn(eq(1L), anyCollection()))
+                .thenReturn(List.of(11L), List.of());
+        String csv = "Amélie,2001,,3\nParasite,2019,,4\nDune,2021,,5\n";
+
+        WatchHistoryImportJobDTO job = awaitFinished(importService.start(1L, csv(csv)));
+
+        assertEquals(JobStatus.COMPLETED, job.getStatus());
+        assertEquals(2, job.getImportedWatched());
+        assertEquals(2, job.getImportedReviews());
+        assertEquals(1, job.getAlreadyWatched());
+        verify(transactionTemplate, times(2)).execute(any());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<Long, Integer>> ratings = ArgumentCaptor.forClass(Map.class);
+        verify(reviewRepository, times(2)).batchInsertRatings(eq(1L), ratings.capture());
+        assertThat(ratings.getAllValues()).containsExactly(Map.of(10L, 3), Map.of(14L, 5));
+        verify(userStatsService, times(2)).reviewsChanged(1L, 1, 0);
+    }
+
+    @Test
+    void start_shouldStopAtTheFailingBatchAndKeepEarlierOnes() throws InterruptedException {
+        ReflectionTestUtils.setField(importService, "batchSize", 1);
+        when(userWatchedRepository.findMovieIdsByUserIdAndMovieIdIn(eq(1L), anyCollection()))
+                .thenReturn(List.of())
+                .thenThrow(new IllegalStateException("Connection lost"));
+        String csv = "Amélie,2001,,\nParasite,2019,,\nDune,2021,,\n";
+
+        WatchHistoryImportJobDTO job = awaitFinished(importService.start(1L, csv(csv)));
+
+        assertEquals(JobStatus.FAILED, job.getStatus());
+        assertEquals(1, job.getImportedWatched());
+        assertThat(job.getError()).isNotNull();
+        verify(userWatchedRepository, times(1)).batchInsert(eq(1L), anyMap());
+    }
+
+    private static MockMultipartFile csv(String content) {
+        return new MockMultipartFile("file", "history.csv", "text/csv", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static MovieRepository.MovieTitle title(Long id, String title, int releaseYear) {
+        return new MovieRepository.MovieTitle() {
+            public Long getId() { return id; }
+            public String getTitle() { return title; }
+            public int getReleaseYear() { return releaseYear; }
+        };
+    }
+
+    private WatchHistoryImportJobDTO awaitFinished(WatchHistoryImportJobDTO started) throws InterruptedException {
+        WatchHistoryImportJobDTO job = started;
+        for (int attempt = 0; attempt < 200 && job.getFinishedAt() == null; attempt++) {
+            Thread.sleep(10);
+            job = importService.getJob(started.getUserId(), started.getJobId());
+        }
+        return job;
+    }
+}
@@ -0,0 +1,115 @@
+package br.ifsp.film_catalog.watchlist;
+
+import br.ifsp.film_catalog.dto.SharedWatchlistDTO;
+import br.ifsp.film_catalog.exception.ResourceNotFoundException;
+import br.ifsp.film_catalog.service.SharedWatchlistCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SharedWatchlistCacheTest {
+
+    @Test
+    void concurrentMisses_shouldLoadThePageOnce() throws Exception {
+        SharedWatchlistCache cache = new SharedWatchlistCache(10);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<SharedWatchlistDTO> slowLoader = () -> {
+            loads.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return SharedWatchlistDTO.builder().name("Top").build();
+        };
+
+        ExecutorService readers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<SharedWatchlistDTO>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(readers.submit(() -> cache.get("token", null, 20, slowLoader)));
+            }
+            Thread.sleep(100); // Let every reader reach the cache before the load finishes
+            release.countDown();
+            for (Future<SharedWatchlistDTO> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS).getName()).isEqualTo("Top");
+            }
+        } finally {
+            readers.shutdownNow();
+        }
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void invalidate_shouldServeANewLoadAndKeepOtherListsCached() {
+        SharedWatchlistCache cache = new SharedWatchlistCache(10);
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<SharedWatchlistDTO> loader = () -> SharedWatchlistDTO.builder().name("v" + loads.incrementAndGet()).build();
+
+        assertThat(cache.get("a", null, 20, loader).getName()).isEqualTo("v1");
+        assertThat(cache.get("b", null, 20, loader).getName()).isEqualTo("v2");
+        assertThat(cache.get("a", null, 20, loader).getName()).isEqualTo("v1");
+
+        cache.invalidate("a");
+
+        assertThat(cache.get("a", null, 20, loader).getName()).isEqualTo("v3");
+        assertThat(cache.get("b", null, 20, loader).getName()).isEqualTo("v2");
+    }
+
+    @Test
+    void invalidate_shouldDropAPageStillLoading() throws Exception {
+        SharedWatchlistCache cache = new SharedWatchlistCache(10);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<SharedWatchlistDTO> slowLoader = () -> {
+            loading.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return SharedWatchlistDTO.builder().name("Before unsharing").build();
+        };
+
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        try {
+            Future<SharedWatchlistDTO> inFlight = reader.submit(() -> cache.get("token", null, 20, slowLoader));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            cache.invalidate("token");
+            release.countDown();
+            assertThat(inFlight.get(5, TimeUnit.SECONDS).getName()).isEqualTo("Before unsharing");
+        } finally {
+            reader.shutdownNow();
+        }
+
+        assertThat(cache.size()).isZero();
+        assertThat(cache.get("token", null, 20, () -> SharedWatchlistDTO.builder().name("v" + loads.incrementAndGet()).build())
+                .getName()).isEqualTo("v1");
+    }
+
+    @Test
+    void failedLoad_shouldNotBeCached() {
+        SharedWatchlistCache cache = new SharedWatchlistCache(10);
+
+        assertThatThrownBy(() -> cache.get("missing", null, 20, () -> {
+            throw new ResourceNotFoundException("Shared watchlist not found.");
+        })).isInstanceOf(ResourceNotFoundException.class);
+
+        assertThat(cache.size()).isZero();
+        assertThat(cache.get("missing", null, 20, () -> SharedWatchlistDTO.builder().name("Now shared").build()).getName())
+                .isEqualTo("Now shared");
+    }
+}
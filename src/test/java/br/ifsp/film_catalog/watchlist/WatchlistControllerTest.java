@@ -168,7 +168,11 @@ class WatchlistControllerTest {
         mockMvc.perform(post("/api/users/{userId}/watchlists/{watchlistId}/movies/{movieId}",
                 user.getId(), watchlist.getId(), movie.getId()))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.movies[0].title").value("Test Movie"));
+                .andExpect(jsonPath("$.id").value(watchlist.getId()));
+
+        mockMvc.perform(get("/api/users/{userId}/watchlists/{watchlistId}/movies", user.getId(), watchlist.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title").value("Test Movie"));
     }
 
     @Test
@@ -1,17 +1,34 @@
 package br.ifsp.film_catalog.watchlist;
 
+import br.ifsp.film_catalog.dto.BatchOperationResultDTO;
+import br.ifsp.film_catalog.dto.BatchOperationResultDTO.Status;
 import br.ifsp.film_catalog.dto.MovieResponseDTO;
+import br.ifsp.film_catalog.dto.SharedWatchlistDTO;
+import br.ifsp.film_catalog.dto.WatchlistBatchRequestDTO;
+import br.ifsp.film_catalog.dto.WatchlistBatchResultDTO;
+import br.ifsp.film_catalog.dto.WatchlistMoveRequestDTO;
+import br.ifsp.film_catalog.dto.WatchlistSetOperationRequestDTO;
+import br.ifsp.film_catalog.dto.WatchlistShareDTO;
+import br.ifsp.film_catalog.dto.page.CursorPagedResponse;
 import br.ifsp.film_catalog.dto.WatchlistRequestDTO;
 import br.ifsp.film_catalog.dto.WatchlistResponseDTO;
+import br.ifsp.film_catalog.dto.WatchlistSummaryDTO;
 import br.ifsp.film_catalog.dto.page.PagedResponse;
 import br.ifsp.film_catalog.exception.ResourceNotFoundException;
+import br.ifsp.film_catalog.mapper.MoviePageAssembler;
 import br.ifsp.film_catalog.mapper.PagedResponseMapper;
 import br.ifsp.film_catalog.model.Movie;
 import br.ifsp.film_catalog.model.User;
 import br.ifsp.film_catalog.model.Watchlist;
+import br.ifsp.film_catalog.model.WatchlistItem;
+import br.ifsp.film_catalog.model.enums.WatchlistSetOperation;
+import br.ifsp.film_catalog.model.key.WatchlistMovieId;
 import br.ifsp.film_catalog.repository.MovieRepository;
 import br.ifsp.film_catalog.repository.UserRepository;
 import br.ifsp.film_catalog.repository.WatchlistRepository;
+import br.ifsp.film_catalog.repository.WatchlistRepository.WatchlistSummary;
+import br.ifsp.film_catalog.service.SharedWatchlistCache;
+import br.ifsp.film_catalog.service.UserStatsService;
 import br.ifsp.film_catalog.service.WatchlistService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -25,12 +42,16 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 
 import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -38,6 +59,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -61,6 +83,18 @@ class WatchlistServiceTest {
     @Mock
     private PagedResponseMapper pagedResponseMapper;
 
+    @Mock
+    private UserStatsService userStatsService;
+
+    @Mock
+    private MoviePageAssembler moviePageAssembler;
+
+    @Mock
+    private SharedWatchlistCache sharedWatchlistCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private WatchlistService watchlistService;
 
@@ -101,10 +135,6 @@ class WatchlistServiceTest {
         watchlistResponseDTO1.setName("My Sci-Fi");
         watchlistResponseDTO1.setDescription("Best sci-fi movies");
         watchlistResponseDTO1.setUserId(user1.getId());
-        MovieResponseDTO movieResponseDTO1 = new MovieResponseDTO(); // Supondo que MovieResponseDTO tenha construtor e setters
-        movieResponseDTO1.setId(movie1.getId());
-        movieResponseDTO1.setTitle(movie1.getTitle());
-        watchlistResponseDTO1.setMovies(Set.of(movieResponseDTO1));
 
 
         pageable = PageRequest.of(0, 10);
@@ -146,7 +176,6 @@ class WatchlistServiceTest {
         expectedResponse.setName(savedWatchlist.getName());
         expectedResponse.setDescription(savedWatchlist.getDescription());
         expectedResponse.setUserId(user1.getId());
-        expectedResponse.setMovies(new HashSet<>());
 
         when(modelMapper.map(savedWatchlist, WatchlistResponseDTO.class)).thenReturn(expectedResponse);
 
@@ -155,7 +184,6 @@ class WatchlistServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.getName()).isEqualTo(watchlistRequestDTO1.getName());
         assertThat(result.getUserId()).isEqualTo(user1.getId());
-        assertThat(result.getMovies()).isEmpty();
         verify(userRepository).findById(user1.getId());
         verify(watchlistRepository).save(any(Watchlist.class));
         verify(modelMapper).map(eq(watchlistRequestDTO1), any(Watchlist.class));
@@ -173,24 +201,39 @@ class WatchlistServiceTest {
     }
 
     @Test
-    void getWatchlistsByUser_whenUserExists_shouldReturnPagedWatchlists() {
-        Page<Watchlist> watchlistPage = new PageImpl<>(List.of(watchlist1), pageable, 1);
-        PagedResponse<WatchlistResponseDTO> expectedPagedResponse = new PagedResponse<>(
-                List.of(watchlistResponseDTO1), 0, 10, 1, 1, true);
+    void getWatchlistsByUser_whenUserExists_shouldReturnPagedSummaries() {
+        WatchlistSummary summary = mock(WatchlistSummary.class);
+        when(summary.getId()).thenReturn(watchlist1.getId());
+        when(summary.getName()).thenReturn(watchlist1.getName());
+        when(summary.getMovieCount()).thenReturn(6L);
+        when(summary.getTotalRuntime()).thenReturn(720L);
+        when(summary.getMovieIds()).thenReturn("3,5,8,13,21,34");
+        Page<WatchlistSummary> summaryPage = new PageImpl<>(List.of(summary), pageable, 1);
 
         when(userRepository.existsById(user1.getId())).thenReturn(true);
-        when(watchlistRepository.findAllByUser_Id(user1.getId(), pageable)).thenReturn(watchlistPage);
-        when(pagedResponseMapper.toPagedResponse(eq(watchlistPage), eq(WatchlistResponseDTO.class)))
-             .thenReturn(expectedPagedResponse);
-
+        when(watchlistRepository.findSummariesByUserId(eq(user1.getId()), any(Pageable.class))).thenReturn(summaryPage);
 
-        PagedResponse<WatchlistResponseDTO> result = watchlistService.getWatchlistsByUser(user1.getId(), pageable);
+        PagedResponse<WatchlistSummaryDTO> result = watchlistService.getWatchlistsByUser(user1.getId(), pageable);
 
-        assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(1);
-        assertThat(result.getContent().get(0).getName()).isEqualTo(watchlist1.getName());
-        verify(userRepository).existsById(user1.getId());
-        verify(watchlistRepository).findAllByUser_Id(user1.getId(), pageable);
+        WatchlistSummaryDTO dto = result.getContent().get(0);
+        assertThat(dto.getName()).isEqualTo(watchlist1.getName());
+        assertThat(dto.getUserId()).isEqualTo(user1.getId());
+        assertThat(dto.getMovieCount()).isEqualTo(6);
+        assertThat(dto.getTotalRuntime()).isEqualTo(720);
+        assertThat(dto.getCoverMovieIds()).containsExactly(3L, 5L, 8L, 13L);
+        assertThat(result.getTotalElements()).isEqualTo(1);
+        verify(watchlistRepository, never()).findAllByUser_Id(anyLong(), any(Pageable.class));
+        verifyNoInteractions(pagedResponseMapper);
+    }
+
+    @Test
+    void getWatchlistsByUser_whenSortingByUnknownProperty_shouldThrowIllegalArgumentException() {
+        when(userRepository.existsById(user1.getId())).thenReturn(true);
+
+        assertThatThrownBy(() -> watchlistService.getWatchlistsByUser(user1.getId(), PageRequest.of(0, 10, Sort.by("movies"))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Cannot sort watchlists by 'movies'");
     }
 
     @Test
@@ -200,12 +243,12 @@ class WatchlistServiceTest {
         assertThatThrownBy(() -> watchlistService.getWatchlistsByUser(99L, pageable))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessageContaining("User not found with id: 99");
-        verify(watchlistRepository, never()).findAllByUser_Id(anyLong(), any(Pageable.class));
+        verify(watchlistRepository, never()).findSummariesByUserId(anyLong(), any(Pageable.class));
     }
 
     @Test
     void getWatchlistByIdAndUser_whenExists_shouldReturnWatchlist() {
-        when(watchlistRepository.findByIdAndUserId(watchlist1.getId(), user1.getId())).thenReturn(Optional.of(watchlist1));
+        when(watchlistRepository.findByIdAndUser_Id(watchlist1.getId(), user1.getId())).thenReturn(Optional.of(watchlist1));
         when(modelMapper.map(watchlist1, WatchlistResponseDTO.class)).thenReturn(watchlistResponseDTO1);
 
 
@@ -215,18 +258,45 @@ class WatchlistServiceTest {
         assertThat(result.getId()).isEqualTo(watchlist1.getId());
         assertThat(result.getName()).isEqualTo(watchlist1.getName());
         assertThat(result.getUserId()).isEqualTo(user1.getId());
-        verify(watchlistRepository).findByIdAndUserId(watchlist1.getId(), user1.getId());
+        verify(watchlistRepository).findByIdAndUser_Id(watchlist1.getId(), user1.getId());
     }
 
     @Test
     void getWatchlistByIdAndUser_whenNotFound_shouldThrowResourceNotFoundException() {
-        when(watchlistRepository.findByIdAndUserId(999L, user1.getId())).thenReturn(Optional.empty());
+        when(watchlistRepository.findByIdAndUser_Id(999L, user1.getId())).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> watchlistService.getWatchlistByIdAndUser(user1.getId(), 999L))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessageContaining("Watchlist not found with id: 999 for user: " + user1.getId());
     }
 
+    @Test
+    void getWatchlistMovies_whenExists_shouldPageTheJoinTable() {
+        Pageable sorted = PageRequest.of(0, 10, Sort.by("title").and(Sort.by("id")));
+        Page<Movie> moviePage = new PageImpl<>(List.of(movie1), sorted, 1);
+        MovieResponseDTO movieDTO = new MovieResponseDTO();
+        movieDTO.setId(movie1.getId());
+        PagedResponse<MovieResponseDTO> expected = new PagedResponse<>(List.of(movieDTO), 0, 10, 1, 1, true);
+
+        when(watchlistRepository.findByIdAndUser_Id(watchlist1.getId(), user1.getId())).thenReturn(Optional.of(watchlist1));
+        when(moviePageAssembler.movieSort(pageable)).thenReturn(sorted);
+        when(watchlistRepository.findMoviesByWatchlistId(watchlist1.getId(), sorted)).thenReturn(moviePage);
+        when(moviePageAssembler.toPagedResponse(moviePage)).thenReturn(expected);
+
+        PagedResponse<MovieResponseDTO> result = watchlistService.getWatchlistMovies(user1.getId(), watchlist1.getId(), pageable);
+
+        assertThat(result.getContent()).extracting(MovieResponseDTO::getId).containsExactly(movie1.getId());
+    }
+
+    @Test
+    void getWatchlistMovies_whenWatchlistNotFound_shouldThrowResourceNotFoundException() {
+        when(watchlistRepository.findByIdAndUser_Id(999L, user1.getId())).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> watchlistService.getWatchlistMovies(user1.getId(), 999L, pageable))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verify(watchlistRepository, never()).findMoviesByWatchlistId(anyLong(), any(Pageable.class));
+    }
+
     @Test
     void updateWatchlist_whenExists_shouldUpdateAndReturnWatchlist() {
         WatchlistRequestDTO updateRequest = new WatchlistRequestDTO("Updated Name", "Updated Desc");
@@ -244,7 +314,7 @@ class WatchlistServiceTest {
         expectedResponse.setUserId(user1.getId());
         // Not mapping movies for simplicity
 
-        when(watchlistRepository.findByIdAndUserId(watchlist1.getId(), user1.getId())).thenReturn(Optional.of(watchlist1));
+        when(watchlistRepository.findByIdAndUser_Id(watchlist1.getId(), user1.getId())).thenReturn(Optional.of(watchlist1));
         when(watchlistRepository.save(any(Watchlist.class))).thenReturn(updatedWatchlistEntity);
         when(modelMapper.map(updatedWatchlistEntity, WatchlistResponseDTO.class)).thenReturn(expectedResponse);
 
@@ -261,7 +331,7 @@ class WatchlistServiceTest {
     @Test
     void updateWatchlist_whenNotFound_shouldThrowResourceNotFoundException() {
         WatchlistRequestDTO updateRequest = new WatchlistRequestDTO("Updated Name", "Updated Desc");
-        when(watchlistRepository.findByIdAndUserId(999L, user1.getId())).thenReturn(Optional.empty());
+        when(watchlistRepository.findByIdAndUser_Id(999L, user1.getId())).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> watchlistService.updateWatchlist(user1.getId(), 999L, updateRequest))
                 .isInstanceOf(ResourceNotFoundException.class);
@@ -270,7 +340,7 @@ class WatchlistServiceTest {
 
     @Test
     void deleteWatchlist_whenExists_shouldDeleteWatchlist() {
-        when(watchlistRepository.findByIdAndUserId(watchlist1.getId(), user1.getId())).thenReturn(Optional.of(watchlist1));
+        when(watchlistRepository.findByIdAndUser_Id(watchlist1.getId(), user1.getId())).thenReturn(Optional.of(watchlist1));
         doNothing().when(watchlistRepository).delete(watchlist1);
 
         watchlistService.deleteWatchlist(user1.getId(), watchlist1.getId());
@@ -280,7 +350,7 @@ class WatchlistServiceTest {
 
     @Test
     void deleteWatchlist_whenNotFound_shouldThrowResourceNotFoundException() {
-        when(watchlistRepository.findByIdAndUserId(999L, user1.getId())).thenReturn(Optional.empty());
+        when(watchlistRepository.findByIdAndUser_Id(999L, user1.getId())).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> watchlistService.deleteWatchlist(user1.getId(), 999L))
                 .isInstanceOf(ResourceNotFoundException.class);
@@ -288,105 +358,88 @@ class WatchlistServiceTest {
     }
 
     @Test
-    void addMovieToWatchlist_whenMovieNotPresent_shouldAddAndReturnWatchlist() {
-        Watchlist watchlistCopy = new Watchlist();
-        watchlistCopy.setId(watchlist1.getId());
-        watchlistCopy.setName(watchlist1.getName());
-        watchlistCopy.setUser(user1);
-        watchlistCopy.setMovies(new HashSet<>(Set.of(movie1)));
-
-        Watchlist watchlistAfterAdd = new Watchlist();
-        watchlistAfterAdd.setId(watchlist1.getId());
-        watchlistAfterAdd.setName(watchlist1.getName());
-        watchlistAfterAdd.setUser(user1);
-        watchlistAfterAdd.setMovies(new HashSet<>(Set.of(movie1, movie2)));
-
+    void addMovieToWatchlist_whenMovieNotPresent_shouldInsertJoinRowAndReturnWatchlist() {
         WatchlistResponseDTO expectedResponse = new WatchlistResponseDTO();
-        expectedResponse.setId(watchlistAfterAdd.getId());
-        expectedResponse.setName(watchlistAfterAdd.getName());
+        expectedResponse.setId(watchlist1.getId());
+        expectedResponse.setName(watchlist1.getName());
         expectedResponse.setUserId(user1.getId());
         // Not mapping movies for simplicity
 
-        when(watchlistRepository.findByIdAndUserId(watchlist1.getId(), user1.getId())).thenReturn(Optional.of(watchlistCopy));
-        when(movieRepository.findById(movie2.getId())).thenReturn(Optional.of(movie2));
-        when(watchlistRepository.save(any(Watchlist.class))).thenReturn(watchlistAfterAdd);
-        when(modelMapper.map(watchlistAfterAdd, WatchlistResponseDTO.class)).thenReturn(expectedResponse);
+        when(watchlistRepository.findForUpdate(watchlist1.getId(), user1.getId())).thenReturn(Optional.of(watchlist1));
+        when(movieRepository.existsById(movie2.getId())).thenReturn(true);
+        when(watchlistRepository.findMovieIdsByWatchlistIdAndMovieIdIn(watchlist1.getId(), List.of(movie2.getId())))
+                .thenReturn(List.of());
+        when(watchlistRepository.addMovie(watchlist1.getId(), movie2.getId())).thenReturn(1);
+        when(modelMapper.map(watchlist1, WatchlistResponseDTO.class)).thenReturn(expectedResponse);
 
         WatchlistResponseDTO result = watchlistService.addMovieToWatchlist(user1.getId(), watchlist1.getId(), movie2.getId());
 
         assertThat(result).isNotNull();
-        verify(watchlistRepository).save(argThat(wl -> wl.getMovies().contains(movie2)));
+        verify(watchlistRepository).addMovie(watchlist1.getId(), movie2.getId());
+        verify(watchlistRepository, never()).save(any(Watchlist.class));
     }
 
     @Test
-    void addMovieToWatchlist_whenMovieAlreadyPresent_shouldNotAddAgainAndReturnWatchlist() {
+    void addMovieToWatchlist_whenMovieAlreadyPresent_shouldLeaveListUnchangedAndReturnWatchlist() {
         WatchlistResponseDTO expectedResponse = new WatchlistResponseDTO();
         expectedResponse.setId(watchlist1.getId());
         expectedResponse.setName(watchlist1.getName());
         expectedResponse.setUserId(user1.getId());
         // Not mapping movies for simplicity
 
-        when(watchlistRepository.findByIdAndUserId(watchlist1.getId(), user1.getId())).thenReturn(Optional.of(watchlist1));
-        when(movieRepository.findById(movie1.getId())).thenReturn(Optional.of(movie1));
+        when(watchlistRepository.findForUpdate(watchlist1.getId(), user1.getId())).thenReturn(Optional.of(watchlist1));
+        when(movieRepository.existsById(movie1.getId())).thenReturn(true);
+        when(watchlistRepository.findMovieIdsByWatchlistIdAndMovieIdIn(watchlist1.getId(), List.of(movie1.getId())))
+                .thenReturn(List.of(movie1.getId()));
         when(modelMapper.map(watchlist1, WatchlistResponseDTO.class)).thenReturn(expectedResponse);
 
         WatchlistResponseDTO result = watchlistService.addMovieToWatchlist(user1.getId(), watchlist1.getId(), movie1.getId());
 
         assertThat(result).isNotNull();
+        verify(watchlistRepository, never()).addMovie(anyLong(), anyLong());
         verify(watchlistRepository, never()).save(any(Watchlist.class));
     }
 
     @Test
     void addMovieToWatchlist_whenWatchlistNotFound_shouldThrowResourceNotFoundException() {
-        when(watchlistRepository.findByIdAndUserId(999L, user1.getId())).thenReturn(Optional.empty());
+        when(watchlistRepository.findForUpdate(999L, user1.getId())).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> watchlistService.addMovieToWatchlist(user1.getId(), 999L, movie1.getId()))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessageContaining("Watchlist not found");
-        verify(movieRepository, never()).findById(anyLong());
-        verify(watchlistRepository, never()).save(any(Watchlist.class));
+        verify(movieRepository, never()).existsById(anyLong());
+        verify(watchlistRepository, never()).addMovie(anyLong(), anyLong());
     }
 
     @Test
     void addMovieToWatchlist_whenMovieNotFound_shouldThrowResourceNotFoundException() {
-        when(watchlistRepository.findByIdAndUserId(watchlist1.getId(), user1.getId())).thenReturn(Optional.of(watchlist1));
-        when(movieRepository.findById(990L)).thenReturn(Optional.empty());
+        when(watchlistRepository.findForUpdate(watchlist1.getId(), user1.getId())).thenReturn(Optional.of(watchlist1));
+        when(movieRepository.existsById(990L)).thenReturn(false);
 
         assertThatThrownBy(() -> watchlistService.addMovieToWatchlist(user1.getId(), watchlist1.getId(), 990L))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessageContaining("Movie not found");
-        verify(watchlistRepository, never()).save(any(Watchlist.class));
+        verify(watchlistRepository, never()).addMovie(anyLong(), anyLong());
     }
 
     @Test
-    void removeMovieFromWatchlist_whenMoviePresent_shouldRemoveAndReturnWatchlist() {
-        Watchlist watchlistBeforeRemove = new Watchlist();
-        watchlistBeforeRemove.setId(watchlist1.getId());
-        watchlistBeforeRemove.setName(watchlist1.getName());
-        watchlistBeforeRemove.setUser(user1);
-        watchlistBeforeRemove.setMovies(new HashSet<>(Set.of(movie1)));
-
-        Watchlist watchlistAfterRemove = new Watchlist();
-        watchlistAfterRemove.setId(watchlist1.getId());
-        watchlistAfterRemove.setName(watchlist1.getName());
-        watchlistAfterRemove.setUser(user1);
-        watchlistAfterRemove.setMovies(new HashSet<>());
-
+    void removeMovieFromWatchlist_whenMoviePresent_shouldDeleteJoinRowAndReturnWatchlist() {
         WatchlistResponseDTO expectedResponse = new WatchlistResponseDTO();
-        expectedResponse.setId(watchlistAfterRemove.getId());
-        expectedResponse.setName(watchlistAfterRemove.getName());
+        expectedResponse.setId(watchlist1.getId());
+        expectedResponse.setName(watchlist1.getName());
         expectedResponse.setUserId(user1.getId());
         // Not mapping movies for simplicity
 
-        when(watchlistRepository.findByIdAndUserId(watchlist1.getId(), user1.getId())).thenReturn(Optional.of(watchlistBeforeRemove));
-        when(movieRepository.findById(movie1.getId())).thenReturn(Optional.of(movie1));
-        when(watchlistRepository.save(any(Watchlist.class))).thenReturn(watchlistAfterRemove);
-        when(modelMapper.map(watchlistAfterRemove, WatchlistResponseDTO.class)).thenReturn(expectedResponse);
+        when(watchlistRepository.findByIdAndUser_Id(watchlist1.getId(), user1.getId())).thenReturn(Optional.of(watchlist1));
+        when(movieRepository.existsById(movie1.getId())).thenReturn(true);
+        when(watchlistRepository.removeMovie(watchlist1.getId(), movie1.getId())).thenReturn(1);
+        when(modelMapper.map(watchlist1, WatchlistResponseDTO.class)).thenReturn(expectedResponse);
 
         WatchlistResponseDTO result = watchlistService.removeMovieFromWatchlist(user1.getId(), watchlist1.getId(), movie1.getId());
 
         assertThat(result).isNotNull();
-        verify(watchlistRepository).save(argThat(wl -> wl.getMovies().isEmpty()));
+        verify(watchlistRepository).removeMovie(watchlist1.getId(), movie1.getId());
+        verify(watchlistRepository, never()).save(any(Watchlist.class));
     }
 
     @Test
@@ -397,34 +450,248 @@ class WatchlistServiceTest {
         expectedResponse.setUserId(user1.getId());
         // Not mapping movies for simplicity
 
-        when(watchlistRepository.findByIdAndUserId(watchlist1.getId(), user1.getId())).thenReturn(Optional.of(watchlist1));
-        when(movieRepository.findById(movie2.getId())).thenReturn(Optional.of(movie2));
-        when(watchlistRepository.save(watchlist1)).thenReturn(watchlist1);
+        when(watchlistRepository.findByIdAndUser_Id(watchlist1.getId(), user1.getId())).thenReturn(Optional.of(watchlist1));
+        when(movieRepository.existsById(movie2.getId())).thenReturn(true);
+        when(watchlistRepository.removeMovie(watchlist1.getId(), movie2.getId())).thenReturn(0);
         when(modelMapper.map(watchlist1, WatchlistResponseDTO.class)).thenReturn(expectedResponse);
 
         WatchlistResponseDTO result = watchlistService.removeMovieFromWatchlist(user1.getId(), watchlist1.getId(), movie2.getId());
 
         assertThat(result).isNotNull();
-        verify(watchlistRepository).save(watchlist1);
+        verify(watchlistRepository, never()).save(any(Watchlist.class));
     }
 
     @Test
     void removeMovieFromWatchlist_whenWatchlistNotFound_shouldThrowResourceNotFoundException() {
-        when(watchlistRepository.findByIdAndUserId(999L, user1.getId())).thenReturn(Optional.empty());
+        when(watchlistRepository.findByIdAndUser_Id(999L, user1.getId())).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> watchlistService.removeMovieFromWatchlist(user1.getId(), 999L, movie1.getId()))
                 .isInstanceOf(ResourceNotFoundException.class);
-        verify(movieRepository, never()).findById(anyLong());
-        verify(watchlistRepository, never()).save(any(Watchlist.class));
+        verify(movieRepository, never()).existsById(anyLong());
+        verify(watchlistRepository, never()).removeMovie(anyLong(), anyLong());
     }
 
     @Test
     void removeMovieFromWatchlist_whenMovieNotFound_shouldThrowResourceNotFoundException() {
-        when(watchlistRepository.findByIdAndUserId(watchlist1.getId(), user1.getId())).thenReturn(Optional.of(watchlist1));
-        when(movieRepository.findById(990L)).thenReturn(Optional.empty());
+        when(watchlistRepository.findByIdAndUser_Id(watchlist1.getId(), user1.getId())).thenReturn(Optional.of(watchlist1));
+        when(movieRepository.existsById(990L)).thenReturn(false);
 
         assertThatThrownBy(() -> watchlistService.removeMovieFromWatchlist(user1.getId(), watchlist1.getId(), 990L))
                 .isInstanceOf(ResourceNotFoundException.class);
+        verify(watchlistRepository, never()).removeMovie(anyLong(), anyLong());
+    }
+
+    @Test
+    void applyBatch_shouldInsertAndDeleteOnlyWhatChangesAndReportEachId() {
+        Long watchlistId = watchlist1.getId();
+        when(watchlistRepository.findForUpdate(watchlistId, user1.getId())).thenReturn(Optional.of(watchlist1));
+        when(movieRepository.findExistingIds(Set.of(1L, 2L, 3L))).thenReturn(List.of(1L, 2L));
+        when(watchlistRepository.findMovieIdsByWatchlistIdAndMovieIdIn(watchlistId, Set.of(1L, 2L))).thenReturn(List.of(2L));
+        when(watchlistRepository.findMovieIdsByWatchlistIdAndMovieIdIn(watchlistId, Set.of(7L, 8L))).thenReturn(List.of(7L));
+        WatchlistBatchRequestDTO request = new WatchlistBatchRequestDTO(List.of(1L, 2L, 3L, 1L), List.of(7L, 8L));
+
+        WatchlistBatchResultDTO result = watchlistService.applyBatch(user1.getId(), watchlistId, request);
+
+        verify(watchlistRepository).addMovies(watchlistId, List.of(1L));
+        verify(watchlistRepository).removeMovies(watchlistId, Set.of(7L));
+        assertThat(result.getAdded().getSucceeded()).isEqualTo(1);
+        assertThat(result.getAdded().getItems()).extracting(BatchOperationResultDTO.ItemResult::getStatus)
+                .containsExactly(Status.ADDED, Status.ALREADY_PRESENT, Status.MOVIE_NOT_FOUND, Status.DUPLICATE_IN_REQUEST);
+        assertThat(result.getRemoved().getSucceeded()).isEqualTo(1);
+        assertThat(result.getRemoved().getItems()).extracting(BatchOperationResultDTO.ItemResult::getStatus)
+                .containsExactly(Status.REMOVED, Status.NOT_PRESENT);
+    }
+
+    @Test
+    void applyBatch_whenMovieIsAddedAndRemoved_shouldThrowIllegalArgumentException() {
+        WatchlistBatchRequestDTO request = new WatchlistBatchRequestDTO(List.of(1L, 2L), List.of(2L));
+
+        assertThatThrownBy(() -> watchlistService.applyBatch(user1.getId(), watchlist1.getId(), request))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("[2]");
+        verify(watchlistRepository, never()).addMovies(anyLong(), any());
+        verify(watchlistRepository, never()).removeMovies(anyLong(), any());
+    }
+
+    @Test
+    void moveMovie_shouldWriteOnlyTheMovedRowBetweenItsNewNeighbours() {
+        Long watchlistId = watchlist1.getId();
+        when(watchlistRepository.findForUpdate(watchlistId, user1.getId())).thenReturn(Optional.of(watchlist1));
+        when(watchlistRepository.findPosition(watchlistId, 30L)).thenReturn(Optional.of(3072L));
+        when(watchlistRepository.findPosition(watchlistId, 10L)).thenReturn(Optional.of(1024L));
+        when(watchlistRepository.findNextPositions(watchlistId, 30L, 1024L, 10L, PageRequest.of(0, 1))).thenReturn(List.of(2048L));
+
+        watchlistService.moveMovie(user1.getId(), watchlistId, 30L, new WatchlistMoveRequestDTO(10L));
+
+        verify(watchlistRepository).updatePosition(watchlistId, 30L, 1536L);
+        verify(watchlistRepository, never()).rebalancePositions(anyLong());
+    }
+
+    @Test
+    void moveMovie_whenNeighboursHaveNoRoom_shouldRebalanceOnceThenMove() {
+        Long watchlistId = watchlist1.getId();
+        when(watchlistRepository.findForUpdate(watchlistId, user1.getId())).thenReturn(Optional.of(watchlist1));
+        when(watchlistRepository.findPosition(watchlistId, 30L)).thenReturn(Optional.of(5000L));
+        when(watchlistRepository.findPosition(watchlistId, 10L)).thenReturn(Optional.of(1024L), Optional.of(1024L));
+        when(watchlistRepository.findNextPositions(watchlistId, 30L, 1024L, 10L, PageRequest.of(0, 1)))
+                .thenReturn(List.of(1025L), List.of(2048L));
+
+        watchlistService.moveMovie(user1.getId(), watchlistId, 30L, new WatchlistMoveRequestDTO(10L));
+
+        verify(watchlistRepository).rebalancePositions(watchlistId);
+        verify(watchlistRepository).updatePosition(watchlistId, 30L, 1536L);
+    }
+
+    @Test
+    void moveMovie_whenMovieIsNotInList_shouldThrowResourceNotFoundException() {
+        when(watchlistRepository.findForUpdate(watchlist1.getId(), user1.getId())).thenReturn(Optional.of(watchlist1));
+        when(watchlistRepository.findPosition(watchlist1.getId(), 30L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> watchlistService.moveMovie(user1.getId(), watchlist1.getId(), 30L, new WatchlistMoveRequestDTO(null)))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("Movie with id 30 is not in watchlist");
+        verify(watchlistRepository, never()).updatePosition(anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void getRankedWatchlistMovies_shouldReturnRankOrderAndCursorOfLastItem() {
+        Long watchlistId = watchlist1.getId();
+        WatchlistItem first = new WatchlistItem();
+        first.setId(new WatchlistMovieId(watchlistId, movie2.getId()));
+        first.setPosition(1024L);
+        WatchlistItem second = new WatchlistItem();
+        second.setId(new WatchlistMovieId(watchlistId, movie1.getId()));
+        second.setPosition(2048L);
+        WatchlistItem extra = new WatchlistItem();
+        extra.setId(new WatchlistMovieId(watchlistId, 99L));
+        extra.setPosition(3072L);
+        MovieResponseDTO dto1 = new MovieResponseDTO();
+        dto1.setId(movie1.getId());
+        MovieResponseDTO dto2 = new MovieResponseDTO();
+        dto2.setId(movie2.getId());
+
+        when(watchlistRepository.findByIdAndUser_Id(watchlistId, user1.getId())).thenReturn(Optional.of(watchlist1));
+        when(watchlistRepository.findItemsAfter(watchlistId, Long.MIN_VALUE, Long.MIN_VALUE, PageRequest.of(0, 3)))
+                .thenReturn(List.of(first, second, extra));
+        when(movieRepository.findAllWithGenresByIdIn(List.of(movie2.getId(), movie1.getId()))).thenReturn(List.of(movie1, movie2));
+        when(modelMapper.map(movie1, MovieResponseDTO.class)).thenReturn(dto1);
+        when(modelMapper.map(movie2, MovieResponseDTO.class)).thenReturn(dto2);
+
+        CursorPagedResponse<MovieResponseDTO> result = watchlistService.getRankedWatchlistMovies(user1.getId(), watchlistId, null, 2);
+
+        assertThat(result.getContent()).extracting(MovieResponseDTO::getId).containsExactly(movie2.getId(), movie1.getId());
+        assertThat(result.isHasNext()).isTrue();
+        assertThat(result.getNextCursor()).isEqualTo("2048:" + movie1.getId());
+    }
+
+    @Test
+    void getSharedWatchlist_shouldLoadInOneReadOnlyTransactionAndSkipDeletedMovies() {
+        Long watchlistId = watchlist1.getId();
+        watchlist1.setShareToken("token-1");
+        WatchlistItem kept = new WatchlistItem();
+        kept.setId(new WatchlistMovieId(watchlistId, movie1.getId()));
+        kept.setPosition(1024L);
+        WatchlistItem deleted = new WatchlistItem();
+        deleted.setId(new WatchlistMovieId(watchlistId, 99L));
+        deleted.setPosition(2048L);
+        MovieResponseDTO dto1 = new MovieResponseDTO();
+        dto1.setId(movie1.getId());
+
+        when(sharedWatchlistCache.get(eq("token-1"), isNull(), eq(20), any()))
+                .thenAnswer(invocation -> invocation.getArgument(3, Supplier.class).get());
+        when(watchlistRepository.findByShareToken("token-1")).thenReturn(Optional.of(watchlist1));
+        when(watchlistRepository.findItemsAfter(watchlistId, Long.MIN_VALUE, Long.MIN_VALUE, PageRequest.of(0, 21)))
+                .thenReturn(List.of(kept, deleted));
+        when(movieRepository.findAllWithGenresByIdIn(List.of(movie1.getId(), 99L))).thenReturn(List.of(movie1));
+        when(modelMapper.map(movie1, MovieResponseDTO.class)).thenReturn(dto1);
+
+        SharedWatchlistDTO result = watchlistService.getSharedWatchlist("token-1", null, 20);
+
+        assertThat(result.getMovies().getContent()).extracting(MovieResponseDTO::getId).containsExactly(movie1.getId());
+        verify(transactionManager).getTransaction(argThat(TransactionDefinition::isReadOnly));
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void createFromSetOperation_merge_shouldWriteResultWithOneInsertInSourceOrder() {
+        Watchlist created = new Watchlist("Everything", user1);
+        created.setId(50L);
+        WatchlistResponseDTO createdDTO = new WatchlistResponseDTO();
+        createdDTO.setId(50L);
+        WatchlistSetOperationRequestDTO request = new WatchlistSetOperationRequestDTO(
+                WatchlistSetOperation.MERGE, List.of(3L, 1L, 3L), "Everything", null);
+
+        when(watchlistRepository.countByIdInAndUser_Id(List.of(3L, 1L), user1.getId())).thenReturn(2L);
+        when(userRepository.getReferenceById(user1.getId())).thenReturn(user1);
+        when(watchlistRepository.save(any(Watchlist.class))).thenReturn(created);
+        when(modelMapper.map(created, WatchlistResponseDTO.class)).thenReturn(createdDTO);
+
+        WatchlistResponseDTO result = watchlistService.createFromSetOperation(user1.getId(), request);
+
+        assertThat(result.getId()).isEqualTo(50L);
+        verify(watchlistRepository).mergeMovies(List.of(3L, 1L), "3,1", 50L);
+        verify(userStatsService).watchlistsChanged(user1.getId(), 1);
+    }
+
+    @Test
+    void createFromSetOperation_whenSourceCountDoesNotFitOperation_shouldThrowIllegalArgumentException() {
+        WatchlistSetOperationRequestDTO copy = new WatchlistSetOperationRequestDTO(
+                WatchlistSetOperation.COPY, List.of(1L, 2L), "Copy", null);
+        WatchlistSetOperationRequestDTO intersect = new WatchlistSetOperationRequestDTO(
+                WatchlistSetOperation.INTERSECT, List.of(1L, 1L), "Both", null);
+
+        assertThatThrownBy(() -> watchlistService.createFromSetOperation(user1.getId(), copy))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> watchlistService.createFromSetOperation(user1.getId(), intersect))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(watchlistRepository, never()).save(any(Watchlist.class));
+    }
+
+    @Test
+    void createFromSetOperation_whenSourceBelongsToAnotherUser_shouldThrowResourceNotFoundException() {
+        WatchlistSetOperationRequestDTO request = new WatchlistSetOperationRequestDTO(
+                WatchlistSetOperation.UNWATCHED, List.of(7L), "To watch", null);
+        when(watchlistRepository.countByIdInAndUser_Id(List.of(7L), user1.getId())).thenReturn(0L);
+
+        assertThatThrownBy(() -> watchlistService.createFromSetOperation(user1.getId(), request))
+                .isInstanceOf(ResourceNotFoundException.class);
         verify(watchlistRepository, never()).save(any(Watchlist.class));
+        verify(watchlistRepository, never()).unwatchedMovies(anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void shareWatchlist_shouldIssueTokenOnceAndKeepItAfterwards() {
+        when(watchlistRepository.findByIdAndUser_Id(watchlist1.getId(), user1.getId())).thenReturn(Optional.of(watchlist1));
+
+        WatchlistShareDTO first = watchlistService.shareWatchlist(user1.getId(), watchlist1.getId());
+        WatchlistShareDTO second = watchlistService.shareWatchlist(user1.getId(), watchlist1.getId());
+
+        assertThat(first.getShareToken()).hasSize(22);
+        assertThat(second.getShareToken()).isEqualTo(first.getShareToken());
+        verify(watchlistRepository, times(1)).save(watchlist1);
+    }
+
+    @Test
+    void mutationsOfSharedWatchlist_shouldInvalidateItsCachedPages() {
+        watchlist1.setShareToken("token-1");
+        when(watchlistRepository.findForUpdate(watchlist1.getId(), user1.getId())).thenReturn(Optional.of(watchlist1));
+        when(watchlistRepository.findByIdAndUser_Id(watchlist1.getId(), user1.getId())).thenReturn(Optional.of(watchlist1));
+        when(movieRepository.existsById(movie2.getId())).thenReturn(true);
+
+        watchlistService.addMovieToWatchlist(user1.getId(), watchlist1.getId(), movie2.getId());
+        watchlistService.unshareWatchlist(user1.getId(), watchlist1.getId());
+
+        verify(sharedWatchlistCache, times(2)).invalidate("token-1");
+        assertThat(watchlist1.getShareToken()).isNull();
+    }
+
+    @Test
+    void mutationsOfPrivateWatchlist_shouldNotTouchTheCache() {
+        when(watchlistRepository.findForUpdate(watchlist1.getId(), user1.getId())).thenReturn(Optional.of(watchlist1));
+        when(movieRepository.existsById(movie2.getId())).thenReturn(true);
+
+        watchlistService.addMovieToWatchlist(user1.getId(), watchlist1.getId(), movie2.getId());
+
+        verifyNoInteractions(sharedWatchlistCache);
     }
 }